@@ -169,6 +169,24 @@ public class AICombatUtils
                                    GameMap gameMap, Unit target,
                                    Collection<Unit> attackCandidates,
                                    Collection<XYCoord> excludedSpaces)
+  {
+    return findMultiHitKill(gameMap, target, attackCandidates, excludedSpaces, null);
+  }
+  /** As above, but with paths looked up in the provided world model (if not null) instead of found from scratch. */
+  public static HashMap<XYCoord, Unit> findMultiHitKill(
+                                   GameMap gameMap, Unit target,
+                                   Collection<Unit> attackCandidates,
+                                   Collection<XYCoord> excludedSpaces,
+                                   AIWorldModel world)
+  {
+    return findMultiHitKill(gameMap, target, attackCandidates, excludedSpaces, world, null);
+  }
+  /** As above, but gives up (returning null) if the budget (if not null) runs out before a kill is found. */
+  public static HashMap<XYCoord, Unit> findMultiHitKill(
+                                   GameMap gameMap, Unit target,
+                                   Collection<Unit> attackCandidates,
+                                   Collection<XYCoord> excludedSpaces,
+                                   AIWorldModel world, AITimeBudget budget)
   {
     if( target.getHP() < 1 ) // Try not to pick fights with zombies
       return null;
@@ -233,7 +251,7 @@ public class AICombatUtils
         if( !u.model.hasMobileWeapon() )
           continue;
 
-        canReach |= Utils.findShortestPath(u, xyc, gameMap).getPathLength() > 1;
+        canReach |= findPath(world, u, xyc, gameMap).getPathLength() > 1;
         if( canReach )
           break;
       }
@@ -251,7 +269,7 @@ public class AICombatUtils
       neededAttacks.put(xyc, null);
     }
 
-    double damage = findMultiHitKill(gameMap, target, attackers, neededAttacks, 0);
+    double damage = findMultiHitKill(gameMap, target, attackers, neededAttacks, 0, world, budget);
     if( damage >= target.getHP() )
     {
       // Prune excess attacks and empty attacking spaces
@@ -284,13 +302,16 @@ public class AICombatUtils
    * @param attackCandidates The set of potential attackers
    * @param neededAttacks The set of locations to consider, pre-populated with any mandatory attacks, to be populated
    * @param pDamage The cumulative base damage done by those mandatory attacks
+   * @param world Where to look up paths; may be null
+   * @param budget If this runs out, the search stops where it is; may be null
    * @return The cumulative base damage of all attacks already in the neededAttacks
    */
   public static double findMultiHitKill(
                                 GameMap gameMap, Unit target,
                                 Collection<Unit> attackCandidates,
                                 Map<XYCoord, Unit> neededAttacks,
-                                double pDamage)
+                                double pDamage,
+                                AIWorldModel world, AITimeBudget budget)
   {
     // Base case; we found a kill
     if( pDamage >= target.getPreciseHP() )
@@ -309,6 +330,8 @@ public class AICombatUtils
       Queue<Unit> assaultQueue = new ArrayDeque<Unit>(attackCandidates);
       while (!assaultQueue.isEmpty())
       {
+        if( null != budget && budget.isExpired() )
+          return damage; // Out of time, and no kill yet
         Unit unit = assaultQueue.poll();
         boolean requiresMoving = !xyc.equals(target.x, target.y);
         int dist = xyc.getDistance(target.x, target.y);
@@ -318,14 +341,14 @@ public class AICombatUtils
           continue; // Consider each unit only once
 
         // Figure out how to get here.
-        GamePath movePath = Utils.findShortestPath(unit, xyc, gameMap);
+        GamePath movePath = findPath(world, unit, xyc, gameMap);
 
         if( movePath.getPathLength() > 0 )
         {
           neededAttacks.put(xyc, unit);
           double thisDamage = CombatEngine.simulateBattleResults(unit, target, gameMap, xyc).defender.getPreciseHPDamage();
 
-          thisDamage = findMultiHitKill(gameMap, target, attackCandidates, neededAttacks, damage + thisDamage);
+          thisDamage = findMultiHitKill(gameMap, target, attackCandidates, neededAttacks, damage + thisDamage, world, budget);
 
           // If we've found a kill, we're done
           if( thisDamage >= target.getPreciseHP() )
@@ -344,6 +367,10 @@ public class AICombatUtils
     return damage;
   }
 
-
-
+  private static GamePath findPath(AIWorldModel world, Unit unit, XYCoord xyc, GameMap gameMap)
+  {
+    if( null == world )
+      return Utils.findShortestPath(unit, xyc, gameMap);
+    return world.getPath(unit, xyc, gameMap);
+  }
 }
@@ -20,5 +20,19 @@ public interface AIController
   
   public AIMaker getAIInfo();
 
+  /**
+   * Turns the AI's decision trace (see AITrace) on or off.
+   * In the game, the "AI Trace" input option turns it on, and each AI turn's trace is written to a file under traces/.
+   * FightClub keeps one per game when given an aiTraceDir.
+   */
   public void setLogging(boolean value);
+
+  /** Limits how long the AI may think, in milliseconds per action and per turn; zero means no limit. */
+  public default void setTimeBudget(int actionMillis, int turnMillis) {}
+
+  /** @return How the AI has fared against its time budget, or null if it doesn't keep one. */
+  public default AITimeBudget getTimeBudget() { return null; }
+
+  /** @return The AI's decision trace, or null if it doesn't keep one. */
+  public default AITrace getTrace() { return null; }
 }
@@ -0,0 +1,154 @@
+package AI;
+
+import java.io.Serializable;
+
+/**
+ * Keeps track of how long an AI has spent thinking, against optional limits per action and per turn.
+ * Only time spent inside the AI counts; animations and the like between actions don't.
+ * <p>
+ * The AI's longer searches check isExpired() as they go, and settle for the best answer they have so far once it is.
+ * That makes the limits soft: an action can still run over by however long its slowest uninterrupted step takes.
+ * Overruns are counted here, so FightClub and friends can report on them.
+ */
+public class AITimeBudget implements Serializable
+{
+  private static final long serialVersionUID = 1L;
+  private static final long NANOS_PER_MILLI = 1000000;
+
+  /** Ready-made limits, for picking from a menu. */
+  public enum Preset
+  {
+    UNLIMITED("No time limit", 0, 0),
+    RELAXED("Relaxed", 5000, 60000),
+    QUICK("Quick", 1000, 20000),
+    BLITZ("Blitz", 250, 5000);
+
+    public final String name;
+    public final int actionMillis;
+    public final int turnMillis;
+
+    Preset(String name, int actionMillis, int turnMillis)
+    {
+      this.name = name;
+      this.actionMillis = actionMillis;
+      this.turnMillis = turnMillis;
+    }
+
+    @Override
+    public String toString()
+    {
+      if( 0 == actionMillis && 0 == turnMillis )
+        return name;
+      return String.format("%s (%ss per action, %ss per turn)", name, actionMillis / 1000.0, turnMillis / 1000.0);
+    }
+  }
+
+  // Zero means no limit.
+  private long actionLimitNanos = 0;
+  private long turnLimitNanos = 0;
+
+  private transient long actionStart = 0;
+  private transient long turnThinkNanos = 0;
+  private transient long deadline = 0;
+  private transient boolean hasDeadline = false;
+  private transient boolean expiredThisAction = false;
+  private transient boolean turnOverrun = false;
+
+  // Instrumentation
+  public int actionsTimed = 0;
+  public int actionOverruns = 0;
+  public int turnsTimed = 0;
+  public int turnOverruns = 0;
+  /** How many actions had their searches cut short. */
+  public int cutoffs = 0;
+  public long longestActionNanos = 0;
+  public long longestTurnNanos = 0;
+
+  /** Sets the limits, in milliseconds; zero means no limit. */
+  public void setLimits(int actionMillis, int turnMillis)
+  {
+    actionLimitNanos = Math.max(0, actionMillis) * NANOS_PER_MILLI;
+    turnLimitNanos = Math.max(0, turnMillis) * NANOS_PER_MILLI;
+  }
+
+  public boolean hasLimits()
+  {
+    return actionLimitNanos > 0 || turnLimitNanos > 0;
+  }
+
+  /**
+   * Call as the turn begins; the time until the matching endAction() counts as the turn's first action.
+   * Turns are tallied as they go, so there's no need to say when one ends.
+   */
+  public void startTurn()
+  {
+    turnThinkNanos = 0;
+    turnOverrun = false;
+    ++turnsTimed;
+    startAction();
+  }
+
+  public void startAction()
+  {
+    actionStart = System.nanoTime();
+    expiredThisAction = false;
+    hasDeadline = hasLimits();
+    if( !hasDeadline )
+      return;
+
+    long remaining = Long.MAX_VALUE;
+    if( actionLimitNanos > 0 )
+      remaining = actionLimitNanos;
+    if( turnLimitNanos > 0 )
+      remaining = Math.min(remaining, Math.max(0, turnLimitNanos - turnThinkNanos));
+    deadline = actionStart + remaining;
+  }
+
+  public void endAction()
+  {
+    long elapsed = System.nanoTime() - actionStart;
+    turnThinkNanos += elapsed;
+    ++actionsTimed;
+    longestActionNanos = Math.max(longestActionNanos, elapsed);
+    if( actionLimitNanos > 0 && elapsed > actionLimitNanos )
+      ++actionOverruns;
+    longestTurnNanos = Math.max(longestTurnNanos, turnThinkNanos);
+    if( !turnOverrun && turnLimitNanos > 0 && turnThinkNanos > turnLimitNanos )
+    {
+      turnOverrun = true;
+      ++turnOverruns;
+    }
+    hasDeadline = false;
+  }
+
+  /** @return True once the current action should wrap up, either because it's taken too long or because the turn has. */
+  public boolean isExpired()
+  {
+    if( !hasDeadline )
+      return false;
+    if( System.nanoTime() - deadline < 0 )
+      return false;
+    if( !expiredThisAction )
+    {
+      expiredThisAction = true;
+      ++cutoffs;
+    }
+    return true;
+  }
+
+  /** @return True if the whole turn's thinking time is used up, rather than just this action's. */
+  public boolean isTurnExpired()
+  {
+    if( !hasDeadline || turnLimitNanos <= 0 )
+      return false;
+    return turnThinkNanos + (System.nanoTime() - actionStart) >= turnLimitNanos;
+  }
+
+  @Override
+  public String toString()
+  {
+    double ns2s = 1. / 1000000000;
+    return String.format("%d of %d actions and %d of %d turns over budget, %d cut short; longest action %.2fs, longest turn %.2fs",
+        actionOverruns, actionsTimed, turnOverruns, turnsTimed, cutoffs, longestActionNanos * ns2s, longestTurnNanos * ns2s);
+  }
+}
@@ -0,0 +1,266 @@
+package AI;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+import Engine.XYCoord;
+import Units.Unit;
+
+/**
+ * A record of what an AI was thinking, kept in a fixed-size ring buffer so a long game only holds on to its latest
+ * decisions. Nothing is recorded (or formatted) unless tracing is enabled, so call sites can pass a format string and
+ * arguments, or a lambda, instead of building the message themselves. Even so, a call with arguments costs a varargs array
+ * (and any boxing) before we get to check, so calls on hot paths should check isEnabled() first.
+ * <p>
+ * Format strings are only filled in when the trace is read back. Arguments that could change in the meantime, units
+ * (which move) and anything not known to be immutable, are turned into text on the spot.
+ * <p>
+ * Besides free-form messages, the trace takes typed events (a unit, a candidate destination, its score and why), which
+ * are what most AI decisions boil down to. Recording is synchronized, since scoring may run on worker threads.
+ * <p>
+ * To read a trace from a real game, turn on the "AI Trace" input option; each AI turn is then written to traces/.
+ */
+public class AITrace implements Serializable
+{
+  private static final long serialVersionUID = 1L;
+  public static final int DEFAULT_CAPACITY = 4096;
+
+  /** One entry in the trace. Entries are reused as the ring wraps around. */
+  public static class Event
+  {
+    public int turn;
+    public String format;
+    public Object[] args;
+    public Unit unit;
+    public XYCoord unitCoord;
+    public XYCoord candidate;
+    public double score;
+
+    /** @return The event as a line of text. */
+    public String format()
+    {
+      if( null != unit || null != candidate )
+      {
+        StringBuilder sb = new StringBuilder();
+        if( null != unit )
+          sb.append(unit.toString()).append(" at ").append(unitCoord).append(' ');
+        if( null != candidate )
+          sb.append("-> ").append(candidate).append(' ');
+        if( !Double.isNaN(score) )
+          sb.append(String.format("scores %.2f ", score));
+        return sb.append(format).toString();
+      }
+      if( null == args || 0 == args.length )
+        return format;
+      return String.format(format, args);
+    }
+
+    private void set(int turn, String format, Object[] args)
+    {
+      this.turn = turn;
+      this.format = format;
+      this.args = args;
+      unit = null;
+      unitCoord = null;
+      candidate = null;
+      score = Double.NaN;
+    }
+  }
+
+  private final int capacity;
+  // Off unless asked for, so games that nobody is reading pay nothing for it.
+  private boolean enabled = false;
+  private boolean echo = false;
+  private int turn = 0;
+
+  // The ring is only allocated once something's recorded, and isn't saved with the AI.
+  private transient Event[] ring = null;
+  private transient long recorded = 0;
+
+  public AITrace()
+  {
+    this(DEFAULT_CAPACITY);
+  }
+
+  public AITrace(int capacity)
+  {
+    this.capacity = Math.max(1, capacity);
+  }
+
+  private static final String[] INDENTS = new String[16];
+  static
+  {
+    INDENTS[0] = "";
+    for( int i = 1; i < INDENTS.length; ++i )
+      INDENTS[i] = INDENTS[i - 1] + "  ";
+  }
+
+  /** @return Two spaces per level of depth, for nesting messages from recursive searches. */
+  public static String indent(int depth)
+  {
+    if( depth < INDENTS.length )
+      return INDENTS[Math.max(0, depth)];
+    StringBuilder sb = new StringBuilder(INDENTS[INDENTS.length - 1]);
+    for( int i = INDENTS.length - 1; i < depth; ++i )
+      sb.append("  ");
+    return sb.toString();
+  }
+
+  public boolean isEnabled()
+  {
+    return enabled;
+  }
+
+  public void setEnabled(boolean value)
+  {
+    enabled = value;
+  }
+
+  /** Whether to also print each message to System.out as it's recorded. */
+  public void setEcho(boolean value)
+  {
+    echo = value;
+  }
+
+  /** Tags the events that follow with this turn number. */
+  public void setTurn(int turn)
+  {
+    this.turn = turn;
+  }
+
+  public void log(String message)
+  {
+    if( enabled )
+      record(message, null);
+  }
+
+  public void log(String format, Object... args)
+  {
+    if( enabled )
+      record(format, freeze(args));
+  }
+
+  /** For messages that take some work to put together; the lambda only runs if tracing is enabled. */
+  public void log(Supplier<String> message)
+  {
+    if( enabled )
+      record(message.get(), null);
+  }
+
+  /**
+   * Records how the AI rated sending a unit somewhere.
+   * @param candidate Where the unit might go, or null
+   * @param score Its rating, or NaN if there isn't one
+   * @param reason Why
+   */
+  public synchronized void event(Unit unit, XYCoord candidate, double score, String reason)
+  {
+    if( !enabled )
+      return;
+    Event e = next(reason, null);
+    if( null != unit )
+    {
+      e.unit = unit;
+      e.unitCoord = new XYCoord(unit.x, unit.y);
+    }
+    e.candidate = candidate;
+    e.score = score;
+    if( echo )
+      System.out.println(e.format());
+  }
+
+  private synchronized void record(String format, Object[] args)
+  {
+    Event e = next(format, args);
+    if( echo )
+      System.out.println(e.format());
+  }
+
+  private Event next(String format, Object[] args)
+  {
+    if( null == ring )
+    {
+      ring = new Event[capacity];
+      recorded = 0;
+    }
+    int slot = (int) (recorded++ % capacity);
+    if( null == ring[slot] )
+      ring[slot] = new Event();
+    ring[slot].set(turn, format, args);
+    return ring[slot];
+  }
+
+  /** Units move and collections change, so anything that might be different by the time we're read is stringified now. */
+  private static Object[] freeze(Object[] args)
+  {
+    for( int i = 0; i < args.length; ++i )
+    {
+      Object arg = args[i];
+      if( arg instanceof Unit )
+        args[i] = ((Unit) arg).toStringWithLocation();
+      else if( !(null == arg || arg instanceof String || arg instanceof Number || arg instanceof Boolean
+          || arg instanceof Character || arg instanceof XYCoord || arg instanceof Enum) )
+        args[i] = String.valueOf(arg);
+    }
+    return args;
+  }
+
+  /** @return How many events are currently held. */
+  public int size()
+  {
+    return (null == ring) ? 0 : (int) Math.min(recorded, capacity);
+  }
+
+  /** @return The events held, oldest first. */
+  public List<Event> getEvents()
+  {
+    ArrayList<Event> events = new ArrayList<Event>();
+    long start = recorded - size();
+    for( long i = start; i < recorded; ++i )
+      events.add(ring[(int) (i % capacity)]);
+    return events;
+  }
+
+  public void clear()
+  {
+    ring = null;
+    recorded = 0;
+  }
+
+  /** Writes out the events held, oldest first, one per line. */
+  public void dump(PrintStream out)
+  {
+    if( recorded > size() )
+      out.println(String.format("(%d earlier events dropped)", recorded - size()));
+    int lastTurn = Integer.MIN_VALUE;
+    for( Event e : getEvents() )
+    {
+      if( e.turn != lastTurn )
+        out.println(String.format("[======== Turn %s =========]", e.turn));
+      lastTurn = e.turn;
+      out.println(e.format());
+    }
+  }
+
+  /** As above, to a new file; returns false if it couldn't be written. */
+  public boolean dump(File file)
+  {
+    if( null != file.getParentFile() )
+      file.getParentFile().mkdirs();
+    try (PrintStream out = new PrintStream(file))
+    {
+      dump(out);
+      return true;
+    }
+    catch (FileNotFoundException ex)
+    {
+      System.out.println("WARNING: Couldn't write AI trace to " + file + ": " + ex);
+      return false;
+    }
+  }
+}
@@ -0,0 +1,450 @@
+package AI;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import CommandingOfficers.Commander;
+import Engine.Army;
+import Engine.GameAction;
+import Engine.GameActionSet;
+import Engine.GamePath;
+import Engine.Utils;
+import Engine.XYCoord;
+import Terrain.Environment;
+import Terrain.GameMap;
+import Terrain.MapLocation;
+import Units.Unit;
+import Units.UnitContext;
+import Units.UnitModel;
+import Units.WeaponModel;
+
+/**
+ * Turn-scoped memo of the expensive things a ModularAI's modules all want to know: where each unit can go,
+ * what it can do when it gets there, where it can repair, where the enemy can shoot, and who the enemies are.
+ * Everything is worked out on first request and kept until something that could change it happens.
+ * <p>
+ * Call update() before each action is chosen. It compares the board against what it looked like last time
+ * (plus the spots the last action touched), and drops only the entries close enough to a change to care:
+ * a unit's reach can't be affected by anything more than its move power away, and its options and threat
+ * can't be affected by anything further than that plus its weapon range.
+ * Anything that isn't tied to a spot on the map (e.g. CO abilities) clears the lot.
+ * <p>
+ * Results are shared, so callers must not modify what they get back, except where noted.
+ */
+public class AIWorldModel
+{
+  private final Army myArmy;
+
+  /** If set, every cache hit is checked against a fresh calculation. Slow; for tests. */
+  public boolean checkCache = false;
+  public int cacheHits = 0, cacheMisses = 0, cacheErrors = 0;
+
+  /** What a unit can do from each of the places it can reach. */
+  public static class UnitOptions
+  {
+    public final ArrayList<XYCoord> destinations;
+    public final Map<XYCoord, GamePath> paths = new HashMap<XYCoord, GamePath>();
+    public final Map<XYCoord, ArrayList<GameActionSet>> actions = new HashMap<XYCoord, ArrayList<GameActionSet>>();
+
+    UnitOptions(Unit unit, GameMap gameMap, boolean includeOccupiedSpaces)
+    {
+      destinations = Utils.findPossibleDestinations(unit, gameMap, includeOccupiedSpaces);
+      for( XYCoord coord : destinations )
+      {
+        GamePath movePath = Utils.findShortestPath(unit, coord, gameMap);
+        paths.put(coord, movePath);
+        actions.put(coord, unit.getPossibleActions(gameMap, movePath, includeOccupiedSpaces));
+      }
+    }
+  }
+
+  /** A cached value, along with enough about the unit it describes to tell when it's gone stale. */
+  private static class Entry<T>
+  {
+    final int x, y;
+    final int radius; // How far from (x, y) a change has to be before it can't matter.
+    final T value;
+
+    Entry(Unit unit, int radius, T value)
+    {
+      x = unit.x;
+      y = unit.y;
+      this.radius = radius;
+      this.value = value;
+    }
+
+    boolean isStale(Unit unit)
+    {
+      return unit.x != x || unit.y != y;
+    }
+
+    boolean isNear(XYCoord coord)
+    {
+      return Math.abs(coord.xCoord - x) + Math.abs(coord.yCoord - y) <= radius;
+    }
+  }
+
+  // The "Occupied" caches are for queries that include spaces occupied by friendly units.
+  private final Map<Unit, Entry<ArrayList<XYCoord>>> reach = new IdentityHashMap<>();
+  private final Map<Unit, Entry<ArrayList<XYCoord>>> reachOccupied = new IdentityHashMap<>();
+  private final Map<Unit, Entry<UnitOptions>> options = new IdentityHashMap<>();
+  private final Map<Unit, Entry<UnitOptions>> optionsOccupied = new IdentityHashMap<>();
+  private final Map<Unit, Entry<Map<XYCoord, GamePath>>> paths = new IdentityHashMap<>();
+  private final Map<Unit, Map<UnitModel, Entry<Map<XYCoord, Double>>>> threats = new IdentityHashMap<>();
+  private final Map<Unit, ArrayList<XYCoord>> repairDepots = new IdentityHashMap<>();
+  private Map<Commander, ArrayList<Unit>> enemyUnits = null;
+  private final EnemyReach enemyReach = new EnemyReach();
+
+  // What the board looked like the last time we checked.
+  private GameMap lastMap = null;
+  private Unit[] residents;
+  private int[] residentStates;
+  private Environment[] environments;
+  private Commander[] owners;
+  private int funds;
+  private static final int STATE_FIELDS = 6;
+
+  public AIWorldModel(Army army)
+  {
+    myArmy = army;
+  }
+
+  /** Forget everything; call at the start of each turn. */
+  public void reset(GameMap gameMap)
+  {
+    clearAll();
+    snapshot(gameMap);
+  }
+
+  /**
+   * Drops whatever might have been changed since last time.
+   * @param lastAction The action chosen last time, if any; the places it touched are checked even if they look the same.
+   */
+  public void update(GameMap gameMap, GameAction lastAction)
+  {
+    if( gameMap != lastMap || null == residents )
+    {
+      reset(gameMap);
+      return;
+    }
+    if( null != lastAction && null == lastAction.getMoveLocation() )
+    {
+      // Abilities and the like can change anything.
+      reset(gameMap);
+      return;
+    }
+
+    ArrayList<XYCoord> changes = new ArrayList<XYCoord>();
+    boolean unitsMoved = false, ownersChanged = false;
+    for( int y = 0; y < gameMap.mapHeight; ++y )
+      for( int x = 0; x < gameMap.mapWidth; ++x )
+      {
+        int i = y * gameMap.mapWidth + x;
+        MapLocation loc = gameMap.getLocation(x, y);
+        Unit resident = loc.getResident();
+        boolean changed = false;
+        if( resident != residents[i] )
+        {
+          changed = true;
+          unitsMoved = true;
+        }
+        else if( null != resident )
+          changed = !sameState(resident, i);
+        if( loc.getEnvironment() != environments[i] )
+          changed = true;
+        if( loc.getOwner() != owners[i] )
+        {
+          changed = true;
+          ownersChanged = true;
+        }
+        if( changed )
+          changes.add(new XYCoord(x, y));
+      }
+    if( null != lastAction )
+    {
+      changes.add(lastAction.getMoveLocation());
+      if( null != lastAction.getTargetLocation() )
+        changes.add(lastAction.getTargetLocation());
+    }
+
+    dropNear(reach, changes);
+    dropNear(reachOccupied, changes);
+    dropNear(options, changes);
+    dropNear(optionsOccupied, changes);
+    dropNear(paths, changes);
+    for( Map<UnitModel, Entry<Map<XYCoord, Double>>> cache : threats.values() )
+      dropNear(cache, changes);
+    enemyReach.dropNear(changes);
+    if( unitsMoved )
+      enemyUnits = null;
+    if( ownersChanged )
+      repairDepots.clear();
+    if( myArmy.money != funds )
+    {
+      // Some units can spend money, so their options depend on it.
+      options.clear();
+      optionsOccupied.clear();
+    }
+    snapshot(gameMap);
+  }
+
+  private void clearAll()
+  {
+    reach.clear();
+    reachOccupied.clear();
+    options.clear();
+    optionsOccupied.clear();
+    paths.clear();
+    threats.clear();
+    repairDepots.clear();
+    enemyUnits = null;
+    enemyReach.clear();
+  }
+
+  private static <K, T> void dropNear(Map<K, Entry<T>> cache, ArrayList<XYCoord> changes)
+  {
+    if( changes.isEmpty() )
+      return;
+    cache.values().removeIf(entry -> {
+      for( XYCoord coord : changes )
+        if( entry.isNear(coord) )
+          return true;
+      return false;
+    });
+  }
+
+  private void snapshot(GameMap gameMap)
+  {
+    lastMap = gameMap;
+    int size = gameMap.mapWidth * gameMap.mapHeight;
+    if( null == residents || residents.length != size )
+    {
+      residents = new Unit[size];
+      residentStates = new int[size * STATE_FIELDS];
+      environments = new Environment[size];
+      owners = new Commander[size];
+    }
+    for( int y = 0; y < gameMap.mapHeight; ++y )
+      for( int x = 0; x < gameMap.mapWidth; ++x )
+      {
+        int i = y * gameMap.mapWidth + x;
+        MapLocation loc = gameMap.getLocation(x, y);
+        Unit resident = loc.getResident();
+        residents[i] = resident;
+        if( null != resident )
+          describeUnit(resident, residentStates, i * STATE_FIELDS);
+        environments[i] = loc.getEnvironment();
+        owners[i] = loc.getOwner();
+      }
+    funds = myArmy.money;
+  }
+
+  /** Writes down everything about a unit that might change what it or its neighbors can do. */
+  private static void describeUnit(Unit unit, int[] out, int offset)
+  {
+    out[offset] = unit.getHP();
+    out[offset + 1] = unit.ammo;
+    out[offset + 2] = unit.fuel;
+    out[offset + 3] = unit.materials;
+    out[offset + 4] = unit.heldUnits.size();
+    out[offset + 5] = unit.isTurnOver ? 1 : 0;
+  }
+
+  private final int[] scratchState = new int[STATE_FIELDS];
+  private boolean sameState(Unit unit, int index)
+  {
+    describeUnit(unit, scratchState, 0);
+    for( int f = 0; f < STATE_FIELDS; ++f )
+      if( scratchState[f] != residentStates[index * STATE_FIELDS + f] )
+        return false;
+    return true;
+  }
+
+  /** @return How far away from its current spot a unit can move this turn. */
+  private static int moveRadius(Unit unit, GameMap gameMap)
+  {
+    return Math.max(0, Math.min(unit.getMovePower(gameMap), unit.fuel));
+  }
+
+  /** @return How far the unit's reach plus weapon range extends, or at least one more step for loading, joining, and the like. */
+  private static int actionRadius(Unit unit, GameMap gameMap)
+  {
+    int range = 1;
+    for( WeaponModel wep : unit.model.weapons )
+      range = Math.max(range, new UnitContext(gameMap, unit, wep).rangeMax);
+    return moveRadius(unit, gameMap) + range;
+  }
+
+  /////////////////////////////////////////////////////////////////////////////////
+  // Queries.
+
+  /** Memoized {@link Utils#findPossibleDestinations(Unit, GameMap, boolean)}. Returns a fresh list the caller may modify. */
+  public ArrayList<XYCoord> getDestinations(Unit unit, GameMap gameMap, boolean includeOccupiedSpaces)
+  {
+    Map<Unit, Entry<ArrayList<XYCoord>>> cache = includeOccupiedSpaces ? reachOccupied : reach;
+    Entry<ArrayList<XYCoord>> entry = cache.get(unit);
+    if( null == entry || entry.isStale(unit) )
+    {
+      ++cacheMisses;
+      entry = new Entry<>(unit, moveRadius(unit, gameMap), Utils.findPossibleDestinations(unit, gameMap, includeOccupiedSpaces));
+      cache.put(unit, entry);
+    }
+    else
+    {
+      ++cacheHits;
+      if( checkCache )
+        check(entry.value.equals(Utils.findPossibleDestinations(unit, gameMap, includeOccupiedSpaces)), "destinations", unit);
+    }
+    return new ArrayList<XYCoord>(entry.value);
+  }
+
+  /** @return Every destination the unit has, with the path there and what it could do on arrival. */
+  public UnitOptions getOptions(Unit unit, GameMap gameMap, boolean includeOccupiedSpaces)
+  {
+    Map<Unit, Entry<UnitOptions>> cache = includeOccupiedSpaces ? optionsOccupied : options;
+    Entry<UnitOptions> entry = cache.get(unit);
+    if( null == entry || entry.isStale(unit) )
+    {
+      ++cacheMisses;
+      entry = new Entry<>(unit, actionRadius(unit, gameMap), new UnitOptions(unit, gameMap, includeOccupiedSpaces));
+      cache.put(unit, entry);
+    }
+    else
+    {
+      ++cacheHits;
+      if( checkCache )
+        check(describe(entry.value).equals(describe(new UnitOptions(unit, gameMap, includeOccupiedSpaces))), "options", unit);
+    }
+    return entry.value;
+  }
+
+  /** Memoized {@link Utils#findShortestPath(Unit, XYCoord, GameMap)}. The path is shared; don't modify it. */
+  public GamePath getPath(Unit unit, XYCoord coord, GameMap gameMap)
+  {
+    Entry<Map<XYCoord, GamePath>> entry = paths.get(unit);
+    if( null == entry || entry.isStale(unit) )
+    {
+      entry = new Entry<>(unit, moveRadius(unit, gameMap), new HashMap<XYCoord, GamePath>());
+      paths.put(unit, entry);
+    }
+    GamePath path = entry.value.get(coord);
+    if( null == path )
+    {
+      ++cacheMisses;
+      path = Utils.findShortestPath(unit, coord, gameMap);
+      entry.value.put(coord, path);
+    }
+    else
+    {
+      ++cacheHits;
+      if( checkCache )
+        check(path.getPathLength() == Utils.findShortestPath(unit, coord, gameMap).getPathLength(), "path to " + coord, unit);
+    }
+    return path;
+  }
+
+  /** Memoized {@link AICombatUtils#findThreatPower(GameMap, Unit, UnitModel)}. */
+  public Map<XYCoord, Double> getThreatPower(GameMap gameMap, Unit unit, UnitModel target)
+  {
+    Map<UnitModel, Entry<Map<XYCoord, Double>>> cache = threats.get(unit);
+    if( null == cache )
+    {
+      cache = new HashMap<>();
+      threats.put(unit, cache);
+    }
+    Entry<Map<XYCoord, Double>> entry = cache.get(target);
+    if( null == entry || entry.isStale(unit) )
+    {
+      ++cacheMisses;
+      entry = new Entry<>(unit, actionRadius(unit, gameMap), AICombatUtils.findThreatPower(gameMap, unit, target));
+      cache.put(target, entry);
+    }
+    else
+    {
+      ++cacheHits;
+      if( checkCache )
+        check(entry.value.equals(AICombatUtils.findThreatPower(gameMap, unit, target)), "threat", unit);
+    }
+    return entry.value;
+  }
+
+  /** Memoized {@link AIUtils#findRepairDepots(Unit)}. Returns a fresh list the caller may modify. */
+  public ArrayList<XYCoord> getRepairDepots(Unit unit)
+  {
+    ArrayList<XYCoord> stations = repairDepots.get(unit);
+    if( null == stations )
+    {
+      ++cacheMisses;
+      stations = AIUtils.findRepairDepots(unit);
+      repairDepots.put(unit, stations);
+    }
+    else
+    {
+      ++cacheHits;
+      if( checkCache )
+        check(stations.equals(AIUtils.findRepairDepots(unit)), "repair depots", unit);
+    }
+    return new ArrayList<XYCoord>(stations);
+  }
+
+  /** Memoized {@link AIUtils#getEnemyUnitsByCommander(Army, GameMap)}, from this model's army's point of view. */
+  public Map<Commander, ArrayList<Unit>> getEnemyUnitsByCommander(GameMap gameMap)
+  {
+    if( null == enemyUnits )
+    {
+      ++cacheMisses;
+      enemyUnits = AIUtils.getEnemyUnitsByCommander(myArmy, gameMap);
+    }
+    else
+    {
+      ++cacheHits;
+      if( checkCache )
+        check(enemyUnits.equals(AIUtils.getEnemyUnitsByCommander(myArmy, gameMap)), "enemy list", null);
+    }
+    return enemyUnits;
+  }
+
+  /** Where every enemy we can see can move and strike, kept up to date the same way as everything else here. */
+  public EnemyReach getEnemyReach(GameMap gameMap)
+  {
+    ArrayList<Unit> enemies = new ArrayList<Unit>();
+    for( ArrayList<Unit> units : getEnemyUnitsByCommander(gameMap).values() )
+      enemies.addAll(units);
+    enemyReach.refresh(gameMap, enemies);
+    if( checkCache )
+      for( Unit unit : enemies )
+      {
+        BitSet expected = new BitSet();
+        for( XYCoord xyc : AICombatUtils.findThreatPower(gameMap, unit, null).keySet() )
+          expected.set(enemyReach.index(xyc));
+        check(expected.equals(enemyReach.getReach(unit, gameMap).strikes), "reach", unit);
+      }
+    return enemyReach;
+  }
+
+  private void check(boolean ok, String what, Unit unit)
+  {
+    if( ok )
+      return;
+    ++cacheErrors;
+    System.out.println(String.format("WARNING: AIWorldModel had stale %s for %s", what, null == unit ? myArmy : unit.toStringWithLocation()));
+  }
+
+  /** Boils UnitOptions down to something comparable, for checkCache. */
+  private static String describe(UnitOptions opts)
+  {
+    StringBuilder sb = new StringBuilder();
+    for( XYCoord coord : opts.destinations )
+    {
+      sb.append(coord).append(opts.paths.get(coord).getPathLength()).append(':');
+      for( GameActionSet set : opts.actions.get(coord) )
+        for( GameAction action : set.getGameActions() )
+          sb.append(action.getType()).append(action.getTargetLocation()).append(',');
+      sb.append('\n');
+    }
+    return sb.toString();
+  }
+}
@@ -0,0 +1,375 @@
+package AI;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+
+import Engine.Army;
+import Engine.FloodFillFunctor;
+import Engine.XYCoord;
+import Terrain.GameMap;
+import Units.MoveTypes.MoveType;
+import Units.Unit;
+import Units.UnitContext;
+import Units.UnitModel;
+import Units.WeaponModel;
+
+/**
+ * Where each enemy unit can move and strike this turn, as bitsets over the map (bit y * mapWidth + x),
+ * plus who-can-hit-what totals: a strike mask per enemy army, and a count of how many enemy units can hit each tile.
+ * Strike areas match {@link AICombatUtils#findThreatPower(GameMap, Unit, UnitModel)}, so asking "can anyone hit this tile"
+ * is a bit lookup instead of a walk over everyone's threat maps.
+ * <p>
+ * The owner calls refresh() with the enemies it can see; units it hasn't seen yet (or that have moved, or were dropped
+ * by dropNear()) get worked out then, spread over ParallelScoring's threads, and everything else is kept.
+ * Each thread reuses one flood-fill buffer for all the units it does.
+ * <p>
+ * Results are shared, so callers must not modify what they get back.
+ */
+public class EnemyReach
+{
+  /** Where one unit can go and shoot, from where it was when we looked. */
+  public static class UnitReach
+  {
+    public final Unit unit;
+    public final int x, y;
+    public final int radius; // How far from (x, y) a change has to be before it can't matter.
+    /** Tiles the unit can end its move on, counting ones its friends are standing on. */
+    public final BitSet moves;
+    /** Tiles each of its weapons can hit, in the same order as unit.model.weapons. */
+    public final BitSet[] weaponStrikes;
+    /** Tiles any of its weapons can hit. */
+    public final BitSet strikes;
+
+    UnitReach(Unit unit, GameMap gameMap, int[] scratch)
+    {
+      this.unit = unit;
+      x = unit.x;
+      y = unit.y;
+      moves = new BitSet(gameMap.mapWidth * gameMap.mapHeight);
+      fillMoves(unit, gameMap, scratch, moves);
+
+      int maxRange = 1;
+      strikes = new BitSet(gameMap.mapWidth * gameMap.mapHeight);
+      weaponStrikes = new BitSet[unit.model.weapons.size()];
+      for( int w = 0; w < weaponStrikes.length; ++w )
+      {
+        WeaponModel wep = unit.model.weapons.get(w);
+        BitSet hits = new BitSet(gameMap.mapWidth * gameMap.mapHeight);
+        if( !wep.canFireAfterMoving )
+          maxRange = Math.max(maxRange, markRange(gameMap, unit, wep, x, y, hits));
+        else
+          for( int i = moves.nextSetBit(0); i >= 0; i = moves.nextSetBit(i + 1) )
+            maxRange = Math.max(maxRange, markRange(gameMap, unit, wep, i % gameMap.mapWidth, i / gameMap.mapWidth, hits));
+        weaponStrikes[w] = hits;
+        strikes.or(hits);
+      }
+      radius = Math.max(0, Math.min(unit.getMovePower(gameMap), unit.fuel)) + maxRange;
+    }
+
+    @Override
+    public boolean equals(Object other)
+    {
+      if( !(other instanceof UnitReach) )
+        return false;
+      UnitReach that = (UnitReach) other;
+      return unit == that.unit && x == that.x && y == that.y && radius == that.radius
+          && moves.equals(that.moves) && Arrays.equals(weaponStrikes, that.weaponStrikes);
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return moves.hashCode() * 31 + strikes.hashCode();
+    }
+
+    @Override
+    public String toString()
+    {
+      return String.format("%s moves %s strikes %s", unit.toStringWithLocation(), moves, strikes);
+    }
+
+    boolean isStale()
+    {
+      return unit.x != x || unit.y != y;
+    }
+
+    boolean isNear(XYCoord coord)
+    {
+      return Math.abs(coord.xCoord - x) + Math.abs(coord.yCoord - y) <= radius;
+    }
+  }
+
+  /** One flood-fill buffer per thread, grown as needed. */
+  private static final ThreadLocal<int[]> scratchGrids = ThreadLocal.withInitial(() -> new int[0]);
+
+  private final Map<Unit, UnitReach> reaches = new IdentityHashMap<Unit, UnitReach>();
+  private final ArrayList<Unit> threats = new ArrayList<Unit>();
+  private int mapWidth = 0, mapHeight = 0;
+
+  // Totals over everything in threats; rebuilt whenever that changes.
+  private final Map<Army, BitSet> armyStrikes = new IdentityHashMap<Army, BitSet>();
+  private BitSet allStrikes = new BitSet();
+  private int[] threatCounts = new int[0];
+  private final Map<UnitModel, Map<XYCoord, Double>> threatPower = new HashMap<UnitModel, Map<XYCoord, Double>>();
+
+  /** Forget everything. */
+  public void clear()
+  {
+    reaches.clear();
+    threats.clear();
+    total();
+  }
+
+  /** Forgets each unit whose reach could be affected by something at these spots. Call refresh() before asking anything else. */
+  public void dropNear(Collection<XYCoord> changes)
+  {
+    if( changes.isEmpty() )
+      return;
+    reaches.values().removeIf(reach -> {
+      for( XYCoord coord : changes )
+        if( reach.isNear(coord) )
+          return true;
+      return false;
+    });
+  }
+
+  /**
+   * Makes the totals cover exactly these units, working out any we don't already know about.
+   * @return this, for chaining queries.
+   */
+  public EnemyReach refresh(GameMap gameMap, Collection<Unit> enemies)
+  {
+    if( gameMap.mapWidth != mapWidth || gameMap.mapHeight != mapHeight )
+    {
+      reaches.clear();
+      mapWidth = gameMap.mapWidth;
+      mapHeight = gameMap.mapHeight;
+    }
+
+    ArrayList<Unit> missing = new ArrayList<Unit>();
+    for( Unit unit : enemies )
+    {
+      UnitReach reach = reaches.get(unit);
+      if( null == reach || reach.isStale() )
+        missing.add(unit);
+    }
+    boolean sameThreats = threats.size() == enemies.size() && threats.containsAll(enemies);
+    if( missing.isEmpty() && sameThreats )
+      return this;
+
+    List<UnitReach> found = ParallelScoring.scoreAll(gameMap, missing, EnemyReach::findReach);
+    for( UnitReach reach : found )
+      reaches.put(reach.unit, reach);
+    threats.clear();
+    threats.addAll(enemies);
+    reaches.keySet().retainAll(threats);
+    total();
+    return this;
+  }
+
+  /** @return The reach of this unit, working it out if needed; doesn't change the totals. */
+  public UnitReach getReach(Unit unit, GameMap gameMap)
+  {
+    UnitReach reach = reaches.get(unit);
+    if( null == reach || reach.isStale() || gameMap.mapWidth != mapWidth || gameMap.mapHeight != mapHeight )
+    {
+      reach = findReach(unit, gameMap);
+      if( gameMap.mapWidth == mapWidth && gameMap.mapHeight == mapHeight )
+        reaches.put(unit, reach);
+    }
+    return reach;
+  }
+
+  private static UnitReach findReach(Unit unit, GameMap gameMap)
+  {
+    int size = gameMap.mapWidth * gameMap.mapHeight;
+    int[] scratch = scratchGrids.get();
+    if( scratch.length < size )
+    {
+      scratch = new int[size];
+      scratchGrids.set(scratch);
+    }
+    return new UnitReach(unit, gameMap, scratch);
+  }
+
+  private void total()
+  {
+    armyStrikes.clear();
+    allStrikes = new BitSet(mapWidth * mapHeight);
+    threatCounts = new int[mapWidth * mapHeight];
+    threatPower.clear();
+    for( Unit unit : threats )
+    {
+      BitSet strikes = reaches.get(unit).strikes;
+      armyStrikes.computeIfAbsent(unit.CO.army, (a) -> new BitSet(mapWidth * mapHeight)).or(strikes);
+      allStrikes.or(strikes);
+      for( int i = strikes.nextSetBit(0); i >= 0; i = strikes.nextSetBit(i + 1) )
+        ++threatCounts[i];
+    }
+  }
+
+  /////////////////////////////////////////////////////////////////////////////////
+  // Queries. All but getReach() only cover the units passed to the last refresh().
+
+  public int index(XYCoord xyc)
+  {
+    return xyc.yCoord * mapWidth + xyc.xCoord;
+  }
+
+  /** @return The tiles in the mask, in index order. */
+  public ArrayList<XYCoord> toCoords(BitSet mask)
+  {
+    ArrayList<XYCoord> coords = new ArrayList<XYCoord>(mask.cardinality());
+    for( int i = mask.nextSetBit(0); i >= 0; i = mask.nextSetBit(i + 1) )
+      coords.add(new XYCoord(i % mapWidth, i / mapWidth));
+    return coords;
+  }
+
+  /** @return The units the totals cover, in the order they were given. */
+  public List<Unit> getThreats()
+  {
+    return threats;
+  }
+
+  /** @return True if any enemy unit can hit this tile. */
+  public boolean isThreatened(XYCoord xyc)
+  {
+    return allStrikes.get(index(xyc));
+  }
+
+  /** @return How many enemy units can hit this tile. */
+  public int getThreatCount(XYCoord xyc)
+  {
+    return threatCounts[index(xyc)];
+  }
+
+  /** @return Every tile any enemy unit can hit. */
+  public BitSet getStrikeMask()
+  {
+    return allStrikes;
+  }
+
+  /** @return Every tile this army's units can hit, as far as we know. */
+  public BitSet getStrikeMask(Army army)
+  {
+    BitSet strikes = armyStrikes.get(army);
+    return (null == strikes) ? new BitSet() : strikes;
+  }
+
+  /** @return The tiles where this unit could hit the target type; the target doesn't matter if null. */
+  public BitSet getStrikes(Unit threat, UnitModel target, GameMap gameMap)
+  {
+    if( null != target && !threat.canTarget(target) )
+      return new BitSet();
+    return getReach(threat, gameMap).strikes;
+  }
+
+  /**
+   * @return The total damage all enemy units could do to the target type on each tile, as in
+   * {@link AICombatUtils#findThreatPower(GameMap, Unit, UnitModel)} summed over every enemy.
+   */
+  public Map<XYCoord, Double> getThreatPower(UnitModel target)
+  {
+    Map<XYCoord, Double> power = threatPower.get(target);
+    if( null != power )
+      return power;
+
+    power = new HashMap<XYCoord, Double>();
+    double[] best = new double[mapWidth * mapHeight];
+    BitSet touched = new BitSet(mapWidth * mapHeight);
+    for( Unit unit : threats )
+    {
+      if( !unit.canTarget(target) )
+        continue;
+      UnitReach reach = reaches.get(unit);
+      // Each unit counts once per tile, with its best weapon there.
+      Arrays.fill(best, 0);
+      touched.clear();
+      for( int w = 0; w < reach.weaponStrikes.length; ++w )
+      {
+        double damage = unit.model.weapons.get(w).getDamage(target) * unit.getHPFactor();
+        BitSet hits = reach.weaponStrikes[w];
+        for( int i = hits.nextSetBit(0); i >= 0; i = hits.nextSetBit(i + 1) )
+          best[i] = touched.get(i) ? Math.max(best[i], damage) : damage;
+        touched.or(hits);
+      }
+      for( int i = touched.nextSetBit(0); i >= 0; i = touched.nextSetBit(i + 1) )
+        power.merge(new XYCoord(i % mapWidth, i / mapWidth), best[i], Double::sum);
+    }
+    threatPower.put(target, power);
+    return power;
+  }
+
+  /////////////////////////////////////////////////////////////////////////////////
+  // Construction.
+
+  /**
+   * Marks everywhere the unit can end its move, the same as {@link Engine.Utils#findPossibleDestinations(Unit, GameMap, boolean)}
+   * with occupied spaces included, but with a reusable power grid and no per-tile garbage.
+   */
+  private static void fillMoves(Unit unit, GameMap gameMap, int[] power, BitSet out)
+  {
+    FloodFillFunctor fff = unit.getMoveFunctor(true);
+    if( null == fff || unit.x < 0 || unit.y < 0 )
+      return;
+    final int width = gameMap.mapWidth;
+    Arrays.fill(power, 0, width * gameMap.mapHeight, -1);
+
+    // Most remaining power first; ties by tile, so the search order is fixed.
+    PriorityQueue<long[]> queue = new PriorityQueue<long[]>((a, b) -> (a[0] != b[0]) ? Long.compare(b[0], a[0]) : Long.compare(a[1], b[1]));
+    int start = unit.y * width + unit.x;
+    power[start] = Math.min(unit.getMovePower(gameMap), unit.fuel);
+    queue.add(new long[] { power[start], start });
+    while( !queue.isEmpty() )
+    {
+      long[] node = queue.poll();
+      int i = (int) node[1];
+      if( node[0] < power[i] )
+        continue; // We found a better way here after queuing this one.
+      XYCoord from = new XYCoord(i % width, i / width);
+      if( fff.canStandOn(gameMap, from) )
+        out.set(i);
+
+      for( int d = 0; d < 4; ++d )
+      {
+        int nx = from.xCoord + ((d == 0) ? 1 : (d == 1) ? -1 : 0);
+        int ny = from.yCoord + ((d == 2) ? 1 : (d == 3) ? -1 : 0);
+        if( !gameMap.isLocationValid(nx, ny) )
+          continue;
+        XYCoord next = new XYCoord(nx, ny);
+        int n = ny * width + nx;
+        final int transitionCost = fff.getTransitionCost(gameMap, from, next);
+        int nextPower = power[i] - transitionCost;
+        if( transitionCost < MoveType.IMPASSABLE && nextPower > power[n] )
+        {
+          power[n] = nextPower;
+          queue.add(new long[] { nextPower, n });
+        }
+      }
+    }
+  }
+
+  /**
+   * Marks every tile the weapon can reach from (x, y).
+   * @return The weapon's max range there.
+   */
+  private static int markRange(GameMap gameMap, Unit unit, WeaponModel wep, int x, int y, BitSet out)
+  {
+    UnitContext uc = new UnitContext(gameMap, unit, wep, null, new XYCoord(x, y));
+    for( int dy = -uc.rangeMax; dy <= uc.rangeMax; ++dy )
+      for( int dx = -uc.rangeMax; dx <= uc.rangeMax; ++dx )
+      {
+        int dist = Math.abs(dx) + Math.abs(dy);
+        if( dist >= uc.rangeMin && dist <= uc.rangeMax && gameMap.isLocationValid(x + dx, y + dy) )
+          out.set((y + dy) * gameMap.mapWidth + x + dx);
+      }
+    return uc.rangeMax;
+  }
+}
@@ -0,0 +1,127 @@
+package AI;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import Terrain.GameMap;
+import Units.Unit;
+
+/**
+ * Working memory for an AI that clears the way for one unit by moving others, which may in turn need others moved.
+ * <p>
+ * The units being evicted form a chain of who-is-blocking-whom; a unit showing up twice in the chain is a cycle,
+ * and that branch fails. Failures are remembered, along with the units that were off-limits at the time: with
+ * more units off-limits, there are only fewer ways to clear a space, so a unit that couldn't be moved then can't be
+ * moved now either. That lets each blocker be worked out once, no matter how many evicters run into it.
+ * <p>
+ * What we remember only holds while the board stays the same, so it's all dropped whenever the game state hash
+ * (or the context the caller passes in, e.g. its threat map) changes.
+ */
+public class EvictionPlanCache
+{
+  /** How the caller is trying to clear the space; results only carry over between identical requests. */
+  private static class Failure
+  {
+    final boolean ignoreSafety, avoidProduction;
+    final Set<Unit> excluded;
+
+    Failure(boolean ignoreSafety, boolean avoidProduction, Set<Unit> excluded)
+    {
+      this.ignoreSafety = ignoreSafety;
+      this.avoidProduction = avoidProduction;
+      this.excluded = excluded;
+    }
+  }
+
+  private final ArrayList<Unit> chain = new ArrayList<Unit>();
+  private final Map<Unit, ArrayList<Failure>> failures = new IdentityHashMap<Unit, ArrayList<Failure>>();
+  private long stateHash = 0;
+  private Object context = null;
+
+  // Instrumentation
+  public int evictions = 0, knownFailures = 0, cycles = 0;
+
+  /** @return True if no eviction is in progress. */
+  public boolean isIdle()
+  {
+    return chain.isEmpty();
+  }
+
+  /** Forgets everything if the board or context has changed since the last eviction. Call before starting one. */
+  public void refresh(GameMap gameMap, Object context)
+  {
+    long hash = (null == gameMap.game) ? stateHash + 1 : gameMap.game.stateHash();
+    if( hash != stateHash || context != this.context )
+      failures.clear();
+    stateHash = hash;
+    this.context = context;
+  }
+
+  public int getDepth()
+  {
+    return chain.size();
+  }
+
+  /** Puts the unit wanting the space at the root of the chain, if it isn't already in it. */
+  public void addEvicter(Unit evicter)
+  {
+    if( !chain.contains(evicter) )
+      chain.add(evicter);
+  }
+
+  /** @return The units from the given one to the end of the chain if evicting it would close a loop, else null. */
+  public List<Unit> findCycle(Unit unit)
+  {
+    int start = chain.indexOf(unit);
+    if( start < 0 )
+      return null;
+    ++cycles;
+    return new ArrayList<Unit>(chain.subList(start, chain.size()));
+  }
+
+  /** @return True if this unit couldn't be moved with at most the units currently in the chain off-limits. */
+  public boolean isKnownFailure(Unit unit, boolean ignoreSafety, boolean avoidProduction)
+  {
+    ArrayList<Failure> known = failures.get(unit);
+    if( null == known )
+      return false;
+    for( Failure f : known )
+      if( f.ignoreSafety == ignoreSafety && f.avoidProduction == avoidProduction && chain.containsAll(f.excluded) )
+      {
+        ++knownFailures;
+        return true;
+      }
+    return false;
+  }
+
+  /** Marks the start of an attempt to move this unit. */
+  public void push(Unit unit)
+  {
+    ++evictions;
+    chain.add(unit);
+  }
+
+  /**
+   * Marks the end of the attempt on the unit at the end of the chain.
+   * @param remember Whether a failure should be remembered; attempts that were cut short shouldn't be.
+   */
+  public void pop(Unit unit, boolean succeeded, boolean ignoreSafety, boolean avoidProduction, boolean remember)
+  {
+    chain.remove(chain.size() - 1);
+    if( succeeded || !remember )
+      return;
+    Set<Unit> excluded = Collections.newSetFromMap(new IdentityHashMap<Unit, Boolean>());
+    excluded.addAll(chain);
+    failures.computeIfAbsent(unit, (u) -> new ArrayList<Failure>()).add(new Failure(ignoreSafety, avoidProduction, excluded));
+  }
+
+  /** Ends the eviction in progress, leaving what we learned for next time. */
+  public void finish()
+  {
+    chain.clear();
+  }
+}
@@ -1,5 +1,6 @@
 package AI;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.io.PrintStream;
@@ -46,13 +47,25 @@ public class FightClub
     List<CommanderInfo> COs = Arrays.asList(Patch.getInfo(), Patch.getInfo());
     // Select AI(s).
     List<AIMaker> AIs = Arrays.asList(Muriel.info, WallyAI.info);
+    // Score AI moves both serially and in parallel, and report any differences?
+    boolean verifyParallelAI = false;
+    // How long may the AIs think, in milliseconds? Zero means as long as they like.
+    int aiActionMillis = 0;
+    int aiTurnMillis = 0;
+    // Where to write the AIs' decision traces after each game, or null to not trace them at all.
+    String aiTraceDir = null;
 
     // Run a set of games on each map.
     for( int setNum = 0; setNum < maps.size(); ++setNum )
     {
       MapInfo setMap = maps.get(setNum);
       System.out.println("Starting set " + setNum + " on " + setMap.mapName);
-      GameSet set = new GameSet(new GameSetParams(setMap, numGamesPerSet, COs, AIs));
+      GameSetParams params = new GameSetParams(setMap, numGamesPerSet, COs, AIs);
+      params.verifyParallelAI = verifyParallelAI;
+      params.aiActionMillis = aiActionMillis;
+      params.aiTurnMillis = aiTurnMillis;
+      params.aiTraceDir = aiTraceDir;
+      GameSet set = new GameSet(params);
       set.run();
     }
 
@@ -104,7 +117,7 @@ public class FightClub
     }
   }
 
-  static class GameSetParams
+  public static class GameSetParams
   {
     // Primary settings; must be provided via the constructor.
     MapInfo mapInfo;
@@ -115,6 +128,15 @@ public class FightClub
     // Additional settings to mess with. Optional to provide, but public so defaults can be overridden.
     boolean isFogOn = false;
     Weathers defaultWeather = Weathers.CLEAR;
+    /** If positive, games that are still going after this many turns are called off with no loser. */
+    public int maxTurns = 0;
+    /** If set, the AIs score their moves both serially and in parallel (see ParallelScoring), and each game reports any disagreements. */
+    public boolean verifyParallelAI = false;
+    /** Time budgets for the AIs, in milliseconds (see AITimeBudget); zero means no limit. */
+    public int aiActionMillis = 0;
+    public int aiTurnMillis = 0;
+    /** If set, the AIs trace their decisions (see AITrace), and each game's traces are written to this directory. */
+    public String aiTraceDir = null;
 
     public GameSetParams(MapInfo map, int nGames, List<CommanderInfo> cos, List<AIMaker> ais)
     {
@@ -125,7 +147,7 @@ public class FightClub
     }
   }
 
-  static class GameSet
+  public static class GameSet
   {
     GameSetParams params;
 
@@ -168,7 +190,13 @@ public class FightClub
           com.faction = UIUtils.getFactions()[ci];
           Army army = new Army(scenario, com);
           army.team = ci;
-          army.setAIController(cInfo.myAi.create(army));
+          AIController ai = cInfo.myAi.create(army);
+          ai.setTimeBudget(params.aiActionMillis, params.aiTurnMillis);
+          // Nobody's reading along, so there's no need to echo the traces; and without a place to put them, no need to keep them.
+          ai.setLogging(null != params.aiTraceDir);
+          if( null != ai.getTrace() )
+            ai.getTrace().setEcho(false);
+          army.setAIController(ai);
           combatants.add(army);
           teamMapping.put(ci, cInfo);
         }
@@ -193,7 +221,23 @@ public class FightClub
           newGame = new GameInstance(scenario, combatantArray, map, params.defaultWeather, false);
         }
 
+        ParallelScoring.Mode previousMode = ParallelScoring.modeOverride;
+        if( params.verifyParallelAI )
+        {
+          ParallelScoring.modeOverride = ParallelScoring.Mode.VERIFY;
+          ParallelScoring.resetVerification();
+        }
         GameResults gameResults = runGame(newGame, defaultOut);
+        ParallelScoring.modeOverride = previousMode;
+        if( params.verifyParallelAI )
+        {
+          defaultOut.println(String.format("  Parallel AI scoring checked %d scores in %d lists; %d differed from serial scoring.",
+              ParallelScoring.getScoresVerified(), ParallelScoring.getListsVerified(), ParallelScoring.getMismatches()));
+          if( ParallelScoring.getMismatches() > 0 )
+            defaultOut.println("WARNING: Parallel AI scoring does not match serial scoring!");
+        }
+        if( null != params.aiTraceDir )
+          dumpTraces(newGame, gameIndex, defaultOut);
         List<Army> winners = gameResults.winners;
         int winningTeam = winners.get(0).team;
         defaultOut.println("  Game " + gameIndex + " Results:");
@@ -210,6 +254,20 @@ public class FightClub
       System.setOut(defaultOut);
     }
 
+    private void dumpTraces(GameInstance game, int gameIndex, PrintStream defaultOut)
+    {
+      for( int i = 0; i < game.armies.length; ++i )
+      {
+        AIController ai = game.armies[i].getAIController();
+        if( null == ai || null == ai.getTrace() )
+          continue;
+        String name = String.format("%s game %d army %d %s.txt", params.mapInfo.mapName, gameIndex, i, ai.getAIInfo().getName());
+        File file = new File(params.aiTraceDir, name.replace(' ', '_'));
+        if( ai.getTrace().dump(file) )
+          defaultOut.println("  Wrote AI trace to " + file);
+      }
+    }
+
     public static class GameResults
     {
       public static enum EndCondition{
@@ -260,6 +318,9 @@ public class FightClub
           String coTime = df.format(stopwatches.get(co) * ns2s);
           sb.append("      ").append(co.getControllerName()).append(" (").append(co.cos[0].coInfo.name).append("): ")
             .append("Used ").append(coPct).append("% (").append(coTime).append("s) of the thinking time.\n");
+          AITimeBudget budget = (null == co.getAIController()) ? null : co.getAIController().getTimeBudget();
+          if( null != budget )
+            sb.append("        Time budget: ").append(budget).append('\n');
         }
 
         return sb.toString();
@@ -332,6 +393,12 @@ public class FightClub
         }
         stopwatches.put(game.activeArmy, stopwatches.get(game.activeArmy) + thinkTimeNanos);
 
+        if( params.maxTurns > 0 && game.getCurrentTurn() >= params.maxTurns && !isGameOver )
+        {
+          isGameOver = true;
+          endReason = GameResults.EndCondition.TURN_LIMIT;
+        }
+
         // Map should-ish be covered in units by turncount == map area
         if(game.getCurrentTurn() > game.gameMap.mapWidth * game.gameMap.mapHeight)
         {
@@ -408,7 +475,7 @@ public class FightClub
     {
       if( null != event )
       {
-        event.performEvent(game.gameMap);
+        game.gameMap.performEvent(event);
 
         // Now that the event has been completed, let the world know.
         eventQueue.addAll(GameEventListener.publishEvent(event, game));
@@ -63,8 +63,7 @@ public class InfantrySpamAI implements AIController
   private ArrayList<XYCoord> unownedProperties;
   private ArrayList<XYCoord> capturingProperties;
 
-  private StringBuffer logger = new StringBuffer();
-  private boolean shouldLog = true;
+  private final AITrace trace = new AITrace();
   private int turnNum = 0;
 
   public InfantrySpamAI(Army army)
@@ -76,7 +75,8 @@ public class InfantrySpamAI implements AIController
   public void initTurn(GameMap gameMap)
   {
     turnNum++;
-    log(String.format("[======== ISAI initializing turn %s for %s =========]", turnNum, myArmy));
+    trace.setTurn(turnNum);
+    log("[======== ISAI initializing turn %s for %s =========]", turnNum, myArmy);
 
     // Make sure we don't have any hang-ons from last time.
     actions.clear();
@@ -99,19 +99,21 @@ public class InfantrySpamAI implements AIController
   @Override
   public void endTurn()
   {
-    log(String.format("[======== ISAI ending turn %s for %s =========]", turnNum, myArmy));
-    if( shouldLog )
-      System.out.println(logger.toString());
-    logger = new StringBuffer();
+    log("[======== ISAI ending turn %s for %s =========]", turnNum, myArmy);
   }
 
   private void log(String message)
   {
-    if( shouldLog )
-      logger.append(message).append('\n');
+    trace.log(message);
   }
+  private void log(String format, Object... args)
+  {
+    trace.log(format, args);
+  }
+  @Override
+  public void setLogging(boolean value) { trace.setEnabled(value); }
   @Override
-  public void setLogging(boolean value) { shouldLog = value; }
+  public AITrace getTrace() { return trace; }
 
   @Override
   public GameAction getNextAction(GameMap gameMap)
@@ -163,7 +165,7 @@ public class InfantrySpamAI implements AIController
       Utils.sortLocationsByDistance( new XYCoord(unit.x, unit.y), unownedProperties);
       if( !unownedProperties.isEmpty() ) // Sanity check - it shouldn't be, unless this function is called after we win.
       {
-        log(String.format("  Seeking a property to send %s after", unit.toStringWithLocation()));
+        log("  Seeking a property to send %s after", unit);
         int index = 0;
         XYCoord goal = null;
         GamePath path = null;
@@ -177,7 +179,7 @@ public class InfantrySpamAI implements AIController
           validTarget = (myArmy.isEnemy(gameMap.getLocation(goal).getOwner()) // Property is not allied.
                       && !capturingProperties.contains(goal)                // We aren't already capturing it.
                       && (path.getPathLength() > 0));                       // We can reach it.
-          log(String.format("    %s at %s? %s", gameMap.getLocation(goal).getEnvironment().terrainType, goal, (validTarget?"Yes":"No")));
+          log("    %s at %s? %s", gameMap.getLocation(goal).getEnvironment().terrainType, goal, (validTarget?"Yes":"No"));
         } while( !validTarget && (index < unownedProperties.size()) );      // Loop until we run out of properties to check.
 
         if( !validTarget )
@@ -189,7 +191,7 @@ public class InfantrySpamAI implements AIController
           break;
         }
 
-        log(String.format("    Selected %s at %s", gameMap.getLocation(goal).getEnvironment().terrainType, goal));
+        log("    Selected %s at %s", gameMap.getLocation(goal).getEnvironment().terrainType, goal);
 
         GameAction move = AIUtils.moveTowardLocation(unit, goal, gameMap);
         if( null != move )
@@ -243,7 +245,7 @@ public class InfantrySpamAI implements AIController
 
     // Return the next action, or null if actions is empty.
     GameAction nextAction = actions.poll();
-    log(String.format("  Action: %s", nextAction));
+    log("  Action: %s", nextAction);
     return nextAction;
   }
 }
@@ -98,14 +98,14 @@ public class JakeMan extends ModularAI
     super.initTurn(gameMap);
     if( null == capPhase )
       init(gameMap);
-    log(String.format("[======== JakeMan initializing turn %s for %s =========]", turnNum, myArmy));
+    log("[======== JakeMan initializing turn %s for %s =========]", turnNum, myArmy);
   }
 
   @Override
   public void endTurn()
   {
     super.endTurn();
-    log(String.format("[======== JakeMan ending turn %s for %s =========]", turnNum, myArmy));
+    log("[======== JakeMan ending turn %s for %s =========]", turnNum, myArmy);
   }
 
   public static class GenerateThreatMap implements AIModule
@@ -126,6 +126,7 @@ public class JakeMan extends ModularAI
       ai.unitMapEnemy = new HashMap<UnitModel, Map<XYCoord, Double>>();
       ai.unitMapFriendly = new HashMap<UnitModel, Map<XYCoord, Double>>();
       Map<Commander, ArrayList<Unit>> unitLists = AIUtils.getEnemyUnitsByCommander(null, gameMap);
+      EnemyReach reach = ai.world.getEnemyReach(gameMap);
       for( Commander co : unitLists.keySet() )
       {
         Map<UnitModel, Map<XYCoord, Double>> mapToFill;
@@ -144,7 +145,12 @@ public class JakeMan extends ModularAI
           double newValue = threat.getHPFactor();
           // Square unit fraction so low-HP units aren't valued so much
           newValue *= newValue;
-          for( XYCoord coord : AICombatUtils.findThreatPower(gameMap, threat, null).keySet() )
+          Collection<XYCoord> threatTiles;
+          if( mapToFill == ai.unitMapEnemy )
+            threatTiles = reach.toCoords(reach.getReach(threat, gameMap).strikes);
+          else
+            threatTiles = ai.world.getThreatPower(gameMap, threat, null).keySet();
+          for( XYCoord coord : threatTiles )
           {
             if( !threatArea.containsKey(coord) )
               threatArea.put(coord, newValue);
@@ -187,7 +193,8 @@ public class JakeMan extends ModularAI
       XYCoord position = new XYCoord(unit.x, unit.y);
 
       boolean includeOccupiedSpaces = true; // Since we know how to shift friendly units out of the way
-      ArrayList<XYCoord> destinations = Utils.findPossibleDestinations(unit, gameMap, includeOccupiedSpaces);
+      AIWorldModel.UnitOptions options = ai.world.getOptions(unit, gameMap, includeOccupiedSpaces);
+      ArrayList<XYCoord> destinations = new ArrayList<XYCoord>(options.destinations);
       if( mustMove )
         destinations.remove(new XYCoord(unit.x, unit.y));
       destinations.removeAll(AIUtils.findAlliedIndustries(gameMap, co.army, destinations, !avoidProduction));
@@ -198,11 +205,8 @@ public class JakeMan extends ModularAI
 
       for( XYCoord moveCoord : destinations )
       {
-        // Figure out how to get here.
-        GamePath movePath = Utils.findShortestPath(unit, moveCoord, gameMap);
-
         // Figure out what I can do here.
-        ArrayList<GameActionSet> actionSets = unit.getPossibleActions(gameMap, movePath, includeOccupiedSpaces);
+        ArrayList<GameActionSet> actionSets = options.actions.get(moveCoord);
         for( GameActionSet actionSet : actionSets )
         {
           Unit resident = gameMap.getLocation(moveCoord).getResident();
@@ -252,7 +256,7 @@ public class JakeMan extends ModularAI
     @Override
     public GameAction getUnitAction(Unit unit, GameMap gameMap)
     {
-      ai.log(String.format("Evaluating travel for %s.", unit.toStringWithLocation()));
+      ai.log("Evaluating travel for %s.", unit);
       boolean avoidProduction = false;
       return ai.findTravelAction(gameMap, unit, false, avoidProduction);
     }
@@ -277,7 +281,7 @@ public class JakeMan extends ModularAI
     {
       if( null != builds )
       {
-        ai.log(String.format("Warning - builds not null on turn end; contains %s", builds));
+        ai.log("Warning - builds not null on turn end; contains %s", builds);
         builds = null;
       }
     }
@@ -290,7 +294,7 @@ public class JakeMan extends ModularAI
 
       for( XYCoord coord : new ArrayList<XYCoord>(builds.keySet()) )
       {
-        ai.log(String.format("Attempting to build %s at %s", builds.get(coord), coord));
+        ai.log("Attempting to build %s at %s", builds.get(coord), coord);
         Unit resident = gameMap.getResident(coord);
         if( null != resident )
         {
@@ -302,7 +306,7 @@ public class JakeMan extends ModularAI
             return eviction;
           else
           {
-            ai.log(String.format("  Can't evict unit %s to build %s", resident.toStringWithLocation(), builds.get(coord)));
+            ai.log("  Can't evict unit %s to build %s", resident, builds.get(coord));
             builds.remove(coord);
             continue;
           }
@@ -318,7 +322,7 @@ public class JakeMan extends ModularAI
         }
         else
         {
-          ai.log(String.format("  Trying to build %s, but it's unavailable at %s", toBuy, coord));
+          ai.log("  Trying to build %s, but it's unavailable at %s", toBuy, coord);
           continue;
         }
       }
@@ -338,7 +342,7 @@ public class JakeMan extends ModularAI
     uc.calculateActionTypes();
     ArrayList<XYCoord> goals = new ArrayList<XYCoord>();
 
-    ArrayList<XYCoord> stations = AIUtils.findRepairDepots(unit);
+    ArrayList<XYCoord> stations = world.getRepairDepots(unit);
     Utils.sortLocationsByTravelTime(unit, stations, gameMap);
 
     boolean shouldResupply = false;
@@ -359,7 +363,7 @@ public class JakeMan extends ModularAI
 
     if( shouldResupply )
     {
-      log(String.format("  %s needs supplies.", unit.toStringWithLocation()));
+      log("  %s needs supplies.", unit);
       goals.addAll(stations);
       if( avoidProduction )
         goals.removeAll(AIUtils.findAlliedIndustries(gameMap, myArmy, goals, !avoidProduction));
@@ -451,20 +455,19 @@ public class JakeMan extends ModularAI
       isBase = true;
     }
 
-    String spacing = "";
-    for( int i = 0; i < evictionStack.size(); ++i ) spacing += "  ";
-    log(String.format("%sAttempting to evict %s", spacing, unit.toStringWithLocation()));
+    String spacing = AITrace.indent(evictionStack.size());
+    log("%sAttempting to evict %s", spacing, unit);
     if( evicter != null )
       evictionStack.add(evicter);
 
     if( evictionStack.contains(unit) )
     {
-      log(String.format("%s  Eviction cycle! Bailing.", spacing));
+      log("%s  Eviction cycle! Bailing.", spacing);
       return null;
     }
     if( evictionStack.size() > EVICTION_STACK_MAX_DEPTH )
     {
-      log(String.format("%s  Too many units blocking! Bailing.", spacing));
+      log("%s  Too many units blocking! Bailing.", spacing);
       return null;
     }
     evictionStack.add(unit);
@@ -478,7 +481,7 @@ public class JakeMan extends ModularAI
 
     if( isBase )
       evictionStack = null;
-    log(String.format("%s  Eviction of %s success? %s", spacing, unit.toStringWithLocation(), null != result));
+    log("%s  Eviction of %s success? %s", spacing, unit, null != result);
     return result;
   }
 
@@ -493,7 +496,8 @@ public class JakeMan extends ModularAI
   {
     // Find the possible destinations.
     boolean ignoreResident = true;
-    ArrayList<XYCoord> destinations = Utils.findPossibleDestinations(unit, gameMap, ignoreResident);
+    AIWorldModel.UnitOptions options = world.getOptions(unit, gameMap, ignoreResident);
+    ArrayList<XYCoord> destinations = new ArrayList<XYCoord>(options.destinations);
     destinations.removeAll(AIUtils.findAlliedIndustries(gameMap, myArmy, destinations, !avoidProduction));
 
     XYCoord goal = null;
@@ -526,13 +530,13 @@ public class JakeMan extends ModularAI
     // Sort my currently-reachable move locations by distance from the goal,
     // and build a GameAction to move to the closest one.
     Utils.sortLocationsByDistance(pathPoint, destinations);
-    log(String.format("  %s is traveling toward %s at %s via %s  mustMove?: %s",
-                          unit.toStringWithLocation(),
+    log("  %s is traveling toward %s at %s via %s  mustMove?: %s",
+                          unit,
                           gameMap.getLocation(goal).getEnvironment().terrainType, goal,
-                          pathPoint, mustMove));
+                          pathPoint, mustMove);
     for( XYCoord xyc : destinations )
     {
-      log(String.format("    is it safe to go to %s?", xyc));
+      log("    is it safe to go to %s?", xyc);
       if( !isDudeFree(gameMap, unit, xyc, false) )
         continue;
 
@@ -545,10 +549,10 @@ public class JakeMan extends ModularAI
         if( null != action ) return action;
         continue;
       }
-      log(String.format("    Yes"));
+      log("    Yes");
 
-      GamePath movePath = Utils.findShortestPath(unit, xyc, gameMap);
-      ArrayList<GameActionSet> actionSets = unit.getPossibleActions(gameMap, movePath, ignoreResident);
+      GamePath movePath = options.paths.get(xyc);
+      ArrayList<GameActionSet> actionSets = options.actions.get(xyc);
       if( actionSets.size() > 0 )
       {
         // Since we're moving anyway, might as well try shooting the scenery
@@ -708,7 +712,7 @@ public class JakeMan extends ModularAI
     for(int i = 0; i < wantedTypes.size(); ++i)
     {
       UnitModel um = wantedTypes.get(i);
-      log(String.format("Buying %s?", um));
+      log("Buying %s?", um);
       int buildCount = 0;
 
       ArrayList<MapLocation> facilities = CPI.getAllFacilitiesFor(um);
@@ -749,7 +753,7 @@ public class JakeMan extends ModularAI
           }
         } //~copter upgrade
       }
-      log(String.format("  Built %s; Budget: %s / %s", buildCount, budget, myArmy.money));
+      log("  Built %s; Budget: %s / %s", buildCount, budget, myArmy.money);
     }
 
     return builds;
@@ -12,6 +12,7 @@ import Engine.UnitActionFactory;
 import Engine.Utils;
 import Engine.XYCoord;
 import Engine.UnitActionLifecycles.CaptureLifecycle;
+import Engine.UnitActionLifecycles.WaitLifecycle;
 import Terrain.GameMap;
 import Units.Unit;
 
@@ -29,28 +30,54 @@ public abstract class ModularAI implements AIController
   // Sets the ordering for units in the unit queue fed to the modules
   protected Comparator<Unit> unitOrderSetter = new AIUtils.UnitCostComparator(false);
   protected CapPhaseAnalyzer capPhase;
+  // Shared by all the modules; reset on turn init, and updated before each action is chosen
+  protected final AIWorldModel world;
+  private GameAction lastAction = null;
+  // Modules and searches check this, and settle for what they have once it runs out
+  protected final AITimeBudget budget = new AITimeBudget();
 
-  private StringBuffer logger = new StringBuffer();
-  private boolean shouldLog = true;
+  protected final AITrace trace = new AITrace();
   protected int turnNum = 0;
 
   public ModularAI(Army army)
   {
     myArmy = army;
+    world = new AIWorldModel(army);
+  }
+
+  public AIWorldModel getWorldModel()
+  {
+    return world;
+  }
+
+  @Override
+  public void setTimeBudget(int actionMillis, int turnMillis)
+  {
+    budget.setLimits(actionMillis, turnMillis);
+  }
+
+  @Override
+  public AITimeBudget getTimeBudget()
+  {
+    return budget;
   }
 
   @Override
   public void initTurn(GameMap gameMap)
   {
-    logger = new StringBuffer(); // Reset at the start of the turn so the AI's action log stays in memory between turns for review
+    budget.startTurn();
     ++turnNum;
+    trace.setTurn(turnNum);
     // Create a list of every property we don't own, but want to.
     futureCapTargets = AIUtils.findNonAlliedProperties(myArmy, gameMap);
+    world.reset(gameMap);
+    lastAction = null;
 
     for( AIModule phase : aiPhases )
     {
       phase.initTurn(gameMap);
     }
+    budget.endAction();
   }
 
   @Override
@@ -60,22 +87,29 @@ public abstract class ModularAI implements AIController
     {
       phase.endTurn();
     }
+    if( budget.turnOverruns > 0 || budget.actionOverruns > 0 )
+      log("Time budget so far: %s", budget);
   }
 
   protected void log(String message)
   {
-    if( shouldLog )
-    {
-      System.out.println(message);
-      logger.append(message).append('\n');
-    }
+    trace.log(message);
   }
+  protected void log(String format, Object... args)
+  {
+    trace.log(format, args);
+  }
+  @Override
+  public void setLogging(boolean value) { trace.setEnabled(value); }
   @Override
-  public void setLogging(boolean value) { shouldLog = value; }
+  public AITrace getTrace() { return trace; }
 
   @Override
   public GameAction getNextAction(GameMap gameMap)
   {
+    budget.startAction();
+    ParallelScoring.startDecision();
+    world.update(gameMap, lastAction);
     ArrayList<Unit> eligibleUnits = new ArrayList<Unit>();
     for( Unit unit : myArmy.getUnits() )
     {
@@ -98,7 +132,21 @@ public abstract class ModularAI implements AIController
       if( null != nextAction )
         break;
     }
-    log(String.format("Action: %s", nextAction));
+
+    // If we ran out of time before anyone found anything to do, have someone hold still so the turn keeps moving.
+    // Once the whole turn's time is spent, we just end it.
+    if( null == nextAction && !eligibleUnits.isEmpty() && budget.isExpired() && !budget.isTurnExpired() )
+    {
+      unitQueue.clear();
+      unitQueue.addAll(eligibleUnits);
+      Unit unit = unitQueue.poll();
+      log("Out of time; %s will wait", unit);
+      nextAction = new WaitLifecycle.WaitAction(unit, Utils.findShortestPath(unit, unit.x, unit.y, gameMap));
+    }
+    log("Action: %s", nextAction);
+    lastAction = nextAction;
+    ParallelScoring.endDecision();
+    budget.endAction();
     return nextAction;
   }
 
@@ -176,6 +224,8 @@ public abstract class ModularAI implements AIController
     {
       for( Unit unit : unitQueue )
       {
+        if( ai.budget.isExpired() )
+          break; // Out of time; let the cheaper modules have a go
         GameAction retVal = getUnitAction(unit, gameMap);
         if( null != retVal )
           return retVal;
@@ -2,11 +2,14 @@ package AI;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.PriorityQueue;
 import java.util.Queue;
@@ -65,6 +68,15 @@ public class Muriel implements AIController
   }
   
   private Queue<GameAction> queuedActions = new ArrayDeque<GameAction>();
+  private transient EnemyReach enemyReach;
+  private transient ArrayList<XYCoord> changedSpots; // Where our actions since the last refresh touched
+  private void initEnemyReach()
+  {
+    if( null != enemyReach )
+      return;
+    enemyReach = new EnemyReach();
+    changedSpots = new ArrayList<XYCoord>();
+  }
   private class ActionWithValue {
     GameAction action; Double value;
     public ActionWithValue(GameAction ga, Double val) {action = ga; value = val;}
@@ -78,11 +90,11 @@ public class Muriel implements AIController
   private ObstructedUnitActions obstructedActions = new ObstructedUnitActions();
 
   private UnitOrchestrator unitSelector = new UnitOrchestrator();
+  private final AITimeBudget budget = new AITimeBudget();
 
   private Army myArmy = null;
 
-  private StringBuffer logger = new StringBuffer();
-  private boolean shouldLog = true;
+  private final AITrace trace = new AITrace();
   private int turnNum = 0;
   
   private UnitEffectivenessMap myUnitEffectMap;
@@ -146,8 +158,9 @@ public class Muriel implements AIController
 
   /**
    * Returns the UnitMatchupAndMetaInfo for this unit pair, calculating it first if needed.
+   * Synchronized since attack scoring may call in from several threads (see ParallelScoring).
    */
-  private UnitMatchupAndMetaInfo getUnitMatchupInfo(Unit myUnit, Unit otherUnit)
+  private synchronized UnitMatchupAndMetaInfo getUnitMatchupInfo(Unit myUnit, Unit otherUnit)
   {
     ModelForCO myModel = new ModelForCO(myUnit);
     ModelForCO otherModel = new ModelForCO(otherUnit);
@@ -176,17 +189,36 @@ public class Muriel implements AIController
     myUnitEffectMap.put(new UnitModelPair(myModel, otherModel), new UnitMatchupAndMetaInfo(damageRatio, costRatio));
     myUnitEffectMap.put(new UnitModelPair(otherModel, myModel), new UnitMatchupAndMetaInfo(invRatio, otherCostRatio));
 
-    log(String.format("Adding matchup: %s vs %s: %s/%s, damageRatio: %s, costRatio: %s", myUnit, otherUnit, myDamage, otherDamage, damageRatio, costRatio));
+    log("Adding matchup: %s vs %s: %s/%s, damageRatio: %s, costRatio: %s", myUnit, otherUnit, myDamage, otherDamage, damageRatio, costRatio);
     return myUnitEffectMap.get(new UnitModelPair(myModel, otherModel));
   }
 
+  @Override
+  public void setTimeBudget(int actionMillis, int turnMillis)
+  {
+    budget.setLimits(actionMillis, turnMillis);
+  }
+
+  @Override
+  public AITimeBudget getTimeBudget()
+  {
+    return budget;
+  }
+
   @Override
   public void initTurn(GameMap gameMap)
   {
+    budget.startTurn();
     if (null == myUnitEffectMap)
       init(gameMap.game.armies);
     turnNum++;
-    log(String.format("[======== Muriel initializing turn %s for %s =========]", turnNum, myArmy));
+    trace.setTurn(turnNum);
+    log("[======== Muriel initializing turn %s for %s =========]", turnNum, myArmy);
+
+    // Work out everyone's reach afresh; it's kept up to date as we go.
+    initEnemyReach();
+    enemyReach.clear();
+    changedSpots.clear();
 
     // Make a list of properties we want to claim.
     nonAlliedProperties = AIUtils.findNonAlliedProperties(myArmy, gameMap);
@@ -210,45 +242,63 @@ public class Muriel implements AIController
     CommanderAbility ability = AIUtils.queueCromulentAbility(queuedActions, myArmy, CommanderAbility.PHASE_TURN_START);
     if( null != ability )
     {
-      log("Activating " + ability);
+      log("Activating %s", ability);
     }
+    budget.endAction();
   }
 
   @Override
   public void endTurn()
   {
-    log(String.format("[======== Muriel ending turn %s for %s =========]", turnNum, myArmy));
-    logger = new StringBuffer();
+    if( budget.turnOverruns > 0 || budget.actionOverruns > 0 )
+      log("Time budget so far: %s", budget);
+    log("[======== Muriel ending turn %s for %s =========]", turnNum, myArmy);
   }
 
   private void log(String message)
   {
-    if( shouldLog )
-    {
-      System.out.println(message);
-      logger.append(message).append('\n');
-    }
+    trace.log(message);
+  }
+  private void log(String format, Object... args)
+  {
+    trace.log(format, args);
   }
   @Override
-  public void setLogging(boolean value) { shouldLog = value; }
+  public void setLogging(boolean value) { trace.setEnabled(value); }
+  @Override
+  public AITrace getTrace() { return trace; }
 
   @Override
   public GameAction getNextAction(GameMap gameMap)
   {
+    budget.startAction();
+    ParallelScoring.startDecision();
     // If we have actions ready to go, don't bother calculating anything.
     if( !queuedActions.isEmpty() )
     {
       GameAction action = queuedActions.poll();
-      log(String.format("  Action: %s", action));
-      return action;
+      log("  Action: %s", action);
+      ParallelScoring.endDecision();
+      budget.endAction();
+      return noteAction(action);
     }
 
+    // Only re-check the enemies whose reach our last few actions could have changed.
+    initEnemyReach();
+    enemyReach.dropNear(changedSpots);
+    changedSpots.clear();
+    ArrayList<Unit> enemies = new ArrayList<Unit>();
+    for( ArrayList<Unit> units : AIUtils.getEnemyUnitsByCommander(myArmy, gameMap).values() )
+      enemies.addAll(units);
+    enemyReach.refresh(gameMap, enemies);
+
     // Make sure we perform all important actions before giving actions to the "on hold" units.
     while( queuedActions.isEmpty() && !unitSelector.isEmpty() )
     {
       Unit unit = unitSelector.next();
 
-      log("Considering " + unit.toStringWithLocation());
+      if( trace.isEnabled() )
+        log("Considering %s", unit);
       if( unit.isTurnOver || !gameMap.isLocationValid(unit.x, unit.y))
       {
         log("  Cannot move; off-map or already moved.");
@@ -256,6 +306,22 @@ public class Muriel implements AIController
         continue; // No actions for units that are stale or out of bounds
       }
 
+      // If we're out of time, settle for what we have: once the turn's time is spent, everyone left stays put;
+      // if it's just this action's, this unit holds its ground and we move on.
+      if( budget.isExpired() )
+      {
+        if( budget.isTurnExpired() )
+        {
+          log("  Out of time for this turn.");
+          break;
+        }
+        log("  Out of time; waiting.");
+        queuedActions.add( new WaitLifecycle.WaitAction(unit, Utils.findShortestPath(unit, unit.x, unit.y, gameMap)) );
+        unitSelector.remove(unit);
+        obstructedActions.remove(unit);
+        continue;
+      }
+
       // A unit may defer action if it hasn't deferred yet, and isn't at the top of unitsInTheWay. Otherwise it must
       // select an action (or push another unit into the unitsInTheWay stack, then the new unit must move first).
       boolean allowDeferring = unitSelector.mayDeferAction(unit);
@@ -278,7 +344,7 @@ public class Muriel implements AIController
       CommanderAbility ability = AIUtils.queueCromulentAbility(queuedActions, myArmy, CommanderAbility.PHASE_BUY);
       if( null != ability )
       {
-        log("Activating " + ability);
+        log("Activating %s", ability);
       }
     }
 
@@ -294,18 +360,38 @@ public class Muriel implements AIController
       CommanderAbility ability = AIUtils.queueCromulentAbility(queuedActions, myArmy, CommanderAbility.PHASE_TURN_END);
       if( null != ability )
       {
-        log("Activating " + ability);
+        log("Activating %s", ability);
       }
     }
 
     GameAction action = queuedActions.poll();
-    log(String.format("  Action: %s", action));
+    log("  Action: %s", action);
+    ParallelScoring.endDecision();
+    budget.endAction();
+    return noteAction(action);
+  }
+
+  /** Remembers where an action will change the board, so we know whose reach to re-check. */
+  private GameAction noteAction(GameAction action)
+  {
+    if( null == action || null == enemyReach )
+      return action;
+    if( null == action.getMoveLocation() )
+    {
+      enemyReach.clear(); // Abilities and the like can change anything.
+      return action;
+    }
+    if( null != action.getActor() )
+      changedSpots.add(new XYCoord(action.getActor()));
+    changedSpots.add(action.getMoveLocation());
+    if( null != action.getTargetLocation() )
+      changedSpots.add(action.getTargetLocation());
     return action;
   }
   private void displaceUnit(GameMap gameMap, Unit actor, GameAction desiredAction, double actionValue, Unit obstacle)
   {
-    log(actor.toStringWithLocation() + " wants to do action " + desiredAction +
-        ", but " + obstacle.toStringWithLocation() + " is in the way. Telling it to move.");
+    if( trace.isEnabled() )
+      log("%s wants to do action %s, but %s is in the way. Telling it to move.", actor, desiredAction, obstacle);
 
     // Flag the actor as an obstacle so the unit it's pushing can't push back.
     if( !unitSelector.isObstacle(actor) )
@@ -329,8 +415,8 @@ public class Muriel implements AIController
       {
         // If we find any action better than ga, then we don't want to do ga.
         double ov = obstructedActions.get(ou).value;
-        log("  Two units want the same space:\n    "
-            + oa.toString() + "(" + ov + ")\n    " + action.toString() + "(" + value + ")");
+        if( trace.isEnabled() )
+          log("  Two units want the same space:\n    %s(%s)\n    %s(%s)", oa, ov, action, value);
         if( ov > value )
           return false;
       }
@@ -342,7 +428,7 @@ public class Muriel implements AIController
     // If we are capturing something, finish what we started.
     if( unit.getCaptureProgress() > 0 )
     {
-      log(String.format("%s is currently capturing; continue", unit.toStringWithLocation()));
+      log("%s is currently capturing; continue", unit);
       queuedActions.add( new CaptureLifecycle.CaptureAction(gameMap, unit, Utils.findShortestPath(unit, unit.x, unit.y, gameMap)) );
       return true;
     }
@@ -352,7 +438,7 @@ public class Muriel implements AIController
     MapLocation loc = gameMap.getLocation(unit.x, unit.y);
     if( (unit.getHP() <= 8) && unit.model.canRepairOn(loc) && (loc.getEnvironment().terrainType != TerrainType.FACTORY) && (loc.getOwner() == unit.CO) )
     {
-      log(String.format("%s is damaged and on a repair tile. Will continue to repair for now.", unit.toStringWithLocation()));
+      log("%s is damaged and on a repair tile. Will continue to repair for now.", unit);
       ArrayList<GameActionSet> actionSet = unit.getPossibleActions(gameMap, Utils.findShortestPath(unit, unit.x, unit.y, gameMap));
       for( GameActionSet set : actionSet )
       {
@@ -365,7 +451,7 @@ public class Muriel implements AIController
             if( null == other ) continue; // Don't bother with terrain.
             if( shouldAttack(unit, other, gameMap) )
             {
-              log(String.format("  May as well try to shoot %s since I'm here anyway", other));
+              log("  May as well try to shoot %s since I'm here anyway", other);
               queuedActions.add(action);
               return true;
             }
@@ -383,19 +469,20 @@ public class Muriel implements AIController
     // If we are low on fuel.
     if( unit.fuel < (unit.model.maxFuel/4.0) )
     {
-      log(String.format("%s is low on fuel.", unit.toStringWithLocation()));
+      log("%s is low on fuel.", unit);
       shouldResupply = true;
     }
     // If we are low on HP, go heal.
     if( unit.getHP() < 6 ) // Arbitrary threshold
     {
-      log(String.format("%s is damaged (%s HP).", unit.toStringWithLocation(), unit.getHP()));
+      if( trace.isEnabled() )
+        log("%s is damaged (%s HP).", unit, unit.getHP());
       shouldResupply = true;
     }
     // If we are out of ammo.
     if( unit.ammo == 0 )
     {
-      log(String.format("%s is out of ammo.", unit.toStringWithLocation()));
+      log("%s is out of ammo.", unit);
       shouldResupply = true;
     }
 
@@ -415,13 +502,13 @@ public class Muriel implements AIController
           GameAction goHome = AIUtils.moveTowardLocation(unit, coord, gameMap);
           if( (null != goHome) && !goHome.getMoveLocation().equals(unitCoords) )
           {
-            log(String.format("  Heading towards %s to resupply", coord));
+            log("  Heading towards %s to resupply", coord);
             queuedActions.add(goHome);
             return true;
           }
           else
           {
-            log(String.format("  Can't find a way to move towards resupply station at %s", coord));
+            log("  Can't find a way to move towards resupply station at %s", coord);
           }
         }
       }
@@ -439,6 +526,7 @@ public class Muriel implements AIController
     double maxDamageValue = 0;
     if( null != attackActions && !attackActions.isEmpty() )
     {
+      ArrayList<GameAction> viableAttacks = new ArrayList<GameAction>();
       for( GameAction action : attackActions )
       {
         // If another of our units is in the way and has already moved, then we can't consider this attack action.
@@ -446,18 +534,26 @@ public class Muriel implements AIController
         {
           continue;
         }
-        Unit unitInTheWay = gameMap.getResident(action.getMoveLocation()); // Could be us, could be nobody.
+        viableAttacks.add(action);
+      }
 
-        // Sift through all attack actions we can perform.
-        double damageValue = AICombatUtils.scoreAttackAction(unit, action, gameMap,
+      // Sift through all attack actions we can perform.
+      List<Double> damageValues = ParallelScoring.scoreAll(gameMap, viableAttacks,
+          (action, map) -> AICombatUtils.scoreAttackAction(unit, action, map,
             (results) -> {
               double hpDamage = Math.min(results.defender.getPreciseHPDamage(), results.defender.unit.getPreciseHP());
 
-              if( shouldAttack(unit, results.defender.unit, gameMap) )
+              if( shouldAttack(unit, results.defender.unit, map) )
                 return (results.defender.unit.getCost() / 10) * hpDamage;
 
               return 0.;
-            }, (terrain, params) -> 0.); // Don't mess with terrain
+            }, (terrain, params) -> 0.)); // Don't mess with terrain
+
+      for( int i = 0; i < viableAttacks.size(); ++i )
+      {
+        GameAction action = viableAttacks.get(i);
+        Unit unitInTheWay = gameMap.getResident(action.getMoveLocation()); // Could be us, could be nobody.
+        double damageValue = damageValues.get(i);
 
         // Find the attack that causes the most monetary damage, provided it's at least a halfway decent idea.
         if( (damageValue > maxDamageValue) )
@@ -536,12 +632,12 @@ public class Muriel implements AIController
       // we can remove this unit from the list if it's the only one there (actual blocks are already removed.
       if( unitSelector.numObstacles() == 1 )
       {
-        log(unit.toStringWithLocation() + " is not actually an obstacle.");
+        log("%s is not actually an obstacle.", unit);
         unitSelector.remove(unit);
       }
       else
       {
-        log(unit.toStringWithLocation() + " is in the way, and must move");
+        log("%s is in the way, and must move", unit);
         destinationsToAvoid.add(new XYCoord(unit.x, unit.y));
       }
     }
@@ -551,7 +647,7 @@ public class Muriel implements AIController
     // Things that can capture; go find something to capture, if you are moderately healthy.
     if( unit.hasActionType(UnitActionFactory.CAPTURE) && (unit.getHP() >= 7) )
     {
-      log(String.format("Seeking capture target for %s", unit.toStringWithLocation()));
+      log("Seeking capture target for %s", unit);
       XYCoord unitCoords = new XYCoord(unit.x, unit.y);
       Utils.sortLocationsByDistance(unitCoords, nonAlliedProperties);
       for(int i = 0; i < nonAlliedProperties.size(); ++i)
@@ -589,7 +685,7 @@ public class Muriel implements AIController
     // Everyone else, go hunting.
     if( queuedActions.isEmpty() && unit.hasActionType(UnitActionFactory.ATTACK) )
     {
-      log(String.format("Seeking attack target for %s", unit.toStringWithLocation()));
+      log("Seeking attack target for %s", unit);
       ArrayList<XYCoord> enemyLocations = AIUtils.findEnemyUnits(myArmy, gameMap); // Get enemy locations.
       Utils.sortLocationsByDistance(new XYCoord(unit.x, unit.y), enemyLocations); // Sort them by accessibility.
 
@@ -605,7 +701,7 @@ public class Muriel implements AIController
         if( umami.costEffectivenessRatio < COST_EFFECTIVENESS_MIN ) continue;
 
         // Find locations that would be dangerous for us so we can avoid sauntering into enemy fire.
-        HashSet<XYCoord> noGoZone = new HashSet<XYCoord>();
+        BitSet noGoZone = new BitSet();
         final int MAX_RELEVANT_DISTANCE = 27; // ~3x the move distance of the fastest units. Up for tweaking.
         for(int j = 0; j < enemyLocations.size(); ++j)
         {
@@ -618,15 +714,15 @@ public class Muriel implements AIController
             if( threat.canTarget(unit.model) && shouldAttack(threat, unit, gameMap) )
             {
               // Add coordinates that `threat` could target to our "no-go" list.
-              Map<XYCoord, Double> threatMap = AICombatUtils.findThreatPower(gameMap, threat, unit.model);
-              noGoZone.addAll(threatMap.keySet()); // Ignore the valueMap of the return; we have already decided `threat` is dangerous.
+              noGoZone.or(enemyReach.getStrikes(threat, unit.model, gameMap));
             }
           }
           else break; // Don't bother considering far-away baddies for our no-go zone.
         }
 
         // Try to move towards the enemy, but avoid blocking production.
-        noGoZone.addAll(destinationsToAvoid);
+        for( XYCoord xyc : destinationsToAvoid )
+          noGoZone.set(enemyReach.index(xyc));
 
         // Sort the possible move actions by distance from the target.
         ArrayList<GameAction> possibleMoves = unitActionsByType.get(UnitActionFactory.WAIT);
@@ -635,7 +731,7 @@ public class Muriel implements AIController
 
         for( GameAction ga : possibleMoves )
         {
-          if(noGoZone.contains( ga.getMoveLocation() ))
+          if(noGoZone.get( enemyReach.index(ga.getMoveLocation()) ))
             continue;
 
           // Check if there is a friendly in our way.
@@ -661,7 +757,7 @@ public class Muriel implements AIController
     boolean moving = false;
     if( allowDeferring )
     {
-      log(String.format("  Could not find an action for %s. Deferring action for now.", unit.toStringWithLocation()));
+      log("  Could not find an action for %s. Deferring action for now.", unit);
       unitSelector.defer(unit);
     }
     else
@@ -671,7 +767,7 @@ public class Muriel implements AIController
       if( null == move )
       {
         // If no valid move was found, then don't.
-        log(String.format("  Could not find an action for %s. Staying put.", unit.toStringWithLocation()));
+        log("  Could not find an action for %s. Staying put.", unit);
         move = new WaitLifecycle.WaitAction(unit, Utils.findShortestPath(unit, new XYCoord(unit.x, unit.y), gameMap));
       }
       queuedActions.add(move);
@@ -696,7 +792,7 @@ public class Muriel implements AIController
   {
     int budget = myArmy.money;
     log("Evaluating Production needs");
-    log("Budget: " + budget);
+    log("Budget: %s", budget);
 
     // Figure out what unit types we can purchase with our available properties.
     boolean includeFriendlyOccupied = false;
@@ -710,7 +806,7 @@ public class Muriel implements AIController
 
     // Get a count of enemy forces.
     Map<Commander, ArrayList<Unit> > unitLists = AIUtils.getEnemyUnitsByCommander(myArmy, gameMap);
-    Map<ModelForCO, Double> enemyUnitCounts = new HashMap<>();
+    Map<ModelForCO, Double> enemyUnitCounts = new LinkedHashMap<>();
     for( Commander co : unitLists.keySet() )
     {
       for( Unit u : unitLists.get(co) )
@@ -747,13 +843,14 @@ public class Muriel implements AIController
     log("My Forces:");
     for( ModelForCO um : myUnitCounts.keySet() )
     {
-      log(String.format("  %sx%s", um, myUnitCounts.get(um)));
+      log("  %sx%s", um, myUnitCounts.get(um));
     }
     log("Enemy Forces:");
     for( ModelForCO um : enemyUnitCounts.keySet() )
     {
-      log(String.format("  %sx%s", um, enemyUnitCounts.get(um)));
+      log("  %sx%s", um, enemyUnitCounts.get(um));
     }
+
     double enemyArmyHP = 0; // Count up the total size of the enemy forces.
     for( Commander key : unitLists.keySet() )
     {
@@ -790,13 +887,13 @@ public class Muriel implements AIController
       while( enemyTypeIter.hasNext() )
       {
         ModelValuePair enemyMVP = enemyTypeIter.next();
-        log(String.format("  %s: %s", enemyMVP.model, enemyMVP.value));
+        log("  %s: %s", enemyMVP.model, enemyMVP.value);
       }
 
       // Grab the first enemy unit type, and try to build something that will counter it.
       ModelForCO enemyToCounter = enemyUnitStrengths.peek().model;
-      log("Want to counter " + enemyToCounter);
-      log(String.format("  Remaining budget: %s", budget));
+      log("Want to counter %s", enemyToCounter);
+      log("  Remaining budget: %s", budget);
 
       // If we have a lot of cash on hand, don't worry about cost effectiveness - just maximize damage instead.
       // If we ever collect more than twice our income in funds, we just aren't spending fast enough. Fix that.
@@ -818,7 +915,7 @@ public class Muriel implements AIController
         int gruntFacilities = CPI.getNumFacilitiesFor(infModel)-1; // The -1 assumes we are about to build from a factory. Possibly untrue.
         if( gruntFacilities < 0 ) gruntFacilities = 0;
         costBuffer = (int)Math.min(gruntFacilities, gruntsWanted) * CPI.getAverageCostFor(infModel);
-        log(String.format("  Low on Infantry: witholding %s for possible extra grunts", costBuffer));
+        log("  Low on Infantry: witholding %s for possible extra grunts", costBuffer);
       }
 
       // Make a list of possible counters: types with a good cost effectiveness vs enemyToCounter.
@@ -830,7 +927,7 @@ public class Muriel implements AIController
         UnitMatchupAndMetaInfo umami = getUnitMatchupInfo(counter, enemyToCounter);
         if( umami.costEffectivenessRatio >= COST_EFFECTIVENESS_MIN )
         {
-          log(String.format("    %s has cost ratio %s", counter, umami.costEffectivenessRatio));
+          log("    %s has cost ratio %s", counter, umami.costEffectivenessRatio);
           counters.add(counter);
         }
       }
@@ -868,7 +965,7 @@ public class Muriel implements AIController
             }
           }
         }
-        log(String.format("    %s has counter score %s", counter, score));
+        log("    %s has counter score %s", counter, score);
         counterScores.offer(new ModelValuePair(counter, score));
       }
 
@@ -895,17 +992,17 @@ public class Muriel implements AIController
           {
             // Overall goodness of each option is it's effectiveness vs each enemy unit type, times the density of that enemy type.
             // This lets us make fine distinctions between units that are equally applicable, broadly speaking.
-            //log(String.format("    Evaluating %s", counter));
+            //log("    Evaluating %s", counter);
             double goodness = 0;
             for( ModelForCO enemy : enemyUnitCounts.keySet() )
             {
               UnitMatchupAndMetaInfo umami = getUnitMatchupInfo(counter, enemy);
               double percent = (enemyUnitCounts.get(enemy)*10) / enemyArmyHP;
               double thisGoodness = (useDamageRatio) ? (umami.damageRatio * percent) : (umami.costEffectivenessRatio * percent);
-              //log(String.format("      goodness vs %s: %s (%s * %s)", enemy, thisGoodness, umami.costEffectivenessRatio, percent));
+              //log("      goodness vs %s: %s (%s * %s)", enemy, thisGoodness, umami.costEffectivenessRatio, percent);
               goodness += thisGoodness;
             }
-            log(String.format("    %s has weighted goodness %s", counter, goodness));
+            log("    %s has weighted goodness %s", counter, goodness);
 
             counterScoresFine.offer(new ModelValuePair(counter, goodness));
           }
@@ -913,13 +1010,13 @@ public class Muriel implements AIController
           // Unload our finely-evaluated counters into a list.
           while(!counterScoresFine.isEmpty())
           {
-            log(String.format("  Adding %s to shopping list", counterScoresFine.peek().model));
+            log("  Adding %s to shopping list", counterScoresFine.peek().model);
             orderedCounters.add(counterScoresFine.poll().model);
           }
         }
         else
         {
-          log(String.format("  Adding %s to shopping list", bestCounter.model));
+          log("  Adding %s to shopping list", bestCounter.model);
           orderedCounters.add(bestCounter.model);
         }
       }
@@ -929,17 +1026,17 @@ public class Muriel implements AIController
       while( modelIter.hasNext() )
       {
         ModelForCO idealCounter = modelIter.next();
-        log(String.format("  Would like to build %s", idealCounter));
+        log("  Would like to build %s", idealCounter);
 
         // Figure out if we can afford the desired unit type.
         int maxBuildable = CPI.getNumFacilitiesFor(idealCounter);
-        log(String.format("    Facilities available: %s", maxBuildable));
+        log("    Facilities available: %s", maxBuildable);
         MapLocation loc = CPI.getLocationToBuild(idealCounter);
         int cost = myArmy.getBuyCost(idealCounter.um, loc.getCoordinates());
         if( cost <= (budget - costBuffer))
         {
           // Go place orders.
-          log(String.format("    I can build a %s for a cost of %s", idealCounter, cost));
+          log("    I can build a %s for a cost of %s", idealCounter, cost);
           shoppingCart.add(new PurchaseOrder(loc, loc.getOwner(), idealCounter.um));
           budget -= cost;
           CPI.removeBuildLocation(loc);
@@ -955,7 +1052,7 @@ public class Muriel implements AIController
           }
           break; // Loop around, re-sort the enemies by strength, and figure out what to build next.
         }
-        else {log(String.format("    %s cost %s, I have %s (witholding %s).", idealCounter, cost, budget, costBuffer));}
+        else {log("    %s cost %s, I have %s (witholding %s).", idealCounter, cost, budget, costBuffer);}
       } // ~while( !availableUnitModels.isEmpty() )
     } // ~while( still choosing units to build )
 
@@ -0,0 +1,215 @@
+package AI;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+import Terrain.GameMap;
+import Terrain.MapSnapshot;
+import UI.InputOptionsController;
+
+/**
+ * Scores a list of candidate moves for an AI, either one at a time on the calling thread or spread over a ForkJoinPool.
+ * <p>
+ * Scorers may only read the map they're handed, plus whatever else is safe to read from several threads.
+ * In parallel they're handed a MapSnapshot instead of the live map. Either way the scores come back in candidate order,
+ * and the caller runs the same pick-the-best loop over them, so which move wins never depends on thread timing.
+ * <p>
+ * An AI should bracket each decision with startDecision() and endDecision(). The map can't change in between, so
+ * every parallel scoring in the decision shares one snapshot instead of copying the whole map each time.
+ * <p>
+ * The "Parallel AI" option picks the mode. FightClub can override it with VERIFY, which scores everything
+ * both ways, keeps the serial answers, and counts any disagreements.
+ */
+public class ParallelScoring
+{
+  public enum Mode
+  {
+    SERIAL, PARALLEL, VERIFY
+  }
+
+  /** If set, used instead of the Parallel AI option. */
+  public static Mode modeOverride = null;
+
+  /** Below this many candidates, snapshotting the map costs more than the extra threads save. */
+  private static final int MIN_PARALLEL_CANDIDATES = 4;
+
+  private static ForkJoinPool pool = null;
+
+  // The snapshot shared by the current decision, and the map it was taken of; only touched from the calling thread.
+  private static boolean inDecision = false;
+  private static GameMap snapshotSource = null;
+  private static MapSnapshot snapshot = null;
+
+  // VERIFY bookkeeping; only touched from the calling thread.
+  private static int listsVerified = 0;
+  private static int scoresVerified = 0;
+  private static int mismatches = 0;
+
+  public interface Scorer<T, R>
+  {
+    R score(T candidate, GameMap gameMap);
+  }
+
+  public static Mode getMode()
+  {
+    if( null != modeOverride )
+      return modeOverride;
+    // With only one processor, the extra thread and the map snapshot are pure overhead.
+    boolean useThreads = InputOptionsController.parallelAIOption.getSelectedObject() && Runtime.getRuntime().availableProcessors() > 1;
+    return useThreads ? Mode.PARALLEL : Mode.SERIAL;
+  }
+
+  /**
+   * Callers that normally stop at the first good-enough candidate should check this, and only score
+   * everything up front when it's worth it.
+   */
+  public static boolean isEnabled()
+  {
+    return Mode.SERIAL != getMode();
+  }
+
+  /** Call before an AI starts choosing its next action; snapshots taken until endDecision() will be shared. */
+  public static void startDecision()
+  {
+    inDecision = true;
+    snapshotSource = null;
+    snapshot = null;
+  }
+
+  /** Call once the action is chosen, since the map may change after this. */
+  public static void endDecision()
+  {
+    inDecision = false;
+    snapshotSource = null;
+    snapshot = null;
+  }
+
+  /** @return A snapshot of the map, reusing this decision's if there is one. */
+  private static MapSnapshot snapshotOf(GameMap gameMap)
+  {
+    if( !inDecision )
+      return new MapSnapshot(gameMap);
+    if( gameMap != snapshotSource )
+    {
+      snapshot = new MapSnapshot(gameMap);
+      snapshotSource = gameMap;
+    }
+    return snapshot;
+  }
+
+  /**
+   * @return The score for each candidate, in the same order as the candidates.
+   * Array scores (e.g. double[]) are compared element-wise when verifying.
+   */
+  public static <T, R> List<R> scoreAll(GameMap gameMap, List<T> candidates, Scorer<T, R> scorer)
+  {
+    Mode mode = getMode();
+    if( Mode.VERIFY == mode )
+      return scoreBothWays(gameMap, candidates, scorer);
+    if( Mode.PARALLEL == mode && candidates.size() >= MIN_PARALLEL_CANDIDATES )
+      return scoreInParallel(gameMap, candidates, scorer);
+    return scoreInOrder(gameMap, candidates, scorer);
+  }
+
+  private static <T, R> List<R> scoreInOrder(GameMap gameMap, List<T> candidates, Scorer<T, R> scorer)
+  {
+    ArrayList<R> scores = new ArrayList<R>(candidates.size());
+    for( T candidate : candidates )
+      scores.add(scorer.score(candidate, gameMap));
+    return scores;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static <T, R> List<R> scoreInParallel(GameMap gameMap, List<T> candidates, Scorer<T, R> scorer)
+  {
+    Object[] scores = new Object[candidates.size()];
+    if( scores.length > 0 )
+      getPool().invoke(new ScoreRange<T, R>(snapshotOf(gameMap), candidates, scorer, scores, 0, scores.length));
+    return (List<R>) Arrays.asList(scores);
+  }
+
+  private static <T, R> List<R> scoreBothWays(GameMap gameMap, List<T> candidates, Scorer<T, R> scorer)
+  {
+    List<R> inOrder = scoreInOrder(gameMap, candidates, scorer);
+    List<R> inParallel = scoreInParallel(gameMap, candidates, scorer);
+    ++listsVerified;
+    for( int i = 0; i < inOrder.size(); ++i )
+    {
+      ++scoresVerified;
+      if( !Objects.deepEquals(inOrder.get(i), inParallel.get(i)) )
+      {
+        ++mismatches;
+        System.out.println(String.format("WARNING: Parallel scoring of %s gave %s; expected %s",
+            candidates.get(i), Arrays.deepToString(new Object[] { inParallel.get(i) }), Arrays.deepToString(new Object[] { inOrder.get(i) })));
+      }
+    }
+    return inOrder;
+  }
+
+  private static synchronized ForkJoinPool getPool()
+  {
+    if( null == pool )
+      pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+    return pool;
+  }
+
+  /** Splits the candidates in half until each task has just one to score. */
+  private static class ScoreRange<T, R> extends RecursiveAction
+  {
+    private static final long serialVersionUID = 1L;
+    private final GameMap snapshot;
+    private final List<T> candidates;
+    private final Scorer<T, R> scorer;
+    private final Object[] scores;
+    private final int from, to;
+
+    ScoreRange(GameMap snapshot, List<T> candidates, Scorer<T, R> scorer, Object[] scores, int from, int to)
+    {
+      this.snapshot = snapshot;
+      this.candidates = candidates;
+      this.scorer = scorer;
+      this.scores = scores;
+      this.from = from;
+      this.to = to;
+    }
+
+    @Override
+    protected void compute()
+    {
+      if( to - from == 1 )
+      {
+        scores[from] = scorer.score(candidates.get(from), snapshot);
+        return;
+      }
+      int mid = (from + to) >>> 1;
+      invokeAll(new ScoreRange<T, R>(snapshot, candidates, scorer, scores, from, mid),
+                new ScoreRange<T, R>(snapshot, candidates, scorer, scores, mid, to));
+    }
+  }
+
+  public static void resetVerification()
+  {
+    listsVerified = 0;
+    scoresVerified = 0;
+    mismatches = 0;
+  }
+
+  public static int getListsVerified()
+  {
+    return listsVerified;
+  }
+
+  public static int getScoresVerified()
+  {
+    return scoresVerified;
+  }
+
+  public static int getMismatches()
+  {
+    return mismatches;
+  }
+}
@@ -0,0 +1,332 @@
+package AI;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+
+import CommandingOfficers.Commander;
+import Engine.Army;
+import Engine.GameAction;
+import Engine.XYCoord;
+import Terrain.GameMap;
+import Terrain.MapLocation;
+import Units.Unit;
+import Units.UnitModel;
+
+/**
+ * Works out what to build where, given a budget and how much the AI wants each kind of unit.
+ * <p>
+ * Facilities that sell the same things at the same prices are pooled. Within each pool we pick how many of each model
+ * to build with a bounded knapsack over funds (in FUNDS_STEP chunks) and facility count; the pools' answers are then
+ * combined the same way, to find the best split of the budget between them.
+ * The value of each extra copy of a model may fall off, which is how callers keep us from buying ten of the same thing.
+ * Copies in different pools are valued independently; like CommanderProductionInfo, we assume different facility types
+ * sell different things.
+ * <p>
+ * The answer depends only on the inputs, so the same situation always gets the same orders.
+ */
+public class ProductionPlanner
+{
+  /** Funds are planned in chunks of this size. Costs are rounded up and the budget down, so we never overspend. */
+  public static final int FUNDS_STEP = 100;
+
+  public interface ModelValuer
+  {
+    /**
+     * @return How much we want the copy'th (counting from zero) unit of this model this turn.
+     * Zero or less means don't build it. Values shouldn't rise with copy.
+     */
+    double value(ModelForCO model, int copy);
+  }
+
+  public interface SiteChooser
+  {
+    /** @return Which of the (non-empty) free sites to build this model at. */
+    XYCoord choose(UnitModel model, List<XYCoord> freeSites);
+  }
+
+  public static class PurchaseOrder
+  {
+    public final XYCoord location;
+    public final Commander buyer;
+    public final UnitModel model;
+    public final int cost;
+
+    public PurchaseOrder(XYCoord location, Commander buyer, UnitModel model, int cost)
+    {
+      this.location = location;
+      this.buyer = buyer;
+      this.model = model;
+      this.cost = cost;
+    }
+
+    public GameAction toAction()
+    {
+      return new GameAction.UnitProductionAction(buyer, model, location);
+    }
+
+    @Override
+    public String toString()
+    {
+      return String.format("%s at %s for %s", model, location, cost);
+    }
+  }
+
+  /** A set of facilities with the same owner, shopping list and prices. */
+  private static class Pool
+  {
+    final Commander buyer;
+    final ArrayList<UnitModel> models;
+    final int[] costs;
+    final ArrayList<XYCoord> sites = new ArrayList<XYCoord>();
+
+    Pool(Commander buyer, ArrayList<UnitModel> models, int[] costs)
+    {
+      this.buyer = buyer;
+      this.models = models;
+      this.costs = costs;
+    }
+  }
+
+  private final ArrayList<Pool> pools = new ArrayList<Pool>();
+  private int numSites = 0;
+
+  /** Catalogs every facility this army could build from right now. */
+  public ProductionPlanner(Army army, GameMap gameMap, boolean includeFriendlyOccupied)
+  {
+    this(army, gameMap, includeFriendlyOccupied, (loc) -> true);
+  }
+
+  /**
+   * As above, but only considers facilities the filter accepts.
+   * @param includeFriendlyOccupied Whether to count facilities with one of our units (that could still move) on them
+   */
+  public ProductionPlanner(Army army, GameMap gameMap, boolean includeFriendlyOccupied, Predicate<MapLocation> filter)
+  {
+    ArrayList<XYCoord> properties = new ArrayList<XYCoord>(army.getOwnedProperties());
+    properties.sort((a, b) -> (a.xCoord != b.xCoord) ? Integer.compare(a.xCoord, b.xCoord) : Integer.compare(a.yCoord, b.yCoord));
+
+    Map<String, Pool> poolsByKey = new LinkedHashMap<String, Pool>();
+    for( XYCoord xyc : properties )
+    {
+      MapLocation loc = gameMap.getLocation(xyc);
+      Commander buyer = loc.getOwner();
+      if( null == buyer || buyer.army != army || !filter.test(loc) )
+        continue;
+      Unit blocker = loc.getResident();
+      if( null != blocker && !(includeFriendlyOccupied && army == blocker.CO.army && !blocker.isTurnOver) )
+        continue;
+      ArrayList<UnitModel> models = buyer.getShoppingList(loc);
+      if( models.isEmpty() )
+        continue;
+
+      int[] costs = new int[models.size()];
+      StringBuilder key = new StringBuilder().append(System.identityHashCode(buyer));
+      for( int i = 0; i < costs.length; ++i )
+      {
+        costs[i] = buyer.getBuyCost(models.get(i), xyc);
+        key.append(' ').append(models.get(i).name).append('=').append(costs[i]);
+      }
+      Pool pool = poolsByKey.get(key.toString());
+      if( null == pool )
+      {
+        pool = new Pool(buyer, models, costs);
+        poolsByKey.put(key.toString(), pool);
+      }
+      pool.sites.add(xyc);
+      ++numSites;
+    }
+    pools.addAll(poolsByKey.values());
+  }
+
+  public int getNumFacilities()
+  {
+    return numSites;
+  }
+
+  /** Builds at the free sites in map order. */
+  public ArrayList<PurchaseOrder> plan(int budget, ModelValuer valuer)
+  {
+    return plan(budget, valuer, (model, freeSites) -> freeSites.get(0));
+  }
+
+  /** @return The most valuable set of purchases we can afford, at most one per facility. */
+  public ArrayList<PurchaseOrder> plan(int budget, ModelValuer valuer, SiteChooser siteChooser)
+  {
+    ArrayList<PurchaseOrder> orders = new ArrayList<PurchaseOrder>();
+    if( pools.isEmpty() )
+      return orders;
+
+    // Funds beyond what filling every facility with its priciest option would cost can't change the answer.
+    int usefulSteps = 0;
+    for( Pool pool : pools )
+    {
+      int priciest = 0;
+      for( int cost : pool.costs )
+        priciest = Math.max(priciest, (cost + FUNDS_STEP - 1) / FUNDS_STEP);
+      usefulSteps += priciest * pool.sites.size();
+    }
+    int steps = Math.min(Math.max(0, budget) / FUNDS_STEP, usefulSteps);
+
+    // Solve each pool on its own, for every budget up to the total.
+    PoolPlan[] poolPlans = new PoolPlan[pools.size()];
+    for( int p = 0; p < pools.size(); ++p )
+      poolPlans[p] = new PoolPlan(pools.get(p), valuer, steps);
+
+    // Then split the budget between the pools: best[p][b] is the most value from pools 0..p within b steps.
+    double[][] best = new double[pools.size()][];
+    int[][] split = new int[pools.size()][steps + 1];
+    best[0] = poolPlans[0].bestValue;
+    for( int b = 0; b <= steps; ++b )
+      split[0][b] = b;
+    for( int p = 1; p < pools.size(); ++p )
+    {
+      best[p] = new double[steps + 1];
+      double[] mine = poolPlans[p].bestValue;
+      for( int b = 0; b <= steps; ++b )
+      {
+        double bestHere = best[p - 1][b];
+        int bestSplit = 0;
+        for( int a = 1; a <= b; ++a )
+        {
+          double value = best[p - 1][b - a] + mine[a];
+          if( value > bestHere )
+          {
+            bestHere = value;
+            bestSplit = a;
+          }
+        }
+        best[p][b] = bestHere;
+        split[p][b] = bestSplit;
+      }
+    }
+
+    // Walk back through the splits, and turn each pool's share into orders.
+    int[] share = new int[pools.size()];
+    int remaining = steps;
+    for( int p = pools.size() - 1; p >= 0; --p )
+    {
+      share[p] = split[p][remaining];
+      remaining -= share[p];
+    }
+    for( int p = 0; p < pools.size(); ++p )
+    {
+      Pool pool = pools.get(p);
+      int[] counts = poolPlans[p].getCounts(share[p]);
+      ArrayList<XYCoord> freeSites = new ArrayList<XYCoord>(pool.sites);
+      for( int m = 0; m < counts.length; ++m )
+        for( int c = 0; c < counts[m]; ++c )
+        {
+          UnitModel model = pool.models.get(m);
+          XYCoord site = siteChooser.choose(model, freeSites);
+          freeSites.remove(site);
+          orders.add(new PurchaseOrder(site, pool.buyer, model, pool.costs[m]));
+        }
+    }
+    return orders;
+  }
+
+  /**
+   * The knapsack for one pool: each copy of each model is an item, and we track both funds spent and facilities used.
+   * value[n][b] is the most value from exactly n units costing at most b steps.
+   */
+  private static class PoolPlan
+  {
+    final int numModels;
+    final int[] itemModel;
+    final int[] itemCost;
+    final boolean[][][] took; // [item][n][b]: whether that item is part of the best answer for n units within b steps
+    final double[][] value;
+    final int[] bestCount; // For each budget, how many units gives the best value
+    final double[] bestValue;
+
+    PoolPlan(Pool pool, ModelValuer valuer, int steps)
+    {
+      numModels = pool.models.size();
+      int sites = pool.sites.size();
+
+      // One item per copy worth building; a pool can't build more copies than it has sites.
+      ArrayList<Integer> models = new ArrayList<Integer>();
+      ArrayList<Integer> costs = new ArrayList<Integer>();
+      ArrayList<Double> values = new ArrayList<Double>();
+      for( int m = 0; m < numModels; ++m )
+      {
+        int cost = (pool.costs[m] + FUNDS_STEP - 1) / FUNDS_STEP;
+        if( cost > steps )
+          continue;
+        ModelForCO model = new ModelForCO(pool.buyer, pool.models.get(m));
+        for( int copy = 0; copy < sites; ++copy )
+        {
+          double v = valuer.value(model, copy);
+          if( v <= 0 )
+            break;
+          models.add(m);
+          costs.add(cost);
+          values.add(v);
+        }
+      }
+      int items = models.size();
+      itemModel = new int[items];
+      itemCost = new int[items];
+      for( int i = 0; i < items; ++i )
+      {
+        itemModel[i] = models.get(i);
+        itemCost[i] = costs.get(i);
+      }
+
+      value = new double[sites + 1][steps + 1];
+      for( int n = 1; n <= sites; ++n )
+        Arrays.fill(value[n], Double.NEGATIVE_INFINITY);
+      took = new boolean[items][sites + 1][];
+      for( int i = 0; i < items; ++i )
+      {
+        int cost = itemCost[i];
+        double v = values.get(i);
+        for( int n = sites; n >= 1; --n )
+        {
+          took[i][n] = new boolean[steps + 1];
+          for( int b = steps; b >= cost; --b )
+          {
+            double with = value[n - 1][b - cost] + v;
+            if( with > value[n][b] )
+            {
+              value[n][b] = with;
+              took[i][n][b] = true;
+            }
+          }
+        }
+      }
+
+      bestCount = new int[steps + 1];
+      bestValue = new double[steps + 1];
+      for( int b = 0; b <= steps; ++b )
+        for( int n = 1; n <= sites; ++n )
+          if( value[n][b] > bestValue[b] )
+          {
+            bestValue[b] = value[n][b];
+            bestCount[b] = n;
+          }
+    }
+
+    /** @return How many of each model to build with this many steps of funds. */
+    int[] getCounts(int steps)
+    {
+      int[] counts = new int[numModels];
+      int n = bestCount[steps];
+      int b = steps;
+      for( int i = itemModel.length - 1; i >= 0 && n > 0; --i )
+      {
+        if( null != took[i][n] && took[i][n][b] )
+        {
+          ++counts[itemModel[i]];
+          b -= itemCost[i];
+          --n;
+        }
+      }
+      return counts;
+    }
+  }
+}
@@ -2,12 +2,8 @@ package AI;
 
 import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Queue;
 
-import CommandingOfficers.Commander;
 import CommandingOfficers.CommanderAbility;
 import Engine.Army;
 import Engine.GameAction;
@@ -18,7 +14,6 @@ import Engine.Utils;
 import Engine.XYCoord;
 import Engine.UnitActionLifecycles.WaitLifecycle;
 import Terrain.GameMap;
-import Terrain.MapLocation;
 import Terrain.TerrainType;
 import Units.Unit;
 import Units.UnitContext;
@@ -68,8 +63,7 @@ public class SpenderAI implements AIController
   private ArrayList<XYCoord> unownedProperties;
   private ArrayList<XYCoord> capturingProperties;
 
-  private StringBuffer logger = new StringBuffer();
-  private boolean shouldLog = true;
+  private final AITrace trace = new AITrace();
   private int turnNum = 0;
 
   public SpenderAI(Army army)
@@ -81,7 +75,8 @@ public class SpenderAI implements AIController
   public void initTurn(GameMap gameMap)
   {
     turnNum++;
-    log(String.format("[======== SpAI initializing turn %s for %s =========]", turnNum, myArmy));
+    trace.setTurn(turnNum);
+    log("[======== SpAI initializing turn %s for %s =========]", turnNum, myArmy);
 
     // Make sure we don't have any hang-ons from last time.
     actions.clear();
@@ -115,20 +110,21 @@ public class SpenderAI implements AIController
   @Override
   public void endTurn()
   {
-    log(String.format("[======== SpAI ending turn %s for %s =========]", turnNum, myArmy));
-    logger = new StringBuffer();
+    log("[======== SpAI ending turn %s for %s =========]", turnNum, myArmy);
   }
 
   private void log(String message)
   {
-    if( shouldLog )
-    {
-      System.out.println(message);
-      logger.append(message).append('\n');
-    }
+    trace.log(message);
+  }
+  private void log(String format, Object... args)
+  {
+    trace.log(format, args);
   }
   @Override
-  public void setLogging(boolean value) { shouldLog = value; }
+  public void setLogging(boolean value) { trace.setEnabled(value); }
+  @Override
+  public AITrace getTrace() { return trace; }
 
   @Override
   public GameAction getNextAction(GameMap gameMap)
@@ -140,7 +136,7 @@ public class SpenderAI implements AIController
       if( !actions.isEmpty() )
       {
         GameAction action = actions.poll();
-        log("  Action: " + action);
+        log("  Action: %s", action);
         return action;
       }
       else if( unitQueue.isEmpty() )
@@ -217,7 +213,7 @@ public class SpenderAI implements AIController
 
           if( !unownedProperties.isEmpty() ) // Sanity check - it shouldn't be, unless this function is called after we win.
           {
-            log(String.format("  Seeking a property to send %s after", unit.toStringWithLocation()));
+            log("  Seeking a property to send %s after", unit);
             int index = 0;
             XYCoord goal = null;
             GamePath path = null;
@@ -245,13 +241,13 @@ public class SpenderAI implements AIController
               validTarget = (myArmy.isEnemy(gameMap.getLocation(goal).getOwner()) // Property is not allied.
                   && !capturingProperties.contains(goal) // We aren't already capturing it.
                   && (path.getPathLength() > 0)); // We can reach it.
-              log(String.format("    %s at %s? %s", gameMap.getLocation(goal).getEnvironment().terrainType, goal,
-                  (validTarget ? "Yes" : "No")));
+              log("    %s at %s? %s", gameMap.getLocation(goal).getEnvironment().terrainType, goal,
+                  (validTarget ? "Yes" : "No"));
             } while (!validTarget && (index < validTargets.size())); // Loop until we run out of properties to check.
 
             if( validTarget )
             {
-              log(String.format("    Selected %s at %s", gameMap.getLocation(goal).getEnvironment().terrainType, goal));
+              log("    Selected %s at %s", gameMap.getLocation(goal).getEnvironment().terrainType, goal);
 
               // Choose the point on the path just out of our range as our 'goal', and try to move there.
               // This will allow us to navigate around large obstacles that require us to move away
@@ -259,7 +255,7 @@ public class SpenderAI implements AIController
               path.snip(unit.getMovePower(gameMap) + 1); // Trim the path approximately down to size.
               goal = path.getEndCoord(); // Set the last location as our goal.
 
-              log(String.format("    Intermediate waypoint: %s", goal));
+              log("    Intermediate waypoint: %s", goal);
 
               // Sort my currently-reachable move locations by distance from the goal,
               // and build a GameAction to move to the closest one.
@@ -287,76 +283,13 @@ public class SpenderAI implements AIController
       // We will add all build commands at once, since they can't conflict.
       if( actions.isEmpty() && !stateChange )
       {
-        Map<MapLocation, ArrayList<UnitModel>> shoppingLists = new HashMap<>();
-        for( XYCoord xyc : myArmy.getOwnedProperties() )
-        {
-          MapLocation loc = gameMap.getLocation(xyc);
-          Commander buyer = loc.getOwner();
-          // I like combat units that are useful, so we skip ports for now
-          if( loc.getEnvironment().terrainType != TerrainType.SEAPORT && loc.getResident() == null )
-          {
-            ArrayList<UnitModel> units = buyer.getShoppingList(loc);
-            // Only add to the list if we could actually buy something here.
-            if( !units.isEmpty() && buyer.getBuyCost(units.get(0), xyc) <= myArmy.money )
-            {
-              shoppingLists.put(loc, units);
-            }
-          }
-        }
-        int budget = myArmy.money;
-        Map<MapLocation, UnitModel> purchases = new HashMap<>();
-        // Now that we know where and what we can buy, let's make some initial selections.
-        for( Entry<MapLocation, ArrayList<UnitModel>> locShopList : shoppingLists.entrySet() )
-        {
-          ArrayList<UnitModel> units = locShopList.getValue();
-          for( UnitModel unit : units )
-          {
-            // I only want combat units, since I don't understand transports
-            Commander buyer = locShopList.getKey().getOwner();
-            final int unitCost = buyer.getBuyCost(unit, locShopList.getKey().getCoordinates());
-            if( !unit.weapons.isEmpty() && unitCost <= budget )
-            {
-              budget -= unitCost;
-              purchases.put(locShopList.getKey(), unit);
-              break;
-            }
-          }
-        }
-        Queue<Entry<MapLocation, ArrayList<UnitModel>>> upgradables = new ArrayDeque<>();
-        upgradables.addAll(shoppingLists.entrySet());
-        // I want the most expensive single unit I can get, but I also want to spend as much money as possible
-        while (!upgradables.isEmpty())
-        {
-          Entry<MapLocation, ArrayList<UnitModel>> locShopList = upgradables.poll();
-          Commander buyer = locShopList.getKey().getOwner();
-          ArrayList<UnitModel> units = locShopList.getValue();
-          UnitModel currentPurchase = purchases.get(locShopList.getKey());
-          if( null != currentPurchase )
-          {
-            int currentCost = buyer.getBuyCost(currentPurchase, locShopList.getKey().getCoordinates());
-            budget += currentCost;
-            for( UnitModel newPurchase : units )
-            {
-              final int newCost = buyer.getBuyCost(newPurchase, locShopList.getKey().getCoordinates());
-              // I want expensive units, but they have to have guns
-              if( budget > newCost && newCost > currentCost && !newPurchase.weapons.isEmpty() )
-              {
-                currentPurchase = newPurchase;
-                currentCost = newCost;
-              }
-            }
-            // once we've found the most expensive thing we can buy here, record that
-            budget -= currentCost;
-            purchases.put(locShopList.getKey(), currentPurchase);
-          }
-        }
-        // once we're satisfied with all our selections, put in the orders
-        for( Entry<MapLocation, UnitModel> lineItem : purchases.entrySet() )
-        {
-          GameAction action = new GameAction.UnitProductionAction(lineItem.getKey().getOwner(), lineItem.getValue(),
-              lineItem.getKey().getCoordinates());
-          actions.offer(action);
-        }
+        // I like combat units that are useful, so we skip ports for now
+        ProductionPlanner planner = new ProductionPlanner(myArmy, gameMap, false,
+            (loc) -> loc.getEnvironment().terrainType != TerrainType.SEAPORT);
+        // I only want combat units, since I don't understand transports; past that, I just want to spend as much money as possible
+        ProductionPlanner.ModelValuer valuer = (model, copy) -> model.um.weapons.isEmpty() ? 0 : model.co.getCost(model.um);
+        for( ProductionPlanner.PurchaseOrder order : planner.plan(myArmy.money, valuer) )
+          actions.offer(order.toAction());
       }
 
       // Check for a turn-ending power
@@ -368,7 +301,7 @@ public class SpenderAI implements AIController
       // Return the next action, or null if actions is empty.
       nextAction = actions.poll();
     } while (nextAction == null && stateChange); // we don't want to end early, so if the state changed and we don't have an action yet, try again
-    log(String.format("  Action: %s", nextAction));
+    log("  Action: %s", nextAction);
     return nextAction;
   }
 }
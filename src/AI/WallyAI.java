@@ -68,6 +68,7 @@ public class WallyAI extends ModularAI
   private static final double TERRAIN_HQ_WEIGHT = 42000; //                  "                                      HQ
   
   private Map<UnitModel, Map<XYCoord, Double>> threatMap;
+  private transient EnemyReach enemyReach;
   private ArrayList<Unit> allThreats;
   private HashMap<UnitModel, Double> unitEffectiveMove = null; // How well the unit can move, on average, on this map
   public double getEffectiveMove(UnitModel model)
@@ -87,7 +88,7 @@ public class WallyAI extends ModularAI
     {
       for( int h = 0; h < map.mapHeight; ++h )
       {
-        Environment terrain = map.getLocation(w, h).getEnvironment();
+        Environment terrain = map.getEnvironment(w, h);
         if( p.canStandOn(terrain) )
         {
           validTiles++;
@@ -153,14 +154,17 @@ public class WallyAI extends ModularAI
     super.initTurn(gameMap);
     if( null == unitEffectiveMove )
       init(gameMap);
-    log(String.format("[======== Wally initializing turn %s for %s =========]", turnNum, myArmy));
+    log("[======== Wally initializing turn %s for %s =========]", turnNum, myArmy);
   }
 
   @Override
   public void endTurn()
   {
     super.endTurn();
-    log(String.format("[======== Wally ending turn %s for %s =========]", turnNum, myArmy));
+    if( null != evictions )
+      log("Evictions so far: %s attempted, %s skipped as known failures, %s cycles",
+                        evictions.evictions, evictions.knownFailures, evictions.cycles);
+    log("[======== Wally ending turn %s for %s =========]", turnNum, myArmy);
   }
 
   public static class SiegeAttacks extends UnitActionFinder
@@ -181,11 +185,12 @@ public class WallyAI extends ModularAI
       if( AIUtils.isFriendlyProduction(gameMap, myArmy, coord) || !unit.model.hasImmobileWeapon() )
         return bestAttack;
 
-      // Figure out how to get here.
-      GamePath movePath = Utils.findShortestPath(unit, coord, gameMap);
-
-      // Figure out what I can do here.
-      ArrayList<GameActionSet> actionSets = unit.getPossibleActions(gameMap, movePath);
+      // Figure out how to get here, and what I can do here.
+      AIWorldModel.UnitOptions options = ai.world.getOptions(unit, gameMap, true);
+      GamePath movePath = options.paths.get(coord);
+      ArrayList<GameActionSet> actionSets = options.actions.get(coord);
+      if( null == actionSets )
+        return bestAttack;
       double bestDamage = 0;
       for( GameActionSet actionSet : actionSets )
       {
@@ -206,10 +211,10 @@ public class WallyAI extends ModularAI
           }
         }
       }
-      if( null != bestAttack )
+      if( null != bestAttack && ai.trace.isEnabled() )
       {
-        ai.log(String.format("%s is shooting %s",
-            unit.toStringWithLocation(), gameMap.getLocation(bestAttack.getTargetLocation()).getResident()));
+        ai.log("%s is shooting %s",
+            unit, gameMap.getLocation(bestAttack.getTargetLocation()).getResident());
       }
       return bestAttack;
     }
@@ -278,11 +283,13 @@ public class WallyAI extends ModularAI
 
       for( XYCoord coord : new ArrayList<XYCoord>(targets) )
       {
+        if( ai.budget.isExpired() )
+          break;
         Unit resident = gameMap.getResident(coord);
         if( null != resident && myCo.isEnemy(resident.CO) )
         {
           targetLoc = coord;
-          neededAttacks = AICombatUtils.findMultiHitKill(gameMap, resident, unitQueue, industries);
+          neededAttacks = AICombatUtils.findMultiHitKill(gameMap, resident, unitQueue, industries, ai.world, ai.budget);
           if( null != neededAttacks )
             break;
         }
@@ -301,7 +308,7 @@ public class WallyAI extends ModularAI
       Unit target = gameMap.getLocation(targetLoc).getResident();
       if( null == target )
       {
-        ai.log(String.format("    NHitKO target is ded. Ayy."));
+        ai.log("    NHitKO target is ded. Ayy.");
         reset();
         return null;
       }
@@ -313,8 +320,9 @@ public class WallyAI extends ModularAI
           continue;
 
         damageSum += CombatEngine.simulateBattleResults(unit, target, gameMap, xyc).defender.getPreciseHPDamage();
-        ai.log(String.format("    %s brings the damage total to %s", unit.toStringWithLocation(), damageSum));
-        return new BattleLifecycle.BattleAction(gameMap, unit, Utils.findShortestPath(unit, xyc, gameMap), target.x, target.y);
+        if( ai.trace.isEnabled() )
+          ai.log("    %s brings the damage total to %s", unit, damageSum);
+        return new BattleLifecycle.BattleAction(gameMap, unit, ai.world.getPath(unit, xyc, gameMap), target.x, target.y);
       }
       // If we're here, we're either done or we need to clear out friendly blockers
       for( XYCoord xyc : neededAttacks.keySet() )
@@ -326,7 +334,7 @@ public class WallyAI extends ModularAI
         boolean ignoreSafety = true, avoidProduction = true;
         return ai.evictUnit(gameMap, ai.allThreats, ai.threatMap, neededAttacks.get(xyc), resident, ignoreSafety, avoidProduction);
       }
-      ai.log(String.format("    NHitKO ran out of attacks to do"));
+      ai.log("    NHitKO ran out of attacks to do");
       reset();
       return null;
     }
@@ -349,30 +357,16 @@ public class WallyAI extends ModularAI
     {
       ai.allThreats = new ArrayList<Unit>();
       ai.threatMap = new HashMap<UnitModel, Map<XYCoord, Double>>();
-      Map<Commander, ArrayList<Unit>> unitLists = AIUtils.getEnemyUnitsByCommander(myCo, gameMap);
-      for( UnitModel um : myCo.cos[0].unitModels )
+      Map<Commander, ArrayList<Unit>> unitLists = ai.world.getEnemyUnitsByCommander(gameMap);
+      for( Commander co : unitLists.keySet() )
       {
-        ai.threatMap.put(um, new HashMap<XYCoord, Double>());
-        for( Commander co : unitLists.keySet() )
-        {
-          if( myCo.isEnemy(co) )
-          {
-            for( Unit threat : unitLists.get(co) )
-            {
-              // add each new threat to the existing threats
-              ai.allThreats.add(threat);
-              Map<XYCoord, Double> threatArea = ai.threatMap.get(um);
-              for( Entry<XYCoord, Double> newThreat : AICombatUtils.findThreatPower(gameMap, threat, um).entrySet() )
-              {
-                if( null == threatArea.get(newThreat.getKey()) )
-                  threatArea.put(newThreat.getKey(), newThreat.getValue());
-                else
-                  threatArea.put(newThreat.getKey(), newThreat.getValue() + threatArea.get(newThreat.getKey()));
-              }
-            }
-          }
-        }
+        if( myCo.isEnemy(co) )
+          ai.allThreats.addAll(unitLists.get(co));
       }
+      // The per-model totals are kept until some enemy's reach changes.
+      ai.enemyReach = ai.world.getEnemyReach(gameMap);
+      for( UnitModel um : myCo.cos[0].unitModels )
+        ai.threatMap.put(um, ai.enemyReach.getThreatPower(um));
 
       return null;
     }
@@ -408,7 +402,8 @@ public class WallyAI extends ModularAI
       MapLocation unitLoc = gameMap.getLocation(position);
 
       boolean includeOccupiedSpaces = true; // Since we know how to shift friendly units out of the way
-      ArrayList<XYCoord> destinations = Utils.findPossibleDestinations(unit, gameMap, includeOccupiedSpaces);
+      AIWorldModel.UnitOptions options = ai.world.getOptions(unit, gameMap, includeOccupiedSpaces);
+      ArrayList<XYCoord> destinations = new ArrayList<XYCoord>(options.destinations);
       if( mustMove )
         destinations.remove(new XYCoord(unit.x, unit.y));
       destinations.removeAll(AIUtils.findAlliedIndustries(gameMap, co.army, destinations, !avoidProduction));
@@ -416,13 +411,29 @@ public class WallyAI extends ModularAI
       Utils.sortLocationsByDistance(position, destinations);
       Collections.reverse(destinations);
 
-      for( XYCoord moveCoord : destinations )
+      // Normally we stop simulating at the first attack worth making; when we can farm the simulations out, just do them all up front.
+      Map<GameAction, double[]> attackOutcomes = null;
+      if( ParallelScoring.isEnabled() )
       {
-        // Figure out how to get here.
-        GamePath movePath = Utils.findShortestPath(unit, moveCoord, gameMap);
+        ArrayList<GameAction> attacks = new ArrayList<GameAction>();
+        for( XYCoord moveCoord : destinations )
+          for( GameActionSet actionSet : options.actions.get(moveCoord) )
+            if( actionSet.getSelected().getType() == UnitActionFactory.ATTACK )
+              for( GameAction ga : actionSet.getGameActions() )
+                if( null != gameMap.getResident(ga.getTargetLocation()) )
+                  attacks.add(ga);
+        List<double[]> outcomes = ParallelScoring.scoreAll(gameMap, attacks,
+            (ga, map) -> predictAttack(unit, options.paths.get(ga.getMoveLocation()), ga, map));
+        attackOutcomes = new IdentityHashMap<GameAction, double[]>();
+        for( int i = 0; i < attacks.size(); ++i )
+          attackOutcomes.put(attacks.get(i), outcomes.get(i));
+      }
 
-        // Figure out what I can do here.
-        ArrayList<GameActionSet> actionSets = unit.getPossibleActions(gameMap, movePath, includeOccupiedSpaces);
+      for( XYCoord moveCoord : destinations )
+      {
+        // Figure out how to get here, and what I can do here.
+        GamePath movePath = options.paths.get(moveCoord);
+        ArrayList<GameActionSet> actionSets = options.actions.get(moveCoord);
         for( GameActionSet actionSet : actionSets )
         {
           boolean spaceFree = gameMap.isLocationEmpty(unit, moveCoord);
@@ -439,22 +450,25 @@ public class WallyAI extends ModularAI
               Unit target = targetLoc.getResident();
               if( null == target )
                 continue;
-              BattleSummary results =
-                  CombatEngine.simulateBattleResults(unit, target, gameMap, movePath);
-              double loss   = Math.min(unit  .getHP(), (int)results.attacker.getPreciseHPDamage());
-              double damage = Math.min(target.getHP(), (int)results.defender.getPreciseHPDamage());
+              double[] outcome = (null != attackOutcomes) ? attackOutcomes.get(ga) : predictAttack(unit, movePath, ga, gameMap);
+              double loss   = outcome[0];
+              double damage = outcome[1];
               
               boolean goForIt = false;
               if( valueUnit(target, targetLoc, false) * Math.floor(damage) * AGGRO_FUNDS_WEIGHT > valueUnit(unit, unitLoc, true) )
               {
-                ai.log(String.format("  %s is going aggro on %s", unit.toStringWithLocation(), target.toStringWithLocation()));
-                ai.log(String.format("    He plans to deal %s HP damage for a net gain of %s funds", damage, (target.getCost() * damage - unit.getCost() * unit.getHP())/10));
+                if( ai.trace.isEnabled() )
+                {
+                  ai.log("  %s is going aggro on %s", unit, target);
+                  ai.log("    He plans to deal %s HP damage for a net gain of %s funds", damage, (target.getCost() * damage - unit.getCost() * unit.getHP())/10);
+                }
                 goForIt = true;
               }
               else if( damage > loss
                      && ai.canWallHere(gameMap, ai.threatMap, unit, ga.getMoveLocation()) )
               {
-                ai.log(String.format("  %s thinks it's safe to attack %s", unit.toStringWithLocation(), target.toStringWithLocation()));
+                if( ai.trace.isEnabled() )
+                  ai.log("  %s thinks it's safe to attack %s", unit, target);
                 goForIt = true;
               }
 
@@ -487,6 +501,16 @@ public class WallyAI extends ModularAI
       }
       return null;
     }
+
+    /** @return The HP the unit would lose and the HP it would deal, in that order, by making this attack. */
+    private static double[] predictAttack(Unit unit, GamePath movePath, GameAction attack, GameMap gameMap)
+    {
+      Unit target = gameMap.getResident(attack.getTargetLocation());
+      BattleSummary results = CombatEngine.simulateBattleResults(unit, target, gameMap, movePath);
+      double loss   = Math.min(unit  .getHP(), (int)results.attacker.getPreciseHPDamage());
+      double damage = Math.min(target.getHP(), (int)results.defender.getPreciseHPDamage());
+      return new double[] { loss, damage };
+    }
   }
 
   // If no attack/capture actions are available now, just move around
@@ -503,7 +527,8 @@ public class WallyAI extends ModularAI
     @Override
     public GameAction getUnitAction(Unit unit, GameMap gameMap)
     {
-      ai.log(String.format("Evaluating travel for %s.", unit.toStringWithLocation()));
+      if( ai.trace.isEnabled() )
+        ai.log("Evaluating travel for %s.", unit);
       boolean avoidProduction = false;
       boolean ignoreSafety = false;
       return ai.findTravelAction(gameMap, ai.allThreats, ai.threatMap, unit, false, ignoreSafety, avoidProduction);
@@ -529,7 +554,7 @@ public class WallyAI extends ModularAI
     {
       if( null != builds )
       {
-        ai.log(String.format("Warning - builds not null on turn end; contains %s", builds));
+        ai.log("Warning - builds not null on turn end; contains %s", builds);
         builds = null;
       }
     }
@@ -542,7 +567,7 @@ public class WallyAI extends ModularAI
 
       for( XYCoord coord : new ArrayList<XYCoord>(builds.keySet()) )
       {
-        ai.log(String.format("Attempting to build %s at %s", builds.get(coord), coord));
+        ai.log("Attempting to build %s at %s", builds.get(coord), coord);
         Unit resident = gameMap.getResident(coord);
         if( null != resident )
         {
@@ -554,7 +579,7 @@ public class WallyAI extends ModularAI
             return eviction;
           else
           {
-            ai.log(String.format("  Can't evict unit %s to build %s", resident.toStringWithLocation(), builds.get(coord)));
+            ai.log("  Can't evict unit %s to build %s", resident, builds.get(coord));
             builds.remove(coord);
             continue;
           }
@@ -570,7 +595,7 @@ public class WallyAI extends ModularAI
         }
         else
         {
-          ai.log(String.format("  Trying to build %s, but it's unavailable at %s", toBuy, coord));
+          ai.log("  Trying to build %s, but it's unavailable at %s", toBuy, coord);
           continue;
         }
       }
@@ -591,7 +616,7 @@ public class WallyAI extends ModularAI
     uc.calculateActionTypes();
     ArrayList<XYCoord> goals = new ArrayList<XYCoord>();
 
-    ArrayList<XYCoord> stations = AIUtils.findRepairDepots(unit);
+    ArrayList<XYCoord> stations = world.getRepairDepots(unit);
     Utils.sortLocationsByTravelTime(unit, stations, gameMap);
 
     boolean shouldResupply = false;
@@ -612,7 +637,8 @@ public class WallyAI extends ModularAI
 
     if( shouldResupply )
     {
-      log(String.format("  %s needs supplies.", unit.toStringWithLocation()));
+      if( trace.isEnabled() )
+        log("  %s needs supplies.", unit);
       goals.addAll(stations);
       if( avoidProduction )
         goals.removeAll(AIUtils.findAlliedIndustries(gameMap, myArmy, goals, !avoidProduction));
@@ -679,9 +705,12 @@ public class WallyAI extends ModularAI
     return goals;
   }
 
-  /** Functions as working memory to prevent eviction cycles */
-  private transient Set<Unit> evictionStack;
+  /** Functions as working memory to prevent eviction cycles, and to avoid re-checking the same blockers */
+  private transient EvictionPlanCache evictions;
+  private transient boolean evictionCutShort;
+  private transient int evictionAttempts;
   private static final int    EVICTION_STACK_MAX_DEPTH = 7;
+  private static final int    EVICTION_ATTEMPTS_MAX = 64;
   /**
    * Queue the first action required to move a unit out of the way
    * For use after unit building is complete
@@ -694,41 +723,57 @@ public class WallyAI extends ModularAI
                         boolean ignoreSafety,
                         boolean avoidProduction )
   {
-    boolean isBase = false;
-    if( null == evictionStack )
-    {
-      evictionStack = new HashSet<Unit>();
-      isBase = true;
-    }
-
-    String spacing = "";
-    for( int i = 0; i < evictionStack.size(); ++i ) spacing += "  ";
-    log(String.format("%sAttempting to evict %s", spacing, unit.toStringWithLocation()));
-    if( evicter != null )
-      evictionStack.add(evicter);
-
-    if( evictionStack.contains(unit) )
+    if( budget.isExpired() )
     {
-      log(String.format("%s  Eviction cycle! Bailing.", spacing));
+      log("  Out of time to evict %s", unit);
+      evictionCutShort = true;
       return null;
     }
-    if( evictionStack.size() > EVICTION_STACK_MAX_DEPTH )
+    if( null == evictions )
+      evictions = new EvictionPlanCache();
+    boolean isBase = evictions.isIdle();
+    if( isBase )
     {
-      log(String.format("%s  Too many units blocking! Bailing.", spacing));
-      return null;
+      evictions.refresh(gameMap, threatMap);
+      evictionCutShort = false;
+      evictionAttempts = 0;
     }
-    evictionStack.add(unit);
 
-    boolean mustMove = true, canEvict = true;
-    GameAction result = FreeRealEstate.findValueAction(unit.CO, this, unit, gameMap, mustMove, avoidProduction, canEvict);
-    if( null == result )
+    String spacing = AITrace.indent(evictions.getDepth());
+    if( trace.isEnabled() )
+      log("%sAttempting to evict %s", spacing, unit);
+    if( evicter != null )
+      evictions.addEvicter(evicter);
+
+    GameAction result = null;
+    List<Unit> cycle = evictions.findCycle(unit);
+    if( null != cycle )
+      log("%s  Eviction cycle through %s! Bailing.", spacing, cycle);
+    else if( evictions.getDepth() > EVICTION_STACK_MAX_DEPTH )
+      log("%s  Too many units blocking! Bailing.", spacing);
+    else if( evictions.isKnownFailure(unit, ignoreSafety, avoidProduction) )
+      log("%s  Already know %s can't move. Bailing.", spacing, unit);
+    else if( ++evictionAttempts > EVICTION_ATTEMPTS_MAX )
     {
-      result = findTravelAction(gameMap, allThreats, threatMap, unit, ignoreSafety, mustMove, avoidProduction);
+      log("%s  Too many eviction attempts! Bailing.", spacing);
+      evictionCutShort = true;
+    }
+    else
+    {
+      evictions.push(unit);
+      boolean mustMove = true, canEvict = true;
+      result = FreeRealEstate.findValueAction(unit.CO, this, unit, gameMap, mustMove, avoidProduction, canEvict);
+      if( null == result )
+      {
+        result = findTravelAction(gameMap, allThreats, threatMap, unit, ignoreSafety, mustMove, avoidProduction);
+      }
+      evictions.pop(unit, null != result, ignoreSafety, avoidProduction, !evictionCutShort);
     }
 
     if( isBase )
-      evictionStack = null;
-    log(String.format("%s  Eviction of %s success? %s", spacing, unit.toStringWithLocation(), null != result));
+      evictions.finish();
+    if( trace.isEnabled() )
+      log("%s  Eviction of %s success? %s", spacing, unit, null != result);
     return result;
   }
 
@@ -744,7 +789,8 @@ public class WallyAI extends ModularAI
   {
     // Find the possible destinations.
     boolean ignoreResident = true;
-    ArrayList<XYCoord> destinations = Utils.findPossibleDestinations(unit, gameMap, ignoreResident);
+    AIWorldModel.UnitOptions options = world.getOptions(unit, gameMap, ignoreResident);
+    ArrayList<XYCoord> destinations = new ArrayList<XYCoord>(options.destinations);
     destinations.removeAll(AIUtils.findAlliedIndustries(gameMap, myArmy, destinations, !avoidProduction));
 
     // TODO: Jump in a transport, if available, or join?
@@ -779,14 +825,19 @@ public class WallyAI extends ModularAI
     // Sort my currently-reachable move locations by distance from the goal,
     // and build a GameAction to move to the closest one.
     Utils.sortLocationsByDistance(pathPoint, destinations);
-    log(String.format("  %s is traveling toward %s at %s via %s  mustMove?: %s  ignoreSafety?: %s",
-                          unit.toStringWithLocation(),
+    if( trace.isEnabled() )
+      log("  %s is traveling toward %s at %s via %s  mustMove?: %s  ignoreSafety?: %s",
+                          unit,
                           gameMap.getLocation(goal).getEnvironment().terrainType, goal,
-                          pathPoint, mustMove, ignoreSafety));
-    for( XYCoord xyc : destinations )
+                          pathPoint, mustMove, ignoreSafety);
+    List<Boolean> safeDestinations = null;
+    if( !ignoreSafety && ParallelScoring.isEnabled() )
+      safeDestinations = ParallelScoring.scoreAll(gameMap, destinations, (xyc, map) -> canWallHere(map, threatMap, unit, xyc));
+    for( int i = 0; i < destinations.size(); ++i )
     {
-      log(String.format("    is it safe to go to %s?", xyc));
-      if( !ignoreSafety && !canWallHere(gameMap, threatMap, unit, xyc) )
+      XYCoord xyc = destinations.get(i);
+      trace.event(unit, xyc, Double.NaN, "is it safe?");
+      if( !ignoreSafety && !((null != safeDestinations) ? safeDestinations.get(i) : canWallHere(gameMap, threatMap, unit, xyc)) )
         continue;
 
       GameAction action = null;
@@ -800,10 +851,10 @@ public class WallyAI extends ModularAI
         if( null != action ) return action;
         continue;
       }
-      log(String.format("    Yes"));
+      log("    Yes");
 
-      GamePath movePath = Utils.findShortestPath(unit, xyc, gameMap);
-      ArrayList<GameActionSet> actionSets = unit.getPossibleActions(gameMap, movePath, ignoreResident);
+      GamePath movePath = options.paths.get(xyc);
+      ArrayList<GameActionSet> actionSets = options.actions.get(xyc);
       if( actionSets.size() > 0 )
       {
         // Since we're moving anyway, might as well try shooting the scenery
@@ -812,9 +863,9 @@ public class WallyAI extends ModularAI
           if( actionSet.getSelected().getType() == UnitActionFactory.ATTACK )
           {
             double bestDamage = 0;
-            for( GameAction attack : actionSet.getGameActions() )
-            {
-              double damageValue = AICombatUtils.scoreAttackAction(unit, attack, gameMap,
+            ArrayList<GameAction> attacks = actionSet.getGameActions();
+            List<Double> damageValues = ParallelScoring.scoreAll(gameMap, attacks,
+                (attack, map) -> AICombatUtils.scoreAttackAction(unit, attack, map,
                   (results) -> {
                     double loss   = Math.min(unit                 .getHP(), (int)results.attacker.getPreciseHPDamage());
                     double damage = Math.min(results.defender.unit.getHP(), (int)results.defender.getPreciseHPDamage());
@@ -823,11 +874,14 @@ public class WallyAI extends ModularAI
                       return damage * results.defender.unit.getCost();
 
                     return 0.;
-                  }, (terrain, params) -> 0.01); // Attack terrain, but don't prioritize it over units
-
+                  }, (terrain, params) -> 0.01)); // Attack terrain, but don't prioritize it over units
+            for( int a = 0; a < attacks.size(); ++a )
+            {
+              GameAction attack = attacks.get(a);
+              double damageValue = damageValues.get(a);
               if( damageValue > bestDamage )
               {
-                log(String.format("      Best en passant attack deals %s", damageValue));
+                trace.event(unit, xyc, damageValue, "best en passant attack so far");
                 bestDamage = damageValue;
                 action = attack;
               }
@@ -845,6 +899,8 @@ public class WallyAI extends ModularAI
 
   private boolean isSafe(GameMap gameMap, Map<UnitModel, Map<XYCoord, Double>> threatMap, Unit unit, XYCoord xyc)
   {
+    if( null != enemyReach && !enemyReach.isThreatened(xyc) )
+      return true;
     Double threat = threatMap.get(unit.model).get(xyc);
     int threshhold = unit.model.hasDirectFireWeapon() ? DIRECT_THREAT_THRESHOLD : INDIRECT_THREAT_THRESHOLD;
     return (null == threat || threshhold > threat);
@@ -979,8 +1035,8 @@ public class WallyAI extends ModularAI
     final int infCost = infModel.costBase;
 
     // Get a count of enemy forces.
-    Map<Commander, ArrayList<Unit>> unitLists = AIUtils.getEnemyUnitsByCommander(myArmy, gameMap);
-    Map<UnitModel, Double> enemyUnitCounts = new HashMap<UnitModel, Double>();
+    Map<Commander, ArrayList<Unit>> unitLists = world.getEnemyUnitsByCommander(gameMap);
+    Map<UnitModel, Double> enemyUnitCounts = new LinkedHashMap<UnitModel, Double>();
     for( Commander co : unitLists.keySet() )
     {
       if( myArmy.isEnemy(co) )
@@ -1042,8 +1098,8 @@ public class WallyAI extends ModularAI
       // there is not reason to consider it again on the next iteration.
       UnitModel enemyToCounter = enemyModels.poll().getKey();
       double enemyNumber = enemyUnitCounts.get(enemyToCounter);
-      log(String.format("Need a counter for %sx%s", enemyToCounter, enemyNumber / enemyToCounter.costBase / UnitModel.MAXIMUM_HP));
-      log(String.format("Remaining budget: %s", budget));
+      log("Need a counter for %sx%s", enemyToCounter, enemyNumber / enemyToCounter.costBase / UnitModel.MAXIMUM_HP);
+      log("Remaining budget: %s", budget);
 
       // Get our possible options for countermeasures.
       ArrayList<UnitModel> availableUnitModels = new ArrayList<>();
@@ -1060,7 +1116,7 @@ public class WallyAI extends ModularAI
         // I only want combat units, since I don't understand transports
         if( !idealCounter.weapons.isEmpty() )
         {
-          log(String.format("  buy %s?", idealCounter));
+          log("  buy %s?", idealCounter);
           XYCoord coord = getLocationToBuild(CPI, idealCounter);
           if (null == coord)
             continue;
@@ -1079,8 +1135,8 @@ public class WallyAI extends ModularAI
           if(totalCost <= (budget - costBuffer))
           {
             // Go place orders.
-            log(String.format("    I can build %s for a cost of %s (%s remaining, witholding %s)",
-                                    idealCounter, totalCost, budget, costBuffer));
+            log("    I can build %s for a cost of %s (%s remaining, witholding %s)",
+                                    idealCounter, totalCost, budget, costBuffer);
             builds.put(coord, idealCounter);
             budget -= idealCost;
             CPI.removeBuildLocation(gameMap.getLocation(coord));
@@ -1090,7 +1146,7 @@ public class WallyAI extends ModularAI
           }
           else
           {
-            log(String.format("    %s cost %s, I have %s (witholding %s).", idealCounter, idealCost, budget, costBuffer));
+            log("    %s cost %s, I have %s (witholding %s).", idealCounter, idealCost, budget, costBuffer);
           }
         }
       } // ~while( !availableUnitModels.isEmpty() )
@@ -1109,10 +1165,11 @@ public class WallyAI extends ModularAI
       builds.put(infCoord, infModel);
       budget -= cost;
       CPI.removeBuildLocation(gameMap.getLocation(infCoord));
-      log(String.format("  At %s (%s remaining)", infCoord, budget));
+      log("  At %s (%s remaining)", infCoord, budget);
       infCoord = getLocationToBuild(CPI, infModel);
     }
 
+
     return builds;
   }
 
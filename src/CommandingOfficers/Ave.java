@@ -7,6 +7,7 @@ import java.util.Iterator;
 import java.util.PriorityQueue;
 import java.util.Set;
 import java.util.Stack;
+import java.util.function.Supplier;
 
 import Engine.GameInstance;
 import Engine.GameScenario;
@@ -169,7 +170,7 @@ public class Ave extends Commander
     addSnow(SNOW_PER_TURN, gameMap, returnEvents); // Enough to spread a bit each way.
     relevelSnow(gameMap, returnEvents); // Enough to spread a bit each way.
 
-    if(snowLoggingEnabled) log("[Commander Ave.initTurn] Snow Map: \n" + getSnowMapAsString());
+    log(() -> "[Commander Ave.initTurn] Snow Map: \n" + getSnowMapAsString());
     return returnEvents;
   }
 
@@ -194,6 +195,16 @@ public class Ave extends Commander
   {
     if(snowLoggingEnabled) System.out.println(message);
   }
+  /** Only formats the message if logging is on. */
+  private void log(String format, Object... args)
+  {
+    if(snowLoggingEnabled) System.out.println(String.format(format, args));
+  }
+  /** For messages that take some work to build; the lambda only runs if logging is on. */
+  private void log(Supplier<String> message)
+  {
+    if(snowLoggingEnabled) System.out.println(message.get());
+  }
 
   /**
    * Dump extra snow on Ave's properties and then spread it around.
@@ -227,7 +238,7 @@ public class Ave extends Commander
   private void relevelSnow(GameMap gameMap, GameEventQueue outEvents)
   {
     log("  Starting snow map:");
-    log(getSnowMapAsString());
+    log(this::getSnowMapAsString);
 
     HashSet<XYCoord> roots = new HashSet<XYCoord>();
     HashSet<XYCoord> frontier = new HashSet<XYCoord>(); // The next set of tiles to expand.
@@ -279,24 +290,26 @@ public class Ave extends Commander
       while(!sortedLeaves.isEmpty()) leafStack.push(sortedLeaves.poll().snowCoord);
       while(!leafStack.isEmpty())
       {
-        Iterator<XYCoord> stackIter = leafStack.iterator();
-        StringBuffer stackBuf = new StringBuffer("current stack: ");
-        while( stackIter.hasNext() ) stackBuf.append(stackIter.next()).append(" ");
-        log(stackBuf.toString());
+        log(() -> {
+          Iterator<XYCoord> stackIter = leafStack.iterator();
+          StringBuffer stackBuf = new StringBuffer("current stack: ");
+          while( stackIter.hasNext() ) stackBuf.append(stackIter.next()).append(" ");
+          return stackBuf.toString();
+        });
 
         // Get the leaf; only nodes with at least SNOW_THRESHOLD are able to be expanded.
         XYCoord leaf = leafStack.pop();
         roots.add(leaf); // We are processing this node and don't want to revisit it.
         disconnected.remove(leaf); // Don't consider this tile for melting later.
-        log(String.format("Tile %s is connected", leaf));
+        log("Tile %s is connected", leaf);
 
         if( oldSnowMap[leaf.xCoord][leaf.yCoord] <= SNOW_THRESHOLD )
         {
-          log("  Skipping shallow leaf " + leaf);
+          log("  Skipping shallow leaf %s", leaf);
           continue;
         }
 
-        log(getSnowMapAsString());
+        log(this::getSnowMapAsString);
 
         // Figure out how much snow we can spread from this leaf.
         int snowToSpread = oldSnowMap[leaf.xCoord][leaf.yCoord] - SNOW_THRESHOLD; // Have to leave some behind.
@@ -305,8 +318,8 @@ public class Ave extends Commander
         // Collect the adjacent tiles that can collect snow from leaf.
         ArrayList<XYCoord> potentials = Utils.findLocationsInRange(gameMap, leaf, 1);
 
-        log("Expanding leaf " + leaf);
-        log("  snow to spread: " + snowToSpread);
+        log("Expanding leaf %s", leaf);
+        log("  snow to spread: %s", snowToSpread);
         log("  adjacents:");
 
         // Sort valid neighbors by snow depth, lowest first.
@@ -317,14 +330,14 @@ public class Ave extends Commander
           {
             SnowPail neighbor = new SnowPail(pot, oldSnowMap[pot.xCoord][pot.yCoord]);
             workingSet.offer(neighbor);
-            log("    " + pot + ": " + neighbor.snowDepth);
+            log("    %s: %s", pot, neighbor.snowDepth);
           }
 
         // This will hold the tiles we are spreading snow to.
         HashSet<XYCoord> shallowTiles = new HashSet<XYCoord>();
         while( (snowToSpread > 0) )
         {
-          log("Snow to spread: " + snowToSpread);
+          log("Snow to spread: %s", snowToSpread);
           // Pull out the most empty tiles still in the working set.
           double mostShallow = 0;
           double nextMostShallow = 0;
@@ -333,7 +346,7 @@ public class Ave extends Commander
             mostShallow = workingSet.peek().snowDepth;
             while( !workingSet.isEmpty() && (workingSet.peek().snowDepth == mostShallow) )
             {
-              log(" adding " + workingSet.peek().snowCoord + " to working set");
+              log(" adding %s to working set", workingSet.peek().snowCoord);
               shallowTiles.add(workingSet.poll().snowCoord);
             }
             nextMostShallow = (workingSet.isEmpty()) ? mostShallow+snowToSpread : workingSet.peek().snowDepth;
@@ -346,8 +359,8 @@ public class Ave extends Commander
               shallowTiles.remove(leaf); // If leaf is max depth, just push extra to other unprocessed tiles.
             nextMostShallow = mostShallow + snowToSpread;
           }
-          log(" most shallow: " + mostShallow);
-          log(" next most shallow: " + nextMostShallow);
+          log(" most shallow: %s", mostShallow);
+          log(" next most shallow: %s", nextMostShallow);
 
           // Add snow to the minimum tiles in equal measure until they reach the next minimum depth.
           int numShallowTiles = shallowTiles.size(); // The number of equally-empty tiles.
@@ -371,26 +384,26 @@ public class Ave extends Commander
           // Make the donation.
           for( XYCoord coord : shallowTiles )
           {
-            log("    moving " + payment + " snow to " + coord);
+            log("    moving %s snow to %s", payment, coord);
             snowToSpread -= payment;
             snowMap[coord.xCoord][coord.yCoord] += payment;
             if( (snowMap[coord.xCoord][coord.yCoord] >= SNOW_THRESHOLD) )
             {
               toSnow.add(coord);
-              log(String.format("Ensuring %s is SNOW", coord));
+              log("Ensuring %s is SNOW", coord);
             }
 
             // Add coord to the frontier if it's not already in the current set of leaves so we can expand it next.
             if( !roots.contains(coord) && !leafStack.contains(coord) ) // If we haven't seen this next node yet, add it
             {
-              log(String.format("Adding %s to frontier", coord));
+              log("Adding %s to frontier", coord);
               frontier.add(coord);  // to the frontier so we can process it on the next pass.
             }
           }
         } // while snowToSpread > 0
       } // !while( !leafIter.hasNext() )
 
-      log(getSnowMapAsString());
+      log(this::getSnowMapAsString);
       log("---------- FINISHED current set of leaves -------------------" );
     } // ~while( !leaves.isEmpty() )
 
@@ -408,7 +421,7 @@ public class Ave extends Commander
     {
       int oldVal = snowMap[dis.xCoord][dis.yCoord];
       snowMap[dis.xCoord][dis.yCoord] = (oldVal - SNOW_MELT_RATE < 0)? 0 : oldVal - SNOW_MELT_RATE;
-      if( snowLoggingEnabled ) log("Snow at " + dis + " melting from " + oldVal + " to " + snowMap[dis.xCoord][dis.yCoord]);
+      log("Snow at %s melting from %s to %s", dis, oldVal, snowMap[dis.xCoord][dis.yCoord]);
     }
 
     // Update weather forecast.
@@ -426,7 +439,7 @@ public class Ave extends Commander
     }
 
     log("---------- FINAL state after relevel -------------------" );
-    log(getSnowMapAsString());
+    log(this::getSnowMapAsString);
   }
 
   public int[][] getSnowMapClone()
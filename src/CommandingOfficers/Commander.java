@@ -250,6 +250,12 @@ public class Commander implements GameEventListener, Serializable, UnitModifierW
     myActiveAbility = ability;
   }
 
+  /** Sets ability power straight back to a value it had before, e.g. when undoing a simulated action. */
+  public void restoreAbilityPower(double power)
+  {
+    myAbilityPower = power;
+  }
+
   public void modifyAbilityPower(double amount)
   {
     myAbilityPower += amount;
@@ -359,6 +359,11 @@ public class Army implements GameEventListener, Serializable, UnitModList, UnitM
     aiController = ai;
   }
 
+  public AIController getAIController()
+  {
+    return aiController;
+  }
+
   public String getControllerName()
   {
     if( null != aiController )
@@ -97,8 +97,9 @@ public class Driver implements ActionListener, KeyListener
   @Override // From ActionListener
   public void actionPerformed(ActionEvent arg0)
   {
-    // Redraw the screen if needed.
-    gameWindow.repaint();
+    // Redraw the screen if needed. If the view says nothing has changed, let the frame go by.
+    if( gameView.needsRepaint() )
+      gameWindow.repaint();
   }
 
   public static void main(String args[])
@@ -137,6 +138,8 @@ public class Driver implements ActionListener, KeyListener
         // Reinstate the previous controller/view.
         changeGameState( destination.controller, destination.view );
       }
+      // Show the result right away rather than waiting for the view to notice.
+      gameWindow.repaint();
     }
   }
 
@@ -198,6 +201,11 @@ public class Driver implements ActionListener, KeyListener
       view = v;
     }
 
+    public boolean needsRepaint()
+    {
+      return view.needsRepaint();
+    }
+
     @Override // From JComponent
     public void paintComponent(Graphics g)
     {
@@ -80,6 +80,27 @@ public class ArmyDefeatEvent implements GameEvent
     } // ~height loop
   } // ~performEvent
 
+  @Override
+  public boolean recordChanges(StateChangeRecorder log)
+  {
+    MapMaster gameMap = log.getMap();
+    log.recordDefeat(defeatedArmy);
+    for( Unit unit : defeatedArmy.getUnits() )
+    {
+      log.recordUnit(unit);
+      log.recordLocation(unit.x, unit.y);
+    }
+    for( XYCoord hqCoord : defeatedArmy.HQLocations )
+      log.recordLocation(hqCoord);
+    for( Commander co : defeatedArmy.cos )
+      for( XYCoord property : co.ownedProperties )
+      {
+        log.recordUnit(gameMap.getResident(property)); // They'll stop capturing.
+        log.recordLocation(property);
+      }
+    return true;
+  }
+
   @Override
   public XYCoord getStartPoint()
   {
@@ -40,6 +40,13 @@ public class CommanderEnergyChangeEvent implements GameEvent
     deltaActual = beneficiary.getAbilityPower() - before;
   }
 
+  @Override
+  public boolean recordChanges(StateChangeRecorder log)
+  {
+    log.recordEnergy(beneficiary);
+    return true;
+  }
+
   @Override
   public XYCoord getStartPoint()
   {
@@ -102,6 +102,24 @@ public class CreateUnitEvent implements GameEvent
     }
   }
 
+  @Override
+  public boolean recordChanges(StateChangeRecorder log)
+  {
+    if( null == myNewUnit )
+      return true;
+    log.recordUnit(myNewUnit);
+    if( myFudgeRadius < 1 || myBoots )
+    {
+      // Boots stomp whoever was there before.
+      log.recordUnit(log.getMap().getResident(myBuildCoords));
+      log.recordLocation(myBuildCoords);
+    }
+    else
+      for( XYCoord xyc : Utils.findLocationsInRange(log.getMap(), myBuildCoords, 0, myFudgeRadius) )
+        log.recordLocation(xyc);
+    return true;
+  }
+
   @Override
   public XYCoord getStartPoint()
   {
@@ -46,4 +46,11 @@ public interface GameEvent
   public XYCoord getEndPoint();
 
   public default boolean shouldEndTurn() { return false; }
+
+  /**
+   * Called just before performEvent() by anyone who needs to know what it will touch (e.g. to undo it, or
+   * to update the state hash). Tell the log about every unit, tile, and army/CO resource it's about to change.
+   * @return False if this event changes things that can't be described this way (e.g. the whole map).
+   */
+  public default boolean recordChanges(StateChangeRecorder log) { return false; }
 }
@@ -2,7 +2,6 @@ package Engine.GameEvents;
 
 import Engine.XYCoord;
 import Terrain.Environment.Weathers;
-import Terrain.MapLocation;
 import Terrain.MapMaster;
 import UI.MapView;
 import UI.Art.Animation.GameAnimation;
@@ -43,14 +42,7 @@ public class GlobalWeatherEvent implements GameEvent
   @Override
   public void performEvent(MapMaster gameMap)
   {
-    for( int y = 0; y < gameMap.mapHeight; ++y )
-    {
-      for( int x = 0; x < gameMap.mapWidth; ++x )
-      {
-        MapLocation loc = gameMap.getLocation(x, y);
-        loc.setForecast(weather, (gameMap.game.armies.length * duration) - 1);
-      }
-    }
+    gameMap.setMapForecast(weather, (gameMap.game.armies.length * duration) - 1);
   }
 
   @Override
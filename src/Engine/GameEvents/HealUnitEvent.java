@@ -61,6 +61,15 @@ public class HealUnitEvent implements GameEvent
     }
   }
 
+  @Override
+  public boolean recordChanges(StateChangeRecorder log)
+  {
+    log.recordUnit(unit);
+    if( null != payer )
+      log.recordFunds(payer);
+    return true;
+  }
+
   @Override
   public XYCoord getStartPoint()
   {
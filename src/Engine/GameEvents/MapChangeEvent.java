@@ -52,10 +52,11 @@ public class MapChangeEvent implements GameEvent
       if( null != loc )
       {
         if( loc.getEnvironment().terrainType != ea.environment.terrainType )
-          loc.durability = 99;
+          loc.setDurability(99);
         loc.setEnvironment(ea.environment);
-        if( ea.duration > 0 )
-          loc.setForecast(ea.environment.weatherType, (gameMap.game.armies.length * ea.duration) - 1);
+        // Even without a duration, let the forecast know so this tile gets re-checked next turn.
+        int armyTurns = (ea.duration > 0) ? (gameMap.game.armies.length * ea.duration) - 1 : 0;
+        gameMap.setForecast(ea.where, ea.environment.weatherType, armyTurns);
       }
     }
   }
@@ -77,6 +77,14 @@ public class MassDamageEvent implements GameEvent
     }
   }
 
+  @Override
+  public boolean recordChanges(StateChangeRecorder log)
+  {
+    for( Unit victim : victims.keySet() )
+      log.recordUnit(victim);
+    return true;
+  }
+
   @Override
   public XYCoord getStartPoint()
   {
@@ -36,6 +36,13 @@ public class ModifyFundsEvent implements GameEvent
     beneficiary.money += value;
   }
 
+  @Override
+  public boolean recordChanges(StateChangeRecorder log)
+  {
+    log.recordFunds(beneficiary);
+    return true;
+  }
+
   @Override
   public XYCoord getStartPoint()
   {
@@ -59,6 +59,18 @@ public class MoveEvent implements GameEvent
     }
   }
 
+  @Override
+  public boolean recordChanges(StateChangeRecorder log)
+  {
+    if( unitPath.getPathLength() > 0 )
+    {
+      log.recordUnit(unit);
+      log.recordLocation(unit.x, unit.y);
+      log.recordLocation(unitPath.getEndCoord());
+    }
+    return true;
+  }
+
   @Override
   public XYCoord getStartPoint()
   {
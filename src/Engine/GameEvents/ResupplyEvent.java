@@ -34,6 +34,13 @@ public class ResupplyEvent implements GameEvent
     target.resupply();
   }
 
+  @Override
+  public boolean recordChanges(StateChangeRecorder log)
+  {
+    log.recordUnit(target);
+    return true;
+  }
+
   @Override
   public XYCoord getStartPoint()
   {
@@ -0,0 +1,182 @@
+package Engine.GameEvents;
+
+import java.util.ArrayList;
+
+import CommandingOfficers.Commander;
+import Engine.Army;
+import Engine.GameAction;
+import Engine.StateHasher;
+import Engine.XYCoord;
+import Terrain.Environment;
+import Terrain.MapLocation;
+import Terrain.MapMaster;
+import Terrain.MapPerspective;
+import Units.Unit;
+
+/**
+ * Performs GameEvents directly on a live MapMaster, while noting down what each one is about to change,
+ * so the whole lot can be undone again afterward. This lets AIs look ahead without copying the game.
+ * <p>
+ * Each event records what it touches via GameEvent.recordChanges(); events that don't know how
+ * (turn changes, weather, abilities and the like) are refused rather than performed.
+ * Listeners are not notified of simulated events, so follow-on effects such as ability charge from combat
+ * aren't simulated either. Fog revealed along the way is recorded and restored along with everything else.
+ * <p>
+ * The state hash (see StateHasher) follows along, and is put back on undo.
+ * Undo cost is proportional to the number of things changed, not the size of the game.
+ */
+public class SimulationLog implements StateChangeRecorder
+{
+  private final MapMaster gameMap;
+  private final ArrayList<Runnable> undos = new ArrayList<Runnable>();
+
+  public SimulationLog(MapMaster gameMap)
+  {
+    this.gameMap = gameMap;
+  }
+
+  /**
+   * Performs the action's events. If any of them can't be undone, nothing is performed.
+   * @return True if the action was performed; false if it was refused, or isn't valid right now.
+   */
+  public boolean apply(GameAction action)
+  {
+    GameEventQueue events = action.getEvents(gameMap);
+    if( events.isEmpty() )
+      return false;
+    return apply(events);
+  }
+
+  /**
+   * Performs each event in turn, recording how to undo it first.
+   * If an event can't be undone, everything done by this call is rolled back and nothing more is performed.
+   * @return True if every event was performed.
+   */
+  public boolean apply(GameEventQueue events)
+  {
+    final int start = checkpoint();
+    final StateHasher hasher = gameMap.getStateHasher();
+    final long hash = hasher.getBoardHash();
+    undos.add(() -> hasher.setBoardHash(hash));
+    boolean ok = true;
+    watchFog(this);
+    try
+    {
+      for( GameEvent event : events )
+      {
+        if( !event.recordChanges(this) )
+        {
+          ok = false;
+          break;
+        }
+        gameMap.performEvent(event);
+      }
+    }
+    finally
+    {
+      watchFog(null);
+    }
+    if( !ok )
+      undoTo(start);
+    return ok;
+  }
+
+  private void watchFog(SimulationLog log)
+  {
+    if( null == gameMap.game )
+      return;
+    for( Army army : gameMap.game.armies )
+      if( null != army.myView )
+        army.myView.setSimulation(log);
+  }
+
+  @Override
+  public MapMaster getMap()
+  {
+    return gameMap;
+  }
+
+  /** @return A marker for the current state, to pass to undoTo() later. */
+  public int checkpoint()
+  {
+    return undos.size();
+  }
+
+  /** Rolls back everything applied since the given checkpoint, newest first. */
+  public void undoTo(int checkpoint)
+  {
+    for( int i = undos.size() - 1; i >= checkpoint; --i )
+      undos.remove(i).run();
+  }
+
+  /** Rolls back everything this log has applied. */
+  public void undoAll()
+  {
+    undoTo(0);
+  }
+
+  /** @return The number of changes that undoAll() would roll back. */
+  public int size()
+  {
+    return undos.size();
+  }
+
+  /////////////////////////////////////////////////////////////////////////////////
+  // StateChangeRecorder hooks, for GameEvent.recordChanges().
+
+  @Override
+  public void recordUnit(Unit unit)
+  {
+    if( null == unit )
+      return;
+    undos.add(new Unit.Snapshot(unit)::restore);
+  }
+
+  /** Records a tile's resident, owner, durability and terrain. Invalid coordinates are ignored. */
+  @Override
+  public void recordLocation(int x, int y)
+  {
+    final MapLocation loc = gameMap.getLocation(x, y);
+    if( null == loc )
+      return;
+    final Unit resident = loc.getResident();
+    final Commander owner = loc.getOwner();
+    final int durability = loc.getDurability();
+    final Environment environment = loc.getEnvironment();
+    undos.add(() -> {
+      MapLocation now = gameMap.getLocation(x, y);
+      now.setResident(resident);
+      if( now.getOwner() != owner )
+        now.setOwner(owner);
+      now.setDurability(durability);
+      now.setEnvironment(environment);
+    });
+  }
+
+  @Override
+  public void recordFunds(Army army)
+  {
+    final int money = army.money;
+    undos.add(() -> army.money = money);
+  }
+
+  @Override
+  public void recordDefeat(Army army)
+  {
+    final boolean defeated = army.isDefeated;
+    undos.add(() -> army.isDefeated = defeated);
+  }
+
+  @Override
+  public void recordEnergy(Commander co)
+  {
+    final double power = co.getAbilityPower();
+    undos.add(() -> co.restoreAbilityPower(power));
+  }
+
+  /** Called by MapPerspective before it reveals a tile while a simulation is running. */
+  public void recordFog(MapPerspective view, XYCoord coord, boolean fogged, Commander lastOwner, int numVisibles)
+  {
+    undos.add(() -> view.restoreFog(coord, fogged, lastOwner, numVisibles));
+  }
+}
@@ -0,0 +1,33 @@
+package Engine.GameEvents;
+
+import CommandingOfficers.Commander;
+import Engine.Army;
+import Engine.XYCoord;
+import Terrain.MapMaster;
+import Units.Unit;
+
+/**
+ * Hears about the parts of the game state an event is about to change; see GameEvent.recordChanges().
+ * It's fine for an event to record something more than once.
+ */
+public interface StateChangeRecorder
+{
+  public MapMaster getMap();
+
+  public void recordUnit(Unit unit);
+
+  /** Invalid coordinates are ignored. */
+  public void recordLocation(int x, int y);
+
+  public default void recordLocation(XYCoord coord)
+  {
+    if( null != coord )
+      recordLocation(coord.xCoord, coord.yCoord);
+  }
+
+  public void recordFunds(Army army);
+
+  public void recordEnergy(Commander co);
+
+  public void recordDefeat(Army army);
+}
@@ -80,6 +80,16 @@ public class TeleportEvent implements GameEvent
     return unit;
   }
 
+  @Override
+  public boolean recordChanges(StateChangeRecorder log)
+  {
+    log.recordUnit(unit);
+    log.recordUnit(log.getMap().getResident(unitDestination)); // Forced out of the way.
+    log.recordLocation(unit.x, unit.y);
+    log.recordLocation(unitDestination);
+    return true;
+  }
+
   @Override
   public XYCoord getStartPoint()
   {
@@ -47,6 +47,14 @@ public class UnitDieEvent implements GameEvent
     unit.CO.units.remove(unit);
   }
 
+  @Override
+  public boolean recordChanges(StateChangeRecorder log)
+  {
+    log.recordUnit(unit);
+    log.recordLocation(unit.x, unit.y);
+    return true;
+  }
+
   @Override
   public XYCoord getStartPoint()
   {
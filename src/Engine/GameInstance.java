@@ -13,6 +13,7 @@ import java.util.Set;
 import CommandingOfficers.Commander;
 import Engine.GameEvents.GameEventListener;
 import Engine.GameEvents.GameEventQueue;
+import Engine.GameEvents.GlobalWeatherEvent;
 import Engine.GameEvents.MapChangeEvent;
 import Engine.GameEvents.TurnInitEvent;
 import Engine.StateTrackers.StateTracker;
@@ -23,6 +24,7 @@ import Units.Unit;
 import Terrain.MapLocation;
 import Terrain.MapMaster;
 import Terrain.MapPerspective;
+import Terrain.WeatherScheduler;
 
 public class GameInstance implements Serializable
 {
@@ -217,40 +219,29 @@ public class GameInstance implements Serializable
       // Display "It's not your turn" message.
       boolean hideMap = true;
       events.add(new TurnInitEvent(activeArmy, currentTurn, hideMap, "It's not your turn"));
+      gameMap.getStateHasher().recompute();
       return false; // auth failed.
     }
 
-    // Set weather conditions based on forecast
-    ArrayList<MapChangeEvent.EnvironmentAssignment> weatherChanges = new ArrayList<MapChangeEvent.EnvironmentAssignment>();
-    for( int i = 0; i < gameMap.mapWidth; i++ )
-    {
-      for( int j = 0; j < gameMap.mapHeight; j++ )
-      {
-        MapLocation loc = gameMap.getLocation(i, j);
-        if( loc.forecast.isEmpty() )
-        {
-          if( loc.getEnvironment().weatherType != defaultWeather )
-          {
-            weatherChanges.add(new MapChangeEvent.EnvironmentAssignment(loc.getCoordinates(), Environment.getTile(loc.getEnvironment().terrainType, defaultWeather)));
-          }
-        }
-        else
-        {
-          Weathers weather = loc.getEnvironment().weatherType;
-          for( int turns = 0; turns < coTurns; turns++ )
-          {
-            weather = loc.forecast.poll();
-          }
-          if( null == weather ) weather = defaultWeather;
-          weatherChanges.add(new MapChangeEvent.EnvironmentAssignment(loc.getCoordinates(), Environment.getTile(loc.getEnvironment().terrainType, weather)));
-        }
-      }
-    }
+    // Set weather conditions based on forecast. Only tiles whose forecasts expire this turn are considered.
+    WeatherScheduler.WeatherChanges weather = gameMap.advanceWeather(coTurns, defaultWeather);
 
     events.add(new TurnInitEvent(activeArmy, currentTurn, isFogEnabled() || isSecurityEnabled));
 
-    if( !weatherChanges.isEmpty() )
+    // A map-wide change goes out as one event, followed by any tiles with their own forecasts.
+    if( null != weather.mapWeather )
+    {
+      events.add(new GlobalWeatherEvent(weather.mapWeather, 0));
+    }
+    if( !weather.tiles.isEmpty() )
     {
+      ArrayList<MapChangeEvent.EnvironmentAssignment> weatherChanges = new ArrayList<MapChangeEvent.EnvironmentAssignment>();
+      for( int i = 0; i < weather.tiles.size(); ++i )
+      {
+        XYCoord where = weather.tiles.get(i);
+        Environment env = Environment.getTile(gameMap.getEnvironment(where).terrainType, weather.tileWeathers.get(i));
+        weatherChanges.add(new MapChangeEvent.EnvironmentAssignment(where, env));
+      }
       events.add(new MapChangeEvent(weatherChanges));
     }
 
@@ -262,7 +253,10 @@ public class GameInstance implements Serializable
 
     // Handle any CO-specific turn events.
     events.addAll(activeArmy.initTurn(gameMap));
-    
+
+    // Units were readied directly rather than through events, so the hash needs a fresh look.
+    gameMap.getStateHasher().recompute();
+
     // Initialize the next turn, recording any events that will occur.
     return true; // Turn init successful.
   }
@@ -273,6 +267,27 @@ public class GameInstance implements Serializable
     return currentTurn;
   }
 
+  /**
+   * @return A 64-bit hash of the game state: the board, each army's funds and CO energy, and whose turn it is.
+   * Equal states give equal hashes, even across runs. The board part is kept up to date as events are
+   * performed (see MapMaster.performEvent()), so this is cheap.
+   */
+  public long stateHash()
+  {
+    return gameMap.getStateHasher().getBoardHash() ^ hashTurn();
+  }
+
+  /** Works out stateHash() from scratch, for checking the incremental version. */
+  public long computeStateHash()
+  {
+    return gameMap.getStateHasher().computeBoardHash() ^ hashTurn();
+  }
+
+  private long hashTurn()
+  {
+    return gameMap.getStateHasher().getArmyHash() ^ (((long) currentTurn << 32) | (activeCoNum & 0xFFFFFFFFL)) * 0x9E3779B97F4A7C15L;
+  }
+
   /**
    * Does any needed cleanup at the end of the game
    */
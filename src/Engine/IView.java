@@ -21,6 +21,15 @@ public interface IView
    */
   public void render(Graphics g);
 
+  /**
+   * Returns true if the view has changed (or is animating) since it was last rendered.
+   * Views that don't track this just get redrawn every frame.
+   */
+  default public boolean needsRepaint()
+  {
+    return true;
+  }
+
   /** Do any post-action cleanup, free resources, etc. */
   public abstract void cleanup();
 }
@@ -1,8 +1,11 @@
 package Engine;
 
+import java.io.File;
 import java.util.ArrayList;
 import java.util.Collection;
 
+import AI.AIController;
+import AI.AITrace;
 import CommandingOfficers.Commander;
 import Engine.Combat.DamagePopup;
 import Engine.GameEvents.GameEvent;
@@ -23,6 +26,9 @@ import Units.Unit;
 
 public class MapController implements IController, GameInputHandler.StateChangedCallback
 {
+  /** Where the "AI Trace" option writes the AIs' reasoning. */
+  private static final String AI_TRACE_DIR = "traces";
+
   private GameInstance myGame;
   private MapView myView;
 
@@ -55,6 +61,7 @@ public class MapController implements IController, GameInputHandler.StateChanged
     armyOverlayModes = new int[game.armies.length];
     isGameOver = false;
     nextSeekIndex = 0;
+    applyAITraceOption();
 
     // Start the first turn (or the next one if loading a protected save).
     if( myGame.requireInitOnLoad() )
@@ -506,7 +513,7 @@ public class MapController implements IController, GameInputHandler.StateChanged
   {
     if( null != event )
     {
-      event.performEvent(myGame.gameMap);
+      myGame.gameMap.performEvent(event);
 
       // Now that the event has been completed, let the world know.
       GameEventQueue events = GameEventListener.publishEvent(event, myGame);
@@ -539,6 +546,8 @@ public class MapController implements IController, GameInputHandler.StateChanged
 
       if( isGameOver && inputMode != InputMode.EXITGAME )
       {
+        writeAITrace();
+
         // The last action ended the game, and the animation just finished.
         //  Now we wait for one more keypress before going back to the main menu.
         changeInputMode(InputMode.EXITGAME);
@@ -618,6 +627,10 @@ public class MapController implements IController, GameInputHandler.StateChanged
   {
     nextSeekIndex = 0;
 
+    // Save what the outgoing AI was thinking, and start (or stop) tracing as the options say.
+    writeAITrace();
+    applyAITraceOption();
+
     // Tell the game a turn has changed. This will update the active CO.
     GameEventQueue turnEvents = new GameEventQueue();
     boolean turnOK = myGame.turn(turnEvents);
@@ -639,6 +652,28 @@ public class MapController implements IController, GameInputHandler.StateChanged
     }
   }
 
+  private void applyAITraceOption()
+  {
+    for( Army army : myGame.armies )
+      if( army.isAI() )
+        army.getAIController().setLogging(InputOptionsController.aiTraceOption.getSelectedObject());
+  }
+
+  /** Writes out and clears the active army's AI trace, if it has anything in it. One file per army per turn. */
+  private void writeAITrace()
+  {
+    if( null == myGame.activeArmy )
+      return;
+    AIController ai = myGame.activeArmy.getAIController();
+    if( null == ai || null == ai.getTrace() || 0 == ai.getTrace().size() )
+      return;
+    String name = String.format("%s day %d army %d %s.txt", myGame.saveFile.replace(".svp", ""),
+        myGame.getCurrentTurn(), myGame.getActiveCOIndex(), ai.getAIInfo().getName());
+    AITrace trace = ai.getTrace();
+    trace.dump(new File(AI_TRACE_DIR, name.replace(' ', '_')));
+    trace.clear();
+  }
+
   public Unit getContemplatedActor()
   {
     return myGameInputHandler.getActingUnit();
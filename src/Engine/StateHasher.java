@@ -0,0 +1,230 @@
+package Engine;
+
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import CommandingOfficers.Commander;
+import Engine.GameEvents.GameEvent;
+import Engine.GameEvents.StateChangeRecorder;
+import Terrain.Environment;
+import Terrain.MapLocation;
+import Terrain.MapMaster;
+import Units.Unit;
+
+/**
+ * Keeps a 64-bit hash of the board, Zobrist-style: every unit on the map and every tile gets its own key,
+ * mixed from its state, and the board hash is all of those keys XORed together. When an event changes
+ * something, we just XOR out the old keys of whatever it touched and XOR in the new ones.
+ * Cargo is folded into its transport's key.
+ * <p>
+ * MapMaster.performEvent() keeps this up to date, using GameEvent.recordChanges() to learn what each event touches;
+ * events that can't say (weather, abilities, turn changes) cost a full recompute. Anything that changes the map
+ * some other way needs to call recompute() afterward.
+ * Army funds and CO energy are changed all over the place, so they aren't tracked here; there are only a
+ * handful of them, so getArmyHash() just works them out on demand.
+ */
+public class StateHasher implements StateChangeRecorder
+{
+  private static final long UNIT_SALT = 0x554E4954L;
+  private static final long TILE_SALT = 0x54494C45L;
+  private static final long ARMY_SALT = 0x41524D59L;
+
+  private final MapMaster gameMap;
+  private long boardHash;
+
+  // What the event in progress said it was going to touch.
+  private final Set<Unit> touchedUnits = Collections.newSetFromMap(new IdentityHashMap<Unit, Boolean>());
+  private final BitSet touchedTiles = new BitSet();
+  private boolean touchesEverything = false;
+
+  public StateHasher(MapMaster gameMap)
+  {
+    this.gameMap = gameMap;
+    recompute();
+  }
+
+  public long getBoardHash()
+  {
+    return boardHash;
+  }
+
+  /** For putting the hash back along with the rest of the state, e.g. when undoing a simulation. */
+  public void setBoardHash(long hash)
+  {
+    boardHash = hash;
+  }
+
+  public void recompute()
+  {
+    boardHash = computeBoardHash();
+  }
+
+  /** Works out the board hash from scratch. */
+  public long computeBoardHash()
+  {
+    long hash = 0;
+    for( int y = 0; y < gameMap.mapHeight; ++y )
+      for( int x = 0; x < gameMap.mapWidth; ++x )
+      {
+        hash ^= tileKey(x, y);
+        hash ^= unitKey(gameMap.getResident(x, y));
+      }
+    return hash;
+  }
+
+  /** @return A hash of each army's funds and defeat status, and each CO's ability energy. */
+  public long getArmyHash()
+  {
+    long hash = 0;
+    if( null == gameMap.game )
+      return hash;
+    for( int a = 0; a < gameMap.game.armies.length; ++a )
+    {
+      Army army = gameMap.game.armies[a];
+      long key = mix(ARMY_SALT, a);
+      key = mix(key, army.money);
+      key = mix(key, army.isDefeated ? 1 : 0);
+      for( Commander co : army.cos )
+        key = mix(key, Double.doubleToLongBits(co.getAbilityPower()));
+      hash ^= key;
+    }
+    return hash;
+  }
+
+  /** Call just before performing the event. */
+  public void beforeEvent(GameEvent event)
+  {
+    touchedUnits.clear();
+    touchedTiles.clear();
+    touchesEverything = !event.recordChanges(this);
+    if( !touchesEverything )
+      boardHash ^= touchedKeys();
+  }
+
+  /** Call just after performing the event passed to beforeEvent(). */
+  public void afterEvent()
+  {
+    if( touchesEverything )
+      recompute();
+    else
+      boardHash ^= touchedKeys();
+  }
+
+  private long touchedKeys()
+  {
+    long keys = 0;
+    for( Unit unit : touchedUnits )
+      keys ^= unitKey(unit);
+    for( int i = touchedTiles.nextSetBit(0); i >= 0; i = touchedTiles.nextSetBit(i + 1) )
+      keys ^= tileKey(i % gameMap.mapWidth, i / gameMap.mapWidth);
+    return keys;
+  }
+
+  /** @return This unit's contribution to the board hash; zero if it's not on the map. */
+  private long unitKey(Unit unit)
+  {
+    if( null == unit || unit.x < 0 )
+      return 0;
+    long key = mix(UNIT_SALT, unit.x);
+    key = mix(key, unit.y);
+    return mix(key, describeUnit(unit));
+  }
+
+  private long describeUnit(Unit unit)
+  {
+    long key = mix(coIndex(unit.CO), unit.model.name.hashCode());
+    key = mix(key, Double.doubleToLongBits(unit.getPreciseHP()));
+    key = mix(key, unit.ammo);
+    key = mix(key, unit.fuel);
+    key = mix(key, unit.materials);
+    key = mix(key, (unit.isTurnOver ? 1 : 0) | (unit.isStunned ? 2 : 0));
+    key = mix(key, unit.getCaptureProgress());
+    long cargo = 0; // Added up rather than XORed, so two identical passengers don't cancel out.
+    for( Unit passenger : unit.heldUnits )
+      cargo += describeUnit(passenger);
+    return mix(key, cargo);
+  }
+
+  private long tileKey(int x, int y)
+  {
+    MapLocation loc = gameMap.getLocation(x, y);
+    Environment env = loc.getEnvironment();
+    long key = mix(TILE_SALT, x);
+    key = mix(key, y);
+    key = mix(key, env.terrainType.toString().hashCode());
+    key = mix(key, env.weatherType.ordinal());
+    key = mix(key, coIndex(loc.getOwner()));
+    return mix(key, loc.getDurability());
+  }
+
+  private int coIndex(Commander co)
+  {
+    if( null == co || null == gameMap.game )
+      return -1;
+    for( int a = 0; a < gameMap.game.armies.length; ++a )
+    {
+      Commander[] cos = gameMap.game.armies[a].cos;
+      for( int c = 0; c < cos.length; ++c )
+        if( cos[c] == co )
+          return a * 16 + c;
+    }
+    return -1;
+  }
+
+  /** Folds value into hash, scrambling well enough that nearby values give unrelated keys. */
+  private static long mix(long hash, long value)
+  {
+    long z = hash * 31 + value + 0x9E3779B97F4A7C15L;
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /////////////////////////////////////////////////////////////////////////////////
+  // StateChangeRecorder hooks, for GameEvent.recordChanges().
+
+  @Override
+  public MapMaster getMap()
+  {
+    return gameMap;
+  }
+
+  @Override
+  public void recordUnit(Unit unit)
+  {
+    if( null == unit )
+      return;
+    touchedUnits.add(unit);
+    // Passengers are part of their transport's key, so find out who's carrying this one.
+    if( unit.x < 0 && null != gameMap.game )
+      for( Army army : gameMap.game.armies )
+        for( Unit transport : army.getUnits() )
+          if( transport.heldUnits.contains(unit) )
+            recordUnit(transport);
+  }
+
+  @Override
+  public void recordLocation(int x, int y)
+  {
+    if( gameMap.isLocationValid(x, y) )
+      touchedTiles.set(y * gameMap.mapWidth + x);
+  }
+
+  // Armies and COs are hashed on demand, so there's nothing to do for these.
+  @Override
+  public void recordFunds(Army army)
+  {
+  }
+
+  @Override
+  public void recordEnergy(Commander co)
+  {
+  }
+
+  @Override
+  public void recordDefeat(Army army)
+  {
+  }
+}
@@ -19,6 +19,7 @@ import Engine.GameEvents.GameEvent;
 import Engine.GameEvents.GameEventListener;
 import Engine.GameEvents.GameEventQueue;
 import Engine.GameEvents.MapChangeEvent;
+import Engine.GameEvents.StateChangeRecorder;
 import Terrain.Environment;
 import Terrain.GameMap;
 import Terrain.MapLocation;
@@ -396,6 +397,14 @@ public abstract class BattleLifecycle
       battleInfo.defender.unit.copyUnitState(battleInfo.defender.after);
     }
 
+    @Override
+    public boolean recordChanges(StateChangeRecorder log)
+    {
+      log.recordUnit(battleInfo.attacker.unit);
+      log.recordUnit(battleInfo.defender.unit);
+      return true;
+    }
+
     @Override
     public XYCoord getStartPoint()
     {
@@ -434,7 +443,7 @@ public abstract class BattleLifecycle
     }
     public boolean demolitionFinishes()
     {
-      return target.durability - percentDamage <= 0;
+      return target.getDurability() - percentDamage <= 0;
     }
 
     @Override
@@ -455,7 +464,15 @@ public abstract class BattleLifecycle
       // Apply the battle results that we calculated previously.
       Unit attacker = result.attacker.unit;
       attacker.fire(result.attacker.weapon); // expend ammo
-      target.durability -= percentDamage;
+      target.setDurability(target.getDurability() - percentDamage);
+    }
+
+    @Override
+    public boolean recordChanges(StateChangeRecorder log)
+    {
+      log.recordUnit(result.attacker.unit);
+      log.recordLocation(target.getCoordinates());
+      return true;
     }
 
     @Override
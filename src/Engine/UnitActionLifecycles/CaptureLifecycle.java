@@ -10,6 +10,7 @@ import Engine.GameEvents.ArmyDefeatEvent;
 import Engine.GameEvents.GameEvent;
 import Engine.GameEvents.GameEventListener;
 import Engine.GameEvents.GameEventQueue;
+import Engine.GameEvents.StateChangeRecorder;
 import Terrain.GameMap;
 import Terrain.MapLocation;
 import Terrain.MapMaster;
@@ -216,6 +217,14 @@ public abstract class CaptureLifecycle
     }
   }
 
+  @Override
+  public boolean recordChanges(StateChangeRecorder log)
+  {
+    log.recordUnit(unit);
+    log.recordLocation(location.getCoordinates());
+    return true;
+  }
+
   @Override
   public XYCoord getStartPoint()
   {
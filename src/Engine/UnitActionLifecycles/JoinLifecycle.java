@@ -9,6 +9,7 @@ import Engine.XYCoord;
 import Engine.GameEvents.GameEvent;
 import Engine.GameEvents.GameEventListener;
 import Engine.GameEvents.GameEventQueue;
+import Engine.GameEvents.StateChangeRecorder;
 import Terrain.GameMap;
 import Terrain.MapMaster;
 import UI.MapView;
@@ -214,6 +215,16 @@ public abstract class JoinLifecycle
       }
     }
 
+    @Override
+    public boolean recordChanges(StateChangeRecorder log)
+    {
+      log.recordUnit(unitDonor);
+      log.recordUnit(unitRecipient);
+      log.recordLocation(unitDonor.x, unitDonor.y);
+      log.recordFunds(unitDonor.CO.army);
+      return true;
+    }
+
     @Override
     public XYCoord getStartPoint()
     {
@@ -9,6 +9,7 @@ import Engine.XYCoord;
 import Engine.GameEvents.GameEvent;
 import Engine.GameEvents.GameEventListener;
 import Engine.GameEvents.GameEventQueue;
+import Engine.GameEvents.StateChangeRecorder;
 import Terrain.GameMap;
 import Terrain.MapMaster;
 import UI.MapView;
@@ -183,6 +184,15 @@ public abstract class LoadLifecycle
       }
     }
 
+    @Override
+    public boolean recordChanges(StateChangeRecorder log)
+    {
+      log.recordUnit(unitCargo);
+      log.recordUnit(unitTransport);
+      log.recordLocation(unitCargo.x, unitCargo.y);
+      return true;
+    }
+
     @Override
     public XYCoord getStartPoint()
     {
@@ -7,6 +7,7 @@ import Engine.XYCoord;
 import Engine.GameEvents.GameEvent;
 import Engine.GameEvents.GameEventListener;
 import Engine.GameEvents.GameEventQueue;
+import Engine.GameEvents.StateChangeRecorder;
 import Terrain.GameMap;
 import Terrain.MapMaster;
 import UI.MapView;
@@ -126,6 +127,13 @@ public abstract class TransformLifecycle
       unit.model = destinationType;
     }
 
+    @Override
+    public boolean recordChanges(StateChangeRecorder log)
+    {
+      log.recordUnit(unit);
+      return true;
+    }
+
     @Override
     public XYCoord getStartPoint()
     {
@@ -9,6 +9,7 @@ import Engine.XYCoord;
 import Engine.GameEvents.GameEvent;
 import Engine.GameEvents.GameEventListener;
 import Engine.GameEvents.GameEventQueue;
+import Engine.GameEvents.StateChangeRecorder;
 import Terrain.GameMap;
 import Terrain.MapMaster;
 import UI.MapView;
@@ -162,6 +163,18 @@ public abstract class UnitProduceLifecycle
       }
     }
 
+    @Override
+    public boolean recordChanges(StateChangeRecorder log)
+    {
+      if( null != myNewUnit )
+      {
+        log.recordUnit(myNewUnit);
+        log.recordUnit(builder);
+        log.recordFunds(myCommander.army);
+      }
+      return true;
+    }
+
     @Override
     public XYCoord getStartPoint()
     {
@@ -13,6 +13,7 @@ import Engine.XYCoord;
 import Engine.GameEvents.GameEvent;
 import Engine.GameEvents.GameEventListener;
 import Engine.GameEvents.GameEventQueue;
+import Engine.GameEvents.StateChangeRecorder;
 import Terrain.GameMap;
 import Terrain.MapMaster;
 import UI.MapView;
@@ -248,6 +249,15 @@ public abstract class UnloadLifecycle
       }
     }
 
+    @Override
+    public boolean recordChanges(StateChangeRecorder log)
+    {
+      log.recordUnit(transport);
+      log.recordUnit(cargo);
+      log.recordLocation(dropLoc);
+      return true;
+    }
+
     @Override
     public XYCoord getStartPoint()
     {
@@ -35,9 +35,10 @@ public class Environment implements Serializable
 
   /**
    * Returns the Tile flyweight matching the input parameters, creating it first if needed.
+   * Synchronized since the UI reads map terrain from more than one thread.
    * @return
    */
-  public static Environment getTile(TerrainType terrain, Weathers weather)
+  public static synchronized Environment getTile(TerrainType terrain, Weathers weather)
   {
     // Add a new Environment array for this terrain type if it's missing.
     if( !tileInstances.containsKey(terrain) )
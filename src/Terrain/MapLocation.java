@@ -1,7 +1,7 @@
 package Terrain;
 
-import java.util.ArrayDeque;
 import java.io.Serializable;
+import java.util.ArrayDeque;
 
 import CommandingOfficers.Commander;
 import Engine.XYCoord;
@@ -10,6 +10,11 @@ import Units.ITargetable;
 import Units.Unit;
 import Units.WeaponModel;
 
+/**
+ * Holds the state of a single map tile.
+ * MapMaster may instead keep its tiles in a PackedMapStorage, in which case the MapLocations
+ * it hands out are lightweight views that read and write the packed arrays.
+ */
 public class MapLocation implements Serializable, ITargetable
 {
   private static final long serialVersionUID = 1L;
@@ -17,8 +22,10 @@ public class MapLocation implements Serializable, ITargetable
   private Commander owner = null;
   private Unit resident = null;
   private final XYCoord coords;
-  public int durability = 99;
-  public ArrayDeque<Weathers> forecast = new ArrayDeque<>();
+  private int durability = 99;
+  // Where saves from before WeatherScheduler kept this tile's forecast, one entry per army-turn.
+  // MapMaster moves it into its scheduler when such a save is loaded; otherwise it's always null.
+  private ArrayDeque<Weathers> forecast = null;
 
   public Environment getEnvironment()
   {
@@ -35,6 +42,14 @@ public class MapLocation implements Serializable, ITargetable
     return coords;
   }
 
+  /** @return The forecast an old save left on this tile, if any, and forgets it. */
+  ArrayDeque<Weathers> takeLegacyForecast()
+  {
+    ArrayDeque<Weathers> queue = forecast;
+    forecast = null;
+    return queue;
+  }
+
   public Commander getOwner()
   {
     return owner;
@@ -43,18 +58,25 @@ public class MapLocation implements Serializable, ITargetable
   public void setOwner(Commander owner)
   {
     // remove ourselves from the previous owner's list, if one exists
-    if( null != this.owner )
+    Commander previous = getOwner();
+    if( null != previous )
     {
-      this.owner.ownedProperties.remove(coords);
+      previous.ownedProperties.remove(getCoordinates());
     }
-    this.owner = owner;
+    storeOwner(owner);
     // add ourselves to the new owner's list, if it exists
-    if( null != this.owner )
+    if( null != owner )
     {
-      this.owner.ownedProperties.add(coords);
+      owner.ownedProperties.add(getCoordinates());
     }
   }
 
+  /** Records the new owner without touching anyone's property list. */
+  protected void storeOwner(Commander owner)
+  {
+    this.owner = owner;
+  }
+
   public Unit getResident()
   {
     return resident;
@@ -65,18 +87,28 @@ public class MapLocation implements Serializable, ITargetable
     this.resident = resident;
   }
 
+  public int getDurability()
+  {
+    return durability;
+  }
+
+  public void setDurability(int durability)
+  {
+    this.durability = durability;
+  }
+
   /**
    * @return true if this MapLocation has an ownable environment, false else.
    */
   public boolean isCaptureable()
   {
-    return environs.terrainType.isCapturable();
+    return getEnvironment().terrainType.isCapturable();
   }
 
   /** Return whether the terrain type in this location can generate income. */
   public boolean isProfitable()
   {
-    return environs.terrainType.isProfitable();
+    return getEnvironment().terrainType.isProfitable();
   }
 
   public MapLocation(Environment environment, XYCoord coordinates)
@@ -87,33 +119,20 @@ public class MapLocation implements Serializable, ITargetable
     coords = coordinates;
   }
   
-  public void setForecast(Weathers w, int duration)
-  {
-    setEnvironment(Environment.getTile(getEnvironment().terrainType, w));
-    for( int turns = 0; turns < duration; turns++ )
-    {
-      forecast.pollFirst();
-    }
-    for( int turns = 0; turns < duration; turns++ )
-    {
-      forecast.addFirst(w);
-    }
-  }
-
   @Override
   public double getDamageRedirect(WeaponModel wm)
   {
-    return wm.getDamage(environs.terrainType);
+    return wm.getDamage(getEnvironment().terrainType);
   }
 
   @Override
   public String toString()
   {
-    return environs.terrainType.toString();
+    return getEnvironment().terrainType.toString();
   }
 
   public String toStringWithLocation()
   {
-    return String.format("%s at %s", toString(), coords);
+    return String.format("%s at %s", toString(), getCoordinates());
   }
 }
@@ -1,10 +1,17 @@
 package Terrain;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Map;
 import java.util.Map.Entry;
 
 import Engine.Army;
+import Engine.StateHasher;
 import Engine.XYCoord;
+import Engine.GameEvents.GameEvent;
+import Terrain.Environment.Weathers;
 import Units.Unit;
 import Units.UnitModel;
 import Units.UnitModelScheme;
@@ -12,15 +19,35 @@ import Units.UnitModelScheme;
 public class MapMaster extends GameMap
 {
   private static final long serialVersionUID = 1L;
+  /** Maps with at least this many tiles use packed storage unless told otherwise. */
+  public static final int PACKED_STORAGE_MIN_TILES = 64 * 64;
+
+  // Exactly one of these is non-null, depending on which storage mode we were built with.
   private MapLocation[][] map;
+  private PackedMapStorage packed;
+  private WeatherScheduler weather;
+  private transient StateHasher stateHasher = null; // Rebuilt on demand, e.g. after loading a save.
 
   private boolean initOK = false;
 
   public MapMaster(Army[] propertyOwners, MapInfo mapInfo)
+  {
+    this(propertyOwners, mapInfo, mapInfo.getWidth() * mapInfo.getHeight() >= PACKED_STORAGE_MIN_TILES);
+  }
+
+  /**
+   * @param usePackedStorage If true, keep tile state in flat arrays instead of one MapLocation per tile.
+   *        getLocation() then returns a fresh view on each call.
+   */
+  public MapMaster(Army[] propertyOwners, MapInfo mapInfo, boolean usePackedStorage)
   {
     super(mapInfo.getWidth(), mapInfo.getHeight());
     initOK = true;
-    map = new MapLocation[mapWidth][mapHeight];
+    weather = new WeatherScheduler(mapHeight);
+    if( usePackedStorage )
+      packed = new PackedMapStorage(mapWidth, mapHeight);
+    else
+      map = new MapLocation[mapWidth][mapHeight];
 
     // Build the map locations based on the MapInfo data.
     for( int y = 0; y < mapHeight; ++y )
@@ -28,8 +55,12 @@ public class MapMaster extends GameMap
       for( int x = 0; x < mapWidth; ++x )
       {
         TerrainType terrain = mapInfo.terrain[x][y];
-        // Create this MapLocation using the MapInfo terrain.
-        map[x][y] = new MapLocation(Environment.getTile(terrain, Environment.Weathers.CLEAR), new XYCoord(x, y));
+        Environment environment = Environment.getTile(terrain, Environment.Weathers.CLEAR);
+        if( usePackedStorage )
+          packed.setEnvironment(packed.indexOf(x, y), environment);
+        else
+          // Create this MapLocation using the MapInfo terrain.
+          map[x][y] = new MapLocation(environment, new XYCoord(x, y));
       }
     }
 
@@ -57,11 +88,11 @@ public class MapMaster extends GameMap
         XYCoord coord = mapInfo.COProperties[co][i];
         int x = coord.xCoord;
         int y = coord.yCoord;
-        MapLocation location = map[x][y];
+        MapLocation location = getLocation(x, y);
         if( location.isCaptureable() )
         {
           hasProperty = true;
-          final TerrainType terrainType = map[x][y].getEnvironment().terrainType;
+          final TerrainType terrainType = location.getEnvironment().terrainType;
           if( terrainType == TerrainType.HEADQUARTERS )
           {
             propertyOwners[co].HQLocations.add(new XYCoord(x, y));
@@ -131,6 +162,28 @@ public class MapMaster extends GameMap
     return initOK;
   }
 
+  /** Performs the event on this map, keeping the state hash up to date. */
+  public void performEvent(GameEvent event)
+  {
+    StateHasher hasher = getStateHasher();
+    hasher.beforeEvent(event);
+    event.performEvent(this);
+    hasher.afterEvent();
+  }
+
+  public StateHasher getStateHasher()
+  {
+    if( null == stateHasher )
+      stateHasher = new StateHasher(this);
+    return stateHasher;
+  }
+
+  /** Returns true if this map keeps its tiles in packed arrays rather than MapLocation objects. */
+  public boolean usesPackedStorage()
+  {
+    return null != packed;
+  }
+
   /**
    * Returns true if (x,y) lies within the GameMap, false else.
    */
@@ -163,6 +216,8 @@ public class MapMaster extends GameMap
     {
       return null;
     }
+    if( null != packed )
+      return packed.getEnvironment(packed.indexOf(w, h));
     return map[w][h].getEnvironment();
   }
 
@@ -178,6 +233,8 @@ public class MapMaster extends GameMap
     {
       return null;
     }
+    if( null != packed )
+      return packed.getResident(packed.indexOf(w, h));
     return map[w][h].getResident();
   }
 
@@ -198,6 +255,8 @@ public class MapMaster extends GameMap
     {
       return null;
     }
+    if( null != packed )
+      return packed.getLocation(w, h);
     return map[w][h];
   }
 
@@ -226,15 +285,8 @@ public class MapMaster extends GameMap
   @Override
   public boolean isLocationEmpty(Unit unit, int x, int y)
   {
-    boolean empty = true;
-    if( isLocationValid(x, y) )
-    {
-      if( getLocation(x, y).getResident() != null && getLocation(x, y).getResident() != unit )
-      {
-        empty = false;
-      }
-    }
-    return empty;
+    Unit resident = getResident(x, y);
+    return resident == null || resident == unit;
   }
 
   public void addNewUnit(Unit unit, int x, int y)
@@ -243,7 +295,7 @@ public class MapMaster extends GameMap
   }
   public void addNewUnit(Unit unit, int x, int y, boolean force)
   {
-    Unit resident = getLocation(x, y).getResident();
+    Unit resident = getResident(x, y);
     if( resident != null && !force )
     {
       System.out.println("Error! Attempting to add a unit to an occupied MapLocation!");
@@ -275,7 +327,7 @@ public class MapMaster extends GameMap
     {
       if( force ) // Force is set; the user *must* know what he's doing.
       {
-        removeUnit(getLocation(x, y).getResident());
+        removeUnit(getResident(x, y));
       }
       else
       {
@@ -285,10 +337,9 @@ public class MapMaster extends GameMap
     }
 
     // Update the map
-    MapLocation priorLoc = getLocation(unit.x, unit.y);
-    if( null != priorLoc && priorLoc.getResident() == unit )
+    if( getResident(unit.x, unit.y) == unit )
     {
-      priorLoc.setResident(null);
+      getLocation(unit.x, unit.y).setResident(null);
     }
     getLocation(x, y).setResident(unit);
 
@@ -308,7 +359,7 @@ public class MapMaster extends GameMap
   {
     if( isLocationValid(u.x, u.y) )
     {
-      if( getLocation(u.x, u.y).getResident() != u )
+      if( getResident(u.x, u.y) != u )
       {
         System.out.println("WARNING! Trying to remove a Unit that isn't where he claims to be.");
       }
@@ -330,6 +381,95 @@ public class MapMaster extends GameMap
     }
   }
   
+  /** Returns true if the given tile has weather queued up for future turns. */
+  public boolean hasForecast(int x, int y)
+  {
+    return weather.hasForecast(x, y);
+  }
+
+  /**
+   * Sets the weather of one tile, and keeps it that way for the given number of army-turns.
+   * With a duration of zero, the tile will revert to whatever its forecast says on the next turn.
+   */
+  public void setForecast(XYCoord where, Weathers newWeather, int armyTurns)
+  {
+    MapLocation loc = getLocation(where);
+    loc.setEnvironment(Environment.getTile(loc.getEnvironment().terrainType, newWeather));
+    weather.setForecast(where, newWeather, armyTurns);
+  }
+
+  /** Sets the weather of the whole map, and keeps it that way for the given number of army-turns. */
+  public void setMapForecast(Weathers newWeather, int armyTurns)
+  {
+    for( int y = 0; y < mapHeight; ++y )
+    {
+      for( int x = 0; x < mapWidth; ++x )
+      {
+        MapLocation loc = getLocation(x, y);
+        loc.setEnvironment(Environment.getTile(loc.getEnvironment().terrainType, newWeather));
+      }
+    }
+    weather.setMapForecast(newWeather, armyTurns);
+  }
+
+  /**
+   * Saves from before WeatherScheduler have no scheduler; their forecasts were queued on each tile instead.
+   * Rebuild the scheduler from those queues, so old saves keep their weather.
+   */
+  private void readObject(ObjectInputStream stream) throws IOException, ClassNotFoundException
+  {
+    stream.defaultReadObject();
+    if( null != weather )
+      return;
+
+    weather = new WeatherScheduler(mapHeight);
+    if( null == map )
+      return; // Packed storage is newer than the scheduler, so there's nothing to bring over.
+    for( int x = 0; x < mapWidth; ++x )
+      for( int y = 0; y < mapHeight; ++y )
+      {
+        XYCoord where = new XYCoord(x, y);
+        ArrayDeque<Weathers> queue = map[x][y].takeLegacyForecast();
+        if( null == queue || queue.isEmpty() )
+        {
+          // Weather with nothing queued behind it was due to lapse back to the default on the next turn.
+          // The scheduler only looks at tiles it was told about, so tell it about these.
+          if( Weathers.CLEAR != map[x][y].getEnvironment().weatherType )
+            weather.setForecast(where, Weathers.CLEAR, 0);
+          continue;
+        }
+        // Each queue entry was one army-turn's weather. Split the queue into runs of the same weather, and schedule
+        // them last-first, so each earlier run is newer and wins for as long as it lasts.
+        ArrayList<Weathers> runWeathers = new ArrayList<Weathers>();
+        ArrayList<Integer> runEnds = new ArrayList<Integer>();
+        int turns = 0;
+        for( Weathers w : queue )
+        {
+          ++turns;
+          if( !runWeathers.isEmpty() && runWeathers.get(runWeathers.size() - 1) == w )
+            runEnds.set(runEnds.size() - 1, turns);
+          else
+          {
+            runWeathers.add(w);
+            runEnds.add(turns);
+          }
+        }
+        for( int r = runWeathers.size() - 1; r >= 0; --r )
+          weather.setForecast(where, runWeathers.get(r), runEnds.get(r));
+        // The tile doesn't show its first forecast weather yet; have it checked on the next turn, as the old queue was.
+        weather.setForecast(where, runWeathers.get(0), 0);
+      }
+  }
+
+  /**
+   * Moves the weather forecasts forward by the given number of army-turns, and returns the weather changes
+   * that should happen as a result. This does not change the map itself; that's left to the resulting events.
+   */
+  public WeatherScheduler.WeatherChanges advanceWeather(int armyTurns, Weathers defaultWeather)
+  {
+    return weather.advance(armyTurns, defaultWeather, this);
+  }
+
   /**
    * Returns true if the location lies outside the GameMap.
    * False otherwise
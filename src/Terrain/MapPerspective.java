@@ -8,6 +8,7 @@ import Engine.GamePath;
 import Engine.GamePath.PathNode;
 import Engine.Utils;
 import Engine.XYCoord;
+import Engine.GameEvents.SimulationLog;
 import Units.Unit;
 
 public class MapPerspective extends GameMap
@@ -18,6 +19,8 @@ public class MapPerspective extends GameMap
   private boolean[][] isFogged;
   private Commander[][] lastOwnerSeen;
   private ArrayList<Unit> confirmedVisibles;
+  /** While a simulation is running, it's told about every tile we reveal so it can fog them back up. */
+  private transient SimulationLog simulation = null;
 
   public MapPerspective(MapMaster pMaster, Army pViewer)
   {
@@ -134,7 +137,7 @@ public class MapPerspective extends GameMap
   @Override
   public boolean isLocationEmpty(Unit unit, int x, int y)
   {
-    Unit resident = master.getLocation(x, y).getResident();
+    Unit resident = master.getResident(x, y);
     // if there's nothing there, yeah...
     if (resident == null)
       return true;
@@ -253,9 +256,28 @@ public class MapPerspective extends GameMap
   public void revealFog(XYCoord coord, boolean piercing)
   {
     MapLocation loc = master.getLocation(coord);
+    boolean changes = isFogged[coord.xCoord][coord.yCoord] || lastOwnerSeen[coord.xCoord][coord.yCoord] != loc.getOwner()
+        || (piercing && loc.getResident() != null);
+    if( null != simulation && changes )
+      simulation.recordFog(this, coord, isFogged[coord.xCoord][coord.yCoord],
+          lastOwnerSeen[coord.xCoord][coord.yCoord], confirmedVisibles.size());
     isFogged[coord.xCoord][coord.yCoord] = false;
     lastOwnerSeen[coord.xCoord][coord.yCoord] = loc.getOwner();
     if (piercing && loc.getResident() != null)
       confirmedVisibles.add(loc.getResident());
   }
+
+  public void setSimulation(SimulationLog simulation)
+  {
+    this.simulation = simulation;
+  }
+
+  /** Puts one tile's fog back the way SimulationLog.recordFog() saw it. */
+  public void restoreFog(XYCoord coord, boolean fogged, Commander lastOwner, int numVisibles)
+  {
+    isFogged[coord.xCoord][coord.yCoord] = fogged;
+    lastOwnerSeen[coord.xCoord][coord.yCoord] = lastOwner;
+    while( confirmedVisibles.size() > numVisibles )
+      confirmedVisibles.remove(confirmedVisibles.size() - 1);
+  }
 }
@@ -0,0 +1,175 @@
+package Terrain;
+
+import CommandingOfficers.Commander;
+import Engine.XYCoord;
+import Units.Unit;
+
+/**
+ * A frozen, tile-by-tile copy of what some GameMap shows (fog, hidden units and all), safe to read from several threads at once.
+ * The live maps aren't: MapPerspective builds stand-in MapLocations for fogged tiles on the fly, which touches the owners' property lists.
+ * Residents are still the live Unit objects, so a snapshot only holds true until the next action is performed.
+ * Trying to change a tile through a snapshot throws.
+ */
+public class MapSnapshot extends GameMap
+{
+  private static final long serialVersionUID = 1L;
+  private final MapLocation[][] tiles;
+  private final boolean[][] fogged;
+
+  public MapSnapshot(GameMap source)
+  {
+    super(source.mapWidth, source.mapHeight);
+    game = source.game;
+    tiles = new MapLocation[mapWidth][mapHeight];
+    fogged = new boolean[mapWidth][mapHeight];
+    for( int x = 0; x < mapWidth; ++x )
+      for( int y = 0; y < mapHeight; ++y )
+      {
+        tiles[x][y] = new FrozenLocation(source.getLocation(x, y));
+        fogged[x][y] = source.isLocationFogged(x, y);
+      }
+  }
+
+  /** A copy of one MapLocation that refuses to be changed. */
+  private static class FrozenLocation extends MapLocation
+  {
+    private static final long serialVersionUID = 1L;
+    private final boolean frozen;
+
+    FrozenLocation(MapLocation source)
+    {
+      super(source.getEnvironment(), source.getCoordinates());
+      storeOwner(source.getOwner());
+      super.setResident(source.getResident());
+      super.setDurability(source.getDurability());
+      frozen = true;
+    }
+
+    @Override
+    public void setEnvironment(Environment environment)
+    {
+      refuse();
+    }
+
+    @Override
+    public void setOwner(Commander owner)
+    {
+      refuse();
+    }
+
+    @Override
+    public void setResident(Unit resident)
+    {
+      refuse();
+      super.setResident(resident);
+    }
+
+    @Override
+    public void setDurability(int durability)
+    {
+      refuse();
+      super.setDurability(durability);
+    }
+
+    private void refuse()
+    {
+      if( frozen )
+        throw new UnsupportedOperationException("Can't change " + toStringWithLocation() + " through a MapSnapshot");
+    }
+  }
+
+  @Override
+  public boolean isLocationValid(XYCoord coords)
+  {
+    return (null != coords) && isLocationValid(coords.xCoord, coords.yCoord);
+  }
+
+  @Override
+  public boolean isLocationValid(int x, int y)
+  {
+    return x >= 0 && x < mapWidth && y >= 0 && y < mapHeight;
+  }
+
+  @Override
+  public Environment getEnvironment(XYCoord coord)
+  {
+    return getEnvironment(coord.xCoord, coord.yCoord);
+  }
+
+  @Override
+  public Environment getEnvironment(int w, int h)
+  {
+    if( !isLocationValid(w, h) )
+      return null;
+    return tiles[w][h].getEnvironment();
+  }
+
+  @Override
+  public Unit getResident(XYCoord coord)
+  {
+    return getResident(coord.xCoord, coord.yCoord);
+  }
+
+  @Override
+  public Unit getResident(int w, int h)
+  {
+    if( !isLocationValid(w, h) )
+      return null;
+    return tiles[w][h].getResident();
+  }
+
+  @Override
+  public MapLocation getLocation(XYCoord location)
+  {
+    if( null == location )
+      return null;
+    return getLocation(location.xCoord, location.yCoord);
+  }
+
+  @Override
+  public MapLocation getLocation(int w, int h)
+  {
+    if( !isLocationValid(w, h) )
+      return null;
+    return tiles[w][h];
+  }
+
+  @Override
+  public boolean isLocationEmpty(XYCoord coords)
+  {
+    return isLocationEmpty(null, coords.xCoord, coords.yCoord);
+  }
+
+  @Override
+  public boolean isLocationEmpty(int x, int y)
+  {
+    return isLocationEmpty(null, x, y);
+  }
+
+  @Override
+  public boolean isLocationEmpty(Unit unit, XYCoord coords)
+  {
+    return isLocationEmpty(unit, coords.xCoord, coords.yCoord);
+  }
+
+  @Override
+  public boolean isLocationEmpty(Unit unit, int x, int y)
+  {
+    Unit resident = getResident(x, y);
+    return null == resident || resident == unit;
+  }
+
+  @Override
+  public boolean isLocationFogged(XYCoord coord)
+  {
+    return isLocationFogged(coord.xCoord, coord.yCoord);
+  }
+
+  @Override
+  public boolean isLocationFogged(int x, int y)
+  {
+    if( !isLocationValid(x, y) )
+      return true;
+    return fogged[x][y];
+  }
+}
@@ -1,12 +1,14 @@
 package Terrain.Maps;
 
 import java.io.File;
-import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
-import java.util.Scanner;
 import java.util.TreeMap;
 
 import Engine.XYCoord;
@@ -15,6 +17,57 @@ import Terrain.TerrainType;
 
 public class MapReader extends IMapBuilder
 {
+  // Each tile is four characters: a two-character owner number (blank if unowned), then a two-letter terrain code.
+  private static final int CELL_WIDTH = 4;
+  private static final int CODE_RANGE = 'Z' - 'A' + 1;
+  // Terrain codes are two capital letters, so we can look them up directly instead of building a String per tile.
+  private static final TerrainType[] terrainCodes = new TerrainType[CODE_RANGE * CODE_RANGE];
+  static
+  {
+    addTerrainCode("BR", BR);
+    addTerrainCode("CT", CT);
+    addTerrainCode("DN", DN);
+    addTerrainCode("FC", FC);
+    addTerrainCode("AP", AP);
+    addTerrainCode("TA", TA);
+    addTerrainCode("SP", SP);
+    addTerrainCode("TS", TS);
+    addTerrainCode("FR", FR);
+    addTerrainCode("GR", GR);
+    addTerrainCode("HQ", HQ);
+    addTerrainCode("LB", LB);
+    addTerrainCode("MT", MT);
+    addTerrainCode("RF", RF);
+    addTerrainCode("RV", RV);
+    addTerrainCode("RD", RD);
+    addTerrainCode("SE", SE);
+    addTerrainCode("SH", SH);
+    addTerrainCode("TT", TT);
+    addTerrainCode("XX", XX);
+    addTerrainCode("PI", PI);
+    addTerrainCode("ME", ME);
+    addTerrainCode("BK", BK);
+    addTerrainCode("SR", SR);
+    addTerrainCode("TW", TW);
+  }
+
+  /**
+   * Thrown when a map file is malformed. Carries the (1-based) line and column of the problem.
+   */
+  public static class MapFormatException extends Exception
+  {
+    private static final long serialVersionUID = 1L;
+    public final int line;
+    public final int column;
+
+    public MapFormatException(int line, int column, String problem)
+    {
+      super(String.format("line %d, column %d: %s", line, column, problem));
+      this.line = line;
+      this.column = column;
+    }
+  }
+
   /**
    * Tells the MapReader to read in the maps.
    */
@@ -36,7 +89,9 @@ public class MapReader extends IMapBuilder
           // We just don't want to try to interpret the python script as a map. That'd be weird.
           if( !fileEntry.getName().endsWith(".map") )
             continue;
-          importMaps.add(readSingleMap(fileEntry.getAbsolutePath()));
+          MapInfo info = readSingleMap(fileEntry.getAbsolutePath());
+          if( null != info )
+            importMaps.add(info);
         }
       }
     }
@@ -47,202 +102,229 @@ public class MapReader extends IMapBuilder
     return importMaps;
   }
 
+
+  /**
+   * Reads the map file at filePath. Returns null (after printing a warning) if the file can't be read or parsed.
+   */
   public static MapInfo readSingleMap(final String filePath)
   {
+    File fileEntry = new File(filePath);
+    // We get the filename, and make it look nice for our map list.
+    String mapName = fileEntry.getName();
+    // underscores->spaces makes it pretty
+    mapName = mapName.replaceAll("_", " ");
+    mapName = mapName.replaceAll("\\.map", "");
+    System.out.println("INFO: Parsing map: " + mapName);
+
     try
     {
-      File fileEntry = new File(filePath);
-      // We get the filename, and make it look nice for our map list.
-      String mapName = fileEntry.getName();
-      // underscores->spaces makes it pretty
-      mapName = mapName.replaceAll("_", " ");
-      mapName = mapName.replaceAll("\\.map", "");
-      System.out.println("INFO: Parsing map: " + mapName);
-
-      // We need a list of who starts owning what properties. This is that list.
-      // Each arraylist contains coordinates, and which list it is denotes who owns that property.
-      Map<Integer, ArrayList<XYCoord>> landOwnershipMap = new TreeMap<Integer, ArrayList<XYCoord>>();
-
-      Scanner scanner = new Scanner(fileEntry);
-      // We need the first line so we can pre-fill our terrain data array with the proper number of sub-arrays.
-      String line = scanner.nextLine();
-
-      // Map tiles are accessed via mapArray[x][y]
-      // Thus, each subarray contains a column.
-      // Each row on the map consists of one value with the same index from each subarray.
-      ArrayList<ArrayList<TerrainType>> terrainData = new ArrayList<ArrayList<TerrainType>>();
-      // The representation for each tile is 4 characters long, so we divide the length by 4 to get the map's width.
-      // Height will scale with how many lines of file there are.
-      for( int i = 0; i < line.length() / 4; i++ )
+      // Pull the whole file in at once; even a 500x500 map is only about a megabyte.
+      return parseMap(mapName, Files.readAllBytes(fileEntry.toPath()));
+    }
+    // skip the file if you can't find it
+    catch (NoSuchFileException e)
+    {
+      System.out.println("WARNING: Could not find map file " + filePath);
+    }
+    catch (IOException e)
+    {
+      System.out.println("WARNING: Could not read map file " + filePath + ": " + e.getMessage());
+    }
+    catch (MapFormatException e)
+    {
+      System.out.println("WARNING: Skipping malformed map file " + filePath + ", " + e.getMessage());
+    }
+    return null;
+  }
+
+  /**
+   * Builds a MapInfo from the raw contents of a .map file.
+   * The terrain block is scanned once to size the map, then the bytes are decoded straight into the terrain array.
+   * @throws MapFormatException if the terrain block is malformed.
+   */
+  public static MapInfo parseMap(String mapName, byte[] data) throws MapFormatException
+  {
+    // The first line tells us how wide the map is.
+    // The representation for each tile is 4 characters long, so we divide the length by 4 to get the map's width.
+    int rowLength = contentEnd(data, 0) - 0;
+    if( rowLength == 0 )
+      throw new MapFormatException(1, 1, "no terrain data found");
+    if( rowLength % CELL_WIDTH != 0 )
+      throw new MapFormatException(1, rowLength, String.format("row length %d is not a multiple of %d", rowLength, CELL_WIDTH));
+    int width = rowLength / CELL_WIDTH;
+
+    // Height is however many lines match the first one. The terrain block ends with the first line that doesn't,
+    // unless that line still looks like terrain, in which case the map is just broken.
+    int height = 0;
+    int pos = 0;
+    while (pos < data.length)
+    {
+      int end = contentEnd(data, pos);
+      if( end - pos != rowLength )
       {
-        terrainData.add(new ArrayList<TerrainType>());
+        if( end - pos >= CELL_WIDTH && isTerrainCell(data, pos) )
+          throw new MapFormatException(height + 1, end - pos + 1,
+              String.format("expected %d tiles (%d characters) but found %d characters", width, rowLength, end - pos));
+        break;
       }
+      ++height;
+      pos = nextLineStart(data, end);
+    }
+    int unitSectionStart = pos;
 
-      // This boolean is broken out since yCoord makes sense as a for-loop-iterated variable.
-      boolean moreLines = true;
-      int numSides = 0;
-      // Here, we're iterating down the lines of the file, and thus up the y coordinate scale.
-      for( int yCoord = 0; moreLines; yCoord++ )
+    // We need a list of who starts owning what properties. This is that list.
+    // Each arraylist contains coordinates, and which list it is denotes who owns that property.
+    Map<Integer, ArrayList<XYCoord>> landOwnershipMap = new TreeMap<Integer, ArrayList<XYCoord>>();
+
+    // Map tiles are accessed via mapArray[x][y]
+    // Thus, each subarray contains a column.
+    // Each row on the map consists of one value with the same index from each subarray.
+    TerrainType[][] terrain = new TerrainType[width][height];
+    pos = 0;
+    // Here, we're iterating down the lines of the file, and thus up the y coordinate scale.
+    for( int yCoord = 0; yCoord < height; ++yCoord )
+    {
+      for( int xCoord = 0; xCoord < width; ++xCoord )
       {
-        // Since we have the first line already when we enter here, we read in the next one at the end of this loop.
-        // The inner loop iterates over the x coordinates.
-        for( int xCoord = 0; xCoord * 4 < line.length(); xCoord++ )
+        int cell = pos + xCoord * CELL_WIDTH;
+        int faction = parseOwner(data, cell, yCoord + 1, xCoord * CELL_WIDTH + 1);
+        if( faction != -1 )
         {
-          int faction = -1;
-          // Pull the side value out, so we can see if there's anything in it.
-          // Note to future self: substring()'s second parameter is non-inclusive.
-          String sideString = line.substring(xCoord * 4, xCoord * 4 + 2).trim();
-          // If so, we use the value.
-          if( sideString.length() > 0 )
-            faction = Integer.parseInt(sideString);
-          if( faction != -1 )
+          ArrayList<XYCoord> owned = landOwnershipMap.get(faction);
+          if( null == owned )
           {
-            if( null == landOwnershipMap.get(faction) )
-            {
-              numSides++;
-              landOwnershipMap.put(faction, new ArrayList<XYCoord>());
-              landOwnershipMap.get(faction).add(new XYCoord(xCoord, yCoord));
-            }
-            else
-              landOwnershipMap.get(faction).add(new XYCoord(xCoord, yCoord));
+            owned = new ArrayList<XYCoord>();
+            landOwnershipMap.put(faction, owned);
           }
-          // Terrain code comes after side number, so we grab that as well.
-          String terrainCode = line.substring(xCoord * 4 + 2, xCoord * 4 + 4).trim();
-          // And we place a new square in the proper column.
-          terrainData.get(xCoord).add(stringToCode(terrainCode));
-        }
-        // We need to know if there's more lines before we ask for another line, or there's gonna be a problem.
-        moreLines = scanner.hasNextLine();
-        if( moreLines )
-        {
-          line = scanner.nextLine();
-          if( terrainData.size() * 4 != line.length() )
-            moreLines = false;
+          owned.add(new XYCoord(xCoord, yCoord));
         }
+        // Terrain code comes after side number, so we grab that as well.
+        terrain[xCoord][yCoord] = parseTerrain(data, cell + 2, mapName, yCoord + 1, xCoord * CELL_WIDTH + 3);
       }
+      pos = nextLineStart(data, pos + rowLength);
+    }
 
-      // intermediate array to hold the flat arrays harvested from each column
-      ArrayList<TerrainType[]> terrainArrayArray = new ArrayList<TerrainType[]>();
-      for( int i = 0; i < terrainData.size(); i++ )
-      {
-        terrainArrayArray.add(terrainData.get(i).toArray(new TerrainType[0]));
-      }
-      ArrayList<Integer> factionList = new ArrayList<Integer>();
-      ArrayList<XYCoord[]> propertyArrayArray = new ArrayList<XYCoord[]>();
-      for( Entry<Integer, ArrayList<XYCoord>> ownerEntry : landOwnershipMap.entrySet() )
-      {
-        // We don't want to tell the game that there's more players than there are, so we make sure to only send sides who own properties.
-        // This does lose the data of what each team was initially, but turn order should be preserved and I don't care beyond that.
-        propertyArrayArray.add(ownerEntry.getValue().toArray(new XYCoord[0]));
-        factionList.add(ownerEntry.getKey());
-      }
+    ArrayList<Integer> factionList = new ArrayList<Integer>();
+    ArrayList<XYCoord[]> propertyArrayArray = new ArrayList<XYCoord[]>();
+    for( Entry<Integer, ArrayList<XYCoord>> ownerEntry : landOwnershipMap.entrySet() )
+    {
+      // We don't want to tell the game that there's more players than there are, so we make sure to only send sides who own properties.
+      // This does lose the data of what each team was initially, but turn order should be preserved and I don't care beyond that.
+      propertyArrayArray.add(ownerEntry.getValue().toArray(new XYCoord[0]));
+      factionList.add(ownerEntry.getKey());
+    }
 
-      // now that we've parsed the map, try to parse any units
-      ArrayList<Map<XYCoord, String>> units = new ArrayList<Map<XYCoord, String>>();
-      for( int i = 0; i < numSides; ++i )
-      {
-        units.add(new HashMap<XYCoord, String>());
-      }
-      // we'll assume there's a useless line between the map and any units because I'm ~lazy~
-      while (scanner.hasNextLine())
+    // now that we've parsed the map, try to parse any units
+    ArrayList<Map<XYCoord, String>> units = new ArrayList<Map<XYCoord, String>>();
+    for( int i = 0; i < factionList.size(); ++i )
+    {
+      units.add(new HashMap<XYCoord, String>());
+    }
+    // The unit section is tiny next to the terrain, so plain Strings are fine here.
+    String[] unitLines = new String(data, unitSectionStart, data.length - unitSectionStart, StandardCharsets.UTF_8).split("\\r?\\n");
+    // we'll assume there's a useless line between the map and any units because I'm ~lazy~
+    for( int i = 1; i < unitLines.length; ++i )
+    {
+      String[] unitTokens = unitLines[i].split(",");
+      // team, unit type, x, y
+      if( unitTokens.length == 4 )
       {
-        line = scanner.nextLine();
-        String[] unitTokens = line.split(",");
-        // team, unit type, x, y
-        if( unitTokens.length == 4 )
+        try
         {
-          try
-          {
-            int team = Integer.parseInt(unitTokens[0].trim());
-            String type = unitTokens[1].trim();
-            int x = Integer.parseInt(unitTokens[2].trim());
-            int y = Integer.parseInt(unitTokens[3].trim());
-            // Add last in case of parsing errors
-            units.get(factionList.indexOf(team)).put(new XYCoord(x, y), type);
-          }
-          catch (Exception e)
-          {
-            System.out.println("Caught exception while parsing units: " + e.getMessage());
-          }
+          int team = Integer.parseInt(unitTokens[0].trim());
+          String type = unitTokens[1].trim();
+          int x = Integer.parseInt(unitTokens[2].trim());
+          int y = Integer.parseInt(unitTokens[3].trim());
+          // Add last in case of parsing errors
+          units.get(factionList.indexOf(team)).put(new XYCoord(x, y), type);
+        }
+        catch (Exception e)
+        {
+          System.out.println("Caught exception while parsing units on line " + (height + 1 + i) + " of map " + mapName + ": " + e.getMessage());
         }
       }
+    }
+
+    // Finally, we make our map's container to put in importMaps.
+    return new MapInfo(mapName, terrain, propertyArrayArray.toArray(new XYCoord[0][0]), units);
+  }
 
-      // Finally, we make our map's container to put in importMaps.
-      MapInfo info = new MapInfo(mapName, terrainArrayArray.toArray(new TerrainType[0][0]),
-          propertyArrayArray.toArray(new XYCoord[0][0]), units);
+  /** Returns the index just past the content of the line starting at lineStart, ignoring any line terminator. */
+  private static int contentEnd(byte[] data, int lineStart)
+  {
+    int end = lineStart;
+    while (end < data.length && data[end] != '\n')
+      ++end;
+    if( end > lineStart && data[end - 1] == '\r' )
+      --end;
+    return end;
+  }
+
+  /** Returns the start of the line following the one whose content ends at contentEnd. */
+  private static int nextLineStart(byte[] data, int contentEnd)
+  {
+    int pos = contentEnd;
+    if( pos < data.length && data[pos] == '\r' )
+      ++pos;
+    if( pos < data.length && data[pos] == '\n' )
+      ++pos;
+    return pos;
+  }
 
-      scanner.close();
-      return info;
+  /** Returns true if the four bytes at cell look like a tile, i.e. a blank or numeric owner and a two-letter code. */
+  private static boolean isTerrainCell(byte[] data, int cell)
+  {
+    for( int i = 0; i < 2; ++i )
+    {
+      byte b = data[cell + i];
+      if( b != ' ' && (b < '0' || b > '9') )
+        return false;
     }
-    // skip the file if you can't find it
-    catch (FileNotFoundException e)
+    for( int i = 2; i < CELL_WIDTH; ++i )
     {
-      System.out.println("WARNING: Could not find map file " + filePath);
+      byte b = data[cell + i];
+      if( b < 'A' || b > 'Z' )
+        return false;
     }
-    return null;
+    return true;
   }
 
-  private static TerrainType stringToCode(String input)
+  /** Reads the two-character owner field at cell; returns -1 if it is blank. */
+  private static int parseOwner(byte[] data, int cell, int line, int column) throws MapFormatException
   {
-    // Regex for generating the cases in this switch statement via a line-separated list of the terrain codes.
-    // In Notepad++, use the Find/Replace window in regex mode
-    // Find: ^(..)$
-    // Replace: case "\1":\nreturn \1;
-    // It won't output the correct indentation, but that's what autoformatting is for.
-    switch (input)
-    {
-      case "BR":
-        return BR;
-      case "CT":
-        return CT;
-      case "DN":
-        return DN;
-      case "FC":
-        return FC;
-      case "AP":
-        return AP;
-      case "TA":
-        return TA;
-      case "SP":
-        return SP;
-      case "TS":
-        return TS;
-      case "FR":
-        return FR;
-      case "GR":
-        return GR;
-      case "HQ":
-        return HQ;
-      case "LB":
-        return LB;
-      case "MT":
-        return MT;
-      case "RF":
-        return RF;
-      case "RV":
-        return RV;
-      case "RD":
-        return RD;
-      case "SE":
-        return SE;
-      case "SH":
-        return SH;
-      case "TT":
-        return TT;
-      case "XX":
-        return XX;
-      case "PI":
-        return PI;
-      case "ME":
-        return ME;
-      case "BK":
-        return BK;
-      case "SR":
-        return SR;
-      case "TW":
-        return TW;
-      default:
-        return GR;
+    int owner = -1;
+    for( int i = 0; i < 2; ++i )
+    {
+      byte b = data[cell + i];
+      // Owner numbers may be padded on either side.
+      if( b == ' ' )
+        continue;
+      if( b < '0' || b > '9' )
+        throw new MapFormatException(line, column + i, String.format("expected an owner number or a space but found '%c'", (char) b));
+      owner = (owner == -1 ? 0 : owner * 10) + (b - '0');
     }
+    return owner;
+  }
+
+  /** Looks up the two-letter terrain code at codeStart. Unrecognized codes become grass, as they always have. */
+  private static TerrainType parseTerrain(byte[] data, int codeStart, String mapName, int line, int column)
+  {
+    byte first = data[codeStart];
+    byte second = data[codeStart + 1];
+    TerrainType terrain = null;
+    if( first >= 'A' && first <= 'Z' && second >= 'A' && second <= 'Z' )
+      terrain = terrainCodes[(first - 'A') * CODE_RANGE + (second - 'A')];
+    if( null == terrain )
+    {
+      System.out.println(String.format("WARNING: Unknown terrain code '%c%c' at line %d, column %d of map %s; using grass.",
+          (char) first, (char) second, line, column, mapName));
+      terrain = GR;
+    }
+    return terrain;
+  }
+
+  private static void addTerrainCode(String code, TerrainType terrain)
+  {
+    terrainCodes[(code.charAt(0) - 'A') * CODE_RANGE + (code.charAt(1) - 'A')] = terrain;
   }
-}
\ No newline at end of file
+}
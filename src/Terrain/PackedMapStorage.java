@@ -0,0 +1,201 @@
+package Terrain;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import CommandingOfficers.Commander;
+import Engine.XYCoord;
+import Terrain.Environment.Weathers;
+import Units.Unit;
+
+/**
+ * Struct-of-arrays tile storage for MapMaster, for maps too large to want a MapLocation object per tile.
+ * Each tile is an index (x * height + y) into flat arrays; terrain and weather are packed as bytes, owners as
+ * indices into a small Commander table. Forecasts live in MapMaster's WeatherScheduler.
+ * MapLocations handed out from here are throwaway views, so compare them with equals(), not ==.
+ */
+class PackedMapStorage implements Serializable
+{
+  private static final long serialVersionUID = 1L;
+  private static final Weathers[] WEATHERS = Weathers.values();
+
+  final int width;
+  final int height;
+  private final byte[] terrain; // Index into TerrainType.TerrainTypeList
+  private final byte[] weather; // Weathers ordinal
+  private final short[] durability; // Can dip below zero when a demolition overshoots
+  private final byte[] owner; // 1 + index into owners; 0 means unowned
+  private final Unit[] residents;
+  private final ArrayList<Commander> owners = new ArrayList<>();
+
+  // Environment flyweights indexed by terrain and weather, so reads don't need to go through Environment.getTile().
+  private transient Environment[] environments;
+
+  PackedMapStorage(int w, int h)
+  {
+    width = w;
+    height = h;
+    int size = w * h;
+    terrain = new byte[size];
+    weather = new byte[size];
+    durability = new short[size];
+    owner = new byte[size];
+    residents = new Unit[size];
+    Arrays.fill(durability, (short) 99);
+  }
+
+  int indexOf(int x, int y)
+  {
+    return x * height + y;
+  }
+
+  Environment getEnvironment(int index)
+  {
+    if( null == environments )
+      environments = new Environment[TerrainType.TerrainTypeList.size() * WEATHERS.length];
+    int envIndex = terrain[index] * WEATHERS.length + weather[index];
+    Environment env = environments[envIndex];
+    if( null == env )
+    {
+      env = Environment.getTile(TerrainType.TerrainTypeList.get(terrain[index]), WEATHERS[weather[index]]);
+      environments[envIndex] = env;
+    }
+    return env;
+  }
+
+  void setEnvironment(int index, Environment env)
+  {
+    terrain[index] = (byte) TerrainType.TerrainTypeList.indexOf(env.terrainType);
+    weather[index] = (byte) env.weatherType.ordinal();
+  }
+
+  Commander getOwner(int index)
+  {
+    int ownerIndex = owner[index];
+    return (0 == ownerIndex) ? null : owners.get(ownerIndex - 1);
+  }
+
+  void setOwner(int index, Commander co)
+  {
+    if( null == co )
+    {
+      owner[index] = 0;
+      return;
+    }
+    int ownerIndex = owners.indexOf(co);
+    if( ownerIndex < 0 )
+    {
+      owners.add(co);
+      ownerIndex = owners.size() - 1;
+    }
+    owner[index] = (byte) (ownerIndex + 1);
+  }
+
+  Unit getResident(int index)
+  {
+    return residents[index];
+  }
+
+  void setResident(int index, Unit unit)
+  {
+    residents[index] = unit;
+  }
+
+  int getDurability(int index)
+  {
+    return durability[index];
+  }
+
+  void setDurability(int index, int value)
+  {
+    durability[index] = (short) value;
+  }
+
+  MapLocation getLocation(int x, int y)
+  {
+    return new PackedMapLocation(this, x, y);
+  }
+
+  /**
+   * A MapLocation that reads and writes through to the packed arrays instead of holding its own state.
+   */
+  static class PackedMapLocation extends MapLocation
+  {
+    private static final long serialVersionUID = 1L;
+    private final PackedMapStorage storage;
+    private final int index;
+
+    PackedMapLocation(PackedMapStorage storage, int x, int y)
+    {
+      super(null, new XYCoord(x, y));
+      this.storage = storage;
+      index = storage.indexOf(x, y);
+    }
+
+    @Override
+    public Environment getEnvironment()
+    {
+      return storage.getEnvironment(index);
+    }
+
+    @Override
+    public void setEnvironment(Environment environment)
+    {
+      storage.setEnvironment(index, environment);
+    }
+
+    @Override
+    public Commander getOwner()
+    {
+      return storage.getOwner(index);
+    }
+
+    @Override
+    protected void storeOwner(Commander owner)
+    {
+      storage.setOwner(index, owner);
+    }
+
+    @Override
+    public Unit getResident()
+    {
+      return storage.getResident(index);
+    }
+
+    @Override
+    public void setResident(Unit resident)
+    {
+      storage.setResident(index, resident);
+    }
+
+    @Override
+    public int getDurability()
+    {
+      return storage.getDurability(index);
+    }
+
+    @Override
+    public void setDurability(int durability)
+    {
+      storage.setDurability(index, durability);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+      if( this == obj )
+        return true;
+      if( !(obj instanceof PackedMapLocation) )
+        return false;
+      PackedMapLocation other = (PackedMapLocation) obj;
+      return storage == other.storage && index == other.index;
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return index;
+    }
+  }
+}
@@ -0,0 +1,233 @@
+package Terrain;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+
+import Engine.XYCoord;
+import Terrain.Environment.Weathers;
+
+/**
+ * Tracks weather forecasts for a MapMaster, so that turn changes only have to look at tiles whose weather is due to change.
+ *
+ * Time is measured in army-turns; every forecast is a run of one weather lasting until some army-turn. A newer forecast
+ * overrides any older one for as long as it lasts, so at any point a tile's weather comes from the newest run that still
+ * covers it, whether that run is map-wide or local to the tile, or the default weather if none do.
+ * Local runs are filed in a wheel of buckets keyed by the army-turn they need to be looked at again.
+ */
+public class WeatherScheduler implements Serializable
+{
+  private static final long serialVersionUID = 1L;
+
+  /** One stretch of forecast weather. Covers every army-turn up to and including lastTurn. */
+  private static class Run implements Serializable
+  {
+    private static final long serialVersionUID = 1L;
+    final Weathers weather;
+    final long lastTurn;
+    final long sequence; // Order of creation; newer runs win.
+
+    Run(Weathers weather, long lastTurn, long sequence)
+    {
+      this.weather = weather;
+      this.lastTurn = lastTurn;
+      this.sequence = sequence;
+    }
+  }
+
+  /** The weather changes that a turn change calls for. */
+  public static class WeatherChanges
+  {
+    /** If non-null, the weather that the whole map should switch to before the tile changes are applied. */
+    public Weathers mapWeather = null;
+    public final ArrayList<XYCoord> tiles = new ArrayList<>();
+    public final ArrayList<Weathers> tileWeathers = new ArrayList<>();
+
+    public boolean isEmpty()
+    {
+      return null == mapWeather && tiles.isEmpty();
+    }
+  }
+
+  private final int mapHeight;
+  private long currentTurn = 0;
+  private long nextSequence = 0;
+
+  // Runs are kept newest-first, which with prefix overwrites also means soonest-expiring first.
+  private final ArrayList<Run> mapRuns = new ArrayList<>();
+  private final Map<Integer, ArrayList<Run>> tileRuns = new HashMap<>();
+  private final Map<Long, ArrayList<Integer>> wheel = new HashMap<>();
+
+  // What the whole map was last set to, and by which run. Starts out as the clear weather maps are built with.
+  private Weathers appliedMapWeather = Weathers.CLEAR;
+  private Run appliedMapRun = null;
+  // Set when the whole map was painted over without a forecast, so local forecasts need to reassert themselves.
+  private boolean mapOverridden = false;
+
+  /** Tiles are identified by x * mapHeight + y, so that's all we need to know about the map. */
+  public WeatherScheduler(int mapHeight)
+  {
+    this.mapHeight = mapHeight;
+  }
+
+  /**
+   * Records a forecast for one tile, starting now and lasting the given number of army-turns.
+   * A duration of zero just flags the tile to be re-checked next turn.
+   */
+  public void setForecast(XYCoord where, Weathers weather, int armyTurns)
+  {
+    int tile = indexOf(where.xCoord, where.yCoord);
+    long lastTurn = currentTurn + armyTurns;
+
+    ArrayList<Run> runs = tileRuns.get(tile);
+    if( null == runs )
+      runs = new ArrayList<>();
+    pruneThrough(runs, lastTurn);
+    if( lastTurn > currentTurn )
+      runs.add(0, new Run(weather, lastTurn, nextSequence++));
+
+    if( runs.isEmpty() )
+      tileRuns.remove(tile);
+    else
+      tileRuns.put(tile, runs);
+    schedule(tile, (lastTurn > currentTurn) ? lastTurn + 1 : currentTurn + 1);
+  }
+
+  /**
+   * Records a forecast for the whole map. Any local forecast that would end before this one
+   * is superseded entirely, so we drop it now.
+   */
+  public void setMapForecast(Weathers weather, int armyTurns)
+  {
+    long lastTurn = currentTurn + armyTurns;
+    appliedMapWeather = weather;
+    if( lastTurn < currentTurn )
+    {
+      // Only changes the weather until the next turn.
+      mapOverridden = true;
+      return;
+    }
+
+    pruneThrough(mapRuns, lastTurn);
+    Run run = new Run(weather, lastTurn, nextSequence++);
+    mapRuns.add(0, run);
+    appliedMapRun = run;
+
+    ArrayList<Integer> emptied = new ArrayList<>();
+    for( Map.Entry<Integer, ArrayList<Run>> entry : tileRuns.entrySet() )
+    {
+      pruneThrough(entry.getValue(), lastTurn);
+      if( entry.getValue().isEmpty() )
+        emptied.add(entry.getKey());
+    }
+    for( Integer tile : emptied )
+      tileRuns.remove(tile);
+  }
+
+  /** Returns true if the given tile has weather forecast for any turn after this one. */
+  public boolean hasForecast(int x, int y)
+  {
+    if( !mapRuns.isEmpty() && mapRuns.get(mapRuns.size() - 1).lastTurn > currentTurn )
+      return true;
+    ArrayList<Run> runs = tileRuns.get(indexOf(x, y));
+    return null != runs && runs.get(runs.size() - 1).lastTurn > currentTurn;
+  }
+
+  /**
+   * Moves the clock forward and works out which weather changes that causes.
+   * Only the tiles whose forecasts change hands are examined, unless the map-wide weather itself changes.
+   * @param map Used to check each tile's current weather.
+   */
+  public WeatherChanges advance(int armyTurns, Weathers defaultWeather, GameMap map)
+  {
+    long previousTurn = currentTurn;
+    currentTurn += armyTurns;
+    WeatherChanges changes = new WeatherChanges();
+
+    // Work out what the map-wide weather should be now.
+    pruneBefore(mapRuns, currentTurn);
+    Run mapRun = mapRuns.isEmpty() ? null : mapRuns.get(0);
+    Weathers mapWeather = (null == mapRun) ? defaultWeather : mapRun.weather;
+    boolean mapFlips = mapWeather != appliedMapWeather;
+    if( mapFlips )
+      changes.mapWeather = mapWeather;
+
+    // Collect the tiles that need a look: anything whose timer came due, plus every tile with a local
+    // forecast if the map-wide weather was touched, since the newest-run rule might now favor the local one.
+    LinkedHashSet<Integer> dueTiles = new LinkedHashSet<>();
+    for( long turn = previousTurn + 1; turn <= currentTurn; ++turn )
+    {
+      ArrayList<Integer> bucket = wheel.remove(turn);
+      if( null != bucket )
+        dueTiles.addAll(bucket);
+    }
+    if( mapFlips || mapRun != appliedMapRun || mapOverridden )
+      dueTiles.addAll(tileRuns.keySet());
+    appliedMapWeather = mapWeather;
+    appliedMapRun = mapRun;
+    mapOverridden = false;
+
+    for( Integer tile : dueTiles )
+    {
+      ArrayList<Run> runs = tileRuns.get(tile);
+      Run localRun = null;
+      if( null != runs )
+      {
+        pruneBefore(runs, currentTurn);
+        if( runs.isEmpty() )
+          tileRuns.remove(tile);
+        else
+        {
+          localRun = runs.get(0);
+          schedule(tile, localRun.lastTurn + 1);
+        }
+      }
+
+      Weathers weather = mapWeather;
+      if( null != localRun && (null == mapRun || localRun.sequence > mapRun.sequence) )
+        weather = localRun.weather;
+
+      // If the whole map is about to flip, that's what this tile will be compared against.
+      int x = tile / mapHeight, y = tile % mapHeight;
+      Weathers current = mapFlips ? mapWeather : map.getEnvironment(x, y).weatherType;
+      if( weather != current )
+      {
+        changes.tiles.add(new XYCoord(x, y));
+        changes.tileWeathers.add(weather);
+      }
+    }
+    return changes;
+  }
+
+  private int indexOf(int x, int y)
+  {
+    return x * mapHeight + y;
+  }
+
+  private void schedule(int tile, long turn)
+  {
+    ArrayList<Integer> bucket = wheel.get(turn);
+    if( null == bucket )
+    {
+      bucket = new ArrayList<>();
+      wheel.put(turn, bucket);
+    }
+    bucket.add(tile);
+  }
+
+  /** Drops the runs that end at or before lastTurn; they're entirely overwritten by a newer run. */
+  private static void pruneThrough(ArrayList<Run> runs, long lastTurn)
+  {
+    while (!runs.isEmpty() && runs.get(0).lastTurn <= lastTurn)
+      runs.remove(0);
+  }
+
+  /** Drops the runs that have expired by the given turn. */
+  private static void pruneBefore(ArrayList<Run> runs, long turn)
+  {
+    while (!runs.isEmpty() && runs.get(0).lastTurn < turn)
+      runs.remove(0);
+  }
+}
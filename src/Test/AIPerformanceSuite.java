@@ -0,0 +1,584 @@
+package Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Random;
+import java.util.TreeMap;
+
+import AI.AIController;
+import AI.AIMaker;
+import AI.InfantrySpamAI;
+import AI.JakeMan;
+import AI.Muriel;
+import AI.ParallelScoring;
+import AI.SpenderAI;
+import AI.WallyAI;
+import CommandingOfficers.Commander;
+import CommandingOfficers.Patch;
+import Engine.Army;
+import Engine.GameAction;
+import Engine.GameInstance;
+import Engine.GameScenario;
+import Engine.XYCoord;
+import Engine.GameEvents.GameEvent;
+import Engine.GameEvents.GameEventListener;
+import Engine.GameEvents.GameEventQueue;
+import Terrain.MapInfo;
+import Terrain.MapLibrary;
+import Terrain.MapLocation;
+import Terrain.MapMaster;
+import Terrain.Environment.Weathers;
+import Units.Unit;
+import Units.UnitModel;
+
+/**
+ * Plays each AI for a few turns from frozen mid-game positions on the bundled maps, and compares how long it takes to
+ * decide on each action against a stored baseline. Exits with status 1 if any AI got slower by more than the threshold,
+ * or if there's no baseline to compare against.
+ * <p>
+ * Times are stored as multiples of how long a fixed calibration workload takes on the same machine in the same run,
+ * so the checked-in baseline isn't tied to the box that recorded it. That only goes as far as the workload tracks
+ * the AIs, though; for a close comparison, record a baseline on the parent commit and compare against it on the same
+ * machine:
+ *   (on the parent commit)  java Test.AIPerformanceSuite --record --baseline /tmp/parent.properties
+ *   (on your change)        java Test.AIPerformanceSuite --baseline /tmp/parent.properties
+ * <p>
+ * The positions are generated from fixed seeds (or loaded from save files given on the command line) and serialized,
+ * so every AI starts from the same bytes. Each AI plays every army in the game. Scoring is forced to run serially,
+ * so that all the AI's work (and all its allocations) happen on the thread we're measuring.
+ * The actions each AI picks are written out under perf/actions/ for comparison between runs. The AIs aren't fully
+ * deterministic, so a different choice is only mentioned, never counted as a failure.
+ * <p>
+ * Not part of TestMain; run it from the project root when touching an AI:
+ *   java Test.AIPerformanceSuite [--record] [--turns N] [--threshold X] [--baseline FILE] [SAVE.svp ...]
+ */
+public class AIPerformanceSuite
+{
+  private static final String DEFAULT_BASELINE = "perf/ai_baseline.properties";
+  private static final String ACTION_LOG_DIR = "perf/actions/";
+  /** Army turns to play per scenario, not counting warmup. */
+  private static final int DEFAULT_TURNS = 4;
+  private static final int WARMUP_TURNS = 1;
+  /** How much slower than the baseline a time may get before we call it a regression. */
+  private static final double DEFAULT_THRESHOLD = 1.5;
+  /** Percentile differences smaller than this many calibrations are noise, no matter the ratio. */
+  private static final double PERCENTILE_NOISE_FLOOR = 0.25;
+  /** Total time differences smaller than this many calibrations per action are noise, no matter the ratio. */
+  private static final double TOTAL_NOISE_FLOOR_PER_ACTION = 0.02;
+  /** Times the calibration workload runs before and after the AIs do; we go by the median. */
+  private static final int CALIBRATION_RUNS = 9;
+  private static final int CALIBRATION_WARMUP_RUNS = 3;
+
+  private static final AIMaker[] AIS = { WallyAI.info, Muriel.info, JakeMan.info, SpenderAI.info, InfantrySpamAI.info };
+
+  /** The generated positions: which map, how many units each side starts with, and the seed to place them with. */
+  private static final ScenarioSpec[] SCENARIOS = {
+      new ScenarioSpec("Aria of War", 30, 1),
+      new ScenarioSpec("Blood on my Hands", 80, 2),
+      new ScenarioSpec("Blizzard Battle", 50, 3),
+  };
+
+  /** The units the generated armies are drawn from. Repeats make a type more common. */
+  private static final long[] UNIT_MIX = { UnitModel.TROOP, UnitModel.TROOP, UnitModel.TROOP, UnitModel.MECH, UnitModel.MECH,
+      UnitModel.RECON, UnitModel.ASSAULT, UnitModel.ASSAULT, UnitModel.SIEGE, UnitModel.TRANSPORT };
+
+  private static class ScenarioSpec
+  {
+    final String mapName;
+    final int unitsPerSide;
+    final long seed;
+
+    ScenarioSpec(String mapName, int unitsPerSide, long seed)
+    {
+      this.mapName = mapName;
+      this.unitsPerSide = unitsPerSide;
+      this.seed = seed;
+    }
+  }
+
+  /** A frozen position, in save-file format. */
+  private static class Scenario
+  {
+    final String name;
+    final byte[] snapshot;
+
+    Scenario(String name, byte[] snapshot)
+    {
+      this.name = name;
+      this.snapshot = snapshot;
+    }
+  }
+
+  private static class RunStats
+  {
+    final String key;
+    final long[] actionNanos;
+    final long allocatedBytes; // Negative if the JVM can't tell us
+    final long actionHash;
+
+    RunStats(String key, long[] actionNanos, long allocatedBytes, long actionHash)
+    {
+      this.key = key;
+      this.actionNanos = actionNanos;
+      this.allocatedBytes = allocatedBytes;
+      this.actionHash = actionHash;
+    }
+
+    /** @return The p'th percentile (nearest rank) action time, in microseconds. */
+    long percentileMicros(double p)
+    {
+      if( 0 == actionNanos.length )
+        return 0;
+      long[] sorted = actionNanos.clone();
+      Arrays.sort(sorted);
+      int rank = (int) Math.ceil(p / 100 * sorted.length);
+      return sorted[Math.max(0, rank - 1)] / 1000;
+    }
+
+    long totalMicros()
+    {
+      long total = 0;
+      for( long nanos : actionNanos )
+        total += nanos;
+      return total / 1000;
+    }
+  }
+
+  public static void main(String[] args) throws IOException, ClassNotFoundException
+  {
+    boolean record = false;
+    int turns = DEFAULT_TURNS;
+    double threshold = DEFAULT_THRESHOLD;
+    String baselineFile = DEFAULT_BASELINE;
+    ArrayList<String> saveFiles = new ArrayList<String>();
+    for( int i = 0; i < args.length; ++i )
+    {
+      switch( args[i] )
+      {
+        case "--record":
+          record = true;
+          break;
+        case "--turns":
+          turns = Integer.parseInt(args[++i]);
+          break;
+        case "--threshold":
+          threshold = Double.parseDouble(args[++i]);
+          break;
+        case "--baseline":
+          baselineFile = args[++i];
+          break;
+        default:
+          saveFiles.add(args[i]);
+      }
+    }
+
+    File file = new File(baselineFile);
+    if( !record && !file.exists() )
+    {
+      System.out.println("No baseline at " + baselineFile + "; run with --record to make one.");
+      System.exit(1);
+    }
+
+    // Loading maps and games is chatty; keep the output to our results.
+    PrintStream defaultOut = System.out;
+    System.setOut(new PrintStream(new OutputStream(){
+      @Override
+      public void write(int b) throws IOException{}
+    }));
+    ParallelScoring.Mode previousMode = ParallelScoring.modeOverride;
+    ParallelScoring.modeOverride = ParallelScoring.Mode.SERIAL;
+
+    ArrayList<RunStats> results = new ArrayList<RunStats>();
+    ArrayList<Long> calibrationSamples = new ArrayList<Long>();
+    try
+    {
+      calibrate(calibrationSamples);
+      ArrayList<Scenario> scenarios = new ArrayList<Scenario>();
+      for( ScenarioSpec spec : SCENARIOS )
+        scenarios.add(new Scenario(spec.mapName + " x" + spec.unitsPerSide, buildScenario(spec)));
+      for( String saveFile : saveFiles )
+        scenarios.add(new Scenario(new File(saveFile).getName(), Files.readAllBytes(new File(saveFile).toPath())));
+
+      new File(ACTION_LOG_DIR).mkdirs();
+      for( Scenario scn : scenarios )
+        for( AIMaker ai : AIS )
+        {
+          runScenario(scn, ai, WARMUP_TURNS, null);
+          String key = scn.name + "." + ai.getName();
+          RunStats stats = runScenario(scn, ai, turns, key);
+          results.add(stats);
+          defaultOut.println(describe(stats));
+        }
+      // Check again at the end, in case the machine got busier or quieter while we worked.
+      calibrate(calibrationSamples);
+    }
+    finally
+    {
+      ParallelScoring.modeOverride = previousMode;
+      System.setOut(defaultOut);
+    }
+
+    Properties baseline = new Properties();
+    if( file.exists() )
+      try (FileInputStream in = new FileInputStream(file))
+      {
+        baseline.load(in);
+      }
+
+    Collections.sort(calibrationSamples);
+    final double calibrationMicros = calibrationSamples.get(calibrationSamples.size() / 2) / 1000.0;
+    System.out.println(String.format("Calibration workload took %dus (%dus to %dus)", (long) calibrationMicros,
+        calibrationSamples.get(0) / 1000, calibrationSamples.get(calibrationSamples.size() - 1) / 1000));
+
+    if( record )
+    {
+      for( RunStats stats : results )
+      {
+        baseline.setProperty(stats.key + ".p50", formatCalibrations(stats.percentileMicros(50) / calibrationMicros));
+        baseline.setProperty(stats.key + ".p90", formatCalibrations(stats.percentileMicros(90) / calibrationMicros));
+        baseline.setProperty(stats.key + ".total", formatCalibrations(stats.totalMicros() / calibrationMicros));
+        baseline.setProperty(stats.key + ".actionHash", Long.toHexString(stats.actionHash));
+      }
+      writeBaseline(file, baseline);
+      System.out.println("Recorded baseline in " + baselineFile);
+      return;
+    }
+
+    int regressions = 0;
+    int changedChoices = 0;
+    for( RunStats stats : results )
+    {
+      regressions += compare(stats, "p50", stats.percentileMicros(50) / calibrationMicros, PERCENTILE_NOISE_FLOOR, baseline, threshold);
+      regressions += compare(stats, "p90", stats.percentileMicros(90) / calibrationMicros, PERCENTILE_NOISE_FLOOR, baseline, threshold);
+      regressions += compare(stats, "total", stats.totalMicros() / calibrationMicros,
+                             TOTAL_NOISE_FLOOR_PER_ACTION * stats.actionNanos.length, baseline, threshold);
+      String oldHash = baseline.getProperty(stats.key + ".actionHash");
+      if( null != oldHash && !oldHash.equals(Long.toHexString(stats.actionHash)) )
+        ++changedChoices;
+    }
+    // Only a hint; the AIs don't always make the same choices from the same position.
+    if( changedChoices > 0 )
+      System.out.println(String.format("Note: %d runs chose different actions than in the baseline run; see %s", changedChoices, ACTION_LOG_DIR));
+    if( regressions > 0 )
+    {
+      System.out.println(String.format("%d AI timing regressions beyond %.2fx the baseline!", regressions, threshold));
+      System.exit(1);
+    }
+    System.out.println("No AI timing regressions.");
+  }
+
+  /**
+   * @param calibrations The measurement, in multiples of the calibration workload's time.
+   * @param noiseFloor Any increase smaller than this (in calibrations) is ignored.
+   * @return 1 if this measurement is over the baseline by more than the threshold, else 0.
+   */
+  private static int compare(RunStats stats, String metric, double calibrations, double noiseFloor, Properties baseline, double threshold)
+  {
+    String old = baseline.getProperty(stats.key + "." + metric);
+    if( null == old )
+    {
+      System.out.println("  No baseline for " + stats.key + "." + metric);
+      return 0;
+    }
+    double oldCalibrations = Double.parseDouble(old);
+    if( calibrations > oldCalibrations * threshold && calibrations - oldCalibrations > noiseFloor )
+    {
+      System.out.println(String.format("REGRESSION: %s %s went from %s to %s calibrations",
+          stats.key, metric, formatCalibrations(oldCalibrations), formatCalibrations(calibrations)));
+      return 1;
+    }
+    return 0;
+  }
+
+  private static String formatCalibrations(double calibrations)
+  {
+    return String.format("%.4f", calibrations);
+  }
+
+  /**
+   * Writes the baseline in Properties format, sorted by key and without a timestamp,
+   * so re-recording only changes the lines whose numbers changed.
+   */
+  private static void writeBaseline(File file, Properties baseline) throws IOException
+  {
+    if( null != file.getParentFile() )
+      file.getParentFile().mkdirs();
+    TreeMap<String, String> sorted = new TreeMap<String, String>();
+    for( String key : baseline.stringPropertyNames() )
+      sorted.put(key, baseline.getProperty(key));
+    try (PrintWriter out = new PrintWriter(file, "ISO-8859-1"))
+    {
+      out.println("# AI decision times, in multiples of the calibration workload's time; see Test.AIPerformanceSuite");
+      for( Map.Entry<String, String> entry : sorted.entrySet() )
+        out.println(entry.getKey().replace(" ", "\\ ") + "=" + entry.getValue());
+    }
+  }
+
+  /** Times calibrationWorkload() a few times, after warming it up, and adds the timings (in nanoseconds) to samples. */
+  private static void calibrate(List<Long> samples)
+  {
+    long checksum = 0;
+    for( int i = 0; i < CALIBRATION_WARMUP_RUNS + CALIBRATION_RUNS; ++i )
+    {
+      long start = System.nanoTime();
+      checksum += calibrationWorkload();
+      if( i >= CALIBRATION_WARMUP_RUNS )
+        samples.add(System.nanoTime() - start);
+    }
+    if( checksum == 42 ) // Make sure the work can't be optimized away.
+      System.out.println("Unlikely calibration checksum");
+  }
+
+  /**
+   * A fixed amount of work that looks like what the AIs do a lot of: flood-filling a map, with coordinates in hash
+   * maps and queues. The answer is meaningless, but computing it takes a steady amount of time on a given machine.
+   */
+  private static long calibrationWorkload()
+  {
+    final int size = 64;
+    long checksum = 0;
+    for( int round = 0; round < 24; ++round )
+    {
+      HashMap<XYCoord, Integer> costs = new HashMap<XYCoord, Integer>();
+      ArrayDeque<XYCoord> frontier = new ArrayDeque<XYCoord>();
+      XYCoord start = new XYCoord(round, round);
+      costs.put(start, 0);
+      frontier.add(start);
+      while( !frontier.isEmpty() )
+      {
+        XYCoord here = frontier.poll();
+        int cost = costs.get(here);
+        for( XYCoord next : new XYCoord[] { here.up(), here.down(), here.left(), here.right() } )
+        {
+          if( next.xCoord < 0 || next.yCoord < 0 || next.xCoord >= size || next.yCoord >= size )
+            continue;
+          // Some scattered "terrain" that can't be crossed.
+          if( (next.xCoord * 7 + next.yCoord * 13 + round) % 11 == 0 )
+            continue;
+          if( costs.containsKey(next) )
+            continue;
+          costs.put(next, cost + 1);
+          frontier.add(next);
+        }
+      }
+      for( int cost : costs.values() )
+        checksum += cost;
+    }
+    return checksum;
+  }
+
+  private static String describe(RunStats stats)
+  {
+    String alloc = (stats.allocatedBytes < 0) ? "unknown" :
+        String.format("%.1f KB", stats.allocatedBytes / 1024.0 / Math.max(1, stats.actionNanos.length));
+    return String.format("%s: %d actions, p50 %dus, p90 %dus, p99 %dus, max %dus, total %.2fs, %s allocated per action",
+        stats.key, stats.actionNanos.length, stats.percentileMicros(50), stats.percentileMicros(90), stats.percentileMicros(99),
+        stats.percentileMicros(100), stats.totalMicros() / 1e6, alloc);
+  }
+
+  /**
+   * Sets up a two-army game on the given map, hands out the neutral properties to whichever side is nearer, and
+   * scatters (partly damaged) units over each side's half of the map.
+   * @return The position, in save-file format.
+   */
+  private static byte[] buildScenario(ScenarioSpec spec) throws IOException
+  {
+    MapInfo mapInfo = MapLibrary.getByName(spec.mapName);
+    Random random = new Random(spec.seed);
+    GameScenario scenario = new GameScenario(mapInfo.getValidUnitModelSchemes()[0],
+        GameScenario.DEFAULT_INCOME, GameScenario.DEFAULT_STARTING_FUNDS, false, GameScenario.TagMode.OFF);
+    Army[] armies = new Army[mapInfo.getNumCos()];
+    for( int i = 0; i < armies.length; ++i )
+    {
+      armies[i] = new Army(scenario, new Patch(scenario.rules));
+      armies[i].team = i;
+    }
+    MapMaster map = new MapMaster(armies, mapInfo);
+    GameInstance game = new GameInstance(scenario, armies, map, Weathers.CLEAR, false);
+
+    // Sort every tile by which army's starting properties it's closest to.
+    ArrayList<ArrayList<XYCoord>> halves = new ArrayList<ArrayList<XYCoord>>();
+    ArrayList<ArrayList<XYCoord>> starts = new ArrayList<ArrayList<XYCoord>>();
+    for( Army army : armies )
+    {
+      halves.add(new ArrayList<XYCoord>());
+      starts.add(army.getOwnedProperties());
+    }
+    for( int y = 0; y < map.mapHeight; ++y )
+      for( int x = 0; x < map.mapWidth; ++x )
+      {
+        XYCoord xyc = new XYCoord(x, y);
+        int nearest = -1, nearestDist = Integer.MAX_VALUE, runnerUpDist = Integer.MAX_VALUE;
+        for( int i = 0; i < armies.length; ++i )
+        {
+          int dist = Integer.MAX_VALUE;
+          for( XYCoord start : starts.get(i) )
+            dist = Math.min(dist, xyc.getDistance(start));
+          if( dist < nearestDist )
+          {
+            runnerUpDist = nearestDist;
+            nearestDist = dist;
+            nearest = i;
+          }
+          else
+            runnerUpDist = Math.min(runnerUpDist, dist);
+        }
+        // Leave the contested middle alone.
+        if( nearest < 0 || runnerUpDist - nearestDist < 2 )
+          continue;
+        halves.get(nearest).add(xyc);
+        MapLocation loc = map.getLocation(xyc);
+        if( loc.isCaptureable() && null == loc.getOwner() )
+          loc.setOwner(armies[nearest].cos[0]);
+      }
+
+    for( int i = 0; i < armies.length; ++i )
+    {
+      Commander co = armies[i].cos[0];
+      armies[i].money = 10000 + 1000 * random.nextInt(20);
+      ArrayList<XYCoord> tiles = halves.get(i);
+      Collections.shuffle(tiles, random);
+      int placed = 0;
+      for( XYCoord xyc : tiles )
+      {
+        if( placed >= spec.unitsPerSide )
+          break;
+        MapLocation loc = map.getLocation(xyc);
+        // Keep the factories free, so the AIs have something to build with.
+        if( null != loc.getResident() || (loc.getOwner() == co && !co.getShoppingList(loc).isEmpty()) )
+          continue;
+        UnitModel model = co.getUnitModel(UNIT_MIX[random.nextInt(UNIT_MIX.length)], false);
+        if( !model.baseMoveType.canStandOn(loc.getEnvironment()) )
+          continue;
+        Unit unit = new Unit(co, model);
+        map.addNewUnit(unit, xyc.xCoord, xyc.yCoord);
+        co.units.add(unit);
+        if( random.nextInt(3) == 0 )
+          unit.damageHP(1 + random.nextInt(6));
+        ++placed;
+      }
+      if( placed < spec.unitsPerSide )
+        System.err.println(String.format("WARNING: Only found room for %d of %d units for army %d on %s", placed, spec.unitsPerSide, i, spec.mapName));
+    }
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes))
+    {
+      game.writeSave(out, true);
+    }
+    return bytes.toByteArray();
+  }
+
+  /**
+   * Loads a fresh copy of the scenario, puts the given AI in charge of every army, and plays the given number of turns.
+   * @param logKey If not null, the actions are written to the action log under this name.
+   */
+  private static RunStats runScenario(Scenario scn, AIMaker ai, int turns, String logKey) throws IOException, ClassNotFoundException
+  {
+    GameInstance game;
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(scn.snapshot)))
+    {
+      in.readObject(); // Version info
+      game = (GameInstance) in.readObject();
+    }
+    for( Army army : game.armies )
+    {
+      AIController controller = ai.create(army);
+      controller.setLogging(false);
+      army.setAIController(controller);
+    }
+
+    com.sun.management.ThreadMXBean threads = null;
+    if( ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean )
+    {
+      threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+      if( !threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled() )
+        threads = null;
+    }
+    long threadId = Thread.currentThread().getId();
+
+    ArrayList<Long> actionNanos = new ArrayList<Long>();
+    List<String> actionLog = new ArrayList<String>();
+    long allocated = 0;
+    long actionHash = 17;
+    for( int turn = 0; turn < turns && !isGameOver(game); ++turn )
+    {
+      if( turn > 0 || game.requireInitOnLoad() )
+      {
+        GameEventQueue turnEvents = new GameEventQueue();
+        game.turn(turnEvents);
+        executeEvents(game, turnEvents);
+      }
+      else
+        game.activeArmy.getAIController().initTurn(game.activeArmy.myView);
+
+      while( !isGameOver(game) )
+      {
+        long allocStart = (null == threads) ? 0 : threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        GameAction action = game.activeArmy.getNextAIAction(game.gameMap);
+        actionNanos.add(System.nanoTime() - start);
+        if( null != threads )
+          allocated += threads.getThreadAllocatedBytes(threadId) - allocStart;
+
+        String line = String.format("Turn %d, army %d: %s", game.getCurrentTurn(), game.getActiveCOIndex(), action);
+        actionLog.add(line);
+        actionHash = actionHash * 31 + line.hashCode();
+        if( null == action )
+          break;
+        GameEventQueue events = action.getEvents(game.gameMap);
+        if( events.isEmpty() )
+        {
+          actionLog.add("  Failed to execute!");
+          break;
+        }
+        executeEvents(game, events);
+      }
+    }
+
+    if( null != logKey )
+      Files.write(new File(ACTION_LOG_DIR + logKey.replaceAll("[^A-Za-z0-9.]", "_") + ".txt").toPath(), actionLog);
+
+    long[] nanos = new long[actionNanos.size()];
+    for( int i = 0; i < nanos.length; ++i )
+      nanos[i] = actionNanos.get(i);
+    return new RunStats(logKey, nanos, (null == threads) ? -1 : allocated, actionHash);
+  }
+
+  private static void executeEvents(GameInstance game, GameEventQueue events)
+  {
+    while( !events.isEmpty() )
+    {
+      GameEvent event = events.poll();
+      game.gameMap.performEvent(event);
+      events.addAll(GameEventListener.publishEvent(event, game));
+    }
+  }
+
+  private static boolean isGameOver(GameInstance game)
+  {
+    int activeNum = 0;
+    for( Army army : game.armies )
+      if( !army.isDefeated )
+        ++activeNum;
+    return activeNum < 2;
+  }
+}
@@ -0,0 +1,105 @@
+package Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Random;
+
+import Terrain.MapInfo;
+import Terrain.Maps.MapReader;
+
+/**
+ * Times MapReader against synthetic square maps, to keep an eye on load times for large imported maps.
+ * Not part of TestMain; run it directly when touching the map parser.
+ */
+public class MapReaderBenchmark
+{
+  private static final String[] TERRAIN_CODES = { "GR", "GR", "GR", "FR", "MT", "RD", "SE", "SE", "SH", "RV", "RF", "BR" };
+  private static final String[] PROPERTY_CODES = { "CT", "FC", "AP", "SP", "HQ" };
+  private static final int WARMUP_RUNS = 5;
+  private static final int TIMED_RUNS = 20;
+
+  public static void main(String[] args) throws IOException
+  {
+    int[] sizes = { 200, 500 };
+    for( int size : sizes )
+    {
+      File mapFile = writeSyntheticMap(size, new Random(size));
+      try
+      {
+        runBenchmark(mapFile, size);
+      }
+      finally
+      {
+        mapFile.delete();
+      }
+    }
+  }
+
+  private static void runBenchmark(File mapFile, int size)
+  {
+    // readSingleMap prints a line per map; keep the output to our results.
+    PrintStream defaultOut = System.out;
+    System.setOut(new PrintStream(new OutputStream(){
+      @Override
+      public void write(int b) throws IOException{}
+    }));
+
+    MapInfo info = null;
+    for( int i = 0; i < WARMUP_RUNS; ++i )
+      info = MapReader.readSingleMap(mapFile.getAbsolutePath());
+
+    long[] runNanos = new long[TIMED_RUNS];
+    for( int i = 0; i < TIMED_RUNS; ++i )
+    {
+      long start = System.nanoTime();
+      info = MapReader.readSingleMap(mapFile.getAbsolutePath());
+      runNanos[i] = System.nanoTime() - start;
+    }
+    System.setOut(defaultOut);
+
+    if( null == info || info.getWidth() != size || info.getHeight() != size )
+    {
+      System.out.println(String.format("%dx%d: map did not parse correctly!", size, size));
+      return;
+    }
+
+    java.util.Arrays.sort(runNanos);
+    double ns2ms = 1. / 1000000;
+    double megabytes = mapFile.length() / (1024. * 1024.);
+    System.out.println(String.format("%dx%d (%.2f MB): best %.2f ms, median %.2f ms, %.1f MB/s",
+        size, size, megabytes, runNanos[0] * ns2ms, runNanos[TIMED_RUNS / 2] * ns2ms,
+        megabytes / (runNanos[TIMED_RUNS / 2] * ns2ms / 1000)));
+  }
+
+  /** Writes a size x size map with two factions and a sprinkling of properties and units. */
+  private static File writeSyntheticMap(int size, Random rand) throws IOException
+  {
+    StringBuilder sb = new StringBuilder(size * (size * 4 + 1) + 256);
+    for( int y = 0; y < size; ++y )
+    {
+      for( int x = 0; x < size; ++x )
+      {
+        if( rand.nextInt(20) == 0 )
+        {
+          int owner = rand.nextInt(3); // 0 means neutral
+          sb.append(owner == 0 ? "  " : String.format("%2d", owner));
+          sb.append(PROPERTY_CODES[rand.nextInt(PROPERTY_CODES.length)]);
+        }
+        else
+          sb.append("  ").append(TERRAIN_CODES[rand.nextInt(TERRAIN_CODES.length)]);
+      }
+      sb.append('\n');
+    }
+    sb.append("team, unit type, x, y\n");
+    for( int i = 0; i < size; ++i )
+      sb.append(String.format("%d, INFANTRY, %d, %d\n", 1 + (i % 2), rand.nextInt(size), rand.nextInt(size)));
+
+    File mapFile = File.createTempFile("Synthetic_" + size, ".map");
+    Files.write(mapFile.toPath(), sb.toString().getBytes(StandardCharsets.UTF_8));
+    return mapFile;
+  }
+}
@@ -0,0 +1,104 @@
+package Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+
+import CommandingOfficers.Commander;
+import CommandingOfficers.Patch;
+import CommandingOfficers.Strong;
+import Engine.Army;
+import Engine.GameAction;
+import Engine.GameActionSet;
+import Engine.GameInstance;
+import Engine.GameScenario;
+import Engine.Utils;
+import Engine.XYCoord;
+import Engine.GameEvents.SimulationLog;
+import Terrain.MapLibrary;
+import Terrain.MapMaster;
+import Units.Unit;
+import Units.UnitModel;
+
+/**
+ * Times SimulationLog apply/undo cycles over every action one army could take, on a small fogged skirmish.
+ * For comparison, also times copying the game the way lookahead would have to without it (serialize + deserialize).
+ * Not part of TestMain; run it directly when touching SimulationLog or the events' recordChanges().
+ */
+public class SimulationBenchmark
+{
+  private static final int WARMUP_PASSES = 20;
+  private static final int TIMED_PASSES = 200;
+  private static final int COPY_RUNS = 50;
+
+  public static void main(String[] args) throws IOException, ClassNotFoundException
+  {
+    GameScenario scn = new GameScenario();
+    scn.rules.isFogEnabled = true;
+    Commander co1 = new Strong(scn.rules);
+    Commander co2 = new Patch(scn.rules);
+    Army[] armies = { new Army(scn, co1), new Army(scn, co2) };
+    MapMaster map = new MapMaster(armies, MapLibrary.getByName("Firing Range"));
+    GameInstance game = new GameInstance(armies, map);
+
+    long[] myUnits = { UnitModel.TROOP, UnitModel.MECH, UnitModel.TRANSPORT, UnitModel.RECON, UnitModel.ASSAULT, UnitModel.SIEGE };
+    long[] theirUnits = { UnitModel.TROOP, UnitModel.TROOP, UnitModel.MECH, UnitModel.ASSAULT };
+    for( int i = 0; i < myUnits.length; ++i )
+      TestCase.addUnit(map, co1, myUnits[i], 2 + i, 6);
+    for( int i = 0; i < theirUnits.length; ++i )
+      TestCase.addUnit(map, co2, theirUnits[i], 3 + i, 4);
+    for( Unit unit : co1.units )
+      unit.initTurn(map);
+    co1.army.myView.resetFog();
+
+    ArrayList<GameAction> actions = new ArrayList<GameAction>();
+    for( Unit unit : co1.units )
+      for( XYCoord dest : Utils.findPossibleDestinations(unit, map, false) )
+        for( GameActionSet set : unit.getPossibleActions(map, Utils.findShortestPath(unit, dest, map, false)) )
+          actions.addAll(set.getGameActions());
+
+    SimulationLog log = new SimulationLog(map);
+    int applied = 0, changes = 0;
+    for( int pass = 0; pass < WARMUP_PASSES; ++pass )
+      for( GameAction action : actions )
+      {
+        log.apply(action);
+        log.undoAll();
+      }
+    long start = System.nanoTime();
+    for( int pass = 0; pass < TIMED_PASSES; ++pass )
+      for( GameAction action : actions )
+      {
+        if( log.apply(action) )
+          ++applied;
+        changes += log.size();
+        log.undoAll();
+      }
+    double seconds = (System.nanoTime() - start) / 1e9;
+    int cycles = TIMED_PASSES * actions.size();
+    System.out.println(String.format("%d actions x %d passes: %.0f apply/undo cycles per second (%.1f us each), %d applied, %.1f changes per action",
+        actions.size(), TIMED_PASSES, cycles / seconds, seconds * 1e6 / cycles, applied, (double) changes / cycles));
+
+    start = System.nanoTime();
+    for( int i = 0; i < COPY_RUNS; ++i )
+      copy(game);
+    seconds = (System.nanoTime() - start) / 1e9;
+    System.out.println(String.format("Copying the game instead: %.0f copies per second (%.1f us each)", COPY_RUNS / seconds, seconds * 1e6 / COPY_RUNS));
+  }
+
+  private static GameInstance copy(GameInstance game) throws IOException, ClassNotFoundException
+  {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bytes))
+    {
+      out.writeObject(game);
+    }
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray())))
+    {
+      return (GameInstance) in.readObject();
+    }
+  }
+}
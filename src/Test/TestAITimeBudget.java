@@ -0,0 +1,93 @@
+package Test;
+
+import AI.AIController;
+import AI.AITimeBudget;
+import AI.Muriel;
+import AI.WallyAI;
+import Engine.GameInstance;
+import Terrain.MapInfo;
+import Terrain.MapLibrary;
+
+public class TestAITimeBudget extends TestCase
+{
+  private static final int TURNS_PER_GAME = 6;
+
+  @Override
+  public boolean runTest()
+  {
+    boolean testPassed = true;
+    testPassed &= validate(testBudget(), "  Time budget bookkeeping test failed.");
+    testPassed &= validate(testTightBudget("Firing Range"), "  Firing Range tight budget test failed.");
+    return testPassed;
+  }
+
+  private boolean testBudget()
+  {
+    boolean testPassed = true;
+    AITimeBudget budget = new AITimeBudget();
+    budget.startTurn();
+    pause(5);
+    testPassed &= validate(!budget.isExpired(), "    A budget without limits expired.");
+    budget.endAction();
+    testPassed &= validate(0 == budget.actionOverruns && 0 == budget.turnOverruns, "    A budget without limits was overrun.");
+
+    budget.setLimits(1, 1000);
+    budget.startTurn();
+    testPassed &= validate(!budget.isExpired(), "    Budget expired right away.");
+    pause(5);
+    testPassed &= validate(budget.isExpired(), "    Action budget didn't expire.");
+    testPassed &= validate(!budget.isTurnExpired(), "    Turn budget expired along with the action's.");
+    budget.endAction();
+    testPassed &= validate(1 == budget.actionOverruns, "    Action overrun wasn't counted.");
+    testPassed &= validate(1 == budget.cutoffs, "    Cutoff wasn't counted.");
+
+    budget.setLimits(1000, 8);
+    budget.startAction();
+    pause(5);
+    budget.endAction();
+    budget.startAction();
+    pause(5);
+    testPassed &= validate(budget.isExpired() && budget.isTurnExpired(), "    Turn budget didn't carry over between actions.");
+    budget.endAction();
+    testPassed &= validate(1 == budget.turnOverruns, "    Turn overrun wasn't counted.");
+    return testPassed;
+  }
+
+  /** The AIs should still get through their turns (and keep count) when they keep running out of time. */
+  private boolean testTightBudget(String mapName)
+  {
+    boolean testPassed = true;
+    MapInfo mapInfo = MapLibrary.getByName(mapName);
+    GameInstance game = setupAIGame(mapInfo, Muriel.info, WallyAI.info);
+    AIController[] ais = { new Muriel(game.armies[0]), new WallyAI(game.armies[1]) };
+    for( int i = 0; i < ais.length; ++i )
+    {
+      ais[i].setTimeBudget(1, 2);
+      game.armies[i].setAIController(ais[i]);
+    }
+
+    playAIGame(game, mapInfo, TURNS_PER_GAME);
+
+    for( AIController ai : ais )
+    {
+      AITimeBudget budget = ai.getTimeBudget();
+      String name = ai.getAIInfo().getName();
+      testPassed &= validate(budget.turnsTimed > 0, "    " + name + " only finished " + budget.turnsTimed + " turns on " + mapName);
+      testPassed &= validate(budget.cutoffs > 0, "    " + name + " never ran out of time on " + mapName);
+    }
+    testPassed &= validate(!game.armies[0].getUnits().isEmpty() || !game.armies[1].getUnits().isEmpty(), "    Nobody built anything on " + mapName);
+    return testPassed;
+  }
+
+  private static void pause(long millis)
+  {
+    try
+    {
+      Thread.sleep(millis);
+    }
+    catch( InterruptedException e )
+    {
+      Thread.currentThread().interrupt();
+    }
+  }
+}
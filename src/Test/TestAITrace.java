@@ -0,0 +1,119 @@
+package Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import AI.AITrace;
+import CommandingOfficers.Commander;
+import CommandingOfficers.Patch;
+import Engine.Army;
+import Engine.GameInstance;
+import Engine.GameScenario;
+import Engine.XYCoord;
+import Terrain.MapLibrary;
+import Terrain.MapMaster;
+import Units.Unit;
+import Units.UnitModel;
+
+public class TestAITrace extends TestCase
+{
+  private static Commander patch;
+  private static MapMaster testMap;
+
+  private static void setupTest()
+  {
+    GameScenario scn = new GameScenario();
+    patch = new Patch(scn.rules);
+    Commander enemy = new Patch(scn.rules);
+    Army[] armies = { new Army(scn, patch), new Army(scn, enemy) };
+    testMap = new MapMaster(armies, MapLibrary.getByName("Firing Range"));
+    new GameInstance(armies, testMap);
+  }
+
+  @Override
+  public boolean runTest()
+  {
+    setupTest();
+
+    boolean testPassed = true;
+    testPassed &= validate(testDisabled(), "  Disabled trace test failed.");
+    testPassed &= validate(testRingBuffer(), "  Trace ring buffer test failed.");
+    testPassed &= validate(testMovingUnits(), "  Trace unit snapshot test failed.");
+    return testPassed;
+  }
+
+  /** Traces start out disabled, and a disabled trace shouldn't keep anything, or even build the messages. */
+  private boolean testDisabled()
+  {
+    boolean testPassed = true;
+    AITrace trace = new AITrace();
+    testPassed &= validate(!trace.isEnabled(), "    Trace should start out disabled.");
+
+    int[] built = { 0 };
+    trace.log("plain");
+    trace.log("%s and %s", 1, 2);
+    trace.log(() -> "built " + ++built[0]);
+    trace.event(null, new XYCoord(1, 1), 5, "nowhere");
+    testPassed &= validate(0 == trace.size(), "    Disabled trace recorded " + trace.size() + " events.");
+    testPassed &= validate(0 == built[0], "    Disabled trace ran a message lambda.");
+
+    trace.setEnabled(true);
+    trace.log(() -> "built " + ++built[0]);
+    testPassed &= validate(1 == built[0] && 1 == trace.size(), "    Enabled trace didn't take a lambda message.");
+    return testPassed;
+  }
+
+  /** Only the latest events are kept, in order. */
+  private boolean testRingBuffer()
+  {
+    boolean testPassed = true;
+    AITrace trace = new AITrace(3);
+    trace.setEnabled(true);
+    for( int i = 0; i < 5; ++i )
+    {
+      trace.setTurn(i / 2);
+      trace.log("message %d", i);
+    }
+    testPassed &= validate(3 == trace.size(), "    Expected 3 events, found " + trace.size());
+
+    List<String> lines = new ArrayList<String>();
+    for( AITrace.Event e : trace.getEvents() )
+      lines.add(e.format());
+    testPassed &= validate(lines.toString().equals("[message 2, message 3, message 4]"), "    Kept the wrong events: " + lines);
+
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    trace.dump(new PrintStream(bytes, true));
+    String dump = bytes.toString();
+    testPassed &= validate(dump.contains("2 earlier events dropped"), "    Dump didn't mention the dropped events:\n" + dump);
+    testPassed &= validate(dump.contains("Turn 1") && dump.contains("Turn 2") && !dump.contains("Turn 0"),
+        "    Dump has the wrong turn headers:\n" + dump);
+
+    trace.clear();
+    testPassed &= validate(0 == trace.size(), "    Clearing left events behind.");
+    return testPassed;
+  }
+
+  /** Units are described where they were when the event was recorded, not where they end up. */
+  private boolean testMovingUnits()
+  {
+    boolean testPassed = true;
+    Unit unit = addUnit(testMap, patch, UnitModel.TROOP, 5, 5);
+    AITrace trace = new AITrace();
+    trace.setEnabled(true);
+    trace.log("%s considered", unit);
+    trace.event(unit, new XYCoord(6, 5), 2.5, "is close");
+    testMap.moveUnit(unit, 7, 7);
+
+    List<AITrace.Event> events = trace.getEvents();
+    String logged = events.get(0).format();
+    String event = events.get(1).format();
+    testPassed &= validate(logged.contains("(5, 5)") && !logged.contains("(7, 7)"), "    Logged unit moved with it: " + logged);
+    testPassed &= validate(event.contains("(5, 5)") && event.contains("(6, 5)") && event.contains("2.50") && event.contains("is close"),
+        "    Event is missing details: " + event);
+
+    testMap.removeUnit(unit);
+    return testPassed;
+  }
+}
@@ -0,0 +1,49 @@
+package Test;
+
+import AI.AIWorldModel;
+import AI.JakeMan;
+import AI.ModularAI;
+import AI.WallyAI;
+import Engine.GameInstance;
+import Terrain.MapInfo;
+import Terrain.MapLibrary;
+
+public class TestAIWorldModel extends TestCase
+{
+  private static final int TURNS_PER_GAME = 8;
+
+  @Override
+  public boolean runTest()
+  {
+    boolean testPassed = true;
+    testPassed &= validate(testCacheStaysFresh("Firing Range"), "  Firing Range world model test failed.");
+    return testPassed;
+  }
+
+  /** Plays Wally against JakeMan with every cache hit double-checked, and makes sure nothing was ever stale. */
+  private boolean testCacheStaysFresh(String mapName)
+  {
+    boolean testPassed = true;
+    MapInfo mapInfo = MapLibrary.getByName(mapName);
+    GameInstance game = setupAIGame(mapInfo, WallyAI.info, JakeMan.info);
+    ModularAI[] ais = { new WallyAI(game.armies[0]), new JakeMan(game.armies[1]) };
+    AIWorldModel[] worlds = new AIWorldModel[ais.length];
+    for( int i = 0; i < ais.length; ++i )
+    {
+      game.armies[i].setAIController(ais[i]);
+      worlds[i] = ais[i].getWorldModel();
+      worlds[i].checkCache = true;
+    }
+
+    playAIGame(game, mapInfo, TURNS_PER_GAME);
+
+    for( AIWorldModel world : worlds )
+    {
+      testPassed &= validate(world.cacheHits > 0, "    World model was never used on " + mapName);
+      testPassed &= validate(0 == world.cacheErrors,
+          "    World model was stale " + world.cacheErrors + " of " + world.cacheHits + " times on " + mapName);
+    }
+    return testPassed;
+  }
+
+}
@@ -1,13 +1,26 @@
 package Test;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.ArrayList;
+
+import AI.AIController;
+import AI.AIMaker;
+import AI.FightClub;
 import CommandingOfficers.Commander;
+import CommandingOfficers.Patch;
+import Engine.Army;
 import Engine.GameAction;
 import Engine.GameInstance;
+import Engine.GameScenario;
 import Engine.XYCoord;
 import Engine.GameEvents.GameEvent;
 import Engine.GameEvents.GameEventListener;
 import Engine.GameEvents.GameEventQueue;
+import Terrain.MapInfo;
 import Terrain.MapMaster;
+import Terrain.Environment.Weathers;
 import Units.Unit;
 import Units.UnitModelScheme;
 
@@ -100,7 +113,7 @@ public abstract class TestCase
   {
     for( GameEvent event : sequence )
     {
-      event.performEvent( game.gameMap );
+      game.gameMap.performEvent(event);
       GameEventListener.publishEvent(event, game);
     }
   }
@@ -118,4 +131,43 @@ public abstract class TestCase
       performEvents(game, sequence);
     }
   }
+
+  /** Sets up a game on the given map between the given AIs, each playing Patch, the way FightClub does. */
+  protected static GameInstance setupAIGame(MapInfo mapInfo, AIMaker... ais)
+  {
+    GameScenario scenario = new GameScenario(mapInfo.getValidUnitModelSchemes()[0],
+        GameScenario.DEFAULT_INCOME, GameScenario.DEFAULT_STARTING_FUNDS, false, GameScenario.TagMode.OFF);
+    Army[] armies = new Army[ais.length];
+    for( int i = 0; i < ais.length; ++i )
+    {
+      armies[i] = new Army(scenario, new Patch(scenario.rules));
+      armies[i].team = i;
+      AIController ai = ais[i].create(armies[i]);
+      ai.setLogging(false);
+      armies[i].setAIController(ai);
+    }
+    return new GameInstance(scenario, armies, new MapMaster(armies, mapInfo), Weathers.CLEAR, false);
+  }
+
+  /** Lets the AIs play the game out (quietly) until someone wins or maxTurns is up. */
+  protected static void playAIGame(GameInstance game, MapInfo mapInfo, int maxTurns)
+  {
+    FightClub.GameSetParams params = new FightClub.GameSetParams(mapInfo, 1, new ArrayList<>(), new ArrayList<>());
+    params.maxTurns = maxTurns;
+
+    PrintStream defaultOut = System.out;
+    PrintStream quiet = new PrintStream(new OutputStream(){
+      @Override
+      public void write(int b) throws IOException{}
+    });
+    System.setOut(quiet);
+    try
+    {
+      new FightClub.GameSet(params).runGame(game, quiet);
+    }
+    finally
+    {
+      System.setOut(defaultOut);
+    }
+  }
 }
@@ -0,0 +1,108 @@
+package Test;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import AI.AICombatUtils;
+import AI.EnemyReach;
+import AI.Muriel;
+import AI.ParallelScoring;
+import AI.WallyAI;
+import Engine.Army;
+import Engine.GameInstance;
+import Engine.Utils;
+import Engine.XYCoord;
+import Terrain.MapInfo;
+import Terrain.MapLibrary;
+import Units.Unit;
+import Units.UnitModel;
+
+public class TestEnemyReach extends TestCase
+{
+  private static final int TURNS_PER_GAME = 6;
+
+  @Override
+  public boolean runTest()
+  {
+    boolean testPassed = true;
+    testPassed &= validate(testMatchesThreatPower("Firing Range"), "  Firing Range enemy reach test failed.");
+    return testPassed;
+  }
+
+  /** Plays a few turns, then checks every enemy's reach against the one-unit-at-a-time utilities. */
+  private boolean testMatchesThreatPower(String mapName)
+  {
+    boolean testPassed = true;
+    MapInfo mapInfo = MapLibrary.getByName(mapName);
+    GameInstance game = setupAIGame(mapInfo, Muriel.info, WallyAI.info);
+    playAIGame(game, mapInfo, TURNS_PER_GAME);
+
+    Army me = game.armies[0];
+    ArrayList<Unit> enemies = new ArrayList<Unit>(game.armies[1].getUnits());
+    testPassed &= validate(!enemies.isEmpty(), "    No enemies left to test with on " + mapName);
+
+    EnemyReach reach = new EnemyReach().refresh(game.gameMap, enemies);
+    int[] counts = new int[game.gameMap.mapWidth * game.gameMap.mapHeight];
+    for( Unit enemy : enemies )
+    {
+      EnemyReach.UnitReach ur = reach.getReach(enemy, game.gameMap);
+      testPassed &= validate(ur.moves.equals(toMask(reach, Utils.findPossibleDestinations(enemy, game.gameMap, true))),
+          "    Wrong moves for " + enemy.toStringWithLocation());
+      BitSet strikes = toMask(reach, AICombatUtils.findThreatPower(game.gameMap, enemy, null).keySet());
+      testPassed &= validate(ur.strikes.equals(strikes), "    Wrong strikes for " + enemy.toStringWithLocation());
+      for( int i = strikes.nextSetBit(0); i >= 0; i = strikes.nextSetBit(i + 1) )
+        ++counts[i];
+    }
+
+    BitSet anyone = new BitSet();
+    for( int i = 0; i < counts.length; ++i )
+    {
+      XYCoord xyc = new XYCoord(i % game.gameMap.mapWidth, i / game.gameMap.mapWidth);
+      testPassed &= validate(counts[i] == reach.getThreatCount(xyc), "    Wrong threat count at " + xyc);
+      if( counts[i] > 0 )
+        anyone.set(i);
+    }
+    testPassed &= validate(anyone.equals(reach.getStrikeMask()), "    Wrong overall strike mask.");
+    testPassed &= validate(anyone.equals(reach.getStrikeMask(game.armies[1])), "    Wrong strike mask for the enemy army.");
+    testPassed &= validate(reach.getStrikeMask(me).isEmpty(), "    We shouldn't count as a threat to ourselves.");
+
+    // Summed damage should match adding up each unit's threat power.
+    for( UnitModel um : me.cos[0].unitModels )
+    {
+      Map<XYCoord, Double> expected = new HashMap<XYCoord, Double>();
+      for( Unit enemy : enemies )
+        for( Map.Entry<XYCoord, Double> e : AICombatUtils.findThreatPower(game.gameMap, enemy, um).entrySet() )
+          expected.merge(e.getKey(), e.getValue(), Double::sum);
+      Map<XYCoord, Double> actual = reach.getThreatPower(um);
+      boolean same = expected.keySet().equals(actual.keySet());
+      for( XYCoord xyc : expected.keySet() )
+        same &= Math.abs(expected.get(xyc) - actual.getOrDefault(xyc, 0.)) < 0.0001;
+      testPassed &= validate(same, "    Wrong threat power against " + um);
+    }
+
+    // Working everything out in parallel should give the same answers.
+    ParallelScoring.modeOverride = ParallelScoring.Mode.VERIFY;
+    ParallelScoring.resetVerification();
+    try
+    {
+      new EnemyReach().refresh(game.gameMap, enemies);
+      testPassed &= validate(ParallelScoring.getScoresVerified() == enemies.size(), "    Reaches weren't worked out in parallel.");
+      testPassed &= validate(0 == ParallelScoring.getMismatches(), "    Parallel reaches didn't match.");
+    }
+    finally
+    {
+      ParallelScoring.modeOverride = null;
+    }
+    return testPassed;
+  }
+
+  private static BitSet toMask(EnemyReach reach, Iterable<XYCoord> coords)
+  {
+    BitSet mask = new BitSet();
+    for( XYCoord xyc : coords )
+      mask.set(reach.index(xyc));
+    return mask;
+  }
+}
@@ -0,0 +1,118 @@
+package Test;
+
+import java.util.List;
+
+import AI.EvictionPlanCache;
+import CommandingOfficers.Commander;
+import CommandingOfficers.Patch;
+import Engine.Army;
+import Engine.GameInstance;
+import Engine.GameScenario;
+import Terrain.MapLibrary;
+import Terrain.MapMaster;
+import Units.Unit;
+import Units.UnitModel;
+
+public class TestEvictionPlanCache extends TestCase
+{
+  private static Commander patch;
+  private static MapMaster testMap;
+
+  private static void setupTest()
+  {
+    GameScenario scn = new GameScenario();
+    patch = new Patch(scn.rules);
+    Commander enemy = new Patch(scn.rules);
+    Army[] armies = { new Army(scn, patch), new Army(scn, enemy) };
+    testMap = new MapMaster(armies, MapLibrary.getByName("Firing Range"));
+    new GameInstance(armies, testMap);
+  }
+
+  @Override
+  public boolean runTest()
+  {
+    setupTest();
+
+    boolean testPassed = true;
+    testPassed &= validate(testCycles(), "  Eviction cycle test failed.");
+    testPassed &= validate(testKnownFailures(), "  Eviction memo test failed.");
+    return testPassed;
+  }
+
+  private boolean testCycles()
+  {
+    boolean testPassed = true;
+    Unit a = addUnit(testMap, patch, UnitModel.TROOP, 5, 5);
+    Unit b = addUnit(testMap, patch, UnitModel.TROOP, 5, 6);
+    Unit c = addUnit(testMap, patch, UnitModel.TROOP, 5, 7);
+
+    EvictionPlanCache cache = new EvictionPlanCache();
+    cache.refresh(testMap, null);
+    cache.addEvicter(a);
+    cache.push(b);
+    testPassed &= validate(null == cache.findCycle(c), "    Found a cycle that isn't there.");
+    cache.push(c);
+    List<Unit> cycle = cache.findCycle(b);
+    testPassed &= validate(null != cycle && 2 == cycle.size() && cycle.get(0) == b && cycle.get(1) == c,
+        "    Expected the cycle [b, c], got " + cycle);
+    testPassed &= validate(null != cache.findCycle(a), "    Evicting the evicter should be a cycle.");
+    cache.finish();
+    testPassed &= validate(cache.isIdle(), "    finish() left an eviction in progress.");
+
+    testMap.removeUnit(a);
+    testMap.removeUnit(b);
+    testMap.removeUnit(c);
+    return testPassed;
+  }
+
+  /** A failure with some units off-limits should carry over to attempts with more off-limits, but not fewer. */
+  private boolean testKnownFailures()
+  {
+    boolean testPassed = true;
+    Unit a = addUnit(testMap, patch, UnitModel.TROOP, 5, 5);
+    Unit b = addUnit(testMap, patch, UnitModel.TROOP, 5, 6);
+    Unit c = addUnit(testMap, patch, UnitModel.TROOP, 5, 7);
+    testMap.getStateHasher().recompute(); // We set the board up by hand.
+
+    EvictionPlanCache cache = new EvictionPlanCache();
+    Object context = new Object();
+    cache.refresh(testMap, context);
+    cache.addEvicter(a);
+    cache.push(c);
+    cache.pop(c, false, true, true, true);
+    testPassed &= validate(cache.isKnownFailure(c, true, true), "    Forgot a failure right away.");
+    testPassed &= validate(!cache.isKnownFailure(c, false, true), "    Applied a failure to a different request.");
+    cache.push(b);
+    testPassed &= validate(cache.isKnownFailure(c, true, true), "    Didn't apply a failure with more units off-limits.");
+    cache.pop(b, true, true, true, true);
+    cache.finish();
+
+    cache.addEvicter(b);
+    testPassed &= validate(!cache.isKnownFailure(c, true, true), "    Applied a failure with different units off-limits.");
+    cache.finish();
+
+    cache.addEvicter(a);
+    cache.push(b);
+    cache.pop(b, false, true, true, false);
+    testPassed &= validate(!cache.isKnownFailure(b, true, true), "    Remembered a failure it was told not to.");
+    cache.finish();
+
+    // Anything that changes the board should make us forget.
+    cache.refresh(testMap, context);
+    cache.addEvicter(a);
+    testPassed &= validate(cache.isKnownFailure(c, true, true), "    Forgot a failure though nothing changed.");
+    cache.finish();
+    testMap.removeUnit(b);
+    testMap.getStateHasher().recompute();
+    cache.refresh(testMap, context);
+    cache.addEvicter(a);
+    testPassed &= validate(!cache.isKnownFailure(c, true, true), "    Remembered a failure after the board changed.");
+    cache.finish();
+    cache.refresh(testMap, new Object());
+    testPassed &= validate(!cache.isKnownFailure(c, true, true), "    Remembered a failure after the context changed.");
+
+    testMap.removeUnit(a);
+    testMap.removeUnit(c);
+    return testPassed;
+  }
+}
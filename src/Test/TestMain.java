@@ -23,6 +23,8 @@ public class TestMain extends TestCase
   {
     boolean testsPassed = true;
     testsPassed &= validate(new TestUnitMovement().runTest(), "Unit movement test failed!");
+    testsPassed &= validate(new TestMapReader().runTest(), "Map reader test failed!");
+    testsPassed &= validate(new TestMapStorage().runTest(), "Map storage test failed!");
     testsPassed &= validate(new TestVisionMechanics().runTest(), "Vision mechanics test failed!");
     testsPassed &= validate(new TestTransport().runTest(), "Transport test failed!");
     testsPassed &= validate(new TestCombat().runTest(), "Combat test failed!");
@@ -36,6 +38,15 @@ public class TestMain extends TestCase
     testsPassed &= validate(new TestCapture().runTest(), "Capture test failed!");
     testsPassed &= validate(new TestGameEvent().runTest(), "GameEvent test failed!");
     testsPassed &= validate(new TestTeleport().runTest(), "Teleport test failed!");
+    testsPassed &= validate(new TestSimulationLog().runTest(), "Simulation log test failed!");
+    testsPassed &= validate(new TestStateHash().runTest(), "State hash test failed!");
+    testsPassed &= validate(new TestAIWorldModel().runTest(), "AI world model test failed!");
+    testsPassed &= validate(new TestParallelScoring().runTest(), "Parallel scoring test failed!");
+    testsPassed &= validate(new TestAITimeBudget().runTest(), "AI time budget test failed!");
+    testsPassed &= validate(new TestProductionPlanner().runTest(), "Production planner test failed!");
+    testsPassed &= validate(new TestEvictionPlanCache().runTest(), "Eviction plan cache test failed!");
+    testsPassed &= validate(new TestEnemyReach().runTest(), "Enemy reach test failed!");
+    testsPassed &= validate(new TestAITrace().runTest(), "AI trace test failed!");
     testsPassed &= validate(new TestCOModifier().runTest(), "COModifier test failed!");
     testsPassed &= validate(new TestCommanderAve().runTest(), "CommanderAve test failed!");
     testsPassed &= validate(new TestCommanderTech().runTest(), "CommanderTech test failed!");
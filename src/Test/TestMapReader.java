@@ -0,0 +1,103 @@
+package Test;
+
+import java.nio.charset.StandardCharsets;
+
+import Engine.XYCoord;
+import Terrain.MapInfo;
+import Terrain.TerrainType;
+import Terrain.Maps.MapReader;
+import Terrain.Maps.MapReader.MapFormatException;
+
+public class TestMapReader extends TestCase
+{
+  @Override
+  public boolean runTest()
+  {
+    boolean testPassed = true;
+    testPassed &= validate(testValidMap(), "  MapReader valid map test failed.");
+    testPassed &= validate(testLineEndings(), "  MapReader line ending test failed.");
+    testPassed &= validate(testMalformedMaps(), "  MapReader malformed map test failed.");
+    return testPassed;
+  }
+
+  private boolean testValidMap()
+  {
+    boolean testPassed = true;
+    String mapText =
+        "  GR  SE 1HQ\n" +
+        " 2CT  FR12FC\n" +
+        "team, unit type, x, y\n" +
+        "1, INFANTRY, 0, 1\n";
+    try
+    {
+      MapInfo info = MapReader.parseMap("Valid", mapText.getBytes(StandardCharsets.UTF_8));
+      testPassed &= validate(info.getWidth() == 3, "    Expected width 3, got " + info.getWidth());
+      testPassed &= validate(info.getHeight() == 2, "    Expected height 2, got " + info.getHeight());
+      testPassed &= validate(info.terrain[0][0] == TerrainType.GRASS, "    (0, 0) should be grass.");
+      testPassed &= validate(info.terrain[1][0] == TerrainType.SEA, "    (1, 0) should be sea.");
+      testPassed &= validate(info.terrain[2][1] == TerrainType.FACTORY, "    (2, 1) should be a factory.");
+      testPassed &= validate(info.getNumCos() == 3, "    Expected three property owners, got " + info.getNumCos());
+      // Owners are sorted by number, so the owner numbered 12 comes last.
+      testPassed &= validate(info.COProperties[0][0].equals(new XYCoord(2, 0)), "    Owner 1 should own the HQ.");
+      testPassed &= validate(info.COProperties[1][0].equals(new XYCoord(0, 1)), "    Owner 2 should own the city.");
+      testPassed &= validate(info.COProperties[2][0].equals(new XYCoord(2, 1)), "    Owner 12 should own the factory.");
+      testPassed &= validate("INFANTRY".equals(info.mapUnits.get(0).get(new XYCoord(0, 1))), "    Owner 1 should have an infantry.");
+    }
+    catch (MapFormatException e)
+    {
+      testPassed &= validate(false, "    Valid map failed to parse: " + e.getMessage());
+    }
+    return testPassed;
+  }
+
+  private boolean testLineEndings()
+  {
+    boolean testPassed = true;
+    String unixText = "  GR  MT\n  RD  SE\n";
+    String windowsText = "  GR  MT\r\n  RD  SE\r\n";
+    String unterminatedText = "  GR  MT\n  RD  SE";
+    try
+    {
+      MapInfo unix = MapReader.parseMap("Unix", unixText.getBytes(StandardCharsets.UTF_8));
+      MapInfo windows = MapReader.parseMap("Windows", windowsText.getBytes(StandardCharsets.UTF_8));
+      MapInfo unterminated = MapReader.parseMap("Unterminated", unterminatedText.getBytes(StandardCharsets.UTF_8));
+      for( MapInfo info : new MapInfo[] { unix, windows, unterminated } )
+      {
+        testPassed &= validate(info.getWidth() == 2 && info.getHeight() == 2, "    " + info.mapName + " map has the wrong dimensions.");
+        testPassed &= validate(info.terrain[1][0] == TerrainType.MOUNTAIN, "    " + info.mapName + " map has the wrong terrain at (1, 0).");
+        testPassed &= validate(info.terrain[1][1] == TerrainType.SEA, "    " + info.mapName + " map has the wrong terrain at (1, 1).");
+      }
+    }
+    catch (MapFormatException e)
+    {
+      testPassed &= validate(false, "    Map failed to parse: " + e.getMessage());
+    }
+    return testPassed;
+  }
+
+  private boolean testMalformedMaps()
+  {
+    boolean testPassed = true;
+    // A short row in the middle of the terrain should be reported, not treated as the end of the map.
+    testPassed &= validate(expectFormatError("  GR  GR  GR\n  GR  GR\n  GR  GR  GR\n", 2), "    Short row was not reported.");
+    // Owner numbers must be digits.
+    testPassed &= validate(expectFormatError("  GR  GR\n  GRx1CT\n", 2), "    Bad owner was not reported.");
+    // Rows must be made of whole tiles.
+    testPassed &= validate(expectFormatError("  GR  G\n", 1), "    Partial tile was not reported.");
+    testPassed &= validate(expectFormatError("", 1), "    Empty map was not reported.");
+    return testPassed;
+  }
+
+  private boolean expectFormatError(String mapText, int expectedLine)
+  {
+    try
+    {
+      MapReader.parseMap("Malformed", mapText.getBytes(StandardCharsets.UTF_8));
+    }
+    catch (MapFormatException e)
+    {
+      return validate(e.line == expectedLine, "    Expected error on line " + expectedLine + " but got " + e.getMessage());
+    }
+    return false;
+  }
+}
@@ -0,0 +1,275 @@
+package Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.lang.reflect.Field;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+
+import CommandingOfficers.Commander;
+import CommandingOfficers.Patch;
+import CommandingOfficers.Strong;
+import Engine.Army;
+import Engine.GameInstance;
+import Engine.GameScenario;
+import Engine.XYCoord;
+import Engine.GameEvents.GameEventQueue;
+import Engine.GameEvents.GlobalWeatherEvent;
+import Engine.GameEvents.MapChangeEvent;
+import Terrain.Environment;
+import Terrain.Environment.Weathers;
+import Terrain.MapLibrary;
+import Terrain.MapLocation;
+import Terrain.MapMaster;
+import Terrain.TerrainType;
+import Units.Unit;
+import Units.UnitModel;
+
+/**
+ * Checks that MapMaster behaves the same whether it keeps MapLocation objects or packed arrays.
+ */
+public class TestMapStorage extends TestCase
+{
+  @Override
+  public boolean runTest()
+  {
+    boolean testPassed = true;
+    testPassed &= validate(testStorageParity(), "  Map storage parity test failed.");
+    testPassed &= validate(testPackedSaveLoad(), "  Packed map save/load test failed.");
+    testPassed &= validate(testForecastLayering(), "  Forecast layering test failed.");
+    testPassed &= validate(testLegacyForecastLoad(), "  Legacy forecast load test failed.");
+    return testPassed;
+  }
+
+  /** Runs the same script against both storage modes, checking every tile matches after each step. */
+  private boolean testStorageParity()
+  {
+    boolean testPassed = true;
+    GameInstance objectGame = buildGame(false);
+    GameInstance packedGame = buildGame(true);
+    testPassed &= validate(!objectGame.gameMap.usesPackedStorage(), "    Object-backed map claims to be packed.");
+    testPassed &= validate(packedGame.gameMap.usesPackedStorage(), "    Packed map claims not to be.");
+
+    for( GameInstance game : new GameInstance[] { objectGame, packedGame } )
+      runScript(game);
+
+    testPassed &= validate(tilesMatch(objectGame.gameMap, packedGame.gameMap), "    Tile state differs after scripted changes.");
+
+    // Let the forecasts play out, and make sure both maps age them the same way.
+    for( int i = 0; i < 4; ++i )
+    {
+      turn(objectGame);
+      turn(packedGame);
+      testPassed &= validate(tilesMatch(objectGame.gameMap, packedGame.gameMap), "    Tile state differs after turn " + i);
+    }
+    testPassed &= validate(!packedGame.gameMap.hasForecast(3, 3), "    Packed map should have no forecast left.");
+
+    // Views of the same tile should compare equal, and capture progress relies on that.
+    MapLocation first = packedGame.gameMap.getLocation(2, 2);
+    MapLocation second = packedGame.gameMap.getLocation(2, 2);
+    testPassed &= validate(first.equals(second) && first.hashCode() == second.hashCode(), "    Views of the same tile are not equal.");
+    testPassed &= validate(!first.equals(packedGame.gameMap.getLocation(2, 3)), "    Views of different tiles are equal.");
+    Unit inf = packedGame.gameMap.getResident(2, 2);
+    // A full-health infantry takes two captures to get a city; if a fresh view reset its progress, it never would.
+    inf.capture(packedGame.gameMap.getLocation(2, 2));
+    inf.capture(packedGame.gameMap.getLocation(2, 2));
+    testPassed &= validate(packedGame.gameMap.getLocation(2, 2).getOwner() == inf.CO, "    Capture progress was reset by a fresh view.");
+
+    return testPassed;
+  }
+
+  private boolean testPackedSaveLoad()
+  {
+    boolean testPassed = true;
+    GameInstance game = buildGame(true);
+    runScript(game);
+
+    try
+    {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      ObjectOutputStream out = new ObjectOutputStream(bytes);
+      out.writeObject(game);
+      out.close();
+      ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+      GameInstance loaded = (GameInstance) in.readObject();
+      in.close();
+
+      testPassed &= validate(loaded.gameMap.usesPackedStorage(), "    Loaded map lost its packed storage.");
+      testPassed &= validate(tilesMatch(game.gameMap, loaded.gameMap), "    Loaded map doesn't match the saved one.");
+      Unit loadedResident = loaded.gameMap.getResident(2, 2);
+      testPassed &= validate(null != loadedResident && loadedResident.x == 2 && loadedResident.y == 2,
+          "    Loaded map lost track of its units.");
+      Commander loadedOwner = loaded.gameMap.getLocation(7, 7).getOwner();
+      testPassed &= validate(null != loadedOwner && loadedOwner.ownedProperties.contains(new XYCoord(7, 7)),
+          "    Loaded map lost property ownership.");
+    }
+    catch (IOException | ClassNotFoundException e)
+    {
+      testPassed &= validate(false, "    Exception while saving/loading: " + e);
+    }
+    return testPassed;
+  }
+
+  /** Checks that local forecasts outlast shorter global weather, and that turn changes only touch what they need to. */
+  private boolean testForecastLayering()
+  {
+    boolean testPassed = true;
+    for( boolean packed : new boolean[] { false, true } )
+    {
+      GameInstance game = buildGame(packed);
+      MapMaster map = game.gameMap;
+      XYCoord snowy = new XYCoord(3, 3);
+
+      GameEventQueue events = new GameEventQueue();
+      ArrayList<MapChangeEvent.EnvironmentAssignment> snow = new ArrayList<>();
+      snow.add(new MapChangeEvent.EnvironmentAssignment(snowy, Environment.getTile(map.getEnvironment(3, 3).terrainType, Weathers.SNOW), 3));
+      events.add(new MapChangeEvent(snow));
+      // Weather that only lasts for the current turn shouldn't wipe out the snow forecast.
+      events.add(new GlobalWeatherEvent(Weathers.SANDSTORM, 0));
+      performEvents(game, events);
+      testPassed &= validate(map.getEnvironment(3, 3).weatherType == Weathers.SANDSTORM, "    Global weather was not applied.");
+
+      turn(game);
+      testPassed &= validate(map.getEnvironment(3, 3).weatherType == Weathers.SNOW, "    Snow forecast did not reassert itself.");
+      testPassed &= validate(map.getEnvironment(4, 4).weatherType == Weathers.CLEAR, "    Global weather did not clear up.");
+
+      // A longer global forecast overrides the local one for good.
+      events.add(new GlobalWeatherEvent(Weathers.RAIN, 4));
+      performEvents(game, events);
+      turn(game);
+      testPassed &= validate(map.getEnvironment(3, 3).weatherType == Weathers.RAIN, "    Rain should override the older snow.");
+      testPassed &= validate(map.advanceWeather(0, Weathers.CLEAR).isEmpty(), "    Nothing should change without time passing.");
+      turn(game, 8);
+      testPassed &= validate(map.getEnvironment(3, 3).weatherType == Weathers.CLEAR, "    Weather did not return to default.");
+      testPassed &= validate(!map.hasForecast(3, 3), "    Forecast lingered after it ended.");
+    }
+    return testPassed;
+  }
+
+  /** Saves from before the weather scheduler kept a queue of weather on each tile; loading one should keep that weather. */
+  private boolean testLegacyForecastLoad()
+  {
+    boolean testPassed = true;
+    GameInstance game = buildGame(false);
+    try
+    {
+      // Rain that's in its last turn; an old save would have nothing left in any tile's queue.
+      GameEventQueue events = new GameEventQueue();
+      events.add(new GlobalWeatherEvent(Weathers.RAIN, 1));
+      performEvents(game, events);
+      turn(game);
+      testPassed &= validate(game.gameMap.getEnvironment(4, 4).weatherType == Weathers.RAIN, "    Rain didn't last its turn.");
+
+      // Make the map look like an old save: no scheduler, and a forecast queued on one tile.
+      Field weatherField = MapMaster.class.getDeclaredField("weather");
+      weatherField.setAccessible(true);
+      weatherField.set(game.gameMap, null);
+      ArrayDeque<Weathers> queue = new ArrayDeque<Weathers>();
+      queue.add(Weathers.SNOW);
+      queue.add(Weathers.SNOW);
+      queue.add(Weathers.RAIN);
+      Field forecastField = MapLocation.class.getDeclaredField("forecast");
+      forecastField.setAccessible(true);
+      forecastField.set(game.gameMap.getLocation(3, 3), queue);
+
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      ObjectOutputStream out = new ObjectOutputStream(bytes);
+      out.writeObject(game);
+      out.close();
+      ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+      GameInstance loaded = (GameInstance) in.readObject();
+      in.close();
+
+      MapMaster map = loaded.gameMap;
+      testPassed &= validate(map.hasForecast(3, 3), "    Legacy forecast was not carried over.");
+      testPassed &= validate(null == forecastField.get(map.getLocation(3, 3)), "    Legacy forecast was left on the tile.");
+      Weathers[] expected = { Weathers.SNOW, Weathers.SNOW, Weathers.RAIN, Weathers.CLEAR };
+      for( int i = 0; i < expected.length; ++i )
+      {
+        turn(loaded);
+        if( 0 == i )
+          testPassed &= validate(map.getEnvironment(4, 4).weatherType == Weathers.CLEAR, "    Lapsing rain didn't clear up after loading.");
+        testPassed &= validate(map.getEnvironment(3, 3).weatherType == expected[i],
+            "    Expected " + expected[i] + " on turn " + (i + 1) + ", found " + map.getEnvironment(3, 3).weatherType);
+      }
+      for( int x = 0; x < map.mapWidth; ++x )
+        for( int y = 0; y < map.mapHeight; ++y )
+          testPassed &= validate(map.getEnvironment(x, y).weatherType == Weathers.CLEAR,
+              "    Weather at (" + x + ", " + y + ") never cleared up after loading.");
+    }
+    catch (IOException | ReflectiveOperationException e)
+    {
+      testPassed &= validate(false, "    Exception while loading a legacy save: " + e);
+    }
+    return testPassed;
+  }
+
+  private static GameInstance buildGame(boolean packed)
+  {
+    GameScenario scn = new GameScenario();
+    Army[] cos = { new Army(scn, new Strong(scn.rules)), new Army(scn, new Patch(scn.rules)) };
+    MapMaster map = new MapMaster(cos, MapLibrary.getByName("Firing Range"), packed);
+    return new GameInstance(cos, map);
+  }
+
+  /** Moves units, changes owners and terrain, and sets up some weather. */
+  private static void runScript(GameInstance game)
+  {
+    MapMaster map = game.gameMap;
+    Commander co1 = game.armies[0].cos[0];
+    Commander co2 = game.armies[1].cos[0];
+
+    addUnit(map, co1, UnitModel.TROOP, 2, 2);
+    Unit tank = addUnit(map, co1, UnitModel.ASSAULT, 4, 4);
+    Unit recon = addUnit(map, co2, UnitModel.RECON, 6, 6);
+    map.moveUnit(tank, 5, 4);
+    map.removeUnit(recon);
+    addUnit(map, co2, UnitModel.SIEGE, 6, 6);
+
+    map.getLocation(7, 7).setOwner(co2);
+    map.getLocation(7, 7).setOwner(co1);
+    map.getLocation(8, 1).setDurability(42);
+
+    GameEventQueue events = new GameEventQueue();
+    events.add(new MapChangeEvent(new XYCoord(1, 1), Environment.getTile(TerrainType.MOUNTAIN, Weathers.CLEAR)));
+    ArrayList<MapChangeEvent.EnvironmentAssignment> snow = new ArrayList<>();
+    snow.add(new MapChangeEvent.EnvironmentAssignment(new XYCoord(3, 3), Environment.getTile(map.getEnvironment(3, 3).terrainType, Weathers.SNOW), 1));
+    events.add(new MapChangeEvent(snow));
+    events.add(new GlobalWeatherEvent(Weathers.RAIN, 1));
+    performEvents(game, events);
+  }
+
+  private static boolean tilesMatch(MapMaster a, MapMaster b)
+  {
+    for( int x = 0; x < a.mapWidth; ++x )
+      for( int y = 0; y < a.mapHeight; ++y )
+      {
+        MapLocation la = a.getLocation(x, y);
+        MapLocation lb = b.getLocation(x, y);
+        if( la.getEnvironment() != lb.getEnvironment() || la.getDurability() != lb.getDurability()
+            || a.hasForecast(x, y) != b.hasForecast(x, y) || !la.getCoordinates().equals(lb.getCoordinates()) )
+          return false;
+        if( !sameOwner(la.getOwner(), lb.getOwner()) || !sameUnit(la.getResident(), lb.getResident()) )
+          return false;
+      }
+    return true;
+  }
+
+  /** The two maps have different Commander instances, so compare by name and owned properties. */
+  private static boolean sameOwner(Commander a, Commander b)
+  {
+    if( null == a || null == b )
+      return a == b;
+    return a.coInfo.name.equals(b.coInfo.name) && a.ownedProperties.equals(b.ownedProperties);
+  }
+
+  private static boolean sameUnit(Unit a, Unit b)
+  {
+    if( null == a || null == b )
+      return a == b;
+    return a.model.name.equals(b.model.name) && a.x == b.x && a.y == b.y && a.CO.coInfo.name.equals(b.CO.coInfo.name);
+  }
+}
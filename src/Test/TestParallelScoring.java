@@ -0,0 +1,88 @@
+package Test;
+
+import AI.Muriel;
+import AI.ParallelScoring;
+import AI.WallyAI;
+import CommandingOfficers.Commander;
+import CommandingOfficers.Patch;
+import Engine.Army;
+import Engine.GameInstance;
+import Engine.GameScenario;
+import Terrain.MapInfo;
+import Terrain.MapLibrary;
+import Terrain.MapMaster;
+import Terrain.MapSnapshot;
+import Units.Unit;
+import Units.UnitModel;
+
+public class TestParallelScoring extends TestCase
+{
+  private static final int TURNS_PER_GAME = 8;
+
+  @Override
+  public boolean runTest()
+  {
+    boolean testPassed = true;
+    testPassed &= validate(testSnapshot(), "  Map snapshot test failed.");
+    testPassed &= validate(testScoresMatch("Firing Range"), "  Firing Range parallel scoring test failed.");
+    return testPassed;
+  }
+
+  /** A snapshot should show what the map showed when it was taken, and refuse to be changed. */
+  private boolean testSnapshot()
+  {
+    boolean testPassed = true;
+    GameScenario scn = new GameScenario();
+    Commander co1 = new Patch(scn.rules);
+    Commander co2 = new Patch(scn.rules);
+    Army[] armies = { new Army(scn, co1), new Army(scn, co2) };
+    MapMaster map = new MapMaster(armies, MapLibrary.getByName("Firing Range"));
+    Unit inf = addUnit(map, co1, UnitModel.TROOP, 5, 6);
+
+    MapSnapshot snapshot = new MapSnapshot(map);
+    testPassed &= validate(snapshot.getResident(5, 6) == inf, "    Snapshot lost a unit.");
+    testPassed &= validate(snapshot.isLocationEmpty(inf, 5, 6), "    Snapshot thinks a unit is in its own way.");
+    testPassed &= validate(snapshot.getEnvironment(5, 6) == map.getEnvironment(5, 6), "    Snapshot has the wrong terrain.");
+    testPassed &= validate(null == snapshot.getLocation(-1, 0), "    Snapshot has tiles off the map.");
+
+    map.removeUnit(inf);
+    testPassed &= validate(snapshot.getResident(5, 6) == inf, "    Snapshot followed a change to the live map.");
+
+    boolean refused = false;
+    try
+    {
+      snapshot.getLocation(5, 6).setResident(null);
+    }
+    catch( UnsupportedOperationException e )
+    {
+      refused = true;
+    }
+    testPassed &= validate(refused, "    Snapshot let a tile be changed.");
+    return testPassed;
+  }
+
+  /** Plays Muriel against Wally with every list of candidates scored both ways, and makes sure the answers always agreed. */
+  private boolean testScoresMatch(String mapName)
+  {
+    boolean testPassed = true;
+    MapInfo mapInfo = MapLibrary.getByName(mapName);
+    GameInstance game = setupAIGame(mapInfo, Muriel.info, WallyAI.info);
+
+    ParallelScoring.Mode previousMode = ParallelScoring.modeOverride;
+    ParallelScoring.modeOverride = ParallelScoring.Mode.VERIFY;
+    ParallelScoring.resetVerification();
+    try
+    {
+      playAIGame(game, mapInfo, TURNS_PER_GAME);
+    }
+    finally
+    {
+      ParallelScoring.modeOverride = previousMode;
+    }
+
+    testPassed &= validate(ParallelScoring.getScoresVerified() > 0, "    Nothing was scored in parallel on " + mapName);
+    testPassed &= validate(0 == ParallelScoring.getMismatches(),
+        "    Parallel scoring differed " + ParallelScoring.getMismatches() + " of " + ParallelScoring.getScoresVerified() + " times on " + mapName);
+    return testPassed;
+  }
+}
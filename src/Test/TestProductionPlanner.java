@@ -0,0 +1,136 @@
+package Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+
+import AI.ModelForCO;
+import AI.ProductionPlanner;
+import AI.ProductionPlanner.PurchaseOrder;
+import CommandingOfficers.Commander;
+import CommandingOfficers.Patch;
+import Engine.Army;
+import Engine.GameInstance;
+import Engine.GameScenario;
+import Engine.XYCoord;
+import Terrain.MapLibrary;
+import Terrain.MapMaster;
+import Units.Unit;
+import Units.UnitModel;
+
+public class TestProductionPlanner extends TestCase
+{
+  private static Commander patch;
+  private static Army buyer;
+  private static MapMaster testMap;
+
+  /** Values guns by price, with each extra copy of a model worth less than the last. */
+  private static final ProductionPlanner.ModelValuer DIMINISHING = (model, copy) ->
+    model.um.weapons.isEmpty() ? 0 : model.co.getCost(model.um) / (copy + 1.0);
+
+  private static void setupTest()
+  {
+    GameScenario scn = new GameScenario();
+    Commander enemy = new Patch(scn.rules);
+    patch = new Patch(scn.rules);
+    Army[] armies = { new Army(scn, enemy), new Army(scn, patch) };
+    buyer = armies[1];
+
+    // Firing Range gives the second army two factories, at (12, 2) and (13, 2).
+    testMap = new MapMaster(armies, MapLibrary.getByName("Firing Range"));
+    new GameInstance(armies, testMap);
+  }
+
+  @Override
+  public boolean runTest()
+  {
+    setupTest();
+
+    boolean testPassed = true;
+    testPassed &= validate(testOptimalPlans(), "  Optimal plan test failed.");
+    testPassed &= validate(testOccupiedFactories(), "  Occupied factory test failed.");
+    return testPassed;
+  }
+
+  /** Compares the planner against trying every way of filling both factories. */
+  private boolean testOptimalPlans()
+  {
+    boolean testPassed = true;
+    ProductionPlanner planner = new ProductionPlanner(buyer, testMap, false);
+    testPassed &= validate(2 == planner.getNumFacilities(), "    Expected two factories, found " + planner.getNumFacilities());
+
+    ArrayList<UnitModel> models = patch.getShoppingList(testMap.getLocation(12, 2));
+    for( int budget = 0; budget <= 40000; budget += 1500 )
+    {
+      ArrayList<PurchaseOrder> orders = planner.plan(budget, DIMINISHING);
+      int spent = 0;
+      HashSet<XYCoord> sites = new HashSet<XYCoord>();
+      for( PurchaseOrder order : orders )
+      {
+        spent += order.cost;
+        testPassed &= validate(sites.add(order.location), "    Two orders at " + order.location + " with budget " + budget);
+      }
+      testPassed &= validate(spent <= budget, "    Spent " + spent + " of a " + budget + " budget.");
+
+      // Try every pair of choices (including building nothing) for the two factories.
+      double bestValue = 0;
+      for( int a = -1; a < models.size(); ++a )
+        for( int b = -1; b < models.size(); ++b )
+        {
+          ArrayList<UnitModel> picks = new ArrayList<UnitModel>();
+          if( a >= 0 ) picks.add(models.get(a));
+          if( b >= 0 ) picks.add(models.get(b));
+          int cost = 0;
+          for( UnitModel um : picks )
+            cost += patch.getCost(um);
+          if( cost <= budget )
+            bestValue = Math.max(bestValue, valueOf(picks));
+        }
+      ArrayList<UnitModel> planned = new ArrayList<UnitModel>();
+      for( PurchaseOrder order : orders )
+        planned.add(order.model);
+      testPassed &= validate(Math.abs(valueOf(planned) - bestValue) < 0.001,
+          "    Plan for " + budget + " is worth " + valueOf(planned) + "; the best is worth " + bestValue);
+
+      // Same inputs, same answer.
+      testPassed &= validate(orders.toString().equals(planner.plan(budget, DIMINISHING).toString()),
+          "    Planning twice with " + budget + " gave different orders.");
+    }
+    return testPassed;
+  }
+
+  private double valueOf(ArrayList<UnitModel> picks)
+  {
+    double value = 0;
+    Map<UnitModel, Integer> copies = new HashMap<UnitModel, Integer>();
+    for( UnitModel um : picks )
+    {
+      int copy = copies.getOrDefault(um, 0);
+      value += DIMINISHING.value(new ModelForCO(patch, um), copy);
+      copies.put(um, copy + 1);
+    }
+    return value;
+  }
+
+  /** Factories with our own units on them are only counted when asked for. */
+  private boolean testOccupiedFactories()
+  {
+    boolean testPassed = true;
+    Unit blocker = addUnit(testMap, patch, UnitModel.TROOP, 12, 2);
+    blocker.initTurn(testMap);
+
+    ProductionPlanner planner = new ProductionPlanner(buyer, testMap, false);
+    testPassed &= validate(1 == planner.getNumFacilities(), "    Counted an occupied factory.");
+    ArrayList<PurchaseOrder> orders = planner.plan(100000, DIMINISHING);
+    testPassed &= validate(1 == orders.size() && orders.get(0).location.equals(new XYCoord(13, 2)),
+        "    Expected one order at (13, 2), got " + orders);
+
+    planner = new ProductionPlanner(buyer, testMap, true);
+    testPassed &= validate(2 == planner.getNumFacilities(), "    Didn't count a factory our own unit could leave.");
+    testPassed &= validate(2 == planner.plan(100000, DIMINISHING).size(), "    Didn't fill both factories with plenty of funds.");
+
+    testMap.removeUnit(blocker);
+    return testPassed;
+  }
+}
@@ -0,0 +1,163 @@
+package Test;
+
+import CommandingOfficers.Commander;
+import CommandingOfficers.Patch;
+import CommandingOfficers.Strong;
+import Engine.Army;
+import Engine.GameAction;
+import Engine.GameInstance;
+import Engine.GameScenario;
+import Engine.Utils;
+import Engine.GameEvents.GameEventQueue;
+import Engine.GameEvents.GlobalWeatherEvent;
+import Engine.GameEvents.ModifyFundsEvent;
+import Engine.GameEvents.SimulationLog;
+import Engine.UnitActionLifecycles.BattleLifecycle;
+import Engine.UnitActionLifecycles.CaptureLifecycle;
+import Engine.UnitActionLifecycles.LoadLifecycle;
+import Engine.UnitActionLifecycles.UnloadLifecycle;
+import Engine.UnitActionLifecycles.WaitLifecycle;
+import Terrain.Environment.Weathers;
+import Terrain.MapLibrary;
+import Terrain.MapLocation;
+import Terrain.MapMaster;
+import Units.Unit;
+import Units.UnitModel;
+
+public class TestSimulationLog extends TestCase
+{
+  private static Commander testCo1;
+  private static Commander testCo2;
+  private static MapMaster testMap;
+  private static GameInstance testGame;
+
+  /** Make two COs and a fogged MapMaster to use with this test case. */
+  private void setupTest()
+  {
+    GameScenario scn = new GameScenario();
+    scn.rules.isFogEnabled = true;
+    testCo1 = new Strong(scn.rules);
+    testCo2 = new Patch(scn.rules);
+    Army[] cos = { new Army(scn, testCo1), new Army(scn, testCo2) };
+
+    testMap = new MapMaster(cos, MapLibrary.getByName("Firing Range"));
+    testGame = new GameInstance(cos, testMap);
+  }
+
+  @Override
+  public boolean runTest()
+  {
+    setupTest();
+
+    boolean testPassed = true;
+    testPassed &= validate(testUndoRestoresState(), "  Simulation undo test failed.");
+    testPassed &= validate(testRefusesIrreversibleEvents(), "  Irreversible event test failed.");
+    return testPassed;
+  }
+
+  /** Simulates a string of actions, then makes sure undoing them puts everything back, a step at a time. */
+  private boolean testUndoRestoresState()
+  {
+    boolean testPassed = true;
+
+    Unit infA = addUnit(testMap, testCo1, UnitModel.TROOP, 2, 2); // On a city.
+    Unit infB = addUnit(testMap, testCo1, UnitModel.TROOP, 4, 1);
+    Unit infC = addUnit(testMap, testCo1, UnitModel.TROOP, 1, 3);
+    Unit infD = addUnit(testMap, testCo1, UnitModel.TROOP, 5, 6);
+    Unit apc = addUnit(testMap, testCo1, UnitModel.TRANSPORT, 4, 2);
+    Unit victim = addUnit(testMap, testCo2, UnitModel.TROOP, 1, 2);
+    victim.alterHP(-8); // So he dies without hitting back.
+    for( Unit unit : testCo1.units )
+      unit.initTurn(testMap);
+    testCo1.army.myView.resetFog();
+    testCo1.army.money = 5000;
+
+    SimulationLog log = new SimulationLog(testMap);
+    String[] states = new String[6];
+    int[] checkpoints = new int[6];
+    GameAction[] actions = {
+        new CaptureLifecycle.CaptureAction(testMap, infA, Utils.findShortestPath(infA, 2, 2, testMap)),
+        new BattleLifecycle.BattleAction(testMap, infC, Utils.findShortestPath(infC, 1, 3, testMap), 1, 2),
+        new LoadLifecycle.LoadAction(testMap, infB, Utils.findShortestPath(infB, 4, 2, testMap)),
+        null, // Built once the cargo is aboard.
+        new WaitLifecycle.WaitAction(infD, Utils.findShortestPath(infD, 5, 7, testMap)),
+    };
+    for( int i = 0; i < actions.length; ++i )
+    {
+      states[i] = describeState();
+      checkpoints[i] = log.checkpoint();
+      GameAction action = actions[i];
+      if( null == action )
+        action = new UnloadLifecycle.UnloadAction(testMap, apc, Utils.findShortestPath(apc, 7, 3, testMap), infB, 7, 4);
+      testPassed &= validate(log.apply(action), "    Failed to simulate " + action);
+    }
+    states[actions.length] = describeState();
+    checkpoints[actions.length] = log.checkpoint();
+
+    testPassed &= validate(!states[0].equals(states[actions.length]), "    Simulated actions didn't change anything.");
+    testPassed &= validate(victim.getHP() <= 0 && !testCo2.units.contains(victim), "    Simulated battle didn't kill the victim.");
+    testPassed &= validate(infB.x == 7 && infB.y == 4, "    Simulated unload didn't drop off the cargo.");
+
+    for( int i = actions.length - 1; i >= 0; --i )
+    {
+      log.undoTo(checkpoints[i]);
+      testPassed &= validate(states[i].equals(describeState()), "    Undoing action " + i + " didn't restore the previous state.");
+    }
+    testPassed &= validate(0 == log.size(), "    Undo log isn't empty after undoing everything.");
+    testPassed &= validate(testCo2.units.contains(victim) && victim.getHP() == 2, "    Victim didn't come back to life.");
+
+    // Clean up.
+    for( Unit unit : testCo1.units )
+      testMap.removeUnit(unit);
+    testCo1.units.clear();
+    testCo2.units.clear();
+    return testPassed;
+  }
+
+  /** Events we can't roll back shouldn't be performed at all, nor should anything queued before them. */
+  private boolean testRefusesIrreversibleEvents()
+  {
+    boolean testPassed = true;
+    SimulationLog log = new SimulationLog(testMap);
+    GameEventQueue events = new GameEventQueue();
+    events.add(new ModifyFundsEvent(testCo1.army, 1000));
+    events.add(new GlobalWeatherEvent(Weathers.RAIN, 1));
+
+    String before = describeState();
+    testPassed &= validate(!log.apply(events), "    Weather change claims to have been simulated.");
+    testPassed &= validate(before.equals(describeState()), "    Refused events still changed the game.");
+    testPassed &= validate(0 == log.size(), "    Refused events left changes in the undo log.");
+    return testPassed;
+  }
+
+  /** Writes down everything a simulation might change. */
+  private String describeState()
+  {
+    StringBuilder sb = new StringBuilder();
+    for( Army army : testGame.armies )
+    {
+      sb.append(army.money).append(army.isDefeated).append('\n');
+      for( Commander co : army.cos )
+      {
+        sb.append(co.getAbilityPower()).append(' ').append(co.ownedProperties.size()).append('\n');
+        for( Unit unit : co.units )
+          sb.append(System.identityHashCode(unit)).append(unit.model).append(unit.x).append(',').append(unit.y)
+            .append(' ').append(unit.getPreciseHP()).append(' ').append(unit.ammo).append(' ').append(unit.fuel)
+            .append(' ').append(unit.isTurnOver).append(' ').append(unit.getCaptureProgress())
+            .append(' ').append(unit.getCaptureTargetCoords()).append(' ').append(unit.heldUnits).append('\n');
+      }
+      for( int y = 0; y < testMap.mapHeight; ++y )
+        for( int x = 0; x < testMap.mapWidth; ++x )
+          sb.append(army.myView.isLocationFogged(x, y) ? '#' : '.');
+      sb.append('\n');
+    }
+    for( int y = 0; y < testMap.mapHeight; ++y )
+      for( int x = 0; x < testMap.mapWidth; ++x )
+      {
+        MapLocation loc = testMap.getLocation(x, y);
+        sb.append(loc.getEnvironment()).append(loc.getOwner()).append(loc.getDurability())
+          .append(System.identityHashCode(loc.getResident())).append(';');
+      }
+    return sb.toString();
+  }
+}
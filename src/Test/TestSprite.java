@@ -1,5 +1,6 @@
 package Test;
 
+import java.awt.Color;
 import java.awt.image.BufferedImage;
 
 import UI.Art.SpriteArtist.Sprite;
@@ -15,6 +16,8 @@ public class TestSprite extends TestCase
     testPassed &= validate(testConstructors(), " Sprite constructor problems found.");
     // Make sure Sprite handles normalizing otherwise-invalid indices correctly.
     testPassed &= validate(testIndexNormalization(), " Sprite is not normalizing indices correctly");
+    // Make sure recoloring touches exactly the right pixels.
+    testPassed &= validate(testColorize(), " Sprite colorization problems found.");
     return testPassed;
   }
 
@@ -137,4 +140,44 @@ public class TestSprite extends TestCase
 
     return testPassed;
   }
+
+  private boolean testColorize()
+  {
+    boolean testPassed = true;
+    final int red = Color.RED.getRGB(), blue = Color.BLUE.getRGB(), green = Color.GREEN.getRGB(), gray = Color.GRAY.getRGB();
+
+    // A sheet of three 3x3 frames, plus a leftover column that isn't part of any frame.
+    BufferedImage sheet = new BufferedImage(10, 3, BufferedImage.TYPE_INT_ARGB);
+    for( int x = 0; x < sheet.getWidth(); ++x )
+      for( int y = 0; y < sheet.getHeight(); ++y )
+        sheet.setRGB(x, y, ((x + y) % 2 == 0) ? red : gray);
+    Sprite spr = new Sprite(sheet, 3, 3);
+
+    // If a color is listed twice, the last mapping wins.
+    spr.colorize(new Color[] { Color.RED, Color.RED }, new Color[] { Color.GREEN, Color.BLUE });
+    boolean framesOk = true;
+    for( int f = 0; f < spr.numFrames(); ++f )
+      for( int x = 0; x < 3; ++x )
+        for( int y = 0; y < 3; ++y )
+          framesOk &= spr.getFrame(f).getRGB(x, y) == ((((f * 3 + x) + y) % 2 == 0) ? blue : gray);
+    testPassed &= validate(framesOk, "  Frames were not recolored correctly.");
+    testPassed &= validate(sheet.getRGB(9, 0) == gray && sheet.getRGB(9, 1) == red, "  Pixels outside the frames were recolored.");
+
+    // Images that aren't packed ints should get the same treatment.
+    BufferedImage bytes = new BufferedImage(2, 1, BufferedImage.TYPE_4BYTE_ABGR);
+    bytes.setRGB(0, 0, red);
+    bytes.setRGB(1, 0, gray);
+    Sprite byteSpr = new Sprite(bytes);
+    byteSpr.colorize(Color.RED, Color.GREEN);
+    testPassed &= validate(bytes.getRGB(0, 0) == green && bytes.getRGB(1, 0) == gray, "  Byte-based image was not recolored correctly.");
+
+    // Masks should only cover non-transparent pixels.
+    BufferedImage maskImage = new BufferedImage(2, 1, BufferedImage.TYPE_INT_ARGB);
+    maskImage.setRGB(0, 0, gray);
+    Sprite maskSpr = new Sprite(maskImage);
+    maskSpr.convertToMask(Color.BLUE);
+    testPassed &= validate(maskImage.getRGB(0, 0) == blue && maskImage.getRGB(1, 0) == 0, "  Mask was not applied correctly.");
+
+    return testPassed;
+  }
 }
@@ -0,0 +1,102 @@
+package Test;
+
+import AI.Muriel;
+import AI.WallyAI;
+import CommandingOfficers.Commander;
+import CommandingOfficers.Patch;
+import Engine.Army;
+import Engine.GameInstance;
+import Engine.GameScenario;
+import Engine.Utils;
+import Engine.GameEvents.GameEventListener;
+import Engine.GameEvents.SimulationLog;
+import Engine.UnitActionLifecycles.WaitLifecycle;
+import Terrain.MapInfo;
+import Terrain.MapLibrary;
+import Terrain.MapMaster;
+import Units.Unit;
+import Units.UnitModel;
+
+public class TestStateHash extends TestCase
+{
+  private static final int TURNS_PER_GAME = 10;
+
+  @Override
+  public boolean runTest()
+  {
+    boolean testPassed = true;
+    testPassed &= validate(testGameHashes("Firing Range"), "  Firing Range game hash test failed.");
+    testPassed &= validate(testSimulationHashes(), "  Simulation hash test failed.");
+    return testPassed;
+  }
+
+  /** Checks the incremental hash against a full recompute after every event, all through an AI-vs-AI game. */
+  private static class HashChecker implements GameEventListener.CacheInvalidationListener
+  {
+    private static final long serialVersionUID = 1L;
+    final GameInstance game;
+    int checks = 0;
+    int mismatches = 0;
+
+    HashChecker(GameInstance game)
+    {
+      this.game = game;
+    }
+
+    @Override
+    public boolean shouldSerialize()
+    {
+      return false;
+    }
+
+    @Override
+    public void InvalidateCache()
+    {
+      ++checks;
+      if( game.stateHash() != game.computeStateHash() )
+        ++mismatches;
+    }
+  }
+
+  private boolean testGameHashes(String mapName)
+  {
+    boolean testPassed = true;
+    MapInfo mapInfo = MapLibrary.getByName(mapName);
+
+    GameInstance game = setupAIGame(mapInfo, Muriel.info, WallyAI.info);
+    HashChecker checker = new HashChecker(game);
+    GameEventListener.registerEventListener(checker, game);
+    playAIGame(game, mapInfo, TURNS_PER_GAME);
+
+    testPassed &= validate(checker.checks > 100, "    Only checked the hash " + checker.checks + " times on " + mapName);
+    testPassed &= validate(0 == checker.mismatches,
+        "    Incremental hash was wrong " + checker.mismatches + " of " + checker.checks + " times on " + mapName);
+    testPassed &= validate(game.stateHash() == game.computeStateHash(), "    Final hash is wrong on " + mapName);
+    return testPassed;
+  }
+
+  /** Simulated actions should keep the hash right, and undoing them should put it back. */
+  private boolean testSimulationHashes()
+  {
+    boolean testPassed = true;
+    GameScenario scn = new GameScenario();
+    Commander co1 = new Patch(scn.rules);
+    Commander co2 = new Patch(scn.rules);
+    Army[] armies = { new Army(scn, co1), new Army(scn, co2) };
+    MapMaster map = new MapMaster(armies, MapLibrary.getByName("Firing Range"));
+    GameInstance game = new GameInstance(armies, map);
+    Unit inf = addUnit(map, co1, UnitModel.TROOP, 5, 6);
+    inf.initTurn(map);
+    map.getStateHasher().recompute(); // We set the board up by hand.
+
+    long before = game.stateHash();
+    SimulationLog log = new SimulationLog(map);
+    log.apply(new WaitLifecycle.WaitAction(inf, Utils.findShortestPath(inf, 5, 7, map)));
+    testPassed &= validate(game.stateHash() != before, "    Moving a unit didn't change the hash.");
+    testPassed &= validate(game.stateHash() == game.computeStateHash(), "    Simulated move broke the incremental hash.");
+    log.undoAll();
+    testPassed &= validate(game.stateHash() == before, "    Undoing the move didn't restore the hash.");
+    testPassed &= validate(game.stateHash() == game.computeStateHash(), "    Undone move broke the incremental hash.");
+    return testPassed;
+  }
+}
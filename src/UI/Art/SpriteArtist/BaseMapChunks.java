@@ -0,0 +1,130 @@
+package UI.Art.SpriteArtist;
+
+import java.awt.Graphics;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.EnumMap;
+
+import Engine.XYCoord;
+import Terrain.Environment;
+import Terrain.Environment.Weathers;
+import Terrain.GameMap;
+import Terrain.IEnvironsProvider;
+
+/**
+ * Keeps pre-rendered copies of the base terrain for each weather the whole map has been in, cut into
+ * square chunks of tiles. When the weather changes across the whole map, MapArtist can copy these in
+ * instead of redrawing every tile, and only chunks whose terrain has changed since need to be redrawn.
+ */
+class BaseMapChunks
+{
+  static final int CHUNK_TILES = 16;
+  private static final int tileSize = SpriteLibrary.baseSpriteSize;
+
+  private final GameMap gameMap;
+  private final int chunksWide;
+  private final int chunksHigh;
+  private final EnumMap<Weathers, BufferedImage[]> chunksByWeather = new EnumMap<Weathers, BufferedImage[]>(Weathers.class);
+
+  BaseMapChunks(GameMap gameMap)
+  {
+    this.gameMap = gameMap;
+    chunksWide = (gameMap.mapWidth + CHUNK_TILES - 1) / CHUNK_TILES;
+    chunksHigh = (gameMap.mapHeight + CHUNK_TILES - 1) / CHUNK_TILES;
+  }
+
+  /**
+   * Draws the base terrain for the whole map, as it looks with every tile in the given weather.
+   * Any chunks we don't have yet are drawn (and kept) first.
+   */
+  public void drawMap(Graphics g, Weathers weather)
+  {
+    BufferedImage[] chunks = chunksByWeather.get(weather);
+    if( null == chunks )
+    {
+      chunks = new BufferedImage[chunksWide * chunksHigh];
+      chunksByWeather.put(weather, chunks);
+    }
+
+    for( int cy = 0; cy < chunksHigh; ++cy )
+      for( int cx = 0; cx < chunksWide; ++cx )
+      {
+        int index = cy * chunksWide + cx;
+        if( null == chunks[index] )
+          chunks[index] = renderChunk(cx, cy, weather);
+        g.drawImage(chunks[index], cx * CHUNK_TILES * tileSize, cy * CHUNK_TILES * tileSize, null);
+      }
+  }
+
+  /**
+   * Throws out every chunk that shows this tile, for all weathers. Call when its terrain changes.
+   * Neighboring tiles draw transitions based on this one, so chunks holding those go too.
+   */
+  public void invalidate(XYCoord coord)
+  {
+    int minCX = Math.max(0, (coord.xCoord - 1) / CHUNK_TILES);
+    int minCY = Math.max(0, (coord.yCoord - 1) / CHUNK_TILES);
+    int maxCX = Math.min(chunksWide - 1, (coord.xCoord + 1) / CHUNK_TILES);
+    int maxCY = Math.min(chunksHigh - 1, (coord.yCoord + 1) / CHUNK_TILES);
+    for( BufferedImage[] chunks : chunksByWeather.values() )
+      for( int cy = minCY; cy <= maxCY; ++cy )
+        for( int cx = minCX; cx <= maxCX; ++cx )
+          chunks[cy * chunksWide + cx] = null;
+  }
+
+  private BufferedImage renderChunk(int cx, int cy, Weathers weather)
+  {
+    int minX = cx * CHUNK_TILES;
+    int minY = cy * CHUNK_TILES;
+    int maxX = Math.min(gameMap.mapWidth, minX + CHUNK_TILES);
+    int maxY = Math.min(gameMap.mapHeight, minY + CHUNK_TILES);
+    BufferedImage chunk = RenderTargets.createCompatibleImage((maxX - minX) * tileSize, (maxY - minY) * tileSize, Transparency.OPAQUE);
+
+    Graphics g = chunk.getGraphics();
+    g.translate(-minX * tileSize, -minY * tileSize);
+    IEnvironsProvider weatherMap = new UniformWeather(gameMap, weather);
+    for( int y = minY; y < maxY; ++y ) // Iterate horizontally to layer terrain correctly.
+      for( int x = minX; x < maxX; ++x )
+        SpriteLibrary.getTerrainSpriteSet(gameMap.getLocation(x, y)).drawTerrain(g, weatherMap, x, y, false);
+    g.dispose();
+    return chunk;
+  }
+
+  /** Shows the map's terrain, but with the same weather everywhere. */
+  private static class UniformWeather implements IEnvironsProvider
+  {
+    private final GameMap gameMap;
+    private final Weathers weather;
+
+    UniformWeather(GameMap gameMap, Weathers weather)
+    {
+      this.gameMap = gameMap;
+      this.weather = weather;
+    }
+
+    @Override
+    public boolean isLocationValid(XYCoord coords)
+    {
+      return gameMap.isLocationValid(coords);
+    }
+
+    @Override
+    public boolean isLocationValid(int x, int y)
+    {
+      return gameMap.isLocationValid(x, y);
+    }
+
+    @Override
+    public Environment getEnvironment(XYCoord coord)
+    {
+      return getEnvironment(coord.xCoord, coord.yCoord);
+    }
+
+    @Override
+    public Environment getEnvironment(int w, int h)
+    {
+      Environment actual = gameMap.getEnvironment(w, h);
+      return (null == actual) ? null : Environment.getTile(actual.terrainType, weather);
+    }
+  }
+}
@@ -141,6 +141,23 @@ public class CommanderOverlayArtist
     SpriteUIUtils.drawTextSmallCaps(g, String.format("%"+valueLength+"d", value), drawX, drawY);
   }
 
+  /**
+   * Returns true if the army's overlay is animated right now, i.e. if any of its COs has an ability
+   * active (flashing ability name) or ready to use (blinking and glinting power bar).
+   */
+  public static boolean isAnimating(Army army)
+  {
+    for( Commander co : army.cos )
+    {
+      if( null != co.getActiveAbility() )
+        return true;
+      for( double cost : co.getAbilityCosts() )
+        if( cost < co.getAbilityPower() )
+          return true;
+    }
+    return false;
+  }
+
   private static int getAnimIndex()
   {
     // Fun fact: casting long->int can produce negative numbers, for some reason.
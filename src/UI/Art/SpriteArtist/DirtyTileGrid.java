@@ -0,0 +1,125 @@
+package UI.Art.SpriteArtist;
+
+import java.awt.Rectangle;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Keeps track of which map tiles need to be redrawn onto SpriteMapView's persistent map image.
+ * A tile stays dirty until it is redrawn, even if it is off-screen in the meantime.
+ */
+class DirtyTileGrid
+{
+  private final int width;
+  private final int height;
+  private final boolean[] dirty;
+  private int dirtyCount = 0;
+
+  DirtyTileGrid(int width, int height)
+  {
+    this.width = width;
+    this.height = height;
+    dirty = new boolean[width * height];
+    markAll(); // Nothing has been drawn yet.
+  }
+
+  public void markAll()
+  {
+    Arrays.fill(dirty, true);
+    dirtyCount = dirty.length;
+  }
+
+  public void mark(int x, int y)
+  {
+    if( x < 0 || y < 0 || x >= width || y >= height )
+      return;
+    int index = y * width + x;
+    if( !dirty[index] )
+    {
+      dirty[index] = true;
+      ++dirtyCount;
+    }
+  }
+
+  /** Marks every tile in the given (inclusive) range, ignoring any part of it that's off the map. */
+  public void mark(int minX, int minY, int maxX, int maxY)
+  {
+    for( int y = Math.max(0, minY); y <= Math.min(height - 1, maxY); ++y )
+      for( int x = Math.max(0, minX); x <= Math.min(width - 1, maxX); ++x )
+        mark(x, y);
+  }
+
+  /** Marks every tile touched by the given rectangle, which is in tile units. */
+  public void mark(Rectangle tiles)
+  {
+    mark(tiles.x, tiles.y, tiles.x + tiles.width - 1, tiles.y + tiles.height - 1);
+  }
+
+  public boolean isEmpty()
+  {
+    return 0 == dirtyCount;
+  }
+
+  /**
+   * Gathers up the dirty tiles in the given (inclusive) range as rectangles in tile units, and marks them clean.
+   * Each row is split into runs of dirty tiles, and a run that lines up with one in the row above extends that
+   * rectangle downward, so a fully-dirty view comes back as a single rectangle.
+   */
+  public ArrayList<Rectangle> takeDirtyRegions(int minX, int minY, int maxX, int maxY)
+  {
+    ArrayList<Rectangle> regions = new ArrayList<Rectangle>();
+    minX = Math.max(0, minX);
+    minY = Math.max(0, minY);
+    maxX = Math.min(width - 1, maxX);
+    maxY = Math.min(height - 1, maxY);
+    if( isEmpty() || minX > maxX || minY > maxY )
+      return regions;
+
+    ArrayList<Rectangle> open = new ArrayList<Rectangle>(); // Rectangles that reach the previous row.
+    ArrayList<Rectangle> stillOpen = new ArrayList<Rectangle>();
+    for( int y = minY; y <= maxY; ++y )
+    {
+      int x = minX;
+      while (x <= maxX)
+      {
+        if( !dirty[y * width + x] )
+        {
+          ++x;
+          continue;
+        }
+        int runStart = x;
+        while (x <= maxX && dirty[y * width + x])
+        {
+          dirty[y * width + x] = false;
+          --dirtyCount;
+          ++x;
+        }
+        int runWidth = x - runStart;
+
+        Rectangle extended = null;
+        for( Rectangle r : open )
+          if( r.x == runStart && r.width == runWidth )
+          {
+            extended = r;
+            break;
+          }
+        if( null != extended )
+        {
+          open.remove(extended);
+          extended.height++;
+        }
+        else
+          extended = new Rectangle(runStart, y, runWidth, 1);
+        stillOpen.add(extended);
+      }
+      // Anything that didn't continue into this row is finished.
+      regions.addAll(open);
+      open.clear();
+      ArrayList<Rectangle> swap = open;
+      open = stillOpen;
+      stillOpen = swap;
+    }
+    regions.addAll(open);
+    return regions;
+  }
+}
@@ -0,0 +1,96 @@
+package UI.Art.SpriteArtist;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+
+import Terrain.GameMap;
+
+/**
+ * A copy of MapArtist's base map image with fog already painted over the fogged tiles, so the
+ * fogged terrain can be drawn in one blit instead of shading each fogged tile as it's drawn.
+ * Tiles are only repainted when their fog state changes, or when the terrain under them does.
+ */
+class FogLayer
+{
+  private static final int tileSize = SpriteLibrary.baseSpriteSize;
+
+  private final BufferedImage baseMapImage;
+  private final BufferedImage fogMapImage;
+  private final Color fogColor;
+  private final int mapWidth;
+  private final int mapHeight;
+
+  // What each tile of fogMapImage currently shows.
+  private final boolean[] shownFogged;
+  private final boolean[] stale;
+  private GameMap shownMap = null;
+
+  FogLayer(BufferedImage baseMapImage, int mapWidth, int mapHeight, Color fogColor)
+  {
+    this.baseMapImage = baseMapImage;
+    this.mapWidth = mapWidth;
+    this.mapHeight = mapHeight;
+    this.fogColor = fogColor;
+    fogMapImage = RenderTargets.createCompatibleImage(baseMapImage.getWidth(), baseMapImage.getHeight(), Transparency.OPAQUE);
+    shownFogged = new boolean[mapWidth * mapHeight];
+    stale = new boolean[mapWidth * mapHeight];
+    markAllStale();
+  }
+
+  /** Call when the base map image has changed under this tile. */
+  public void markStale(int x, int y)
+  {
+    if( x >= 0 && y >= 0 && x < mapWidth && y < mapHeight )
+      stale[y * mapWidth + x] = true;
+  }
+
+  public void markAllStale()
+  {
+    Arrays.fill(stale, true);
+  }
+
+  /**
+   * Draws the fogged terrain for the given region of the map (in pixels), as seen from gameMap.
+   * Any tiles in the region whose fog changed since we last drew them are brought up to date first.
+   */
+  public void draw(Graphics g, GameMap gameMap, int viewX, int viewY, int viewW, int viewH)
+  {
+    // Fog is a matter of perspective; a new one means we can't trust anything we drew before.
+    if( gameMap != shownMap )
+    {
+      markAllStale();
+      shownMap = gameMap;
+    }
+
+    Graphics fogGraphics = null;
+    final int maxY = Math.min(mapHeight - 1, (viewY + viewH - 1) / tileSize);
+    final int maxX = Math.min(mapWidth - 1, (viewX + viewW - 1) / tileSize);
+    for( int y = Math.max(0, viewY / tileSize); y <= maxY; ++y )
+      for( int x = Math.max(0, viewX / tileSize); x <= maxX; ++x )
+      {
+        final int index = y * mapWidth + x;
+        final boolean fogged = gameMap.isLocationFogged(x, y);
+        if( !stale[index] && fogged == shownFogged[index] )
+          continue;
+
+        if( null == fogGraphics )
+          fogGraphics = fogMapImage.getGraphics();
+        final int px = x * tileSize, py = y * tileSize;
+        fogGraphics.drawImage(baseMapImage, px, py, px + tileSize, py + tileSize, px, py, px + tileSize, py + tileSize, null);
+        if( fogged )
+        {
+          fogGraphics.setColor(fogColor);
+          fogGraphics.fillRect(px, py, tileSize, tileSize);
+        }
+        shownFogged[index] = fogged;
+        stale[index] = false;
+      }
+    if( null != fogGraphics )
+      fogGraphics.dispose();
+
+    g.drawImage(fogMapImage, viewX, viewY, viewX + viewW, viewY + viewH, viewX, viewY, viewX + viewW, viewY + viewH, null);
+  }
+}
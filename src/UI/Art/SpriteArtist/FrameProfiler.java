@@ -0,0 +1,204 @@
+package UI.Art.SpriteArtist;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.Arrays;
+
+/**
+ * Records how long each stage of drawing a frame takes, for the last few hundred frames.
+ * Turned on by the "Frame Profiler" graphics option; when it's off, timing calls return right away.
+ * The numbers can be shown on screen as a graph plus percentiles, and saved to CSV for a closer look.
+ */
+class FrameProfiler
+{
+  enum Stage
+  {
+    BACKGROUND("bg"), OVERLAYS("ovl"), DIRTY("dirty"), TERRAIN("terr"), UNITS("unit"),
+    ICONS("icon"), EFFECTS("fx"), COMPOSE("comp"), HUD("hud"), SCALE("scale");
+
+    /** Short enough to fit two columns of these on the smallest screen. */
+    final String label;
+    Stage(String label)
+    {
+      this.label = label;
+    }
+  }
+  private static final Stage[] STAGES = Stage.values();
+  private static final int CAPACITY = 600; // Ten seconds, at 60 FPS.
+
+  private static final int GRAPH_FRAMES = 120;
+  private static final int GRAPH_HEIGHT = 32;
+  private static final double GRAPH_MAX_MS = 33.3;
+  private static final double BUDGET_MS = 1000.0 / 60;
+  private static final Color PANEL_COLOR = new Color(255, 255, 255, 190);
+  private static final Color BAR_COLOR = new Color(40, 130, 40);
+  private static final Color SLOW_BAR_COLOR = new Color(190, 40, 40);
+
+  // Ring buffers; frame i's stage s is at stageNanos[i * STAGES.length + s].
+  private final long[] stageNanos = new long[CAPACITY * STAGES.length];
+  private final long[] frameNanos = new long[CAPACITY];
+  private int nextFrame = 0;
+  private int numFrames = 0;
+
+  private boolean inFrame = false;
+  private long frameStart;
+  private long lastLap;
+
+  /** Starts timing a new frame, if profiling is turned on. */
+  public void beginFrame()
+  {
+    inFrame = SpriteOptions.getFrameProfilerEnabled();
+    if( !inFrame )
+      return;
+    frameStart = System.nanoTime();
+    lastLap = frameStart;
+    Arrays.fill(stageNanos, nextFrame * STAGES.length, (nextFrame + 1) * STAGES.length, 0);
+  }
+
+  /** Charges the time since the last lap (or the start of the frame) to the given stage. */
+  public void lap(Stage stage)
+  {
+    if( !inFrame )
+      return;
+    long now = System.nanoTime();
+    stageNanos[nextFrame * STAGES.length + stage.ordinal()] += now - lastLap;
+    lastLap = now;
+  }
+
+  public void endFrame()
+  {
+    if( !inFrame )
+      return;
+    inFrame = false;
+    frameNanos[nextFrame] = System.nanoTime() - frameStart;
+    nextFrame = (nextFrame + 1) % CAPACITY;
+    numFrames = Math.min(numFrames + 1, CAPACITY);
+  }
+
+  /** Index into the ring buffers of the frame recorded `age` frames ago (0 is the latest). */
+  private int frameIndex(int age)
+  {
+    return (nextFrame - 1 - age + CAPACITY) % CAPACITY;
+  }
+
+  /** @return The given percentile (0-100) of the recorded frame times, in milliseconds. */
+  public double getPercentileMs(double percentile)
+  {
+    return getPercentileMs(sortedFrameNanos(), percentile);
+  }
+
+  private long[] sortedFrameNanos()
+  {
+    long[] sorted = new long[numFrames];
+    for( int age = 0; age < numFrames; ++age )
+      sorted[age] = frameNanos[frameIndex(age)];
+    Arrays.sort(sorted);
+    return sorted;
+  }
+
+  private static double getPercentileMs(long[] sorted, double percentile)
+  {
+    if( 0 == sorted.length )
+      return 0;
+    int rank = (int) Math.ceil(percentile / 100 * sorted.length) - 1;
+    return sorted[Math.max(0, Math.min(sorted.length - 1, rank))] / 1e6;
+  }
+
+  /**
+   * Draws a graph of recent frame times, with the frame time percentiles and the average time (ms) spent in each stage,
+   * in the bottom-left corner of a screen of the given height.
+   * The frame being drawn now isn't finished yet, so it's not included.
+   */
+  public void draw(Graphics g, int screenHeight)
+  {
+    if( !SpriteOptions.getFrameProfilerEnabled() || 0 == numFrames )
+      return;
+
+    // Work out what we're going to say first, so we know how big to make the panel.
+    long[] sorted = sortedFrameNanos();
+    String summary = String.format("50%% %.1f 95%% %.1f 99%% %.1f ms",
+        getPercentileMs(sorted, 50), getPercentileMs(sorted, 95), getPercentileMs(sorted, 99));
+    String[] stageLines = new String[STAGES.length];
+    for( Stage stage : STAGES )
+    {
+      long total = 0;
+      for( int age = 0; age < numFrames; ++age )
+        total += stageNanos[frameIndex(age) * STAGES.length + stage.ordinal()];
+      stageLines[stage.ordinal()] = String.format("%s %.2f", stage.label, total / 1e6 / numFrames);
+    }
+
+    PixelFont font = SpriteLibrary.getFontStandard();
+    int lineHeight = font.getHeight();
+    int rows = (stageLines.length + 1) / 2;
+    int columnWidth = 0;
+    for( String line : stageLines )
+      columnWidth = Math.max(columnWidth, font.getWidth(line) + 4);
+    int width = Math.max(GRAPH_FRAMES, Math.max(font.getWidth(summary), columnWidth * 2)) + 4;
+    int height = GRAPH_HEIGHT + 4 + lineHeight * (1 + rows);
+    int x = 0;
+    int y = screenHeight - height;
+    g.setColor(PANEL_COLOR);
+    g.fillRect(x, y, width, height);
+
+    // One bar per frame, newest on the right; anything over budget shows up red.
+    int graphBottom = y + 2 + GRAPH_HEIGHT;
+    for( int age = 0; age < Math.min(numFrames, GRAPH_FRAMES); ++age )
+    {
+      double ms = frameNanos[frameIndex(age)] / 1e6;
+      int barHeight = (int) Math.ceil(Math.min(ms, GRAPH_MAX_MS) / GRAPH_MAX_MS * GRAPH_HEIGHT);
+      g.setColor(ms > BUDGET_MS ? SLOW_BAR_COLOR : BAR_COLOR);
+      g.fillRect(x + 2 + GRAPH_FRAMES - 1 - age, graphBottom - barHeight, 1, barHeight);
+    }
+    g.setColor(Color.BLACK);
+    int budgetY = graphBottom - (int) (BUDGET_MS / GRAPH_MAX_MS * GRAPH_HEIGHT);
+    g.drawLine(x + 2, budgetY, x + 1 + GRAPH_FRAMES, budgetY);
+
+    int textY = graphBottom + 2;
+    font.write(g, summary, x + 2, textY);
+    textY += lineHeight;
+    for( int i = 0; i < stageLines.length; ++i )
+      font.write(g, stageLines[i], x + 2 + (i / rows) * columnWidth, textY + (i % rows) * lineHeight);
+  }
+
+  /**
+   * Writes every recorded frame out to a CSV file, oldest first, with times in nanoseconds.
+   * @return True if the file was written.
+   */
+  public boolean exportCsv(String filename)
+  {
+    File file = new File(filename);
+    if( null != file.getParentFile() )
+      file.getParentFile().mkdirs();
+    try (PrintWriter out = new PrintWriter(file))
+    {
+      StringBuilder header = new StringBuilder("frame,total");
+      for( Stage stage : STAGES )
+        header.append(',').append(stage.toString().toLowerCase());
+      out.println(header);
+
+      for( int age = numFrames - 1; age >= 0; --age )
+      {
+        int index = frameIndex(age);
+        StringBuilder row = new StringBuilder();
+        row.append(numFrames - 1 - age).append(',').append(frameNanos[index]);
+        for( int s = 0; s < STAGES.length; ++s )
+          row.append(',').append(stageNanos[index * STAGES.length + s]);
+        out.println(row);
+      }
+      return !out.checkError();
+    }
+    catch (IOException e)
+    {
+      System.out.println("WARNING: Could not write frame profile to " + filename + ": " + e);
+      return false;
+    }
+  }
+
+  public int getFrameCount()
+  {
+    return numFrames;
+  }
+}
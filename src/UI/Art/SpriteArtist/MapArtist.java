@@ -2,8 +2,10 @@ package UI.Art.SpriteArtist;
 
 import java.awt.Color;
 import java.awt.Graphics;
+import java.awt.Transparency;
 import java.awt.image.BufferedImage;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 
 import CommandingOfficers.Commander;
 import Engine.GameInstance;
@@ -16,6 +18,7 @@ import Engine.GameEvents.GameEventQueue;
 import Engine.GameEvents.MapChangeEvent.EnvironmentAssignment;
 import Terrain.Environment.Weathers;
 import Terrain.GameMap;
+import Terrain.TerrainType;
 import Units.Unit;
 
 public class MapArtist
@@ -24,6 +27,9 @@ public class MapArtist
 
   BufferedImage baseMapImage;
   MapImageUpdater baseMapImageUpdater;
+  private FogLayer fogLayer;
+  private BaseMapChunks baseMapChunks;
+  private TerrainType[][] drawnTerrain; // What baseMapChunks thinks each tile is.
 
   private static final int tileSize = SpriteLibrary.baseSpriteSize;
 
@@ -39,12 +45,19 @@ public class MapArtist
     Commander co0 = game.armies[0].cos[0];
     spriteCursor = new SpriteCursor(game.getCursorX() * tileSize, game.getCursorY() * tileSize, tileSize, tileSize, co0.myColor);
 
-    baseMapImage = new BufferedImage(gameMap.mapWidth * tileSize, gameMap.mapHeight * tileSize, BufferedImage.TYPE_INT_RGB);
+    baseMapImage = RenderTargets.createCompatibleImage(gameMap.mapWidth * tileSize, gameMap.mapHeight * tileSize, Transparency.OPAQUE);
 
     // Choose colors for fog and highlighted tiles.
     FOG_COLOR = new Color(72, 72, 96, 200); // dark blue
     TerrainSpriteSet.setFogColor(FOG_COLOR);
 
+    fogLayer = new FogLayer(baseMapImage, gameMap.mapWidth, gameMap.mapHeight, FOG_COLOR);
+    baseMapChunks = new BaseMapChunks(gameMap);
+    drawnTerrain = new TerrainType[gameMap.mapWidth][gameMap.mapHeight];
+    for( int y = 0; y < gameMap.mapHeight; ++y )
+      for( int x = 0; x < gameMap.mapWidth; ++x )
+        drawnTerrain[x][y] = gameMap.getEnvironment(x, y).terrainType;
+
     // Build base map image.
     buildMapImage();
     baseMapImageUpdater = new MapImageUpdater(this);
@@ -53,21 +66,8 @@ public class MapArtist
 
   public void drawBaseTerrain(Graphics g, GameMap gameMap, int viewX, int viewY, int viewW, int viewH)
   {
-    // First four coords are the dest x,y,x2,y2. Next four are the source coords.
-    g.drawImage(baseMapImage, viewX, viewY, viewX + viewW, viewY + viewH, viewX, viewY, viewX + viewW, viewY + viewH, null);
-
-    // Draw fog effects.
-    int numTilesY = (viewY + viewH) / tileSize;
-    int numTilesX = (viewX + viewW) / tileSize;
-    for( int y = viewY / tileSize; y < numTilesY+1; ++y )
-      for( int x = viewX / tileSize; x < numTilesX+1; ++x )
-      {
-        if( gameMap.isLocationFogged(x, y) )
-        {
-          g.setColor(FOG_COLOR);
-          g.fillRect(x * tileSize, y * tileSize, tileSize, tileSize);
-        }
-      }
+    // The fog layer is the base map with fog effects already applied.
+    fogLayer.draw(g, gameMap, viewX, viewY, viewW, viewH);
   }
 
   public void drawTerrainObject(Graphics g, GameMap gameMap, int x, int y)
@@ -168,32 +168,65 @@ public class MapArtist
     // Get the Graphics object of the local map image, to use for drawing.
     Graphics g = baseMapImage.getGraphics();
 
-    // Choose and draw all base sprites (grass, water, shallows).
-    for( int y = 0; y < gameMap.mapHeight; ++y ) // Iterate horizontally to layer terrain correctly.
-    {
+    // If the whole map shares the same weather, we can use (or make) pre-drawn chunks.
+    Weathers weather = gameMap.getEnvironment(0, 0).weatherType;
+    for( int y = 0; y < gameMap.mapHeight && null != weather; ++y )
       for( int x = 0; x < gameMap.mapWidth; ++x )
+        if( gameMap.getEnvironment(x, y).weatherType != weather )
+        {
+          weather = null;
+          break;
+        }
+
+    if( null != weather )
+      baseMapChunks.drawMap(g, weather);
+    else
+    {
+      // Choose and draw all base sprites (grass, water, shallows).
+      for( int y = 0; y < gameMap.mapHeight; ++y ) // Iterate horizontally to layer terrain correctly.
       {
-        // Fetch the relevant sprite set for this terrain type and have it draw itself.
-        TerrainSpriteSet spriteSet = SpriteLibrary.getTerrainSpriteSet(gameMap.getLocation(x, y));
-        spriteSet.drawTerrain(g, gameMap, x, y, false);
+        for( int x = 0; x < gameMap.mapWidth; ++x )
+        {
+          // Fetch the relevant sprite set for this terrain type and have it draw itself.
+          TerrainSpriteSet spriteSet = SpriteLibrary.getTerrainSpriteSet(gameMap.getLocation(x, y));
+          spriteSet.drawTerrain(g, gameMap, x, y, false);
+        }
       }
     }
+    g.dispose();
+    fogLayer.markAllStale();
   }
 
-  private void redrawBaseTile(XYCoord coord)
+  /**
+   * Redraws the given tiles, plus their neighbors, since a change to one tile
+   * can change the terrain transitions drawn on adjacent tiles.
+   */
+  private void redrawBaseTiles(ArrayList<XYCoord> changed)
   {
     GameMap gameMap = myGame.gameMap;
+    LinkedHashSet<XYCoord> toDraw = new LinkedHashSet<XYCoord>();
+    for( XYCoord coord : changed )
+    {
+      // Our pre-drawn chunks only care about the terrain, not the weather.
+      TerrainType terrain = gameMap.getEnvironment(coord).terrainType;
+      if( terrain != drawnTerrain[coord.xCoord][coord.yCoord] )
+      {
+        drawnTerrain[coord.xCoord][coord.yCoord] = terrain;
+        baseMapChunks.invalidate(coord);
+      }
+      toDraw.addAll(Utils.findLocationsInRange(gameMap, coord, 0, 1));
+    }
+
     // Get the Graphics object of the local map image, to use for drawing.
     Graphics g = baseMapImage.getGraphics();
-
-    // If this tile changes, it might necessitate terrain transition changes
-    // in adjacent tiles, so find and redraw the adjacent tiles as well.
-    for( XYCoord drawCoord : Utils.findLocationsInRange(gameMap, coord, 0, 1) )
+    for( XYCoord drawCoord : toDraw )
     {
       // Fetch the relevant sprite set for this terrain type and have it draw itself.
       TerrainSpriteSet spriteSet = SpriteLibrary.getTerrainSpriteSet(gameMap.getLocation(drawCoord.xCoord, drawCoord.yCoord));
       spriteSet.drawTerrain(g, gameMap, drawCoord.xCoord, drawCoord.yCoord, false);
+      fogLayer.markStale(drawCoord.xCoord, drawCoord.yCoord);
     }
+    g.dispose();
   }
 
   private static class MapImageUpdater implements GameEventListener
@@ -211,17 +244,19 @@ public class MapArtist
     @Override
     public GameEventQueue receiveTerrainChangeEvent(ArrayList<EnvironmentAssignment> terrainChanges)
     {
+      ArrayList<XYCoord> changed = new ArrayList<XYCoord>();
       for( EnvironmentAssignment ea : terrainChanges )
       {
-        if( null != ea.where ) myArtist.redrawBaseTile(ea.where); // Redraw each tile that changed.
+        if( null != ea.where ) changed.add(ea.where);
       }
+      myArtist.redrawBaseTiles(changed); // Redraw each tile that changed.
       return null;
     }
 
     @Override
     public GameEventQueue receiveWeatherChangeEvent(Weathers weather, int duration)
     {
-      myArtist.buildMapImage(); // Redraw the whole map.
+      myArtist.buildMapImage(); // Redraw the whole map; this is usually just copying in pre-drawn chunks.
       return null;
     }
   }
@@ -123,7 +123,10 @@ public class MapSelectMenuArtist
     menuGraphics.setColor(MENUFRAMECOLOR);
     menuGraphics.fillRect(nameSectionDrawWidth, maxMiniMapHeight, drawableWidth-nameSectionDrawWidth, 1);
 
-    // Draw the mini-map representation of the highlighted map.
+    // Draw the mini-map representation of the highlighted map. Start on its neighbors too, since we're likely to scroll to them next.
+    for( int neighbor : new int[] { highlightedOption + 1, highlightedOption - 1 } )
+      if( neighbor >= 0 && neighbor < mapInfos.size() )
+        MiniMapArtist.prefetchMapImage(mapInfos.get(neighbor), drawScale*maxMiniMapWidth, drawScale*maxMiniMapHeight);
     selectedMapInfo = mapInfos.get(highlightedOption);
     BufferedImage miniMap = MiniMapArtist.getMapImage(selectedMapInfo, drawScale*maxMiniMapWidth, drawScale*maxMiniMapHeight);
 
@@ -1,6 +1,7 @@
 package UI.Art.SpriteArtist;
 
 import java.awt.Color;
+import java.awt.Dimension;
 import java.awt.Graphics;
 import java.awt.geom.AffineTransform;
 import java.awt.image.AffineTransformOp;
@@ -13,15 +14,10 @@ import UI.UIUtils.Faction;
 
 public class MiniMapArtist
 {
-  private static MapInfo lastMapDrawn;
-  private static Color[] lastTeamColors;
-  private static BufferedImage lastFullMapImage;
-
   /**
    * Retrieve a BufferedImage with a 1-pixel-per-tile representation of the provided MapInfo.
-   * Requested images are generated and store on first call, then simply fetched and returned
-   * if this function is called again with the same MapInfo.
-   * Teams will be colored according to the default color ordering.
+   * Images are drawn in the background (see MiniMapThumbnails); until it's ready, this returns a
+   * placeholder of the same size. Teams will be colored according to the default color ordering.
    */
   public static BufferedImage getMapImage(MapInfo mapInfo, int maxWidth, int maxHeight)
   {
@@ -30,43 +26,63 @@ public class MiniMapArtist
 
   /**
    * Retrieve a BufferedImage with a 1-pixel-per-tile representation of the provided MapInfo.
-   * Requested images are generated and store on first call, then simply fetched and returned
-   * if this function is called again with the same MapInfo.
+   * Images are drawn in the background (see MiniMapThumbnails); until it's ready, this returns a
+   * placeholder of the same size.
    * @param teamColors A set of colors to be used for drawing each team. If insufficient colors
    *        are provided, black will be used for any remaining ones. If null is passed in,
    *        the default team-color ordering will be used.
    */
   public static BufferedImage getMapImage(MapInfo mapInfo, Color[] teamColors, int maxWidth, int maxHeight)
   {
-    if( mapInfo != lastMapDrawn || palettesDiffer(teamColors) )
-    {
-      // If we don't already have an image, generate and store it for later.
-      lastFullMapImage = generateFullMapImage(mapInfo, teamColors);
-      lastMapDrawn = mapInfo;
-      lastTeamColors = teamColors;
-    }
+    return MiniMapThumbnails.get(mapInfo, teamColors, maxWidth, maxHeight);
+  }
 
-    BufferedImage miniMap = lastFullMapImage;
-    // Crunch it down a bit if it won't fit
-    final int mapHeight = lastFullMapImage.getHeight();
-    final int mapWidth = lastFullMapImage.getWidth();
+  /** Start drawing the image getMapImage would return, so it's ready by the time it's asked for. */
+  public static void prefetchMapImage(MapInfo mapInfo, int maxWidth, int maxHeight)
+  {
+    MiniMapThumbnails.prefetch(mapInfo, UIUtils.getCOColors(), maxWidth, maxHeight);
+  }
+
+  /** @return The size of the image getMapImage will return for these arguments. */
+  static Dimension getMapImageSize(MapInfo mapInfo, int maxWidth, int maxHeight)
+  {
+    final int mapHeight = mapInfo.getHeight() * SpriteLibrary.baseSpriteSize;
+    final int mapWidth = mapInfo.getWidth() * SpriteLibrary.baseSpriteSize;
+    final double ratio = getShrinkRatio(mapWidth, mapHeight, maxWidth, maxHeight);
+    return new Dimension((int) (mapWidth * ratio), (int) (mapHeight * ratio));
+  }
+
+  /** @return How much a map image of the given size needs to shrink to fit; 1 if it fits already. */
+  private static double getShrinkRatio(int mapWidth, int mapHeight, int maxWidth, int maxHeight)
+  {
     if(   maxHeight < mapHeight
         || maxWidth < mapWidth )
     {
       final double heightRatio = ((float)maxHeight) / mapHeight;
       final double widthRatio  = ((float)maxWidth ) / mapWidth;
-      final double finalRatio  = Math.min(heightRatio, widthRatio);
-      final int finalHeight    = (int) (mapHeight * finalRatio);
-      final int finalWidth     = (int) (mapWidth * finalRatio);
-
-      miniMap = SpriteLibrary.createTransparentSprite(finalWidth, finalHeight);
-
-      final AffineTransform at = AffineTransform.getScaleInstance(finalRatio, finalRatio);
-      final AffineTransformOp ato = new AffineTransformOp(at, AffineTransformOp.TYPE_BICUBIC);
-      miniMap = ato.filter(lastFullMapImage, miniMap);
+      return Math.min(heightRatio, widthRatio);
     }
+    return 1;
+  }
 
-    return miniMap;
+  /**
+   * Draws the minimap for the given map, shrunk down to fit if needed.
+   * Only shares thread-safe state with the UI thread, so this can be done in the background.
+   */
+  static BufferedImage renderMapImage(MapInfo mapInfo, Color[] teamColors, int maxWidth, int maxHeight)
+  {
+    BufferedImage fullMapImage = generateFullMapImage(mapInfo, teamColors);
+
+    // Crunch it down a bit if it won't fit
+    final double finalRatio = getShrinkRatio(fullMapImage.getWidth(), fullMapImage.getHeight(), maxWidth, maxHeight);
+    if( finalRatio == 1 )
+      return fullMapImage;
+
+    Dimension finalSize = getMapImageSize(mapInfo, maxWidth, maxHeight);
+    BufferedImage miniMap = SpriteLibrary.createTransparentSprite(finalSize.width, finalSize.height);
+    final AffineTransform at = AffineTransform.getScaleInstance(finalRatio, finalRatio);
+    final AffineTransformOp ato = new AffineTransformOp(at, AffineTransformOp.TYPE_BICUBIC);
+    return ato.filter(fullMapImage, miniMap);
   }
 
   /**
@@ -128,24 +144,4 @@ public class MiniMapArtist
 
     return image;
   }
-
-  private static boolean palettesDiffer(Color[] newColors)
-  {
-    if( null == lastTeamColors || null == newColors )
-      return true;
-    if( lastTeamColors.length != newColors.length )
-      return true;
-
-    boolean colorsDiffer = false;
-    for( int i = 0; i < newColors.length; ++i )
-    {
-      if( !newColors[i].equals(lastTeamColors[i]) )
-      {
-        colorsDiffer = true;
-        break;
-      }
-    }
-
-    return colorsDiffer;
-  }
 }
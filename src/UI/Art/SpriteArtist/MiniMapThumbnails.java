@@ -0,0 +1,210 @@
+package UI.Art.SpriteArtist;
+
+import java.awt.Color;
+import java.awt.Dimension;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.ImageIO;
+
+import Terrain.MapInfo;
+import UI.UIUtils;
+
+/**
+ * Draws minimaps on a background thread, so scrolling through a long list of maps doesn't stall on each one.
+ * Until a minimap is ready, callers get a blank placeholder of the same size.
+ * Recently-used minimaps are kept in memory, and every minimap is saved as a PNG so later launches can just load it.
+ * Saved minimaps are named for the contents of the map (not its file, since built-in maps don't have one),
+ * the team colors and size they were drawn with, and the state of the tile art.
+ */
+class MiniMapThumbnails
+{
+  private static final int MAX_THUMBNAILS = 32;
+  private static final String CACHE_DIR = "cache/minimaps/";
+  private static final int FORMAT_VERSION = 1;
+  private static final Color PLACEHOLDER_COLOR = new Color(0, 0, 0, 60);
+
+  private static final LinkedHashMap<String, BufferedImage> thumbnails = new LinkedHashMap<String, BufferedImage>(MAX_THUMBNAILS, 0.75f, true)
+  {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<String, BufferedImage> eldest)
+    {
+      return size() > MAX_THUMBNAILS;
+    }
+  };
+  /** Placeholders for the thumbnails that are queued or being drawn. */
+  private static final HashMap<String, BufferedImage> pending = new HashMap<String, BufferedImage>();
+  private static final WeakHashMap<MapInfo, Long> mapHashes = new WeakHashMap<MapInfo, Long>();
+  private static long tilesetStamp = 0;
+  private static ThreadPoolExecutor renderer = null;
+
+  /**
+   * @return The minimap for mapInfo, or a placeholder of the same size if it isn't ready yet.
+   */
+  public static synchronized BufferedImage get(MapInfo mapInfo, Color[] teamColors, int maxWidth, int maxHeight)
+  {
+    String key = getKey(mapInfo, teamColors, maxWidth, maxHeight);
+    BufferedImage thumbnail = thumbnails.get(key);
+    if( null != thumbnail )
+      return thumbnail;
+
+    BufferedImage placeholder = pending.get(key);
+    if( null == placeholder )
+    {
+      Dimension size = MiniMapArtist.getMapImageSize(mapInfo, maxWidth, maxHeight);
+      placeholder = SpriteLibrary.createTransparentSprite(size.width, size.height);
+      Graphics g = placeholder.getGraphics();
+      g.setColor(PLACEHOLDER_COLOR);
+      g.fillRect(0, 0, size.width, size.height);
+      g.dispose();
+      pending.put(key, placeholder);
+      submit(key, mapInfo, teamColors, maxWidth, maxHeight);
+    }
+    return placeholder;
+  }
+
+  /** Starts on the minimap for mapInfo, if we don't have it already, so it's likely to be ready when it's needed. */
+  public static void prefetch(MapInfo mapInfo, Color[] teamColors, int maxWidth, int maxHeight)
+  {
+    get(mapInfo, teamColors, maxWidth, maxHeight);
+  }
+
+  private static void submit(String key, MapInfo mapInfo, Color[] teamColors, int maxWidth, int maxHeight)
+  {
+    if( null == renderer )
+    {
+      // One thread, since it shares TerrainSpriteSets with the UI. The last request is the one the player
+      // is most likely looking at, so it goes first.
+      renderer = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new LinkedBlockingDeque<Runnable>()
+      {
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        public boolean offer(Runnable job)
+        {
+          return offerFirst(job);
+        }
+      }, runnable -> {
+        Thread thread = new Thread(runnable, "MiniMapRenderer");
+        thread.setDaemon(true); // Don't hold up exiting the game.
+        thread.setPriority(Thread.MIN_PRIORITY); // Stay out of the way of the UI.
+        return thread;
+      });
+    }
+
+    // Palettes are set up lazily and not thread-safe, so make sure they exist before the renderer goes looking.
+    for( Color color : (null == teamColors) ? UIUtils.getCOColors() : teamColors )
+      UIUtils.getBuildingColors(color);
+
+    final Color[] colors = (null == teamColors) ? null : teamColors.clone();
+    renderer.execute(() -> {
+      BufferedImage thumbnail = null;
+      try
+      {
+        thumbnail = load(key);
+        if( null == thumbnail )
+        {
+          thumbnail = MiniMapArtist.renderMapImage(mapInfo, colors, maxWidth, maxHeight);
+          save(key, thumbnail);
+        }
+      }
+      catch (RuntimeException e)
+      {
+        System.out.println("WARNING: Failed to draw minimap for " + mapInfo.mapName + ": " + e);
+      }
+      finished(key, thumbnail);
+    });
+  }
+
+  private static synchronized void finished(String key, BufferedImage thumbnail)
+  {
+    BufferedImage placeholder = pending.remove(key);
+    // If drawing it failed, stick with the placeholder rather than trying again every frame.
+    thumbnails.put(key, (null == thumbnail) ? placeholder : thumbnail);
+  }
+
+  private static String getKey(MapInfo mapInfo, Color[] teamColors, int maxWidth, int maxHeight)
+  {
+    Long mapHash = mapHashes.get(mapInfo);
+    if( null == mapHash )
+    {
+      mapHash = hashMap(mapInfo);
+      mapHashes.put(mapInfo, mapHash);
+    }
+    if( 0 == tilesetStamp )
+    {
+      File[] tiles = new File("res/tileset").listFiles();
+      String[] tileFiles = new String[(null == tiles) ? 0 : tiles.length];
+      for( int i = 0; i < tileFiles.length; ++i )
+        tileFiles[i] = tiles[i].getPath();
+      Arrays.sort(tileFiles);
+      tilesetStamp = SpriteCache.stampFiles(tileFiles);
+    }
+
+    long colorHash = 0;
+    for( Color color : (null == teamColors) ? UIUtils.getCOColors() : teamColors )
+      colorHash = colorHash * 31 + color.getRGB();
+    return String.format("%016x_%016x_%dx%d_%016x", mapHash, colorHash, maxWidth, maxHeight, tilesetStamp);
+  }
+
+  /** Describes everything about the map that shows up in its minimap. */
+  private static long hashMap(MapInfo mapInfo)
+  {
+    long hash = FORMAT_VERSION;
+    hash = hash * 31 + mapInfo.getWidth();
+    hash = hash * 31 + mapInfo.getHeight();
+    for( int x = 0; x < mapInfo.getWidth(); ++x )
+      for( int y = 0; y < mapInfo.getHeight(); ++y )
+        hash = hash * 31 + mapInfo.terrain[x][y].toString().hashCode();
+    for( int co = 0; co < mapInfo.COProperties.length; ++co )
+    {
+      hash = hash * 31 + co;
+      for( int i = 0; i < mapInfo.COProperties[co].length; ++i )
+        hash = hash * 31 + mapInfo.COProperties[co][i].hashCode();
+    }
+    return hash;
+  }
+
+  private static BufferedImage load(String key)
+  {
+    File file = new File(CACHE_DIR + key + ".png");
+    if( !file.isFile() )
+      return null;
+    return SpriteLibrary.loadSpriteSheetFile(file.getPath());
+  }
+
+  private static void save(String key, BufferedImage thumbnail)
+  {
+    // Write to a temporary file first, so nobody ever reads a half-written thumbnail.
+    File file = new File(CACHE_DIR + key + ".png");
+    File temp = null;
+    try
+    {
+      file.getParentFile().mkdirs();
+      temp = File.createTempFile("minimap", ".tmp", file.getParentFile());
+      if( !ImageIO.write(thumbnail, "png", temp) )
+        throw new IOException("no PNG writer");
+      Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    catch (IOException e)
+    {
+      System.out.println("WARNING: Could not save minimap " + file + ": " + e);
+      if( null != temp )
+        temp.delete();
+    }
+  }
+}
@@ -6,9 +6,10 @@ import java.awt.Composite;
 import java.awt.Graphics;
 import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
-import java.nio.ByteBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 
 import Engine.XYCoord;
 import Terrain.GameMap;
@@ -27,8 +28,12 @@ public class OverlayArtist
   static AlphaComposite buffComposite = null;
   static long lastCompositeCreationTime = 0;
 
-  private static ByteBuffer oldParams;
+  // What overlayImage currently shows, so we only put it back together when that changes.
+  private static ArrayList<OverlayRaster> shownRasters = new ArrayList<OverlayRaster>();
+  private static int[] shownParams;
   private static BufferedImage overlayImage;
+  // Each overlay drawn on its own, kept while it's still on screen so unchanged overlays don't have to be drawn again.
+  private static HashMap<RasterKey, OverlayRaster> rasters = new HashMap<RasterKey, OverlayRaster>();
 
   /**
    * Draw any overlays in the input set, as well as the move/target highlight overlays.
@@ -53,29 +58,27 @@ public class OverlayArtist
       return;
 
     // Only show stuff we're allowed to
-    Collection<GameOverlay> overlays = new ArrayList<GameOverlay>();
+    ArrayList<OverlayRaster> visibleRasters = new ArrayList<OverlayRaster>();
     for( GameOverlay ov : inputOverlays )
       if( null == ov.origin || !gameMap.isLocationFogged(ov.origin) )
-        overlays.add(ov);
+        visibleRasters.add(getRaster(ov, tileSize));
 
     // Check if input is the same as last time
-    ByteBuffer params = ByteBuffer.allocate(Integer.BYTES * (8 + inputOverlays.size()) );
-    params.putInt(inputOverlays.size())
-          .putInt(drawX).putInt(drawY)
-          .putInt(viewWidth).putInt(viewHeight)
-          .putInt(tileSize);
-    if( planningMove )
-      params.putInt(moveLoc.xCoord).putInt(moveLoc.yCoord);
-    for( GameOverlay ov : overlays )
-      params.putInt(ov.area.size());
-    params.rewind(); // Push the buffer pointer to the start so "remaining elements" exists
-
-    if( !params.equals(oldParams) )
+    int[] params = { inputOverlays.size(), drawX, drawY, viewWidth, viewHeight, tileSize,
+                     planningMove ? moveLoc.xCoord : -1, planningMove ? moveLoc.yCoord : -1 };
+    if( !Arrays.equals(params, shownParams) || !sameRasters(visibleRasters, shownRasters) )
     {
       // Army pushes a mark on threat overlays, so update marks when the overlays change
       MarkArtist.MarkingCache.instance(gameMap.game).InvalidateCache();
-      oldParams = params;
-      overlayImage = generateOverlayImage(gameMap, overlays, drawX, drawY, viewWidth, viewHeight, tileSize);
+      shownParams = params;
+      shownRasters = visibleRasters;
+      overlayImage = composeOverlayImage(visibleRasters, drawX, drawY, viewWidth, viewHeight);
+
+      // Anything not on screen any more is unlikely to come back as-is.
+      HashMap<RasterKey, OverlayRaster> stillShown = new HashMap<RasterKey, OverlayRaster>();
+      for( OverlayRaster raster : visibleRasters )
+        stillShown.put(raster.key, raster);
+      rasters = stillShown;
     }
 
     // Set opacity as a function of time.
@@ -96,48 +99,108 @@ public class OverlayArtist
     g2d.setComposite(oldComposite);
   }
 
-  private static void drawOverlayTile(Graphics og, GameOverlay overlay, XYCoord coord, int drawX, int drawY, int tileSize)
+  private static boolean sameRasters(ArrayList<OverlayRaster> a, ArrayList<OverlayRaster> b)
   {
-    og.setColor(overlay.fill);
-    og.fillRect(drawX, drawY, tileSize, tileSize);
-    og.setColor(overlay.edge);
-    final int eT = OVERLAY_EDGE_THICKNESS;
-    final int hT = eT/2;
-    if( !overlay.area.contains(coord.left()) )
-      og.fillRect(drawX-hT            , drawY-hT            ,          eT, tileSize+eT);
-    if( !overlay.area.contains(coord.right()) )
-      og.fillRect(drawX+hT+tileSize-eT, drawY-hT            ,          eT, tileSize+eT);
-    if( !overlay.area.contains(coord.up()) )
-      og.fillRect(drawX-hT            , drawY-hT            , tileSize+eT,          eT);
-    if( !overlay.area.contains(coord.down()) )
-      og.fillRect(drawX-hT            , drawY+hT+tileSize-eT, tileSize+eT,          eT);
+    if( a.size() != b.size() )
+      return false;
+    for( int i = 0; i < a.size(); ++i )
+      if( a.get(i) != b.get(i) )
+        return false;
+    return true;
   }
 
-  private static BufferedImage generateOverlayImage(GameMap gameMap,
-                                                    Collection<GameOverlay> overlays,
-                                                    int drawX, int drawY,
-                                                    int viewWidth, int viewHeight,
-                                                    int tileSize)
+  /** @return The drawn form of this overlay, reusing an earlier drawing of the same tiles and colors if we have one. */
+  private static OverlayRaster getRaster(GameOverlay overlay, int tileSize)
+  {
+    RasterKey key = new RasterKey(overlay.getOutline(), overlay.fill, overlay.edge, tileSize);
+    OverlayRaster raster = rasters.get(key);
+    if( null == raster )
+    {
+      raster = new OverlayRaster(key);
+      rasters.put(key, raster);
+    }
+    return raster;
+  }
+
+  private static BufferedImage composeOverlayImage(ArrayList<OverlayRaster> overlays,
+                                                   int drawX, int drawY,
+                                                   int viewWidth, int viewHeight)
   {
     BufferedImage overlayImage = SpriteLibrary.createTransparentSprite(viewWidth, viewHeight);
     Graphics og = overlayImage.getGraphics();
+    for( OverlayRaster raster : overlays )
+      if( null != raster.image )
+        og.drawImage(raster.image, raster.x - drawX, raster.y - drawY, null);
+    og.dispose();
+    return overlayImage;
+  }
 
-    for( int w = 0; w < gameMap.mapWidth; ++w )
+  /** Identifies what an overlay looks like: which tiles it covers, and in what colors. */
+  private static class RasterKey
+  {
+    final GameOverlay.Outline outline;
+    final Color fill, edge;
+    final int tileSize;
+
+    RasterKey(GameOverlay.Outline outline, Color fill, Color edge, int tileSize)
     {
-      if( (w+1)*tileSize < drawX || drawX + viewWidth < (w-2)*tileSize )
-        continue;
-      for( int h = 0; h < gameMap.mapHeight; ++h )
-      {
-        if( (h+1)*tileSize < drawY || drawY + viewHeight < (h-2)*tileSize )
-          continue;
+      this.outline = outline;
+      this.fill = fill;
+      this.edge = edge;
+      this.tileSize = tileSize;
+    }
 
-        XYCoord coord = new XYCoord(w,h);
-        for( GameOverlay ov : overlays )
-          if( ov.area.contains(coord) )
-            drawOverlayTile(og, ov, coord, w * tileSize - drawX, h * tileSize - drawY, tileSize);
-      }
+    @Override
+    public int hashCode()
+    {
+      return ((outline.hashCode() * 31 + fill.hashCode()) * 31 + edge.hashCode()) * 31 + tileSize;
     }
 
-    return overlayImage;
+    @Override
+    public boolean equals(Object obj)
+    {
+      if( !(obj instanceof RasterKey) )
+        return false;
+      RasterKey other = (RasterKey) obj;
+      return tileSize == other.tileSize && fill.equals(other.fill) && edge.equals(other.edge) && outline.equals(other.outline);
+    }
+  }
+
+  /** One overlay drawn by itself, with its top-left corner at (x, y) on the map in 1:1 drawspace. */
+  private static class OverlayRaster
+  {
+    final RasterKey key;
+    final BufferedImage image;
+    final int x, y;
+
+    OverlayRaster(RasterKey key)
+    {
+      this.key = key;
+      final GameOverlay.Outline outline = key.outline;
+      final int tileSize = key.tileSize;
+      final int eT = OVERLAY_EDGE_THICKNESS;
+      final int hT = eT/2;
+      x = outline.minX * tileSize - hT;
+      y = outline.minY * tileSize - hT;
+      if( outline.isEmpty() )
+      {
+        image = null;
+        return;
+      }
+
+      image = SpriteLibrary.createTransparentSprite(outline.width * tileSize + eT, outline.height * tileSize + eT);
+      Graphics og = image.getGraphics();
+      og.translate(-x, -y);
+      og.setColor(key.fill);
+      for( int[] run : outline.fills )
+        og.fillRect(run[0] * tileSize, run[1] * tileSize, run[2] * tileSize, tileSize);
+      // Edges straddle the boundary between tiles.
+      og.setColor(key.edge);
+      for( int[] run : outline.horizontalEdges )
+        og.fillRect(run[0] * tileSize - hT, run[1] * tileSize - hT, run[2] * tileSize + eT, eT);
+      for( int[] run : outline.verticalEdges )
+        og.fillRect(run[0] * tileSize - hT, run[1] * tileSize - hT, eT, run[2] * tileSize + eT);
+      og.dispose();
+    }
   }
 }
@@ -77,9 +77,13 @@ public class PixelFont
 
   public void write(Graphics g, String text, int x, int y)
   {
-    g.setFont(font);
-    g.setColor(Color.BLACK);
-    g.drawString(text, x, y+fontMetrics.getAscent());
+    write(g, text, x, y, Color.BLACK);
+  }
+
+  /** Draws text with its top-left corner at (x, y). Rendered strings are cached; see TextCache. */
+  public void write(Graphics g, String text, int x, int y, Color color)
+  {
+    g.drawImage(TextCache.getText(this, text, color), x, y, null);
   }
 
   public int getWidth(char c)
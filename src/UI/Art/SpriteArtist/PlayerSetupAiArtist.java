@@ -110,6 +110,10 @@ public class PlayerSetupAiArtist
     BufferedImage infoText = SpriteUIUtils.drawProseToWidth(aiOptions.get(highlightedAi).getDescription(), (aiInfoZoneWidth - nameplateHeight*2));
     myG.drawImage(infoText, (infoX+infoBuffer), (infoY+infoBuffer), null);
 
+    // Draw the time limit at the bottom of the frame.
+    BufferedImage budgetText = SpriteUIUtils.drawProseToWidth("< Time limit: " + control.getSelectedBudget() + " >", (aiInfoZoneWidth - nameplateHeight*2));
+    myG.drawImage(budgetText, (infoX+infoBuffer), (infoY+infoH-infoBuffer-budgetText.getHeight()), null);
+
     // Draw the composed image to the window at scale.
     g.drawImage(image, 0, 0, myWidth*drawScale, myHeight*drawScale, null);
   }
@@ -0,0 +1,95 @@
+package UI.Art.SpriteArtist;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.Image;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.awt.image.VolatileImage;
+
+/**
+ * Holds on to the off-screen image that a view composes each frame in, so we don't allocate a new
+ * screen-sized image every frame; it is only replaced when the frame size (or draw scale) changes.
+ * Where the platform allows it the frame is a VolatileImage, so composing it and scaling it up onto
+ * the window can stay on the graphics card. Otherwise (e.g. headless) it's a plain BufferedImage.
+ */
+class RenderTargets
+{
+  private final GraphicsConfiguration config = getScreenConfiguration();
+  private VolatileImage acceleratedFrame = null;
+  private BufferedImage softwareFrame = null;
+  private int frameWidth = 0;
+  private int frameHeight = 0;
+
+  /**
+   * Returns a Graphics for a cleared (transparent) frame of the given size, in unscaled pixels.
+   * The caller should dispose it once it's done drawing, then call drawFrame().
+   */
+  public Graphics2D beginFrame(int width, int height)
+  {
+    if( width != frameWidth || height != frameHeight )
+    {
+      frameWidth = width;
+      frameHeight = height;
+      acceleratedFrame = null;
+      softwareFrame = null;
+    }
+
+    Graphics2D g;
+    if( null != config )
+    {
+      if( null == acceleratedFrame || acceleratedFrame.validate(config) == VolatileImage.IMAGE_INCOMPATIBLE )
+        acceleratedFrame = config.createCompatibleVolatileImage(width, height, Transparency.TRANSLUCENT);
+      g = acceleratedFrame.createGraphics();
+    }
+    else
+    {
+      if( null == softwareFrame )
+        softwareFrame = SpriteLibrary.createTransparentSprite(width, height);
+      g = softwareFrame.createGraphics();
+    }
+
+    // Wipe last frame's contents.
+    g.setComposite(AlphaComposite.Clear);
+    g.fillRect(0, 0, width, height);
+    g.setComposite(AlphaComposite.SrcOver);
+    return g;
+  }
+
+  /**
+   * Draws the most recent frame onto g, scaled up by drawScale.
+   * @return False if the frame's contents were lost (e.g. the video memory was reclaimed), and it needs to be redrawn.
+   */
+  public boolean drawFrame(Graphics g, int drawScale)
+  {
+    Image frame = (null != acceleratedFrame) ? acceleratedFrame : softwareFrame;
+    if( null == frame || (null != acceleratedFrame && acceleratedFrame.contentsLost()) )
+      return false;
+    g.drawImage(frame, 0, 0, frameWidth * drawScale, frameHeight * drawScale, null);
+    return true;
+  }
+
+  /**
+   * Creates an image in the screen's native pixel format, so Java2D can cache it in video memory and blit it
+   * without converting. These are for images that persist and get drawn into, like the map canvas.
+   * @param transparency One of the java.awt.Transparency constants.
+   */
+  public static BufferedImage createCompatibleImage(int width, int height, int transparency)
+  {
+    GraphicsConfiguration config = getScreenConfiguration();
+    if( null == config )
+      return new BufferedImage(width, height,
+          (Transparency.OPAQUE == transparency) ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+    return config.createCompatibleImage(width, height, transparency);
+  }
+
+  private static GraphicsConfiguration getScreenConfiguration()
+  {
+    if( GraphicsEnvironment.isHeadless() )
+      return null;
+    return GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+  }
+}
@@ -0,0 +1,77 @@
+package UI.Art.SpriteArtist;
+
+import java.util.ArrayList;
+
+import AI.AICombatUtils;
+import Engine.GamePath;
+import Engine.Utils;
+import Engine.XYCoord;
+import Terrain.MapPerspective;
+import UI.GameOverlay;
+import UI.Art.SpriteArtist.SpriteOptions.SelectedUnitThreatAreaMode;
+import Units.Unit;
+import Units.UnitContext;
+import Units.WeaponModel;
+
+/**
+ * Builds the threat overlays for the unit the player is currently moving, and holds on to them until
+ * the unit, where it's headed, or the state of the map changes. Working out where a unit could shoot
+ * next turn means a full flood fill, which is far too slow to redo every frame on big maps.
+ */
+class SelectedUnitOverlays
+{
+  private ArrayList<GameOverlay> overlays = new ArrayList<GameOverlay>();
+
+  // What the cached overlays were built from.
+  private Unit lastActor = null;
+  private XYCoord lastCursor = null;
+  private XYCoord lastPathEnd = null;
+  private boolean lastMoved = false;
+  private MapPerspective lastMap = null;
+  private SelectedUnitThreatAreaMode lastMode = null;
+  private long lastEpoch = -1;
+
+  /**
+   * @param epoch Should change whenever the game state does (i.e. on every game event).
+   * @return The overlays to draw for actor if it were to move along path to cursorCoord. Do not modify.
+   */
+  public ArrayList<GameOverlay> get(MapPerspective gameMap, Unit actor, GamePath path, XYCoord cursorCoord, long epoch)
+  {
+    final SelectedUnitThreatAreaMode threatMode = SpriteOptions.getSelectedUnitThreatAreaMode();
+    final XYCoord pathEnd = path.getEndCoord();
+    final boolean moved = path.getPathLength() > 1; // Affects whether some weapons can fire.
+    if( actor == lastActor && cursorCoord.equals(lastCursor) && pathEnd.equals(lastPathEnd) && moved == lastMoved
+        && gameMap == lastMap && threatMode == lastMode && epoch == lastEpoch )
+      return overlays;
+
+    lastActor = actor;
+    lastCursor = cursorCoord;
+    lastPathEnd = pathEnd;
+    lastMoved = moved;
+    lastMap = gameMap;
+    lastMode = threatMode;
+    lastEpoch = epoch;
+    overlays = new ArrayList<GameOverlay>();
+
+    // Display what we can shoot next turn; this covers all of our weapons at once...
+    if( !actor.model.weapons.isEmpty()
+        && (threatMode == SelectedUnitThreatAreaMode.All || threatMode == SelectedUnitThreatAreaMode.Future) )
+      overlays.add(new GameOverlay(null,
+                   AICombatUtils.findThreatPower(gameMap, actor, cursorCoord, null).keySet(),
+                   OverlayArtist.FIRE_FILL, OverlayArtist.LATER_FIRE_EDGE));
+
+    // ...and this turn's targets on top
+    if( threatMode == SelectedUnitThreatAreaMode.All || threatMode == SelectedUnitThreatAreaMode.Current )
+      for( WeaponModel w : actor.model.weapons )
+        if( w.canFireAfterMoving || !moved )
+        {
+          UnitContext uc = new UnitContext(gameMap, actor, w, path, cursorCoord);
+          overlays.add(new GameOverlay(null,
+                       Utils.findLocationsInRange(gameMap, cursorCoord,
+                                                  (1 == uc.rangeMin)? 0 : uc.rangeMin, uc.rangeMax),
+                       OverlayArtist.FIRE_FILL, OverlayArtist.NOW_FIRE_EDGE));
+        }
+
+    return overlays;
+  }
+}
@@ -1,9 +1,15 @@
 package UI.Art.SpriteArtist;
 
 import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.awt.image.SinglePixelPackedSampleModel;
 import java.awt.image.WritableRaster;
 import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.Map;
 
 /**
  * Holds a collection of related images, e.g. an animation sequence.
@@ -11,6 +17,8 @@ import java.util.ArrayList;
 public class Sprite
 {
   private ArrayList<BufferedImage> spriteImages;
+  /** Where each frame lives in its atlas, once packed; entries are null for frames that wouldn't fit. */
+  private ArrayList<SpriteAtlas.Region> packedFrames = null;
 
   public Sprite(BufferedImage baseSprite)
   {
@@ -107,104 +115,270 @@ public class Sprite
   public void addFrame(BufferedImage sprite)
   {
     spriteImages.add(sprite);
+    if( null != packedFrames )
+      packedFrames.add(null);
   }
 
   public BufferedImage getFrame(int index)
+  {
+    return spriteImages.get(wrapIndex(index));
+  }
+
+  private int wrapIndex(int index)
   {
     index = index % spriteImages.size();
     if( 0 > index )
       index += spriteImages.size();
-    return spriteImages.get(index);
+    return index;
   }
 
   /**
-   * For every image contained in this sprite, change each pixel with a value in oldColors to the corresponding value in newColors.
+   * Moves this sprite's frames into the given atlas, so they can be drawn straight from it.
+   * getFrame() still works afterward; it returns a view into the atlas page.
+   * This should be done once the sprite is finished; packing an already-packed sprite does nothing.
    */
-  public void colorize(Color[] oldColors, Color[] newColors)
+  public void packInto(SpriteAtlas atlas)
   {
-    for( BufferedImage bi : spriteImages )
+    if( null != packedFrames )
+      return;
+    packedFrames = new ArrayList<SpriteAtlas.Region>();
+    for( int i = 0; i < spriteImages.size(); ++i )
     {
-      for( int x = 0; x < bi.getWidth(); ++x )
-      {
-        for( int y = 0; y < bi.getHeight(); ++y )
-        {
-          int colorValue = bi.getRGB(x, y);
-          for( int c = 0; c < oldColors.length; ++c )
-          {
-            if( oldColors[c].getRGB() == colorValue )
-            {
-              bi.setRGB(x, y, newColors[c].getRGB());
-            }
-          }
-        }
-      }
+      SpriteAtlas.Region region = atlas.add(spriteImages.get(i));
+      if( null != region )
+        spriteImages.set(i, region.asImage());
+      packedFrames.add(region);
     }
   }
 
+  /** Draws the given frame at its natural size. */
+  public void drawFrame(Graphics g, int index, int drawX, int drawY)
+  {
+    BufferedImage frame = getFrame(index);
+    drawFrame(g, index, drawX, drawY, frame.getWidth(), frame.getHeight());
+  }
+
+  /**
+   * Draws the given frame stretched to drawW x drawH; a negative drawW flips it horizontally, extending left from drawX.
+   * Packed frames are drawn as a piece of their atlas page.
+   */
+  public void drawFrame(Graphics g, int index, int drawX, int drawY, int drawW, int drawH)
+  {
+    index = wrapIndex(index);
+    SpriteAtlas.Region region = (null == packedFrames) ? null : packedFrames.get(index);
+    if( null != region )
+      region.draw(g, drawX, drawY, drawW, drawH);
+    else
+      g.drawImage(spriteImages.get(index), drawX, drawY, drawW, drawH, null);
+  }
+
+  /**
+   * For every image contained in this sprite, change each pixel with a value in oldColors to the corresponding value in newColors.
+   */
+  public void colorize(Color[] oldColors, Color[] newColors)
+  {
+    ColorSwapTable swaps = new ColorSwapTable(oldColors.length);
+    for( int c = 0; c < oldColors.length; ++c )
+      swaps.put(oldColors[c].getRGB(), newColors[c].getRGB());
+    recolor(swaps);
+  }
+
   /**
    * For every image contained in this sprite, change each oldColor pixel to newColor.
    */
   public void colorize(Color oldColor, Color newColor)
   {
-    for( BufferedImage bi : spriteImages )
+    ColorSwapTable swaps = new ColorSwapTable(1);
+    swaps.put(oldColor.getRGB(), newColor.getRGB());
+    recolor(swaps);
+  }
+
+  /**
+   * Convert any non-transparent pixels in this Sprite to the given maskColor.
+   */
+  public void convertToMask(final Color maskColor)
+  {
+    final int mask = maskColor.getRGB();
+    forEachPixel(new PixelFilter()
     {
-      for( int x = 0; x < bi.getWidth(); ++x )
+      @Override
+      public int apply(int argb)
       {
-        for( int y = 0; y < bi.getHeight(); ++y )
-        {
-          int colorValue = bi.getRGB(x, y);
-          if( oldColor.getRGB() == colorValue )
-          {
-            bi.setRGB(x, y, newColor.getRGB());
-          }
-        }
+        return (0 == (argb >>> 24)) ? argb : mask;
       }
-    }
+    });
+  }
+
+  public void convertToInverseBrightnessMask(final Color maskColor)
+  {
+    final int maskRGB = maskColor.getRGB() & 0x00FFFFFF;
+    forEachPixel(new PixelFilter()
+    {
+      @Override
+      public int apply(int argb)
+      {
+        if( 0 == (argb >>> 24) )
+          return argb;
+        double scaledBrightness = (((argb >> 16) & 0xFF) + ((argb >> 8) & 0xFF) + (argb & 0xFF)) / 3.0;
+        scaledBrightness = Math.min(255, scaledBrightness * 1.5);
+        // Mask alpha == inverse of the pixel brightness
+        int alpha = (int) (255 - scaledBrightness);
+        return (alpha << 24) | maskRGB;
+      }
+    });
+  }
+
+  private void recolor(final ColorSwapTable swaps)
+  {
+    forEachPixel(new PixelFilter()
+    {
+      @Override
+      public int apply(int argb)
+      {
+        return swaps.get(argb);
+      }
+    });
+  }
+
+  /** Maps one ARGB pixel value to another. */
+  private interface PixelFilter
+  {
+    int apply(int argb);
   }
 
   /**
-   * Convert any non-transparent pixels in this Sprite to the given maskColor.
+   * Runs every pixel of every frame through the filter once.
+   * Frames cut from the same sprite sheet share its pixel buffer, so where we can, we work on that
+   * buffer directly and cover all of the sheet's frames in one sweep instead of going frame by frame.
    */
-  public void convertToMask(Color maskColor)
+  private void forEachPixel(PixelFilter filter)
   {
+    // Gather the frames by the buffer they live in; anything that isn't plain ARGB ints goes the slow way.
+    IdentityHashMap<DataBufferInt, ArrayList<BufferedImage>> sheets = new IdentityHashMap<>();
     for( BufferedImage bi : spriteImages )
     {
-      WritableRaster raster = bi.getRaster();
-      double mask[] = {maskColor.getRed(), maskColor.getGreen(), maskColor.getBlue(), maskColor.getAlpha() };
-      for( int x = 0; x < bi.getWidth(); ++x )
+      if( bi.getType() == BufferedImage.TYPE_INT_ARGB && bi.getRaster().getSampleModel() instanceof SinglePixelPackedSampleModel )
       {
-        for( int y = 0; y < bi.getHeight(); ++y )
+        DataBufferInt buffer = (DataBufferInt) bi.getRaster().getDataBuffer();
+        ArrayList<BufferedImage> frames = sheets.get(buffer);
+        if( null == frames )
         {
-          double[] pixel = new double[4];
-          raster.getPixel(x, y, pixel);
-          if( pixel[3] != 0 ) raster.setPixel(x, y, mask);
+          frames = new ArrayList<>();
+          sheets.put(buffer, frames);
         }
+        frames.add(bi);
       }
+      else
+        filterSlowly(bi, filter);
     }
-  }
 
-  public void convertToInverseBrightnessMask(Color maskColor)
-  {
-    for( BufferedImage bi : spriteImages )
+    for( Map.Entry<DataBufferInt, ArrayList<BufferedImage>> sheet : sheets.entrySet() )
     {
-      WritableRaster raster = bi.getRaster();
-      double mask[] = {maskColor.getRed(), maskColor.getGreen(), maskColor.getBlue(), maskColor.getAlpha() };
-      for( int x = 0; x < bi.getWidth(); ++x )
+      int[] pixels = sheet.getKey().getData();
+      int bufferOffset = sheet.getKey().getOffset();
+      ArrayList<BufferedImage> frames = sheet.getValue();
+
+      // If the frames tile a rectangle exactly (as they do when cut from a strip), sweep that rectangle in one go.
+      int stride = ((SinglePixelPackedSampleModel) frames.get(0).getRaster().getSampleModel()).getScanlineStride();
+      Rectangle union = null;
+      long frameArea = 0;
+      boolean sameLayout = true;
+      for( BufferedImage bi : frames )
       {
-        for( int y = 0; y < bi.getHeight(); ++y )
-        {
-          double[] pixel = new double[4];
-          raster.getPixel(x, y, pixel);
-          if( pixel[3] == 0 )
-            continue;
-          double scaledBrightness = (pixel[0] + pixel[1] + pixel[2]) / 3;
-          scaledBrightness = Math.min(255, scaledBrightness * 1.5);
-          // Mask alpha == inverse of the pixel brightness
-          mask[3] = 255 - scaledBrightness;
-          raster.setPixel(x, y, mask);
-        }
+        Rectangle r = bufferBounds(bi);
+        union = (null == union) ? r : union.union(r);
+        frameArea += (long) r.width * r.height;
+        sameLayout &= stride == ((SinglePixelPackedSampleModel) bi.getRaster().getSampleModel()).getScanlineStride();
       }
+      if( sameLayout && frameArea == (long) union.width * union.height )
+        filterRegion(pixels, bufferOffset, stride, union, filter);
+      else
+        for( BufferedImage bi : frames )
+          filterRegion(pixels, bufferOffset,
+              ((SinglePixelPackedSampleModel) bi.getRaster().getSampleModel()).getScanlineStride(), bufferBounds(bi), filter);
+    }
+  }
+
+  /** Where this image's pixels sit within its (possibly shared) buffer. */
+  private static Rectangle bufferBounds(BufferedImage bi)
+  {
+    WritableRaster raster = bi.getRaster();
+    return new Rectangle(raster.getMinX() - raster.getSampleModelTranslateX(), raster.getMinY() - raster.getSampleModelTranslateY(),
+        raster.getWidth(), raster.getHeight());
+  }
+
+  private static void filterRegion(int[] pixels, int bufferOffset, int stride, Rectangle region, PixelFilter filter)
+  {
+    for( int y = region.y; y < region.y + region.height; ++y )
+    {
+      int rowStart = bufferOffset + y * stride + region.x;
+      for( int i = rowStart; i < rowStart + region.width; ++i )
+        pixels[i] = filter.apply(pixels[i]);
     }
   }
 
+  private static void filterSlowly(BufferedImage bi, PixelFilter filter)
+  {
+    int w = bi.getWidth(), h = bi.getHeight();
+    int[] pixels = bi.getRGB(0, 0, w, h, null, 0, w);
+    for( int i = 0; i < pixels.length; ++i )
+      pixels[i] = filter.apply(pixels[i]);
+    bi.setRGB(0, 0, w, h, pixels, 0, w);
+  }
+
+  /**
+   * A small open-addressed map from ARGB values to replacement ARGB values; colors not in the table map to themselves.
+   * Palettes are only a handful of colors, so this stays tiny, and it remembers the last lookup since sprites
+   * tend to have long runs of the same color (mostly transparency).
+   */
+  private static class ColorSwapTable
+  {
+    private final int[] keys;
+    private final int[] values;
+    private final boolean[] used;
+    private final int mask;
+    private int lastKey;
+    private int lastValue;
+
+    ColorSwapTable(int expectedSize)
+    {
+      int capacity = Integer.highestOneBit(Math.max(2, expectedSize * 4) - 1) << 1;
+      keys = new int[capacity];
+      values = new int[capacity];
+      used = new boolean[capacity];
+      mask = capacity - 1;
+      lastKey = 0;
+      lastValue = 0; // Transparent black has no mapping unless we're given one.
+    }
+
+    /** Later entries for the same color replace earlier ones. */
+    void put(int from, int to)
+    {
+      int slot = slotFor(from);
+      keys[slot] = from;
+      values[slot] = to;
+      used[slot] = true;
+      if( from == lastKey )
+        lastValue = to;
+    }
+
+    int get(int from)
+    {
+      if( from == lastKey )
+        return lastValue;
+      int slot = slotFor(from);
+      int to = used[slot] ? values[slot] : from;
+      lastKey = from;
+      lastValue = to;
+      return to;
+    }
+
+    private int slotFor(int key)
+    {
+      int slot = (key * 0x9E3779B9) >>> 16 & mask;
+      while (used[slot] && keys[slot] != key)
+        slot = (slot + 1) & mask;
+      return slot;
+    }
+  }
 }
@@ -0,0 +1,109 @@
+package UI.Art.SpriteArtist;
+
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.ArrayList;
+
+/**
+ * Packs many small sprite frames into a few large page images.
+ * Java2D caches each image it draws separately (in video memory, where available), so thousands of
+ * little frames mean thousands of little textures; drawing pieces of a few big pages instead lets
+ * it keep those pages cached, and lets consecutive draws from the same page share a texture.
+ * Pages are only ever written through their rasters, never by grabbing the underlying pixel array,
+ * so Java2D is free to keep caching them.
+ */
+class SpriteAtlas
+{
+  private static final int PAGE_SIZE = 1024;
+
+  /** One packed frame: which page it's on, and where. */
+  static class Region
+  {
+    final BufferedImage page;
+    final int x, y, width, height;
+
+    Region(BufferedImage page, int x, int y, int width, int height)
+    {
+      this.page = page;
+      this.x = x;
+      this.y = y;
+      this.width = width;
+      this.height = height;
+    }
+
+    /** A view of just this frame. It shares the page's pixels, so drawing into it draws into the page. */
+    BufferedImage asImage()
+    {
+      return page.getSubimage(x, y, width, height);
+    }
+
+    /**
+     * Draws this frame with its top-left at (dx, dy), stretched to dw x dh.
+     * A negative dw draws it flipped horizontally, extending left from dx.
+     */
+    void draw(Graphics g, int dx, int dy, int dw, int dh)
+    {
+      g.drawImage(page, dx, dy, dx + dw, dy + dh, x, y, x + width, y + height, null);
+    }
+  }
+
+  /** A row of frames of the same height, filled left to right. */
+  private static class Shelf
+  {
+    final BufferedImage page;
+    final int y, height;
+    int nextX = 0;
+
+    Shelf(BufferedImage page, int y, int height)
+    {
+      this.page = page;
+      this.y = y;
+      this.height = height;
+    }
+  }
+
+  private final ArrayList<BufferedImage> pages = new ArrayList<BufferedImage>();
+  private final ArrayList<Shelf> shelves = new ArrayList<Shelf>();
+  private int nextShelfY = PAGE_SIZE; // Forces a new page on the first add.
+
+  /**
+   * Copies frame into the atlas.
+   * @return Where it went, or null if it's too big to pack.
+   */
+  public synchronized Region add(BufferedImage frame)
+  {
+    int w = frame.getWidth(), h = frame.getHeight();
+    if( w > PAGE_SIZE || h > PAGE_SIZE )
+      return null;
+
+    Shelf shelf = null;
+    for( Shelf s : shelves )
+      if( s.height == h && s.nextX + w <= PAGE_SIZE )
+      {
+        shelf = s;
+        break;
+      }
+    if( null == shelf )
+    {
+      if( nextShelfY + h > PAGE_SIZE )
+      {
+        // Out of room on this page. Shelves on the old page stay around to catch frames that still fit.
+        pages.add(new BufferedImage(PAGE_SIZE, PAGE_SIZE, BufferedImage.TYPE_INT_ARGB));
+        nextShelfY = 0;
+      }
+      shelf = new Shelf(pages.get(pages.size() - 1), nextShelfY, h);
+      shelves.add(shelf);
+      nextShelfY += h;
+    }
+
+    Region region = new Region(shelf.page, shelf.nextX, shelf.y, w, h);
+    shelf.nextX += w;
+    region.page.getRaster().setDataElements(region.x, region.y, w, h, frame.getRGB(0, 0, w, h, null, 0, w));
+    return region;
+  }
+
+  public synchronized int getPageCount()
+  {
+    return pages.size();
+  }
+}
@@ -0,0 +1,161 @@
+package UI.Art.SpriteArtist;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Keeps finished sprites on disk, so later launches can skip decoding and recoloring the source images.
+ * Each entry is stamped with the state of the files it was built from; if those change, the entry is ignored
+ * and rebuilt. Sprites are stored as raw ARGB so loading them is just a copy.
+ */
+class SpriteCache
+{
+  private static final String CACHE_DIR = "cache/sprites/";
+  private static final int MAGIC = 0x44505343; // "DPSC"
+  private static final int FORMAT_VERSION = 1;
+
+  /** What we get back out of the cache. */
+  static class Entry
+  {
+    /** Whatever extra bits the owner wanted saved alongside its sprites. */
+    final int flags;
+    /** May contain nulls, if nulls were saved. */
+    final Sprite[] sprites;
+
+    Entry(int flags, Sprite[] sprites)
+    {
+      this.flags = flags;
+      this.sprites = sprites;
+    }
+  }
+
+  /**
+   * Describes the current state of the given files (size and modification time), so we can tell when they change.
+   * Missing files are part of the description too.
+   */
+  static long stampFiles(String[] filenames)
+  {
+    long stamp = FORMAT_VERSION;
+    for( String filename : filenames )
+    {
+      File file = new File(filename);
+      stamp = stamp * 31 + filename.hashCode();
+      stamp = stamp * 31 + (file.isFile() ? file.length() * 1000003 + file.lastModified() : -1);
+    }
+    return stamp;
+  }
+
+  /** Turns an arbitrary key into something that's safe to use as a file name. */
+  static String toFileName(String key)
+  {
+    return CACHE_DIR + key.replaceAll("[^A-Za-z0-9_.-]", "_") + ".spr";
+  }
+
+  /**
+   * @return The sprites saved under this key, or null if there is no entry or it was built from different files.
+   */
+  static Entry read(String key, long sourceStamp)
+  {
+    File file = new File(toFileName(key));
+    if( !file.isFile() )
+      return null;
+
+    try
+    {
+      ByteBuffer bytes = ByteBuffer.wrap(Files.readAllBytes(file.toPath()));
+      if( bytes.getInt() != MAGIC || bytes.getInt() != FORMAT_VERSION || bytes.getLong() != sourceStamp )
+        return null;
+      int flags = bytes.getInt();
+      Sprite[] sprites = new Sprite[bytes.getInt()];
+      for( int s = 0; s < sprites.length; ++s )
+      {
+        int numFrames = bytes.getInt();
+        int frameWidth = bytes.getInt();
+        int frameHeight = bytes.getInt();
+        if( 0 == numFrames )
+          continue;
+
+        // Rebuild the sheet, then cut it into frames the same way a freshly-loaded sheet would be.
+        BufferedImage sheet = new BufferedImage(frameWidth * numFrames, frameHeight, BufferedImage.TYPE_INT_ARGB);
+        int[] pixels = ((DataBufferInt) sheet.getRaster().getDataBuffer()).getData();
+        IntBuffer source = bytes.asIntBuffer();
+        source.get(pixels);
+        bytes.position(bytes.position() + pixels.length * Integer.BYTES);
+        sprites[s] = new Sprite(sheet, frameWidth, frameHeight);
+      }
+      return new Entry(flags, sprites);
+    }
+    catch (IOException | RuntimeException e)
+    {
+      // A truncated or otherwise bad entry just means we build the sprites from scratch.
+      System.out.println("WARNING: Could not read sprite cache entry " + file + ": " + e);
+      return null;
+    }
+  }
+
+  /**
+   * Saves the given sprites under key. Every frame of a Sprite must be the same size; if any aren't, we don't save anything.
+   */
+  static void write(String key, long sourceStamp, int flags, Sprite[] sprites)
+  {
+    int size = Integer.BYTES * 4 + Long.BYTES;
+    for( Sprite sprite : sprites )
+    {
+      size += Integer.BYTES * 3;
+      if( null == sprite )
+        continue;
+      int frameWidth = sprite.getFrame(0).getWidth();
+      int frameHeight = sprite.getFrame(0).getHeight();
+      for( int f = 0; f < sprite.numFrames(); ++f )
+        if( sprite.getFrame(f).getWidth() != frameWidth || sprite.getFrame(f).getHeight() != frameHeight )
+          return;
+      size += Integer.BYTES * frameWidth * frameHeight * sprite.numFrames();
+    }
+
+    ByteBuffer bytes = ByteBuffer.allocate(size);
+    bytes.putInt(MAGIC).putInt(FORMAT_VERSION).putLong(sourceStamp).putInt(flags).putInt(sprites.length);
+    for( Sprite sprite : sprites )
+    {
+      if( null == sprite )
+      {
+        bytes.putInt(0).putInt(0).putInt(0);
+        continue;
+      }
+      int numFrames = sprite.numFrames();
+      int frameWidth = sprite.getFrame(0).getWidth();
+      int frameHeight = sprite.getFrame(0).getHeight();
+      bytes.putInt(numFrames).putInt(frameWidth).putInt(frameHeight);
+
+      // Lay the frames out side by side, as a sprite sheet.
+      int sheetWidth = frameWidth * numFrames;
+      int[] pixels = new int[sheetWidth * frameHeight];
+      for( int f = 0; f < numFrames; ++f )
+        sprite.getFrame(f).getRGB(0, 0, frameWidth, frameHeight, pixels, f * frameWidth, sheetWidth);
+      bytes.asIntBuffer().put(pixels);
+      bytes.position(bytes.position() + pixels.length * Integer.BYTES);
+    }
+
+    // Write to a temporary file first, so nobody ever reads a half-written entry.
+    File file = new File(toFileName(key));
+    File temp = null;
+    try
+    {
+      file.getParentFile().mkdirs();
+      temp = File.createTempFile("sprite", ".tmp", file.getParentFile());
+      Files.write(temp.toPath(), bytes.array());
+      Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+    catch (IOException e)
+    {
+      System.out.println("WARNING: Could not write sprite cache entry " + file + ": " + e);
+      if( null != temp )
+        temp.delete();
+    }
+  }
+}
@@ -84,6 +84,23 @@ public class SpriteCursor
     draw(g, xPos.geti(), yPos.geti(), width.geti(), height.geti(), color);
   }
 
+  /** Returns true if the cursor is still sliding into place. */
+  public boolean isMoving()
+  {
+    return xPos.moving() || yPos.moving() || width.moving() || height.moving();
+  }
+
+  /** Returns a value that changes whenever the cursor's bump animation moves to a new frame. */
+  public static int getAnimFrame()
+  {
+    boolean[] offs = getSpriteOffsets();
+    int frame = 0;
+    for( int i = 0; i < offs.length; ++i )
+      if( offs[i] )
+        frame |= 1 << i;
+    return frame;
+  }
+
   private static boolean[] getSpriteOffsets()
   {
     long currentTime = System.currentTimeMillis();
@@ -8,10 +8,15 @@ import java.io.File;
 import java.io.IOException;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import javax.imageio.ImageIO;
 
 import CommandingOfficers.Commander;
+import Engine.Army;
+import Engine.GameInstance;
 import Terrain.MapLocation;
 import Terrain.TerrainType;
 import UI.UIUtils;
@@ -33,8 +38,16 @@ public class SpriteLibrary
   public static final String charKey = "%./-~,;:!?'&()_";
   public static final String DEFAULT_FACTION = "Thorn";
 
-  private static HashMap<SpriteSetKey, TerrainSpriteSet> spriteSetMap = new HashMap<SpriteSetKey, TerrainSpriteSet>();
-  private static HashMap<UnitSpriteSetKey, UnitSpriteSet> mapUnitSpriteSetMap = new HashMap<UnitSpriteSetKey, UnitSpriteSet>();
+  // Sprite sets can be built by background threads (see warmUpSprites), so these need to be safe to share.
+  private static Map<SpriteSetKey, TerrainSpriteSet> spriteSetMap = new ConcurrentHashMap<SpriteSetKey, TerrainSpriteSet>();
+  private static Map<UnitSpriteSetKey, UnitSpriteSet> mapUnitSpriteSetMap = new ConcurrentHashMap<UnitSpriteSetKey, UnitSpriteSet>();
+  private static ExecutorService spriteWarmers = null;
+
+  // Finished map sprites are packed into these, one per layer, so they draw from a few big images.
+  static final SpriteAtlas terrainAtlas = new SpriteAtlas();
+  static final SpriteAtlas unitAtlas = new SpriteAtlas();
+  // Text is assembled from glyphs kept here; see TextCache.
+  static final SpriteAtlas glyphAtlas = new SpriteAtlas();
 
   // Sprites to hold the images for drawing tentative moves on the map.
   private static Sprite moveCursorLineSprite = null;
@@ -89,7 +102,7 @@ public class SpriteLibrary
     {
       File imgFile = new File(filename);
       if( imgFile.exists() && !imgFile.isDirectory() )
-        bi = ImageIO.read(imgFile);
+        bi = toIntARGB(ImageIO.read(imgFile));
       // Missing sprites are common (e.g. for units with missing animations),
       // and normally benign, so don't print a warning.
     }
@@ -101,6 +114,20 @@ public class SpriteLibrary
     return bi;
   }
 
+  /**
+   * PNGs generally load as byte-per-channel images; switch them to packed ints so Sprite can
+   * recolor them in place. The pixel values are copied exactly, transparent ones included.
+   */
+  private static BufferedImage toIntARGB(BufferedImage bi)
+  {
+    if( null == bi || BufferedImage.TYPE_INT_ARGB == bi.getType() )
+      return bi;
+    int w = bi.getWidth(), h = bi.getHeight();
+    BufferedImage converted = new BufferedImage(w, h, BufferedImage.TYPE_INT_ARGB);
+    converted.setRGB(0, 0, w, h, bi.getRGB(0, 0, w, h, null, 0, w), 0, w);
+    return converted;
+  }
+
   /**
    * Retrieve (loading if needed) the sprites associated with the given terrain type. For ownable terrain types
    * (e.g. cities), the unowned variant of the sprite will be returned.
@@ -252,7 +279,7 @@ public class SpriteLibrary
       commanderKey = spec;
     }
 
-    public static SpriteSetKey instance(TerrainType terrain, COSpriteSpec spec)
+    public static synchronized SpriteSetKey instance(TerrainType terrain, COSpriteSpec spec)
     {
       int hash = myHash(terrain, spec);
       SpriteSetKey key = instances.getOrDefault(hash, null);
@@ -295,7 +322,7 @@ public class SpriteLibrary
       spriteSpec = new COSpriteSpec(faction, color);
     }
 
-    public static UnitSpriteSetKey instance(String unitType, Faction faction, Color color)
+    public static synchronized UnitSpriteSetKey instance(String unitType, Faction faction, Color color)
     {
       String stdType = UnitModel.standardizeID(unitType);
       int hash = myHash(stdType, faction, color);
@@ -327,19 +354,44 @@ public class SpriteLibrary
   public static UnitSpriteSet getMapUnitSpriteSet(String type, Faction faction, Color color)
   {
     UnitSpriteSetKey key = UnitSpriteSetKey.instance(type, faction, color);
-    if( !mapUnitSpriteSetMap.containsKey(key) )
-    {
-      // We don't have it? Go load it.
-      createMapUnitSpriteSet(key);
-    }
-    // We either found it or created it; it had better be there.
-    return mapUnitSpriteSetMap.get(key);
+    // We don't have it? Go load it. If a warm-up thread is already on it, this waits for that instead.
+    return mapUnitSpriteSetMap.computeIfAbsent(key, SpriteLibrary::createMapUnitSpriteSet);
+  }
+
+  private static UnitSpriteSet createMapUnitSpriteSet(UnitSpriteSetKey key)
+  {
+    return new UnitSpriteSet( key.unitTypeKey, key.spriteSpec.faction, UIUtils.getMapUnitColors(key.spriteSpec.color) );
   }
 
-  private static void createMapUnitSpriteSet(UnitSpriteSetKey key)
+  /**
+   * Starts building the map sprites for every unit each army can field on background threads,
+   * so units don't cause a hitch the first time they show up on screen.
+   */
+  public static synchronized void warmUpSprites(GameInstance game)
   {
-    UnitSpriteSet spriteSet = new UnitSpriteSet( key.unitTypeKey, key.spriteSpec.faction, UIUtils.getMapUnitColors(key.spriteSpec.color) );
-    mapUnitSpriteSetMap.put(key, spriteSet);
+    if( null == spriteWarmers )
+    {
+      int numThreads = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+      spriteWarmers = Executors.newFixedThreadPool(numThreads, runnable -> {
+        Thread thread = new Thread(runnable, "SpriteWarmer");
+        thread.setDaemon(true); // Don't hold up exiting the game.
+        thread.setPriority(Thread.MIN_PRIORITY);
+        return thread;
+      });
+    }
+
+    for( Army army : game.armies )
+      for( Commander co : army.cos )
+      {
+        final Faction faction = co.faction;
+        final Color color = co.myColor;
+        UIUtils.getMapUnitColors(color); // Make sure the palettes are set up before anyone else goes looking.
+        for( UnitModel model : co.unitModels )
+        {
+          final String type = model.name;
+          spriteWarmers.submit(() -> getMapUnitSpriteSet(type, faction, color));
+        }
+      }
   }
 
   public static Sprite getMapUnitNumberSprites()
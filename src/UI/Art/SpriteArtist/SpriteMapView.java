@@ -3,23 +3,29 @@ package UI.Art.SpriteArtist;
 import java.awt.Color;
 import java.awt.Dimension;
 import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.Transparency;
 import java.awt.image.BufferedImage;
+import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.Queue;
 
-import AI.AICombatUtils;
 import Engine.Army;
 import Engine.Driver;
 import Engine.GameInstance;
 import Engine.GamePath;
 import Engine.OverlayCache;
-import Engine.Utils;
 import Engine.XYCoord;
 import Engine.Combat.BattleSummary;
 import Engine.Combat.DamagePopup;
 import Engine.Combat.StrikeParams;
 import Engine.GameEvents.GameEvent;
+import Engine.GameEvents.GameEventListener;
+import Engine.GameEvents.GameEventListener.CacheInvalidationListener;
 import Engine.GameEvents.GameEventQueue;
 import Terrain.GameMap;
 import Terrain.MapPerspective;
@@ -34,13 +40,11 @@ import UI.Art.Animation.NoAnimation;
 import UI.Art.Animation.NobunagaBattleAnimation;
 import UI.Art.Animation.ResupplyAnimation;
 import UI.Art.Animation.TurnInitAnimation;
-import UI.Art.SpriteArtist.SpriteOptions.SelectedUnitThreatAreaMode;
 import UI.Art.SpriteArtist.Backgrounds.DiagonalBlindsBG;
+import UI.Art.SpriteArtist.FrameProfiler.Stage;
 import UI.Art.Animation.AirDropAnimation;
 import UI.Art.Animation.MoveAnimation;
 import Units.Unit;
-import Units.UnitContext;
-import Units.WeaponModel;
 
 public class SpriteMapView extends MapView
 {
@@ -50,6 +54,25 @@ public class SpriteMapView extends MapView
   // onto their absolute locations on this image, and then the relevant portion
   // of this image is drawn to the screen.
   private BufferedImage mapImage = null;
+  // The screen-sized image that the visible part of mapImage and the HUD are composed onto each frame.
+  private RenderTargets screenTargets = new RenderTargets();
+
+  // mapImage persists between frames, so we only redraw the tiles that have changed.
+  private DirtyTileGrid dirtyTiles;
+  private RepaintListener repaintListener;
+  private MapPerspective lastDrawnMap = null;
+  private int lastAnimIndex = -1;
+  private int lastCursorFrame = -1;
+  // Tiles (in tile units) we drew over with the cursor, menus, animations, etc.; these get cleaned up next frame.
+  private ArrayList<Rectangle> lastTransientTiles = new ArrayList<Rectangle>();
+  private HashSet<XYCoord> lastOverlayTiles = new HashSet<XYCoord>();
+  private ArrayList<XYCoord> lastActorTiles = new ArrayList<XYCoord>();
+  private boolean pulsingUnitsShown = false;
+  private boolean repaintRequested = true;
+  // Counts game events, so we can tell when cached drawing state has gone stale.
+  private long gameStateEpoch = 0;
+  private SelectedUnitOverlays selectedUnitOverlays = new SelectedUnitOverlays();
+  private FrameProfiler profiler = new FrameProfiler();
 
   private MapArtist mapArtist;
   private UnitArtist unitArtist;
@@ -84,9 +107,17 @@ public class SpriteMapView extends MapView
   public SpriteMapView(GameInstance game)
   {
     // Create an initial image that can contain the entire map.
-    mapImage = SpriteLibrary.createDefaultBlankSprite(
+    mapImage = RenderTargets.createCompatibleImage(
         SpriteLibrary.baseSpriteSize * game.gameMap.mapWidth,
-        SpriteLibrary.baseSpriteSize * game.gameMap.mapHeight);
+        SpriteLibrary.baseSpriteSize * game.gameMap.mapHeight,
+        Transparency.OPAQUE);
+
+    dirtyTiles = new DirtyTileGrid(game.gameMap.mapWidth, game.gameMap.mapHeight);
+    repaintListener = new RepaintListener(this);
+    GameEventListener.registerEventListener(repaintListener, game);
+
+    // Get the unit sprites built in the background while we set up the rest of the view.
+    SpriteLibrary.warmUpSprites(game);
 
     mapArtist = new MapArtist(game);
     MapTileDetailsArtist.register(game);
@@ -134,11 +165,38 @@ public class SpriteMapView extends MapView
     SpriteOptions.setScreenDimensions(width, height);
 
     dimensionsChanged = true; // Let render() know that the window was resized.
+    repaintRequested = true;
+  }
+
+  @Override
+  public boolean needsRepaint()
+  {
+    // Anything that has changed or is in motion needs a new frame. Tiles are often left dirty
+    // off-screen, so dirtyTiles doesn't tell us anything here; game events set repaintRequested.
+    if( repaintRequested || null != currentAnimation )
+      return true;
+    if( null != mapController && (null != mapController.getContemplatedActor() || null != getCurrentGameMenu()) )
+      return true;
+    if( mapViewDrawX.moving() || mapViewDrawY.moving() || mapArtist.spriteCursor.isMoving() )
+      return true;
+
+    // Overlays and buffed units pulse constantly, and the background drifts if the map doesn't cover it.
+    if( !lastOverlayTiles.isEmpty() || pulsingUnitsShown )
+      return true;
+    if( mapViewWidth > mapImage.getWidth() || mapViewHeight > mapImage.getHeight() )
+      return true;
+    for( Army army : myGame.armies )
+      if( !army.isDefeated && CommanderOverlayArtist.isAnimating(army) )
+        return true;
+
+    // Otherwise, we only need to keep up with the sprite animations.
+    return getAnimIndex() != lastAnimIndex || SpriteCursor.getAnimFrame() != lastCursorFrame;
   }
 
   @Override
   public void animate(GameEventQueue newEvents)
   {
+    repaintRequested = true;
     if( null != newEvents )
     {
       eventsToAnimate.addAll(newEvents);
@@ -210,8 +268,9 @@ public class SpriteMapView extends MapView
    * Draw the background, the map, and any visible units/map animations/etc.
    * @param mapGraphics The Graphics object for the Map image. Drawn elements
    * can be drawn based on map-tile locations.
+   * The result is composed in screenTargets, ready to be drawn to the window.
    */
-  private BufferedImage renderMap()
+  private void renderMap()
   {
     final MapPerspective gameMap = getDrawableMap(myGame);
     
@@ -253,14 +312,11 @@ public class SpriteMapView extends MapView
     final GamePath currentPath = mapController.getContemplatedMove();
     final boolean isTargeting = mapController.isTargeting();
 
-    // Start actually drawing things
-    mapArtist.drawBaseTerrain(mapGraphics, gameMap, drawX, drawY, mapViewWidth, mapViewHeight);
-
     // Update the central sprite indices so animations happen in sync.
     final int animIndex = getAnimIndex();
-
-    // Draw units, buildings, trees, etc.
-    drawUnitsAndMapObjects(mapGraphics, gameMap, animIndex);
+    ArrayList<Unit> actors = null;
+    if( null != currentAnimation )
+      actors = currentAnimation.getActors();
 
     // Apply any relevant map highlights.
     ArrayList<GameOverlay> overlays = OverlayCache.instance(myGame).getNormalOverlays(mapController.getOverlayMode(), gameMap);
@@ -274,48 +330,43 @@ public class SpriteMapView extends MapView
 
     // Highlight our currently-selected unit's range on top of everything else
     if( null != currentPath && null != currentActor && !mapController.isTargeting() )
+      overlays.addAll(selectedUnitOverlays.get(gameMap, currentActor, currentPath, cursorCoord, gameStateEpoch));
+
+    // Start actually drawing things. Only the tiles in view that have changed since we last drew them
+    // need redrawing; the rest of mapImage is still good from previous frames.
+    final int minTileX = drawX / drawMultiplier;
+    final int minTileY = drawY / drawMultiplier;
+    final int maxTileX = (drawX + mapViewWidth) / drawMultiplier;
+    final int maxTileY = (drawY + mapViewHeight) / drawMultiplier;
+    profiler.lap(Stage.OVERLAYS);
+    markChangedTiles(gameMap, overlays, actors, animIndex, minTileX, minTileY, maxTileX, maxTileY);
+    profiler.lap(Stage.DIRTY);
+    for( Rectangle tiles : dirtyTiles.takeDirtyRegions(minTileX, minTileY, maxTileX, maxTileY) )
     {
-      SelectedUnitThreatAreaMode threatMode = SpriteOptions.getSelectedUnitThreatAreaMode();
-      for( WeaponModel w : currentActor.model.weapons )
-      {
-        // Display what we can shoot next turn...
-        if( threatMode == SelectedUnitThreatAreaMode.All
-            || threatMode == SelectedUnitThreatAreaMode.Future )
-          overlays.add(new GameOverlay(null,
-                       AICombatUtils.findThreatPower(gameMap, currentActor, cursorCoord, null).keySet(),
-                       OverlayArtist.FIRE_FILL, OverlayArtist.LATER_FIRE_EDGE));
-
-        // ...and this turn's targets on top
-        if( threatMode == SelectedUnitThreatAreaMode.All
-            || threatMode == SelectedUnitThreatAreaMode.Current )
-          if( w.canFireAfterMoving || currentPath.getPathLength() == 1 )
-          {
-            UnitContext uc = new UnitContext(gameMap, currentActor, w, currentPath, cursorCoord);
-            overlays.add(new GameOverlay(null,
-                         Utils.findLocationsInRange(gameMap, cursorCoord,
-                                                    (1 == uc.rangeMin)? 0 : uc.rangeMin, uc.rangeMax),
-                         OverlayArtist.FIRE_FILL, OverlayArtist.NOW_FIRE_EDGE));
-          }
-
-      } // ~per-weapon loop
+      mapGraphics.setClip(tiles.x * drawMultiplier, tiles.y * drawMultiplier, tiles.width * drawMultiplier, tiles.height * drawMultiplier);
+      drawTiles(mapGraphics, gameMap, tiles, overlays, drawX, drawY, null != currentPath, cursorCoord, actors, animIndex);
     }
-    OverlayArtist.drawHighlights(mapGraphics, gameMap, overlays,
-                                 drawX, drawY,
-                                 mapViewWidth, mapViewHeight,
-                                 drawMultiplier,
-                                 null != currentPath, cursorCoord);
+    mapGraphics.setClip(null);
 
-    // Draw icons on top of everything, to make sure they are seen clearly.
-    drawStatusIcons(mapGraphics, gameMap, animIndex);
+    // Everything below is drawn over the top of the map, so keep track of where it goes in order to clean it up next frame.
+    ArrayList<Rectangle> transientTiles = new ArrayList<Rectangle>();
+    final Rectangle viewTiles = new Rectangle(minTileX, minTileY, maxTileX - minTileX + 1, maxTileY - minTileY + 1);
 
     // Draw the movement arrow if the user is contemplating a move/action (but not once the action commences).
     if( null != currentPath )
     {
       mapArtist.drawMovePath(mapGraphics, mapController.getContemplatedMove());
+      for( GamePath.PathNode node : currentPath.getWaypoints() )
+        transientTiles.add(new Rectangle(node.x, node.y, 1, 1));
     }
 
     if( currentAnimation != null && currentAnimation.isMapAnimation() )
     {
+      // The contemplated unit stays on its tile, but event animations could be drawing anywhere.
+      if( currentAnimation == contemplationAnim )
+        transientTiles.add(new Rectangle(actorCoord.xCoord - 1, actorCoord.yCoord - 1, 3, 2));
+      else
+        transientTiles.add(viewTiles);
       renderCurrentAnimation(mapGraphics, notifyOnAnimEnd);
     }
 
@@ -329,15 +380,29 @@ public class SpriteMapView extends MapView
       if( getCurrentGameMenu() == null )
       {
         mapArtist.drawCursor(mapGraphics, currentActor, isTargeting, myGame.getCursorX(), myGame.getCursorY());
+        // The cursor's corners hang off the edges of the tile it's on.
+        SpriteCursor cursor = mapArtist.spriteCursor;
+        if( isTargeting )
+          transientTiles.add(new Rectangle(cursorCoord.xCoord - 1, cursorCoord.yCoord - 1, 3, 3));
+        else
+          transientTiles.add(pixelsToTiles(cursor.getX() - drawMultiplier, cursor.getY() - drawMultiplier,
+                                           cursor.getW() + 2 * drawMultiplier, cursor.getH() + 2 * drawMultiplier));
       }
       else
       {
         menuArtist.drawMenu(mapGraphics, mapViewDrawX.geti(), mapViewDrawY.geti());
+        transientTiles.add(viewTiles);
       }
     }
 
     for( DamagePopup popup : mapController.getDamagePopups() )
-      drawDamagePreview(mapGraphics, popup, gameMap.isLocationEmpty(popup.coords));
+    {
+      Rectangle popupBounds = drawDamagePreview(mapGraphics, popup, gameMap.isLocationEmpty(popup.coords));
+      transientTiles.add(pixelsToTiles(popupBounds.x, popupBounds.y, popupBounds.width, popupBounds.height));
+    }
+    lastTransientTiles = transientTiles;
+    lastCursorFrame = SpriteCursor.getAnimFrame();
+    profiler.lap(Stage.EFFECTS);
 
     // Decide where to draw the map in the window
     int deltaX = 0, deltaY = 0;
@@ -360,8 +425,7 @@ public class SpriteMapView extends MapView
     // Copy the relevant section of the map image onto a screen-sized image buffer.
     Dimension dims = SpriteOptions.getScreenDimensions();
     int drawScale = SpriteOptions.getDrawScale();
-    BufferedImage screenImage = SpriteLibrary.createTransparentSprite(dims.width/drawScale, dims.height/drawScale);
-    Graphics screenGraphics = screenImage.getGraphics();
+    Graphics2D screenGraphics = screenTargets.beginFrame(dims.width/drawScale, dims.height/drawScale);
 
     int drawWidth  = Math.min(mapViewWidth,  mapImage.getWidth());
     int drawHeight = Math.min(mapViewHeight, mapImage.getHeight());
@@ -369,11 +433,14 @@ public class SpriteMapView extends MapView
     // First four coords are the dest x,y,x2,y2. Next four are the source coords.
     screenGraphics.drawImage(mapImage, deltaX, deltaY, (deltaX + drawWidth), (deltaY + drawHeight),
                                        drawX,  drawY,  (drawX  + drawWidth), (drawY  + drawHeight), null);
+    profiler.lap(Stage.COMPOSE);
 
     // Draw the Commander overlay with available funds.
     drawHUD(screenGraphics, showTileDetails);
-
-    return screenImage;
+    profiler.draw(screenGraphics, dims.height / drawScale);
+    profiler.lap(Stage.HUD);
+    screenGraphics.dispose();
+    mapGraphics.dispose();
   }
 
   @Override
@@ -381,11 +448,17 @@ public class SpriteMapView extends MapView
   {
     if( null == currentAnimation || currentAnimation.isMapVisible() )
     {
+      profiler.beginFrame();
       DiagonalBlindsBG.draw(g);
-      BufferedImage screenImage = renderMap();
-      int drawScale = SpriteOptions.getDrawScale();
-      g.drawImage(screenImage, 0, 0, screenImage.getWidth()*drawScale, screenImage.getHeight()*drawScale, null);
+      profiler.lap(Stage.BACKGROUND);
+      renderMap();
+      // If the frame got lost on the way, try again next time.
+      repaintRequested = !screenTargets.drawFrame(g, SpriteOptions.getDrawScale());
+      profiler.lap(Stage.SCALE);
+      profiler.endFrame();
     }
+    else
+      repaintRequested = false;
 
     // Map animations are handled in the map-drawing code. Screen animations are covered here.
     if( null != currentAnimation && !currentAnimation.isMapAnimation() )
@@ -499,27 +572,139 @@ public class SpriteMapView extends MapView
   }
 
   /**
-   * Draws all units and map objects in order from left to right, top to bottom,
+   * Marks the tiles whose terrain, units, overlays or icons may look different than when we last drew them.
+   * Game events mark the whole map via repaintListener; this covers everything that changes in between.
+   */
+  private void markChangedTiles(MapPerspective gameMap, ArrayList<GameOverlay> overlays, ArrayList<Unit> actors, int animIndex,
+                                int minTileX, int minTileY, int maxTileX, int maxTileY)
+  {
+    // A different perspective means different fog.
+    if( gameMap != lastDrawnMap )
+    {
+      dirtyTiles.markAll();
+      lastDrawnMap = gameMap;
+    }
+
+    // Clean up anything we drew over the map last frame.
+    for( Rectangle tiles : lastTransientTiles )
+      dirtyTiles.mark(tiles);
+
+    // Overlays fade in and out, so they are redrawn every frame. Their edges bleed into the next tile over.
+    HashSet<XYCoord> overlayTiles = new HashSet<XYCoord>();
+    for( GameOverlay ov : overlays )
+      overlayTiles.addAll(ov.area);
+    for( XYCoord xyc : lastOverlayTiles )
+      dirtyTiles.mark(xyc.xCoord - 1, xyc.yCoord - 1, xyc.xCoord + 1, xyc.yCoord + 1);
+    for( XYCoord xyc : overlayTiles )
+      dirtyTiles.mark(xyc.xCoord - 1, xyc.yCoord - 1, xyc.xCoord + 1, xyc.yCoord + 1);
+    lastOverlayTiles = overlayTiles;
+
+    // Units that the current animation draws are left off the map, so redraw wherever they come and go.
+    ArrayList<XYCoord> actorTiles = new ArrayList<XYCoord>();
+    if( null != actors )
+      for( Unit actor : actors )
+        if( null != actor )
+          actorTiles.add(new XYCoord(actor.x, actor.y));
+    if( !actorTiles.equals(lastActorTiles) )
+    {
+      for( XYCoord xyc : lastActorTiles )
+        markUnitTiles(xyc.xCoord, xyc.yCoord);
+      for( XYCoord xyc : actorTiles )
+        markUnitTiles(xyc.xCoord, xyc.yCoord);
+      lastActorTiles = actorTiles;
+    }
+
+    // Unit sprites, status icons and marks cycle on the animation timer, and buffed units pulse constantly.
+    HashSet<Army> buffedArmies = new HashSet<Army>();
+    for( Army army : myGame.armies )
+      if( !army.getAbilityText().isEmpty() )
+        buffedArmies.add(army);
+    final boolean animTick = animIndex != lastAnimIndex;
+    lastAnimIndex = animIndex;
+    pulsingUnitsShown = false;
+    if( !animTick && buffedArmies.isEmpty() )
+      return;
+
+    MarkArtist.MarkingCache marks = MarkArtist.MarkingCache.instance(myGame);
+    for( int y = minTileY - 1; y <= maxTileY + 1; ++y )
+      for( int x = minTileX - 1; x <= maxTileX + 1; ++x )
+      {
+        if( !gameMap.isLocationValid(x, y) )
+          continue;
+        if( !gameMap.isLocationEmpty(x, y) )
+        {
+          boolean pulsing = buffedArmies.contains(gameMap.getResident(x, y).CO.army);
+          pulsingUnitsShown |= pulsing;
+          if( animTick || pulsing )
+            markUnitTiles(x, y);
+        }
+        else if( animTick && !marks.getMarks(new XYCoord(x, y)).isEmpty() )
+          dirtyTiles.mark(x, y);
+      }
+  }
+
+  /** Marks a unit's tile, plus the tiles its sprite might hang over. */
+  private void markUnitTiles(int x, int y)
+  {
+    dirtyTiles.mark(x - 1, y - 1, x + 1, y);
+  }
+
+  /**
+   * Draws everything that lives on the map itself (terrain, fog, map objects, units, overlays and icons)
+   * for the given region, in tile units. The caller should clip to the region first, since sprites from
+   * neighboring tiles get drawn as well so that anything overlapping the region is layered correctly.
+   */
+  private void drawTiles(Graphics g, MapPerspective gameMap, Rectangle tiles, ArrayList<GameOverlay> overlays,
+                         int drawX, int drawY, boolean planningMove, XYCoord cursorCoord, ArrayList<Unit> actors, int animIndex)
+  {
+    final int tileSize = SpriteLibrary.baseSpriteSize;
+    final int maxX = tiles.x + tiles.width - 1;
+    final int maxY = tiles.y + tiles.height - 1;
+    mapArtist.drawBaseTerrain(g, gameMap, tiles.x * tileSize, tiles.y * tileSize, tiles.width * tileSize, tiles.height * tileSize);
+    profiler.lap(Stage.TERRAIN);
+
+    // Draw units, buildings, trees, etc. Tall sprites reach up into the row above, so start a little further down.
+    drawUnitsAndMapObjects(g, gameMap, tiles.x - 1, tiles.y - 1, maxX + 1, maxY + 2, actors, animIndex);
+    profiler.lap(Stage.UNITS);
+
+    OverlayArtist.drawHighlights(g, gameMap, overlays,
+                                 drawX, drawY,
+                                 mapViewWidth, mapViewHeight,
+                                 tileSize,
+                                 planningMove, cursorCoord);
+    profiler.lap(Stage.OVERLAYS);
+
+    // Draw icons on top of everything, to make sure they are seen clearly.
+    drawStatusIcons(g, gameMap, tiles.x - 1, tiles.y - 1, maxX + 1, maxY + 1, actors, animIndex);
+    profiler.lap(Stage.ICONS);
+  }
+
+  /** Returns the tiles covered by the given rectangle of map-image pixels. */
+  private static Rectangle pixelsToTiles(int x, int y, int width, int height)
+  {
+    final int tileSize = SpriteLibrary.baseSpriteSize;
+    int minX = Math.floorDiv(x, tileSize);
+    int minY = Math.floorDiv(y, tileSize);
+    int maxX = Math.floorDiv(x + width - 1, tileSize);
+    int maxY = Math.floorDiv(y + height - 1, tileSize);
+    return new Rectangle(minX, minY, maxX - minX + 1, maxY - minY + 1);
+  }
+
+  /**
+   * Draws all units and map objects in the given range of tiles in order from left to right, top to bottom,
    * to ensure that they are layered correctly (near things are drawn on top of far
    * things, and units are drawn on top of terrain objects).
    * NOTE: Does not draw the currently-active unit, if one exists; that will
    * be drawn later so it is more visible, and so it can be animated separately.
    */
-  private void drawUnitsAndMapObjects(Graphics g, GameMap gameMap, int animIndex)
+  private void drawUnitsAndMapObjects(Graphics g, GameMap gameMap, int minX, int minY, int maxX, int maxY,
+                                      ArrayList<Unit> actors, int animIndex)
   {
-    // Draw terrain objects and units in order so they overlap correctly.
-    // Only bother iterating over the visible map space (plus a 2-square border).
-    int drawY = (int) mapViewDrawY.get();
-    int drawX = (int) mapViewDrawX.get();
-    ArrayList<Unit> actors = null;
-    if( null != currentAnimation )
-      actors = currentAnimation.getActors();
-    for( int y = drawY - 1; y < drawY + mapTilesToDrawY + 2; ++y )
+    for( int y = minY; y <= maxY; ++y )
     {
-      for( int x = drawX - 1; x < drawX + mapTilesToDrawX + 2; ++x )
+      for( int x = minX; x <= maxX; ++x )
       {
-        // Since we are trying to draw a ring of objects around the viewable space to
-        // ensure smooth scrolling, make sure we aren't running off the edge of the map.
+        // The range may run off the edge of the map, so make sure we're in bounds.
         if( gameMap.isLocationValid(x, y) )
         {
           // Draw any terrain object here, followed by any unit present (provided it's not under fog).
@@ -539,18 +724,16 @@ public class SpriteMapView extends MapView
   }
 
   /**
-   * Draws unit icons (HP, transport, etc) on top of units.
+   * Draws unit icons (HP, transport, etc) on top of units in the given range of tiles.
    * NOTE: Does not draw the unit icon for the currently-active unit, if
    * one is selected; this must be done separately.
    */
-  public void drawStatusIcons(Graphics g, GameMap gameMap, int animIndex)
+  public void drawStatusIcons(Graphics g, GameMap gameMap, int minX, int minY, int maxX, int maxY,
+                              ArrayList<Unit> actors, int animIndex)
   {
-    ArrayList<Unit> actors = null;
-    if( null != currentAnimation )
-      actors = currentAnimation.getActors();
-    for( int y = 0; y < gameMap.mapHeight; ++y )
+    for( int y = Math.max(0, minY); y <= Math.min(gameMap.mapHeight - 1, maxY); ++y )
     {
-      for( int x = 0; x < gameMap.mapWidth; ++x )
+      for( int x = Math.max(0, minX); x <= Math.min(gameMap.mapWidth - 1, maxX); ++x )
       {
         if( !gameMap.isLocationEmpty(x, y) )
         {
@@ -570,8 +753,9 @@ public class SpriteMapView extends MapView
 
   /**
    * Draws a predicted effect panel; not necessarily damage
+   * @return The area drawn over, in map-image pixels.
    */
-  public void drawDamagePreview(Graphics g, DamagePopup data, boolean spaceEmpty)
+  public Rectangle drawDamagePreview(Graphics g, DamagePopup data, boolean spaceEmpty)
   {
     // Build a display of the expected damage.
     Color[] colors = UIUtils.getMapUnitColors(data.color).paletteColors;
@@ -582,12 +766,19 @@ public class SpriteMapView extends MapView
     int estimateX = (data.coords.xCoord * tileSize) + (tileSize / 2);
     int estimateY = Math.max((data.coords.yCoord * tileSize) - dmgImage.getHeight() / 2, dmgImage.getHeight() / 2); // Don't want it floating off-screen
     SpriteUIUtils.drawImageCenteredOnPoint(g, dmgImage, estimateX, estimateY);
+    // Pad by a pixel to allow for rounding when centering.
+    Rectangle bounds = new Rectangle(estimateX - dmgImage.getWidth() / 2 - 1, estimateY - dmgImage.getHeight() / 2 - 1,
+                                     dmgImage.getWidth() + 2, dmgImage.getHeight() + 2);
 
     if( spaceEmpty && 0 != data.coords.yCoord )
     {
       int arrowY = (data.coords.yCoord * tileSize) + (tileSize / 2) - 1; // break the bottom border of the text frame
-      SpriteUIUtils.drawImageCenteredOnPoint(g, SpriteLibrary.getPreviewArrow(data.color), estimateX, arrowY);
+      BufferedImage arrow = SpriteLibrary.getPreviewArrow(data.color);
+      SpriteUIUtils.drawImageCenteredOnPoint(g, arrow, estimateX, arrowY);
+      bounds.add(new Rectangle(estimateX - arrow.getWidth() / 2 - 1, arrowY - arrow.getHeight() / 2 - 1,
+                               arrow.getWidth() + 2, arrow.getHeight() + 2));
     }
+    return bounds;
   }
 
   /**
@@ -781,9 +972,40 @@ public class SpriteMapView extends MapView
     currentAnimation = new GameEndAnimation(myGame.armies);
   }
 
+  /** Marks the whole map for redrawing whenever something happens in the game. */
+  private static class RepaintListener implements CacheInvalidationListener
+  {
+    private static final long serialVersionUID = 1L;
+    SpriteMapView myView;
+    RepaintListener(SpriteMapView view)
+    {
+      myView = view;
+    }
+
+    @Override
+    public boolean shouldSerialize() { return false; }
+
+    @Override
+    public void InvalidateCache()
+    {
+      myView.dirtyTiles.markAll();
+      myView.repaintRequested = true;
+      myView.gameStateEpoch++;
+    }
+  }
+
   @Override
   public void cleanup()
   {
+    // If we were profiling, save what we saw for later study.
+    if( profiler.getFrameCount() > 0 )
+    {
+      String filename = "profiles/frames_" + new SimpleDateFormat("yyyyMMdd_HHmmss").format(new Date()) + ".csv";
+      profiler.exportCsv(filename);
+    }
+
+    GameEventListener.unregisterEventListener(repaintListener, myGame);
+    repaintListener = null;
     mapArtist.cleanup();
     mapArtist = null;
     unitArtist = null;
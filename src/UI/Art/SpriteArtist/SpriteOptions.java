@@ -22,6 +22,7 @@ public class SpriteOptions
   private static final int DRAWSCALE_DEFAULT = 2;
   private static int drawScale = DRAWSCALE_DEFAULT;
   private static boolean animationsOn = true;
+  private static boolean frameProfilerOn = false;
 
   public enum SelectedUnitThreatAreaMode
   {
@@ -40,7 +41,8 @@ public class SpriteOptions
   private static GameOptionBool animationsOption = new GameOptionBool("Animations", true);
   private static GameOption<SelectedUnitThreatAreaMode> selectedUnitThreatModeOption
           = new GameOption<SelectedUnitThreatAreaMode>("Show selected unit threat", SelectedUnitThreatAreaMode.values(), 0);
-  private static GameOption<?>[] allOptions = { drawScaleOption, animationsOption, selectedUnitThreatModeOption };
+  private static GameOptionBool frameProfilerOption = new GameOptionBool("Frame Profiler", false);
+  private static GameOption<?>[] allOptions = { drawScaleOption, animationsOption, selectedUnitThreatModeOption, frameProfilerOption };
   private static OptionSelector highlightedOption = new OptionSelector(allOptions.length);
   private static SlidingValue animHighlightedOption;
 
@@ -71,6 +73,12 @@ public class SpriteOptions
     return selectedUnitThreatModeOption.getSelectedObject();
   }
 
+  /** Whether to time each stage of drawing the map, and show the results on screen. */
+  public static boolean getFrameProfilerEnabled()
+  {
+    return frameProfilerOn;
+  }
+
   static void initialize()
   {
     template.initialize(allOptions);
@@ -125,6 +133,7 @@ public class SpriteOptions
     // Store the options locally.
     drawScale = drawScaleOption.getSelectedObject();
     animationsOn = animationsOption.getSelectedObject();
+    frameProfilerOn = frameProfilerOption.getSelectedObject();
     saveSettingsToDisk();
 
     // Apply effects.
@@ -167,6 +176,7 @@ public class SpriteOptions
     dimensions.setSize(WINDOWWIDTH_DEFAULT * drawScale, WINDOWHEIGHT_DEFAULT * drawScale);
 
     animationsOn = animationsOption.getSelectedObject();
+    frameProfilerOn = frameProfilerOption.getSelectedObject();
   }
 
   //////////////////////////////////////////////////////////////////////
@@ -302,44 +302,13 @@ public class SpriteUIUtils
   public static void drawText(Graphics g, String text, int x, int y,
       Sprite uppercase, Sprite lowercase, Sprite numbers, Sprite symbols)
   {
-    int menuTextWidth = uppercase.getFrame(0).getWidth();
-    int menuTextHeight = uppercase.getFrame(0).getHeight();
-  
-    for( int i = 0; i < text.length(); ++i, x += menuTextWidth )
-    {
-      char thisChar = text.charAt(i);
-      if( Character.isAlphabetic(thisChar) )
-      {
-        if( Character.isUpperCase(thisChar) )
-        {
-          int letterIndex = thisChar - 'A';
-          g.drawImage(uppercase.getFrame(letterIndex), x, y, menuTextWidth, menuTextHeight, null);
-        }
-        else
-        {
-          int letterIndex = thisChar - 'a';
-          g.drawImage(lowercase.getFrame(letterIndex), x, y, menuTextWidth, menuTextHeight, null);
-        }
-      }
-      else if( Character.isDigit(thisChar) )
-      {
-        int letterIndex = thisChar - '0';
-        g.drawImage(numbers.getFrame(letterIndex), x, y, menuTextWidth, menuTextHeight, null);
-      }
-      else // Assume symbolic
-      {
-        int symbolIndex = SpriteLibrary.charKey.indexOf(text.charAt(i));
-        if( symbolIndex >= 0 )
-        {
-          g.drawImage(symbols.getFrame(symbolIndex), x, y, menuTextWidth, menuTextHeight, null);
-        }
-      }
-    }
+    g.drawImage(TextCache.getSpriteText(text, uppercase, lowercase, numbers, symbols), x, y, null);
   }
 
   /**
    * Returns a BufferedImage containing the contents of `text` rendered on one
    * line in the standard font, on a transparent background, with no scaling applied.
+   * The image is shared with anyone else drawing the same text, so don't draw on it.
    */
   public static BufferedImage getTextAsImage(String text)
   {
@@ -349,41 +318,25 @@ public class SpriteUIUtils
   /**
    * Returns a BufferedImage containing the contents of `text` rendered on one line (in small
    * caps or standard font as specified), on a transparent background, with no scaling applied.
+   * The image is shared with anyone else drawing the same text, so don't draw on it.
    */
   public static BufferedImage getTextAsImage(String text, boolean smallCaps)
   {
-    BufferedImage textImage;
     if(smallCaps)
-    {
-      Sprite letters = SpriteLibrary.getLettersSmallCaps();
-      int width = letters.getFrame(0).getWidth() * text.length();
-      int height = letters.getFrame(0).getHeight();
-      textImage = SpriteLibrary.createTransparentSprite(width, height);
-      drawTextSmallCaps(textImage.getGraphics(), text, 0, 0);
-    }
-    else
-    {
-      PixelFont pf = SpriteLibrary.getFontStandard();
-      int width = pf.getWidth(text);
-      int height = pf.getHeight();
-      textImage = SpriteLibrary.createTransparentSprite(width, height);
-      pf.write(textImage.getGraphics(), text, 0, 0);
-    }
-    return textImage;
+      return TextCache.getSpriteText(text, SpriteLibrary.getLettersSmallCaps(), SpriteLibrary.getLettersSmallCaps(),
+          SpriteLibrary.getNumbersSmallCaps(), SpriteLibrary.getSymbolsSmallCaps());
+    return TextCache.getText(SpriteLibrary.getFontStandard(), text, Color.BLACK);
   }
 
   /**
    * Returns a BufferedImage containing the contents of `text` rendered on one line,
    *  on a transparent background, with no scaling applied.
+   * The image is shared with anyone else drawing the same text, so don't draw on it.
    */
   public static BufferedImage getBoldTextAsImage(String text)
   {
-    Sprite letters = SpriteLibrary.getMapUnitLetterSprites();
-    int width = letters.getFrame(0).getWidth() * text.length();
-    int height = letters.getFrame(0).getHeight();
-    BufferedImage textImage = SpriteLibrary.createTransparentSprite(width, height);
-    drawBoldText(textImage.getGraphics(), text, 0, 0);
-    return textImage;
+    return TextCache.getSpriteText(text, SpriteLibrary.getMapUnitLetterSprites(), SpriteLibrary.getMapUnitLetterSprites(),
+        SpriteLibrary.getMapUnitNumberSprites(), SpriteLibrary.getMapUnitSymbolSprites());
   }
 
   /**
@@ -54,8 +54,8 @@ public class TerrainSpriteSet
   private static final short SE = 18;
   private static final short SW = 19;
 
-  private static Map<TerrainType, TerrainType> terrainBases = null;
-  private static Set<TerrainType> terrainObjects = null;
+  private static volatile Map<TerrainType, TerrainType> terrainBases = null;
+  private static volatile Set<TerrainType> terrainObjects = null;
 
   private static Color backupSnowOverlayColor = new Color(240, 243, 219, 100);
   private static Color backupRainOverlayColor = new Color(10, 35, 73, 100);
@@ -93,7 +93,8 @@ public class TerrainSpriteSet
     drawOffsety = spriteHeight / SpriteLibrary.baseSpriteSize - 1;
   }
 
-  private ArrayList<Sprite> getSpritesByWeather(Weathers weather)
+  // Minimaps are drawn in the background (see MiniMapThumbnails), so building sprites has to be safe to do from two threads.
+  private synchronized ArrayList<Sprite> getSpritesByWeather(Weathers weather)
   {
     // If we already built the sprite, just return it.
     ArrayList<Sprite> sprites = terrainSprites.get(weather);
@@ -139,6 +140,7 @@ public class TerrainSpriteSet
         weatherSprites.add(sprite);
       }
       // Put our shiny new sprites in the map for future reference.
+      packIntoAtlas(weatherSprites);
       terrainSprites.put(weather, weatherSprites);
       return weatherSprites;
     }
@@ -150,6 +152,7 @@ public class TerrainSpriteSet
       System.out.println("WARNING! Continuing with placeholder images.");
       // Create a new blank sprite image of the desired size.
       spriteArray.add(new Sprite(null, spriteWidth, spriteHeight));
+      packIntoAtlas(spriteArray);
       terrainSprites.put(weather, spriteArray);
     }
     else
@@ -216,6 +219,7 @@ public class TerrainSpriteSet
           sprite.colorize(UIUtils.defaultMapColors, UIUtils.getBuildingColors(myTeamColor).paletteColors);
       }
 
+      packIntoAtlas(spriteArray);
       terrainSprites.put(weather, spriteArray);
       if( logDetails )
         System.out.println("INFO: Loaded " + (isTransition? "transition " : "") + "sprites for " + myTerrainType + ", " + weather + ".");
@@ -314,10 +318,12 @@ public class TerrainSpriteSet
       short dirIndex = getTileImageIndex(map, x, y, assumeSameTileType);
 
       // Draw the current tile.
+      int drawX = (x - drawOffsetx) * tileSize;
+      int drawY = (y - drawOffsety) * tileSize;
       BufferedImage frame = clearSprites.get(dirIndex).getFrame(variation);
       if( dirIndex != 0 || !isTransition ) // Don't bother drawing transition tiles with no transitions.
       {
-        g.drawImage(frame, (x - drawOffsetx) * tileSize, (y - drawOffsety) * tileSize, frame.getWidth(), frame.getHeight(), null);
+        clearSprites.get(dirIndex).drawFrame(g, variation, drawX, drawY);
       }
 
       // Handle drawing corner-case tile variations if needed.
@@ -326,23 +332,19 @@ public class TerrainSpriteSet
         // If we didn't have a N or W transition, then look in the NW position
         if( (dirIndex & (NORTH | WEST)) == 0 && checkTileType(map, x - 1, y - 1, assumeSameTileType) )
         {
-          g.drawImage(clearSprites.get(NW).getFrame(variation), (x - drawOffsetx) * tileSize, (y - drawOffsety) * tileSize,
-              frame.getWidth(), frame.getHeight(), null);
+          clearSprites.get(NW).drawFrame(g, variation, drawX, drawY, frame.getWidth(), frame.getHeight());
         }
         if( (dirIndex & (NORTH | EAST)) == 0 && checkTileType(map, x + 1, y - 1, assumeSameTileType) )
         {
-          g.drawImage(clearSprites.get(NE).getFrame(variation), (x - drawOffsetx) * tileSize, (y - drawOffsety) * tileSize,
-              frame.getWidth(), frame.getHeight(), null);
+          clearSprites.get(NE).drawFrame(g, variation, drawX, drawY, frame.getWidth(), frame.getHeight());
         }
         if( (dirIndex & (SOUTH | EAST)) == 0 && checkTileType(map, x + 1, y + 1, assumeSameTileType) )
         {
-          g.drawImage(clearSprites.get(SE).getFrame(variation), (x - drawOffsetx) * tileSize, (y - drawOffsety) * tileSize,
-              frame.getWidth(), frame.getHeight(), null);
+          clearSprites.get(SE).drawFrame(g, variation, drawX, drawY, frame.getWidth(), frame.getHeight());
         }
         if( (dirIndex & (SOUTH | WEST)) == 0 && checkTileType(map, x - 1, y + 1, assumeSameTileType) )
         {
-          g.drawImage(clearSprites.get(SW).getFrame(variation), (x - drawOffsetx) * tileSize, (y - drawOffsety) * tileSize,
-              frame.getWidth(), frame.getHeight(), null);
+          clearSprites.get(SW).drawFrame(g, variation, drawX, drawY, frame.getWidth(), frame.getHeight());
         }
       }
 
@@ -360,10 +362,10 @@ public class TerrainSpriteSet
         if( (null == fogTerrainSprites) || (FOG_COLOR != myFogColor) )
         {
           fogTerrainSprites = buildSpriteMasks(FOG_COLOR);
+          packIntoAtlas(fogTerrainSprites);
           myFogColor = FOG_COLOR;
         }
-        BufferedImage fogFrame = fogTerrainSprites.get(dirIndex).getFrame(variation);
-        g.drawImage(fogFrame, (x - drawOffsetx) * tileSize, (y - drawOffsety) * tileSize, frame.getWidth(), frame.getHeight(), null);
+        fogTerrainSprites.get(dirIndex).drawFrame(g, variation, drawX, drawY, frame.getWidth(), frame.getHeight());
       }
     }
   }
@@ -407,7 +409,8 @@ public class TerrainSpriteSet
   {
     if( null == terrainObjects )
     {
-      terrainObjects = new HashSet<TerrainType>();
+      // Fill in a new set and only then share it, so other threads never see it half-built.
+      Set<TerrainType> terrainObjects = new HashSet<TerrainType>();
       terrainObjects.add(TerrainType.BUNKER);
       terrainObjects.add(TerrainType.CITY);
       terrainObjects.add(TerrainType.FACTORY);
@@ -421,6 +424,7 @@ public class TerrainSpriteSet
       terrainObjects.add(TerrainType.MOUNTAIN);
       terrainObjects.add(TerrainType.PILLAR);
       terrainObjects.add(TerrainType.METEOR);
+      TerrainSpriteSet.terrainObjects = terrainObjects;
     }
     return terrainObjects.contains(terrainType);
   }
@@ -482,7 +486,8 @@ public class TerrainSpriteSet
   {
     if( null == terrainBases )
     {
-      terrainBases = new HashMap<TerrainType, TerrainType>();
+      // Fill in a new map and only then share it, so other threads never see it half-built.
+      Map<TerrainType, TerrainType> terrainBases = new HashMap<TerrainType, TerrainType>();
       terrainBases.put(TerrainType.CITY, TerrainType.ROAD);
       terrainBases.put(TerrainType.DUNES, TerrainType.GRASS);
       terrainBases.put(TerrainType.FACTORY, TerrainType.ROAD);
@@ -513,6 +518,7 @@ public class TerrainSpriteSet
       {
         throw new RuntimeException("TerrainSpriteSet.terrainBases does not align with TerrainType.TerrainTypeList!");
       }
+      TerrainSpriteSet.terrainBases = terrainBases;
     }
 
     return terrainBases.get(terrain);
@@ -530,6 +536,13 @@ public class TerrainSpriteSet
     FOG_COLOR = color;
   }
 
+  /** Finished tile sprites go into the shared terrain atlas, so tiles draw from a few big images. */
+  private static void packIntoAtlas(ArrayList<Sprite> sprites)
+  {
+    for( Sprite sprite : sprites )
+      sprite.packInto(SpriteLibrary.terrainAtlas);
+  }
+
   /** Build a set of fog-colored image masks so we can draw precise fog effects. */
   private ArrayList<Sprite> buildSpriteMasks(Color maskColor)
   {
@@ -0,0 +1,204 @@
+package UI.Art.SpriteArtist;
+
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.image.BufferedImage;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps rendered lines of text around, so the HUD and menus don't have to draw the same strings glyph by glyph every frame.
+ * Each glyph is drawn once per font and color into SpriteLibrary.glyphAtlas, and strings are put together from those.
+ * The most recently used strings are kept; the rest are dropped once there are too many.
+ * Images handed out are shared, so callers must not draw into them.
+ */
+class TextCache
+{
+  private static final int MAX_STRINGS = 512;
+
+  /** A font, plus the color to draw it in (null for sprite fonts, which come in their own colors). */
+  private static class FontKey
+  {
+    final Object font;
+    final Color color;
+
+    FontKey(Object font, Color color)
+    {
+      this.font = font;
+      this.color = color;
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return font.hashCode() * 31 + Objects.hashCode(color);
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+      if( !(obj instanceof FontKey) )
+        return false;
+      FontKey other = (FontKey) obj;
+      return font.equals(other.font) && Objects.equals(color, other.color);
+    }
+  }
+
+  private static class TextKey
+  {
+    final String text;
+    final FontKey font;
+
+    TextKey(String text, FontKey font)
+    {
+      this.text = text;
+      this.font = font;
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return text.hashCode() * 31 + font.hashCode();
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+      if( !(obj instanceof TextKey) )
+        return false;
+      TextKey other = (TextKey) obj;
+      return text.equals(other.text) && font.equals(other.font);
+    }
+  }
+
+  private static final LinkedHashMap<TextKey, BufferedImage> strings = new LinkedHashMap<TextKey, BufferedImage>(MAX_STRINGS, 0.75f, true)
+  {
+    private static final long serialVersionUID = 1L;
+
+    @Override
+    protected boolean removeEldestEntry(Map.Entry<TextKey, BufferedImage> eldest)
+    {
+      return size() > MAX_STRINGS;
+    }
+  };
+  private static final HashMap<FontKey, HashMap<Character, SpriteAtlas.Region>> fontGlyphs = new HashMap<FontKey, HashMap<Character, SpriteAtlas.Region>>();
+  private static final HashMap<Sprite, SpriteAtlas.Region[]> spriteGlyphs = new HashMap<Sprite, SpriteAtlas.Region[]>();
+
+  /**
+   * @return An image of text written in font, the same size as the font says the text is.
+   */
+  public static synchronized BufferedImage getText(PixelFont font, String text, Color color)
+  {
+    TextKey key = new TextKey(text, new FontKey(font, color));
+    BufferedImage image = strings.get(key);
+    if( null == image )
+    {
+      image = SpriteLibrary.createTransparentSprite(Math.max(1, font.getWidth(text)), font.getHeight());
+      Graphics g = image.getGraphics();
+      HashMap<Character, SpriteAtlas.Region> glyphs = fontGlyphs.get(key.font);
+      if( null == glyphs )
+      {
+        glyphs = new HashMap<Character, SpriteAtlas.Region>();
+        fontGlyphs.put(key.font, glyphs);
+      }
+
+      // The font is drawn without kerning or fractional widths, so each glyph starts where the last one's width ends.
+      final int pad = font.emSizePx;
+      int x = 0;
+      for( int i = 0; i < text.length(); ++i )
+      {
+        char c = text.charAt(i);
+        SpriteAtlas.Region glyph = glyphs.get(c);
+        if( null == glyph )
+        {
+          glyph = packGlyph(renderGlyph(font, c, color, pad));
+          glyphs.put(c, glyph);
+        }
+        glyph.draw(g, x - pad, 0, glyph.width, glyph.height);
+        x += font.getWidth(c);
+      }
+      g.dispose();
+      strings.put(key, image);
+    }
+    return image;
+  }
+
+  /** Draws c with room to spare on either side, in case it hangs past its width. */
+  private static BufferedImage renderGlyph(PixelFont font, char c, Color color, int pad)
+  {
+    BufferedImage glyph = SpriteLibrary.createTransparentSprite(font.getWidth(c) + pad * 2, font.getHeight());
+    Graphics g = glyph.getGraphics();
+    g.setFont(font.font);
+    g.setColor(color);
+    g.drawString(String.valueOf(c), pad, font.getAscent());
+    g.dispose();
+    return glyph;
+  }
+
+  private static SpriteAtlas.Region packGlyph(BufferedImage glyph)
+  {
+    SpriteAtlas.Region region = SpriteLibrary.glyphAtlas.add(glyph);
+    if( null == region ) // Too big to pack; just point at the glyph itself.
+      region = new SpriteAtlas.Region(glyph, 0, 0, glyph.getWidth(), glyph.getHeight());
+    return region;
+  }
+
+  /**
+   * @return An image of text written in the given sprite font, with each character the size of uppercase's first frame.
+   * Characters that aren't letters, digits or one of SpriteLibrary.charKey are left blank.
+   */
+  public static synchronized BufferedImage getSpriteText(String text, Sprite uppercase, Sprite lowercase, Sprite numbers, Sprite symbols)
+  {
+    List<Sprite> font = Arrays.asList(uppercase, lowercase, numbers, symbols);
+    TextKey key = new TextKey(text, new FontKey(font, null));
+    BufferedImage image = strings.get(key);
+    if( null == image )
+    {
+      int menuTextWidth = uppercase.getFrame(0).getWidth();
+      int menuTextHeight = uppercase.getFrame(0).getHeight();
+      image = SpriteLibrary.createTransparentSprite(Math.max(1, menuTextWidth * text.length()), menuTextHeight);
+      Graphics g = image.getGraphics();
+      for( int i = 0, x = 0; i < text.length(); ++i, x += menuTextWidth )
+      {
+        char thisChar = text.charAt(i);
+        if( Character.isAlphabetic(thisChar) )
+        {
+          if( Character.isUpperCase(thisChar) )
+            getSpriteGlyph(uppercase, thisChar - 'A').draw(g, x, 0, menuTextWidth, menuTextHeight);
+          else
+            getSpriteGlyph(lowercase, thisChar - 'a').draw(g, x, 0, menuTextWidth, menuTextHeight);
+        }
+        else if( Character.isDigit(thisChar) )
+          getSpriteGlyph(numbers, thisChar - '0').draw(g, x, 0, menuTextWidth, menuTextHeight);
+        else // Assume symbolic
+        {
+          int symbolIndex = SpriteLibrary.charKey.indexOf(thisChar);
+          if( symbolIndex >= 0 )
+            getSpriteGlyph(symbols, symbolIndex).draw(g, x, 0, menuTextWidth, menuTextHeight);
+        }
+      }
+      g.dispose();
+      strings.put(key, image);
+    }
+    return image;
+  }
+
+  /** @return The atlas copy of the given frame of sprite, packing all of its frames the first time it's used. */
+  private static SpriteAtlas.Region getSpriteGlyph(Sprite sprite, int index)
+  {
+    SpriteAtlas.Region[] glyphs = spriteGlyphs.get(sprite);
+    if( null == glyphs )
+    {
+      glyphs = new SpriteAtlas.Region[sprite.numFrames()];
+      for( int i = 0; i < glyphs.length; ++i )
+        glyphs[i] = packGlyph(sprite.getFrame(i));
+      spriteGlyphs.put(sprite, glyphs);
+    }
+    index %= glyphs.length;
+    return glyphs[(index < 0) ? index + glyphs.length : index];
+  }
+}
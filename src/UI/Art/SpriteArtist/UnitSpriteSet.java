@@ -38,22 +38,43 @@ public class UnitSpriteSet
   }
 
   /**
-   * Fetch a sprite sheet for each animation state and colorize it
+   * Fetch a sprite sheet for each animation state and colorize it.
+   * If we've built this set before from the same source images, it's loaded from the SpriteCache instead.
    * @param fileFinder Mapping from action type to file name
    * @param coColors What colors the end sprites should use
    */
   public UnitSpriteSet(String unitType, Faction faction, ColorPalette coColors)
+  {
+    // Create a filename string template to fetch all relevant animations.
+    String filenameTemplate = getMapUnitSpriteFilenameTemplate(unitType, faction);
+    String[] sheetFiles = new String[AnimState.values().length];
+    for( int action = 0; action < AnimState.values().length; ++action )
+    {
+      // Get the filename for this animation state.
+      sheetFiles[action] = String.format(filenameTemplate, UnitModel.standardizeID(AnimState.values()[action].toString()));
+    }
+
+    String cacheKey = String.format("%s_%s_%08x", UnitModel.standardizeID(unitType), faction.name,
+        Arrays.hashCode(UIUtils.defaultMapColors) * 31 + Arrays.hashCode(coColors.paletteColors));
+    long sourceStamp = SpriteCache.stampFiles(sheetFiles);
+    if( !loadFromCache(cacheKey, sourceStamp) )
+    {
+      buildSprites(sheetFiles, coColors);
+      saveToCache(cacheKey, sourceStamp);
+    }
+
+    for( Sprite s : sprites )
+      s.packInto(SpriteLibrary.unitAtlas);
+    buffMask.packInto(SpriteLibrary.unitAtlas);
+  }
+
+  private void buildSprites(String[] sheetFiles, ColorPalette coColors)
   {
     try
     {
-      // Create a filename string template to fetch all relevant animations.
-      String filenameTemplate = getMapUnitSpriteFilenameTemplate(unitType, faction);
       for( int action = 0; action < AnimState.values().length; ++action )
       {
-        // Get the filename for this animation state.
-        String fileStr = String.format(filenameTemplate, UnitModel.standardizeID(AnimState.values()[action].toString()));
-
-        BufferedImage spriteSheet = SpriteLibrary.loadSpriteSheetFile(fileStr);
+        BufferedImage spriteSheet = SpriteLibrary.loadSpriteSheetFile(sheetFiles[action]);
         if( null != spriteSheet )
         {
           // Assume sub-sprites are squares that fill out the height of the source image
@@ -124,6 +145,36 @@ public class UnitSpriteSet
     buffMask.convertToInverseBrightnessMask(new Color(255, 255, 255, 255));
   }
 
+  /** Sprites are saved in AnimState order, with the buff mask last. Flags record which states can't be flipped. */
+  private boolean loadFromCache(String cacheKey, long sourceStamp)
+  {
+    SpriteCache.Entry entry = SpriteCache.read(cacheKey, sourceStamp);
+    if( null == entry || entry.sprites.length != sprites.length + 1 )
+      return false;
+    for( Sprite s : entry.sprites )
+      if( null == s )
+        return false;
+
+    for( int action = 0; action < sprites.length; ++action )
+      sprites[action] = entry.sprites[action];
+    buffMask = entry.sprites[sprites.length];
+    unFlippableStates.clear();
+    for( AnimState state : AnimState.values() )
+      if( 0 != (entry.flags & (1 << state.ordinal())) )
+        unFlippableStates.add(state);
+    return true;
+  }
+
+  private void saveToCache(String cacheKey, long sourceStamp)
+  {
+    Sprite[] toSave = Arrays.copyOf(sprites, sprites.length + 1);
+    toSave[sprites.length] = buffMask;
+    int flags = 0;
+    for( AnimState state : unFlippableStates )
+      flags |= 1 << state.ordinal();
+    SpriteCache.write(cacheKey, sourceStamp, flags, toSave);
+  }
+
   /**
    * Find the IDLE map-sprite file for the given unit type, as owned by the specified faction.
    * If the specified faction has no sprite for that unit, it will try to load it from that faction's
@@ -200,32 +251,31 @@ public class UnitSpriteSet
       }
     }
 
-    BufferedImage frame = getUnitImage(state, imageIndex);
-    BufferedImage buffFrame = drawBuff ? buffMask.getFrame(imageIndex) : null;
+    Sprite sprite = sprites[state.ordinal()];
+    BufferedImage frame = sprite.getFrame(imageIndex);
     int shiftX =(SpriteLibrary.baseSpriteSize - frame.getWidth())/2; // center X
     int shiftY = SpriteLibrary.baseSpriteSize - frame.getHeight(); // bottom-justify Y
 
     // Draw the unit, facing the appropriate direction.
     if( flipImage && isStateFlippable(state) )
     {
-      g2d.drawImage(frame, drawX - shiftX + (frame.getWidth()), drawY + shiftY, -frame.getWidth(), frame.getHeight(), null);
+      sprite.drawFrame(g2d, imageIndex, drawX - shiftX + (frame.getWidth()), drawY + shiftY, -frame.getWidth(), frame.getHeight());
       if( drawBuff )
       {
         // Draw the buff overlay and reset the graphics composite.
         g2d.setComposite(buffComposite);
-        g2d.drawImage(buffFrame, drawX - shiftX + (buffFrame.getWidth()),
-            drawY + shiftY, -buffFrame.getWidth(), buffFrame.getHeight(), null);
+        buffMask.drawFrame(g2d, imageIndex, drawX - shiftX + (frame.getWidth()), drawY + shiftY, -frame.getWidth(), frame.getHeight());
         g2d.setComposite(oldComposite);
       }
     }
     else
     {
-      g2d.drawImage(frame, drawX + shiftX, drawY + shiftY, frame.getWidth(), frame.getHeight(), null);
+      sprite.drawFrame(g2d, imageIndex, drawX + shiftX, drawY + shiftY);
       if( drawBuff )
       {
         // Draw the buff overlay and reset the graphics composite.
         g2d.setComposite(buffComposite);
-        g2d.drawImage(buffFrame, drawX + shiftX, drawY + shiftY, buffFrame.getWidth(), buffFrame.getHeight(), null);
+        buffMask.drawFrame(g2d, imageIndex, drawX + shiftX, drawY + shiftY);
         g2d.setComposite(oldComposite);
       }
     }
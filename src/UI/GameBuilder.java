@@ -3,6 +3,8 @@ package UI;
 import java.util.ArrayList;
 import java.util.Arrays;
 
+import AI.AIController;
+import AI.AITimeBudget;
 import CommandingOfficers.Commander;
 import CommandingOfficers.CommanderInfo;
 import Engine.Army;
@@ -53,7 +55,13 @@ public class GameBuilder
       armies[i] = new Army(scenario);
       armies[i].cos = playerInfos[i].makeCommanders(scenario.rules);
       armies[i].team = playerInfos[i].currentTeam;
-      armies[i].setAIController(playerInfos[i].getCurrentAI().create(armies[i]));
+      AIController ai = playerInfos[i].getCurrentAI().create(armies[i]);
+      if( null != ai )
+      {
+        AITimeBudget.Preset budget = playerInfos[i].getCurrentAIBudget();
+        ai.setTimeBudget(budget.actionMillis, budget.turnMillis);
+      }
+      armies[i].setAIController(ai);
     }
 
     // Build the CO list and the new map and create the game instance.
@@ -2,6 +2,8 @@ package UI;
 
 import java.awt.Color;
 import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.Set;
@@ -18,6 +20,8 @@ public class GameOverlay implements Serializable
   public Set<XYCoord> area = new HashSet<XYCoord>();
   public Color fill = Color.white, edge = Color.black;
 
+  private transient Outline outline;
+
   public GameOverlay() {}
 
   public GameOverlay(XYCoord origin, Collection<XYCoord> area, Color fill, Color edge)
@@ -28,4 +32,118 @@ public class GameOverlay implements Serializable
     this.fill = fill;
     this.edge = edge;
   }
+
+  /**
+   * @return The shape of this overlay's area, built the first time it's asked for.
+   * Don't change area after calling this; the outline won't notice.
+   */
+  public Outline getOutline()
+  {
+    if( null == outline )
+      outline = new Outline(area);
+    return outline;
+  }
+
+  /**
+   * The tiles an overlay covers, plus the edges around them, merged into runs so they can be drawn with
+   * a few long rectangles instead of one per tile side. Two outlines are equal if they cover the same tiles.
+   */
+  public static class Outline
+  {
+    /** Bounding box of the area, in tiles. */
+    public final int minX, minY, width, height;
+    private final BitSet tiles;
+    private final int hash;
+
+    /** Rows of covered tiles, each {x, y, length}, running right from tile (x, y). */
+    public final ArrayList<int[]> fills = new ArrayList<int[]>();
+    /** Edges along horizontal grid lines, each {x, y, length}, running right from the top-left corner of tile (x, y). */
+    public final ArrayList<int[]> horizontalEdges = new ArrayList<int[]>();
+    /** Edges along vertical grid lines, each {x, y, length}, running down from the top-left corner of tile (x, y). */
+    public final ArrayList<int[]> verticalEdges = new ArrayList<int[]>();
+
+    Outline(Collection<XYCoord> area)
+    {
+      int loX = Integer.MAX_VALUE, loY = Integer.MAX_VALUE, hiX = Integer.MIN_VALUE, hiY = Integer.MIN_VALUE;
+      for( XYCoord xyc : area )
+      {
+        loX = Math.min(loX, xyc.xCoord);
+        loY = Math.min(loY, xyc.yCoord);
+        hiX = Math.max(hiX, xyc.xCoord);
+        hiY = Math.max(hiY, xyc.yCoord);
+      }
+      if( area.isEmpty() )
+      {
+        loX = loY = 0;
+        hiX = hiY = -1;
+      }
+      minX = loX;
+      minY = loY;
+      width = hiX - loX + 1;
+      height = hiY - loY + 1;
+      tiles = new BitSet(width * height);
+      for( XYCoord xyc : area )
+        tiles.set((xyc.yCoord - minY) * width + xyc.xCoord - minX);
+      hash = (minX * 31 + minY) * 31 * 31 + width * 31 + height + tiles.hashCode() * 17;
+
+      for( int y = minY; y < minY + height; ++y )
+        addRuns(fills, minX, y, width, 1, 0, 0, 0, true);
+      // There's an edge wherever the tiles on either side of a grid line disagree about being covered.
+      for( int y = minY; y <= minY + height; ++y )
+        addRuns(horizontalEdges, minX, y, width, 1, 0, 0, -1, false);
+      for( int x = minX; x <= minX + width; ++x )
+        addRuns(verticalEdges, x, minY, height, 0, 1, -1, 0, false);
+    }
+
+    /**
+     * Walks length tiles from (x, y) in steps of (dx, dy), collecting runs where the tile is covered (if fillRuns),
+     * or where the tile and its neighbor at offset (nx, ny) differ (otherwise).
+     */
+    private void addRuns(ArrayList<int[]> runs, int x, int y, int length, int dx, int dy, int nx, int ny, boolean fillRuns)
+    {
+      int runStart = -1;
+      for( int i = 0; i <= length; ++i )
+      {
+        int tx = x + i * dx, ty = y + i * dy;
+        boolean inRun = i < length && (fillRuns ? contains(tx, ty) : contains(tx, ty) != contains(tx + nx, ty + ny));
+        if( inRun && runStart < 0 )
+          runStart = i;
+        if( !inRun && runStart >= 0 )
+        {
+          runs.add(new int[] { x + runStart * dx, y + runStart * dy, i - runStart });
+          runStart = -1;
+        }
+      }
+    }
+
+    public boolean contains(int x, int y)
+    {
+      if( x < minX || y < minY || x >= minX + width || y >= minY + height )
+        return false;
+      return tiles.get((y - minY) * width + x - minX);
+    }
+
+    public boolean isEmpty()
+    {
+      return tiles.isEmpty();
+    }
+
+    @Override
+    public int hashCode()
+    {
+      return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj)
+    {
+      if( this == obj )
+        return true;
+      if( !(obj instanceof Outline) )
+        return false;
+      Outline other = (Outline) obj;
+      return hash == other.hash && minX == other.minX && minY == other.minY
+          && width == other.width && height == other.height && tiles.equals(other.tiles);
+    }
+  }
 }
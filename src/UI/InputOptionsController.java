@@ -23,7 +23,11 @@ public class InputOptionsController implements IController
   public static GameOptionBool seekBuildingsLastOption = new GameOptionBool("Seek Units First", true);
   public static GameOption<HideAbilityPreviews> previewFogPowersOption
                            = new GameOption<HideAbilityPreviews>("Hide Ability Previews", HideAbilityPreviews.values(), 2);
-  public static GameOption<?>[] allOptions = { seekBuildingsLastOption, previewFogPowersOption };
+  /** Lets the AIs score their candidate moves on several threads; see AI.ParallelScoring. */
+  public static GameOptionBool parallelAIOption = new GameOptionBool("Parallel AI", false);
+  /** Has the AIs trace their reasoning, and writes each AI turn's trace out under traces/; see AI.AITrace. */
+  public static GameOptionBool aiTraceOption = new GameOptionBool("AI Trace", false);
+  public static GameOption<?>[] allOptions = { seekBuildingsLastOption, previewFogPowersOption, parallelAIOption, aiTraceOption };
   public static OptionSelector actionCommandSelector = new OptionSelector( allOptions.length );
 
   static
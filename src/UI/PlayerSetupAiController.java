@@ -4,6 +4,7 @@ import java.util.ArrayList;
 
 import AI.AILibrary;
 import AI.AIMaker;
+import AI.AITimeBudget;
 import Engine.IController;
 import Engine.OptionSelector;
 import UI.InputHandler.InputAction;
@@ -13,6 +14,7 @@ public class PlayerSetupAiController implements IController
   PlayerSetupInfo myPlayerInfo;
   ArrayList<AIMaker> aiMakers;
   OptionSelector aiSelector;
+  OptionSelector budgetSelector;
 
   public PlayerSetupAiController(PlayerSetupInfo playerInfo)
   {
@@ -20,6 +22,8 @@ public class PlayerSetupAiController implements IController
     aiMakers = AILibrary.getAIList();
     aiSelector = new OptionSelector(aiMakers.size());
     aiSelector.setSelectedOption(myPlayerInfo.currentAi);
+    budgetSelector = new OptionSelector(AITimeBudget.Preset.values().length);
+    budgetSelector.setSelectedOption(myPlayerInfo.currentAiBudget);
   }
 
   @Override
@@ -31,19 +35,23 @@ public class PlayerSetupAiController implements IController
       case SELECT:
         // Apply changes and return control.
         myPlayerInfo.currentAi = aiSelector.getSelectionNormalized();
+        myPlayerInfo.currentAiBudget = budgetSelector.getSelectionNormalized();
         done = true;
         break;
       case UP:
       case DOWN:
         aiSelector.handleInput(action);
         break;
+      case LEFT:
+      case RIGHT:
+        // Pick how long the AI may think.
+        budgetSelector.handleInput(action);
+        break;
       case BACK:
         // Cancel: return control without applying changes.
         done = true;
         break;
       case SEEK:
-      case LEFT:
-      case RIGHT:
       default:
         // Do nothing.
     }
@@ -54,4 +62,9 @@ public class PlayerSetupAiController implements IController
   {
     return aiSelector.getSelectionNormalized();
   }
+
+  public AITimeBudget.Preset getSelectedBudget()
+  {
+    return AITimeBudget.Preset.values()[budgetSelector.getSelectionNormalized()];
+  }
 }
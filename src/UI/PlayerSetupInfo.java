@@ -4,6 +4,7 @@ import java.awt.Color;
 import java.util.ArrayList;
 
 import AI.AIMaker;
+import AI.AITimeBudget;
 import CommandingOfficers.Commander;
 import CommandingOfficers.CommanderInfo;
 import Engine.GameScenario;
@@ -26,6 +27,7 @@ public class PlayerSetupInfo
   public boolean flipUnits;
   public int currentTeam;
   public int currentAi;
+  public int currentAiBudget;
 
   @Override
   public String toString()
@@ -44,7 +46,7 @@ public class PlayerSetupInfo
       factions.append(deets.faction).append(" ");
     }
 
-    return String.format("%s %s %s %s %s %s %s", coCount, coString, colors, factions, flipUnits, currentTeam, currentAi);
+    return String.format("%s %s %s %s %s %s %s %s", coCount, coString, colors, factions, flipUnits, currentTeam, currentAi, currentAiBudget);
   }
   /** Initializes based on the schema defined by the toString() method above */
   public void initFromString(String input)
@@ -86,6 +88,8 @@ public class PlayerSetupInfo
       currentTeam = Integer.valueOf(s[si++]);
     if( s.length > si )
       currentAi = Integer.valueOf(s[si++]) % availableAis.length;
+    if( s.length > si )
+      currentAiBudget = Integer.valueOf(s[si++]) % AITimeBudget.Preset.values().length;
   }
 
   private final CommanderInfo[] availableCommanders;
@@ -189,4 +193,9 @@ public class PlayerSetupInfo
   {
     return availableAis[currentAi];
   }
+
+  public AITimeBudget.Preset getCurrentAIBudget()
+  {
+    return AITimeBudget.Preset.values()[currentAiBudget];
+  }
 }
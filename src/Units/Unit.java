@@ -244,6 +244,51 @@ public class Unit extends UnitState implements UnitModList
   }
 
 
+  /**
+   * Remembers everything about a unit that GameEvents can change: its state, cargo, position,
+   * owner, and where it sits in its CO's unit list. restore() puts it all back.
+   * This only covers the unit itself; the map tiles it left or entered need recording separately.
+   */
+  public static class Snapshot extends UnitState
+  {
+    private static final long serialVersionUID = 1L;
+    private final Unit unit;
+    private final int x, y;
+    private final boolean stunned;
+    private final int rosterIndex;
+
+    public Snapshot(Unit unit)
+    {
+      super(unit);
+      this.unit = unit;
+      x = unit.x;
+      y = unit.y;
+      stunned = unit.isStunned;
+      rosterIndex = unit.CO.units.indexOf(unit);
+    }
+
+    public void restore()
+    {
+      if( unit.CO != CO || unit.CO.units.indexOf(unit) != rosterIndex )
+      {
+        unit.CO.units.remove(unit);
+        if( rosterIndex >= 0 )
+          CO.units.add(Math.min(rosterIndex, CO.units.size()), unit);
+      }
+      unit.CO = CO;
+      unit.model = model;
+      unit.isTurnOver = isTurnOver;
+      unit.isStunned = stunned;
+      unit.copyUnitState(this);
+      unit.captureProgress = captureProgress;
+      unit.captureTarget = captureTarget;
+      unit.heldUnits.clear();
+      unit.heldUnits.addAll(heldUnits);
+      unit.x = x;
+      unit.y = y;
+    }
+  }
+
   private final ArrayList<UnitModifier> unitMods = new ArrayList<>();
   @Override
   public List<UnitModifier> getModifiers()
@@ -206,7 +206,7 @@ public abstract class UnitState implements Serializable
   {
     boolean success = false;
 
-    if( target != captureTarget )
+    if( !target.equals(captureTarget) )
     {
       captureTarget = target;
       captureProgress = 0;